@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.oxygenxml.git.auth.AuthenticationInterceptor;
+import com.oxygenxml.git.auth.PooledSshSessionFactory;
 import com.oxygenxml.git.auth.ResolvingProxyDataFactory;
 import com.oxygenxml.git.constants.Icons;
 import com.oxygenxml.git.editorvars.GitEditorVariablesResolver;
@@ -98,6 +99,11 @@ public class OxygenGitPluginExtension implements WorkspaceAccessPluginExtension,
 	 * Refresh support.
 	 */
 	private PanelRefresh gitRefreshSupport;
+	
+	/**
+	 * Keeps the SSH sessions open between the remote operations.
+	 */
+	private PooledSshSessionFactory pooledSshSessionFactory;
 
 	/**
 	 * Manages Push/Pull actions.
@@ -205,10 +211,15 @@ public class OxygenGitPluginExtension implements WorkspaceAccessPluginExtension,
 			// Uncomment this to start with fresh options. For testing purposes
 			// PluginWorkspaceProvider.getPluginWorkspace().getOptionsStorage().setOption("GIT_PLUGIN_OPTIONS", null); NOSONAR
 
-			if (!"true".equals(System.getProperty(GitAddonSystemProperties.USE_JSCH_FOR_SSH_OPERATIONS))) {
-				org.eclipse.jgit.transport.SshSessionFactory.setInstance(
-						new org.eclipse.jgit.transport.sshd.SshdSessionFactory(null, new ResolvingProxyDataFactory()));
-			}
+			org.eclipse.jgit.transport.SshSessionFactory sshSessionFactory = 
+			    "true".equals(System.getProperty(GitAddonSystemProperties.USE_JSCH_FOR_SSH_OPERATIONS))
+			    ? org.eclipse.jgit.transport.SshSessionFactory.getInstance()
+			    : new org.eclipse.jgit.transport.sshd.SshdSessionFactory(null, new ResolvingProxyDataFactory());
+			// Keep the sessions open between the remote operations.
+			pooledSshSessionFactory = new PooledSshSessionFactory(
+			    sshSessionFactory,
+			    Long.getLong(GitAddonSystemProperties.SSH_SESSION_IDLE_TIME, PooledSshSessionFactory.DEFAULT_IDLE_TIME));
+			org.eclipse.jgit.transport.SshSessionFactory.setInstance(pooledSshSessionFactory);
 
 			AuthenticationInterceptor.install();
 
@@ -420,6 +431,10 @@ public class OxygenGitPluginExtension implements WorkspaceAccessPluginExtension,
 		gitRefreshSupport.shutdown();
 
 		GitAccess.getInstance().closeRepo();
+		
+		if (pooledSshSessionFactory != null) {
+		  pooledSshSessionFactory.closeIdleSessions();
+		}
 
 		// Close application.
 		return true;
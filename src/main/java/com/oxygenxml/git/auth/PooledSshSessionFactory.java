@@ -0,0 +1,382 @@
+package com.oxygenxml.git.auth;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jgit.errors.TransportException;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.FtpChannel;
+import org.eclipse.jgit.transport.RemoteSession;
+import org.eclipse.jgit.transport.RemoteSession2;
+import org.eclipse.jgit.transport.SshSessionFactory;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.util.FS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.GitOperationScheduler;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
+import com.oxygenxml.git.service.GitOperationScheduler.Priority;
+
+/**
+ * Keeps the SSH sessions open for a while after the remote operations end, so that the next
+ * fetch, push or ls-remote on the same remote skips the connection and the authentication.
+ * Each operation runs on its own channel, on top of an authenticated session.<br><br>
+ *
+ * A session that stays idle for too long is closed. The server might close an idle session
+ * too, so if a reused session fails, a new one is opened and the command is tried again.
+ */
+public class PooledSshSessionFactory extends SshSessionFactory {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(PooledSshSessionFactory.class);
+  /**
+   * How long an idle session is kept open by default. Milliseconds.
+   */
+  public static final long DEFAULT_IDLE_TIME = 60 * 1000L;
+  /**
+   * How many idle sessions are kept for each remote.
+   */
+  private static final int MAX_IDLE_SESSIONS_PER_REMOTE = 2;
+  /**
+   * Opens the actual sessions.
+   */
+  private final SshSessionFactory delegate;
+  /**
+   * How long an idle session is kept open. Milliseconds.
+   */
+  private final long idleTime;
+  /**
+   * The idle sessions, by remote. The most recently released first.
+   */
+  private final Map<String, Deque<PooledSession>> idleSessions = new HashMap<>();
+  /**
+   * Closes the expired sessions. <code>null</code> if there are no idle sessions. 
+   * Accessed while holding the lock on the idle sessions.
+   */
+  private ScheduledFuture<?> expirationTask;
+  /**
+   * The number of opened sessions.
+   */
+  private final AtomicLong opened = new AtomicLong();
+  /**
+   * The number of times an idle session was used again.
+   */
+  private final AtomicLong reused = new AtomicLong();
+  /**
+   * The total time spent opening sessions, in nanoseconds.
+   */
+  private final AtomicLong totalSetupNanos = new AtomicLong();
+  /**
+   * The longest time spent opening a session, in nanoseconds.
+   */
+  private final AtomicLong maxSetupNanos = new AtomicLong();
+
+  /**
+   * A session that returns to the pool when the transport is closed.
+   */
+  private class PooledSession implements RemoteSession2 {
+    /**
+     * The remote.
+     */
+    private final String key;
+    /**
+     * The actual session.
+     */
+    private RemoteSession session;
+    /**
+     * <code>true</code> if the session was taken from the pool.
+     */
+    private boolean fromPool;
+    /**
+     * When the session was released. Milliseconds.
+     */
+    private long releaseTime;
+    /**
+     * The address of the remote, used to open the session again.
+     */
+    private final URIish uri;
+    /**
+     * The credentials of the current operation.
+     */
+    private CredentialsProvider credentialsProvider;
+    /**
+     * The file system abstraction of the current operation.
+     */
+    private FS fs;
+    /**
+     * The timeout of the current operation, in seconds.
+     */
+    private int sessionTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param key                 The remote.
+     * @param session             The actual session.
+     * @param uri                 The address of the remote.
+     * @param credentialsProvider The credentials.
+     * @param fs                  The file system abstraction.
+     * @param sessionTimeout      The timeout, in seconds.
+     */
+    PooledSession(String key, RemoteSession session, URIish uri, CredentialsProvider credentialsProvider, FS fs, int sessionTimeout) {
+      this.key = key;
+      this.session = session;
+      this.uri = uri;
+      this.credentialsProvider = credentialsProvider;
+      this.fs = fs;
+      this.sessionTimeout = sessionTimeout;
+    }
+
+    @Override
+    public Process exec(String commandName, int timeout) throws IOException {
+      return exec(commandName, null, timeout);
+    }
+
+    @Override
+    public Process exec(String commandName, Map<String, String> environment, int timeout) throws IOException {
+      Process process;
+      try {
+        process = execOnSession(commandName, environment, timeout);
+      } catch (IOException e) {
+        if (!fromPool) {
+          throw e;
+        }
+        LOGGER.debug("The idle session was closed. Open a new one.", e);
+        closeQuietly(session);
+        session = openSession(uri, credentialsProvider, fs, sessionTimeout);
+        process = execOnSession(commandName, environment, timeout);
+      }
+      // The session works. Only a session just taken from the pool is opened again.
+      fromPool = false;
+      return process;
+    }
+
+    /**
+     * Executes a command on the actual session.
+     *
+     * @param commandName The command.
+     * @param environment The environment variables. May be <code>null</code>.
+     * @param timeout     The timeout, in seconds.
+     *
+     * @return The process running the command.
+     *
+     * @throws IOException When the command cannot be started.
+     */
+    private Process execOnSession(String commandName, Map<String, String> environment, int timeout) throws IOException {
+      return environment != null && !environment.isEmpty() && session instanceof RemoteSession2
+          ? ((RemoteSession2) session).exec(commandName, environment, timeout)
+          : session.exec(commandName, timeout);
+    }
+
+    @Override
+    public FtpChannel getFtpChannel() {
+      return session.getFtpChannel();
+    }
+
+    @Override
+    public void disconnect() {
+      session.disconnect();
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param delegate Opens the actual sessions.
+   * @param idleTime How long an idle session is kept open. Milliseconds. 0 to close the sessions right away.
+   */
+  public PooledSshSessionFactory(SshSessionFactory delegate, long idleTime) {
+    this.delegate = delegate;
+    this.idleTime = idleTime;
+  }
+
+  @Override
+  public RemoteSession getSession(URIish uri, CredentialsProvider credentialsProvider, FS fs, int tms)
+      throws TransportException {
+    String key = uri.getUser() + "@" + uri.getHost() + ":" + uri.getPort();
+    PooledSession session = takeIdleSession(key);
+    if (session != null) {
+      reused.incrementAndGet();
+      session.fromPool = true;
+      session.credentialsProvider = credentialsProvider;
+      session.fs = fs;
+      session.sessionTimeout = tms;
+    } else {
+      session = new PooledSession(key, openSession(uri, credentialsProvider, fs, tms), uri, credentialsProvider, fs, tms);
+    }
+    return session;
+  }
+
+  /**
+   * Opens a new session and records how long it took.
+   *
+   * @param uri                 The address of the remote.
+   * @param credentialsProvider The credentials.
+   * @param fs                  The file system abstraction.
+   * @param tms                 The timeout, in seconds.
+   *
+   * @return The session.
+   *
+   * @throws TransportException When the session cannot be opened.
+   */
+  private RemoteSession openSession(URIish uri, CredentialsProvider credentialsProvider, FS fs, int tms)
+      throws TransportException {
+    long started = System.nanoTime();
+    RemoteSession session = delegate.getSession(uri, credentialsProvider, fs, tms);
+    long setupNanos = System.nanoTime() - started;
+    opened.incrementAndGet();
+    totalSetupNanos.addAndGet(setupNanos);
+    maxSetupNanos.accumulateAndGet(setupNanos, Math::max);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Opened an SSH session to {} in {} ms", uri.getHost(), setupNanos / 1_000_000);
+    }
+    return session;
+  }
+
+  /**
+   * Takes an idle session, closing the ones that were idle for too long.
+   *
+   * @param key The remote.
+   *
+   * @return The session or <code>null</code> if there is none.
+   */
+  private PooledSession takeIdleSession(String key) {
+    List<PooledSession> expired = new ArrayList<>();
+    PooledSession session = null;
+    synchronized (idleSessions) {
+      collectExpiredSessions(expired);
+      Deque<PooledSession> sessions = idleSessions.get(key);
+      if (sessions != null) {
+        session = sessions.pollFirst();
+        if (sessions.isEmpty()) {
+          idleSessions.remove(key);
+        }
+      }
+    }
+    expired.forEach(expiredSession -> closeQuietly(expiredSession.session));
+    return session;
+  }
+
+  @Override
+  public void releaseSession(RemoteSession session) {
+    if (idleTime > 0 && session instanceof PooledSession) {
+      PooledSession pooledSession = (PooledSession) session;
+      PooledSession extra = null;
+      synchronized (idleSessions) {
+        pooledSession.releaseTime = System.currentTimeMillis();
+        Deque<PooledSession> sessions = idleSessions.computeIfAbsent(pooledSession.key, k -> new ArrayDeque<>());
+        sessions.addFirst(pooledSession);
+        if (sessions.size() > MAX_IDLE_SESSIONS_PER_REMOTE) {
+          extra = sessions.pollLast();
+        }
+        if (expirationTask == null) {
+          scheduleExpiration();
+        }
+      }
+      if (extra != null) {
+        closeQuietly(extra.session);
+      }
+    } else {
+      closeQuietly(session instanceof PooledSession ? ((PooledSession) session).session : session);
+    }
+  }
+
+  /**
+   * Closes the sessions that were idle for too long.
+   */
+  private void closeExpiredSessions() {
+    List<PooledSession> expired = new ArrayList<>();
+    synchronized (idleSessions) {
+      collectExpiredSessions(expired);
+      expirationTask = null;
+      if (!idleSessions.isEmpty()) {
+        // Released after this task was scheduled.
+        scheduleExpiration();
+      }
+    }
+    expired.forEach(session -> closeQuietly(session.session));
+  }
+  
+  /**
+   * Schedules the closing of the expired sessions. Must be called while holding the lock on 
+   * the idle sessions.
+   */
+  private void scheduleExpiration() {
+    expirationTask = GitOperationScheduler.getInstance().schedule(
+        Lane.BACKGROUND, Priority.LOW, this::closeExpiredSessions, (int) idleTime);
+  }
+
+  /**
+   * Removes from the pool the sessions that were idle for too long. Must be called while holding
+   * the lock on the idle sessions.
+   *
+   * @param expired Receives the removed sessions.
+   */
+  private void collectExpiredSessions(List<PooledSession> expired) {
+    long now = System.currentTimeMillis();
+    for (Iterator<Deque<PooledSession>> iterator = idleSessions.values().iterator(); iterator.hasNext();) {
+      Deque<PooledSession> sessions = iterator.next();
+      sessions.removeIf(session -> {
+        boolean isExpired = now - session.releaseTime >= idleTime;
+        if (isExpired) {
+          expired.add(session);
+        }
+        return isExpired;
+      });
+      if (sessions.isEmpty()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Closes all the idle sessions.
+   */
+  public void closeIdleSessions() {
+    List<PooledSession> sessions = new ArrayList<>();
+    synchronized (idleSessions) {
+      idleSessions.values().forEach(sessions::addAll);
+      idleSessions.clear();
+      if (expirationTask != null) {
+        expirationTask.cancel(false);
+        expirationTask = null;
+      }
+    }
+    sessions.forEach(session -> closeQuietly(session.session));
+  }
+
+  /**
+   * Closes a session through the factory that opened it.
+   *
+   * @param session The session.
+   */
+  private void closeQuietly(RemoteSession session) {
+    try {
+      delegate.releaseSession(session);
+    } catch (RuntimeException e) {
+      LOGGER.debug(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public String getType() {
+    return delegate.getType();
+  }
+
+  /**
+   * @return Statistics about the opened sessions.
+   */
+  public SshSessionStatistics getStatistics() {
+    return new SshSessionStatistics(opened.get(), reused.get(), totalSetupNanos.get(), maxSetupNanos.get());
+  }
+}
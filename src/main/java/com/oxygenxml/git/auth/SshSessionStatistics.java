@@ -0,0 +1,73 @@
+package com.oxygenxml.git.auth;
+
+/**
+ * Statistics about the SSH sessions opened for the remote operations.
+ */
+public class SshSessionStatistics {
+  /**
+   * The number of opened sessions.
+   */
+  private final long opened;
+  /**
+   * The number of times an idle session was used again.
+   */
+  private final long reused;
+  /**
+   * The total time spent opening sessions (connection and authentication), in nanoseconds.
+   */
+  private final long totalSetupNanos;
+  /**
+   * The longest time spent opening a session, in nanoseconds.
+   */
+  private final long maxSetupNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param opened          The number of opened sessions.
+   * @param reused          The number of times an idle session was used again.
+   * @param totalSetupNanos The total time spent opening sessions, in nanoseconds.
+   * @param maxSetupNanos   The longest time spent opening a session, in nanoseconds.
+   */
+  SshSessionStatistics(long opened, long reused, long totalSetupNanos, long maxSetupNanos) {
+    this.opened = opened;
+    this.reused = reused;
+    this.totalSetupNanos = totalSetupNanos;
+    this.maxSetupNanos = maxSetupNanos;
+  }
+
+  /**
+   * @return The number of opened sessions.
+   */
+  public long getOpened() {
+    return opened;
+  }
+
+  /**
+   * @return The number of times an idle session was used again.
+   */
+  public long getReused() {
+    return reused;
+  }
+
+  /**
+   * @return The total time spent opening sessions (connection and authentication), in nanoseconds.
+   */
+  public long getTotalSetupNanos() {
+    return totalSetupNanos;
+  }
+
+  /**
+   * @return The longest time spent opening a session, in nanoseconds.
+   */
+  public long getMaxSetupNanos() {
+    return maxSetupNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "SshSessionStatistics [opened: " + opened + ", reused: " + reused
+        + ", total setup ms: " + totalSetupNanos / 1_000_000
+        + ", max setup ms: " + maxSetupNanos / 1_000_000 + "]";
+  }
+}
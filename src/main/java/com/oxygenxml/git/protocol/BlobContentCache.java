@@ -0,0 +1,208 @@
+package com.oxygenxml.git.protocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.GitAccess;
+import com.oxygenxml.git.utils.GitAddonSystemProperties;
+
+/**
+ * Least recently used cache for the content of the blobs opened through the "git" protocol.
+ * A blob never changes, so the entries are only evicted to bound the memory. The weight of an
+ * entry is the number of bytes it holds.<br><br>
+ *
+ * The memory budget is given in megabytes by the {@link GitAddonSystemProperties#BLOB_CONTENT_CACHE_SIZE}
+ * system property. A blob larger than a quarter of the budget is not cached.
+ */
+class BlobContentCache {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BlobContentCache.class);
+  /**
+   * The default memory budget, in megabytes.
+   */
+  static final long DEFAULT_BUDGET_MB = 64;
+  /**
+   * The statistics are logged after this many lookups.
+   */
+  private static final int LOG_STATISTICS_INTERVAL = 100;
+  /**
+   * Singleton.
+   */
+  private static final BlobContentCache INSTANCE = new BlobContentCache(
+      Long.getLong(GitAddonSystemProperties.BLOB_CONTENT_CACHE_SIZE, DEFAULT_BUDGET_MB) * 1024 * 1024);
+  /**
+   * The maximum number of bytes kept in the cache.
+   */
+  private final long maxWeight;
+  /**
+   * The blob contents by id, from the least recently used.
+   */
+  private final Map<ObjectId, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+  /**
+   * The number of bytes in the cache.
+   */
+  private long weight;
+  /**
+   * The number of lookups that found the blob in the cache.
+   */
+  private final AtomicLong hits = new AtomicLong();
+  /**
+   * The number of lookups that didn't find the blob in the cache.
+   */
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param maxWeight The maximum number of bytes kept in the cache.
+   */
+  BlobContentCache(long maxWeight) {
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * @return The singleton instance.
+   */
+  static BlobContentCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Opens the content of a blob. The cached content is used, if available. Otherwise, small blobs
+   * are read and cached and large ones are streamed.
+   *
+   * @param repository The repository.
+   * @param blobId     The blob id.
+   *
+   * @return The content.
+   *
+   * @throws IOException When the blob cannot be read.
+   */
+  InputStream openStream(Repository repository, ObjectId blobId) throws IOException {
+    byte[] content = get(blobId);
+    if (content == null) {
+      long maxEntryWeight = getMaxEntryWeight();
+      if (getSize(repository, blobId) > maxEntryWeight) {
+        return GitAccess.getInstance().getInputStream(blobId);
+      }
+      // With a limit, a blob above the streaming threshold of JGit is read from its stream
+      // instead of failing.
+      content = repository.open(blobId, Constants.OBJ_BLOB).getCachedBytes(
+          (int) Math.min(maxEntryWeight, Integer.MAX_VALUE));
+      put(blobId, content);
+    }
+    return new ByteArrayInputStream(content);
+  }
+
+  /**
+   * @param repository The repository.
+   * @param blobId     The blob id.
+   *
+   * @return The size of the blob, in bytes. Doesn't read the content.
+   *
+   * @throws IOException When the blob cannot be found.
+   */
+  long getSize(Repository repository, ObjectId blobId) throws IOException {
+    synchronized (this) {
+      byte[] content = cache.get(blobId);
+      if (content != null) {
+        return content.length;
+      }
+    }
+    try (ObjectReader reader = repository.newObjectReader()) {
+      return reader.getObjectSize(blobId, Constants.OBJ_BLOB);
+    }
+  }
+
+  /**
+   * @param blobId The blob id.
+   *
+   * @return The content of the blob or <code>null</code> if not cached.
+   */
+  byte[] get(AnyObjectId blobId) {
+    byte[] content;
+    synchronized (this) {
+      content = cache.get(blobId);
+    }
+
+    if (content != null) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    long lookups = hits.get() + misses.get();
+    if (LOGGER.isDebugEnabled() && lookups % LOG_STATISTICS_INTERVAL == 0) {
+      LOGGER.debug("Blob content cache: {} hits, {} misses, {} blobs, {} bytes",
+          hits.get(), misses.get(), size(), getWeight());
+    }
+    return content;
+  }
+
+  /**
+   * Caches the content of a blob, unless it is larger than a quarter of the budget.
+   *
+   * @param blobId  The blob id.
+   * @param content The content. Must not be modified afterwards.
+   */
+  synchronized void put(AnyObjectId blobId, byte[] content) {
+    if (content.length > getMaxEntryWeight()) {
+      return;
+    }
+
+    byte[] old = cache.put(blobId.copy(), content);
+    if (old != null) {
+      weight -= old.length;
+    }
+    weight += content.length;
+
+    Iterator<byte[]> iterator = cache.values().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      weight -= iterator.next().length;
+      iterator.remove();
+    }
+  }
+
+  /**
+   * @return The size of the largest cached blob.
+   */
+  private long getMaxEntryWeight() {
+    return maxWeight / 4;
+  }
+
+  /**
+   * Removes all the entries.
+   */
+  synchronized void clear() {
+    cache.clear();
+    weight = 0;
+  }
+
+  /**
+   * @return The number of cached blobs.
+   */
+  synchronized int size() {
+    return cache.size();
+  }
+
+  /**
+   * @return The number of cached bytes.
+   */
+  synchronized long getWeight() {
+    return weight;
+  }
+}
@@ -0,0 +1,20 @@
+package com.oxygenxml.git.protocol;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Provides the content of a revision that is not stored in the repository as a blob, like
+ * the commit to which a submodule points. The content is generated in memory, so nothing is
+ * written on disk.
+ */
+@FunctionalInterface
+interface GeneratedContentProvider {
+  /**
+   * Generates the content.
+   *
+   * @param objectId The object to which the URL was resolved.
+   *
+   * @return The content.
+   */
+  byte[] getContent(ObjectId objectId);
+}
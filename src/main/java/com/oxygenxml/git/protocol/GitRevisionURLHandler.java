@@ -1,18 +1,20 @@
 package com.oxygenxml.git.protocol;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.eclipse.jgit.errors.NoWorkTreeException;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +45,16 @@ public class GitRevisionURLHandler extends URLStreamHandler {
 	 */
 	public static final String GIT_PROTOCOL = "git";
 	
+	/**
+	 * The providers of the content that is not read from a blob, by URL host.
+	 */
+	private static final Map<String, GeneratedContentProvider> GENERATED_CONTENT_PROVIDERS = new HashMap<>();
+	static {
+	  GeneratedContentProvider submoduleCommit = GitRevisionURLHandler::getSubmoduleCommitContent;
+	  GENERATED_CONTENT_PROVIDERS.put(VersionIdentifier.CURRENT_SUBMODULE, submoduleCommit);
+	  GENERATED_CONTENT_PROVIDERS.put(VersionIdentifier.PREVIOUSLY_SUBMODULE, submoduleCommit);
+	}
+	
 	/**
 	 * Connection class for XML files in archives.
 	 */
@@ -64,6 +76,17 @@ public class GitRevisionURLHandler extends URLStreamHandler {
 		 * The host which is used to let the user write in the diff tool
 		 */
 		private String currentHost;
+		
+		/**
+		 * The repository from which the content is read.
+		 */
+		private Repository repository;
+		
+		/**
+		 * The content generated in memory, for the URLs that don't point to a blob.
+		 * <code>null</code> for the other URLs.
+		 */
+		private byte[] generatedContent;
 
 		/**
 		 * Construct the connection
@@ -103,7 +126,34 @@ public class GitRevisionURLHandler extends URLStreamHandler {
 				path = path.replace(".txt", "");
 			}
 			
+			try {
+			  repository = GitAccess.getInstance().getRepository();
+			} catch (NoRepositorySelected e) {
+			  throw new IOException("Unable to extract GIT data from: " + getURL(), e);
+			}
+			// The diff tool opens the same URLs several times.
+			fileObject = RevisionIdCache.getInstance().get(repository, currentHost, path, this::resolveObjectId);
+			
+			if (fileObject == null) {
+			  throw new IOException("Unable to obtain commit ID for: " + getURL());
+			}
+			
+			GeneratedContentProvider provider = GENERATED_CONTENT_PROVIDERS.get(currentHost);
+			if (provider != null) {
+			  generatedContent = provider.getContent(fileObject);
+			}
+		}
+		
+		/**
+		 * Resolves the Git identifier of the content.
+		 * 
+		 * @return The identifier. <code>null</code> if not found.
+		 * 
+		 * @throws IOException
+		 */
+		private ObjectId resolveObjectId() throws IOException {
 			GitAccess gitAccess = GitAccess.getInstance();
+			ObjectId fileObject = null;
 			
 			switch(currentHost) {
 			  case VersionIdentifier.MINE:
@@ -146,9 +196,7 @@ public class GitRevisionURLHandler extends URLStreamHandler {
 			    break;
 			}
 			
-			if (fileObject == null) {
-			  throw new IOException("Unable to obtain commit ID for: " + getURL());
-			}
+			return fileObject;
 		}
 
 		/**
@@ -158,17 +206,11 @@ public class GitRevisionURLHandler extends URLStreamHandler {
 		 */
 		@Override
 		public InputStream getInputStream() throws IOException {
-			if (VersionIdentifier.CURRENT_SUBMODULE.equals(currentHost) 
-					|| VersionIdentifier.PREVIOUSLY_SUBMODULE.equals(currentHost)) {
-				String commit = "Subproject commit " + fileObject.getName();
-				File temp = File.createTempFile("submodule", ".txt");
-				PrintWriter printWriter = new PrintWriter(temp);
-				printWriter.println(commit);
-				printWriter.close();
-				return new FileInputStream(temp);
+			if (generatedContent != null) {
+				return new ByteArrayInputStream(generatedContent);
 			}
 			
-			return GitAccess.getInstance().getInputStream(fileObject);
+			return BlobContentCache.getInstance().openStream(repository, fileObject);
 		}
 
 		/**
@@ -199,7 +241,25 @@ public class GitRevisionURLHandler extends URLStreamHandler {
 		 */
 		@Override
 		public int getContentLength() {
-			return -1;
+			long length = getContentLengthLong();
+			return length <= Integer.MAX_VALUE ? (int) length : -1;
+		}
+		
+		/**
+		 * @see java.net.URLConnection#getContentLengthLong()
+		 */
+		@Override
+		public long getContentLengthLong() {
+			if (generatedContent != null) {
+				return generatedContent.length;
+			}
+			
+			try {
+				return BlobContentCache.getInstance().getSize(repository, fileObject);
+			} catch (IOException e) {
+				LOGGER.debug(e.getMessage(), e);
+				return -1;
+			}
 		}
 
 		/**
@@ -213,6 +273,18 @@ public class GitRevisionURLHandler extends URLStreamHandler {
 	}
 
 
+	/**
+	 * Generates the content presented for a submodule: the commit to which it points,
+	 * in the same form as in the output of "git diff".
+	 * 
+	 * @param commitId The commit.
+	 * 
+	 * @return The content.
+	 */
+	static byte[] getSubmoduleCommitContent(ObjectId commitId) {
+	  return ("Subproject commit " + commitId.getName() + "\n").getBytes(StandardCharsets.UTF_8);
+	}
+
 	/**
 	 * Creates and opens the connection
 	 * 
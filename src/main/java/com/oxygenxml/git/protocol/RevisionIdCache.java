@@ -0,0 +1,168 @@
+package com.oxygenxml.git.protocol;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Remembers, for a short time, the blob ids to which the "git" protocol URLs were resolved. The
+ * diff tool opens the same URLs several times in a row and resolving the conflict versions
+ * requires a diff of the whole repository.<br><br>
+ *
+ * The URLs with a commit id never change their blob. The other ones are resolved again when the
+ * index or HEAD change and, because they may depend on the working copy too, after
+ * {@link #TTL} milliseconds.
+ */
+class RevisionIdCache {
+  /**
+   * How long, in milliseconds, a URL that doesn't contain a commit id stays resolved.
+   */
+  static final long TTL = 5000;
+  /**
+   * The maximum number of remembered URLs.
+   */
+  private static final int MAX_ENTRIES = 512;
+  /**
+   * Singleton.
+   */
+  private static final RevisionIdCache INSTANCE = new RevisionIdCache();
+  /**
+   * The resolved ids, from the least recently used.
+   */
+  private final Map<String, Entry> cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * Resolves the blob id of a URL.
+   */
+  @FunctionalInterface
+  interface Resolver {
+    /**
+     * @return The blob id. <code>null</code> if it cannot be resolved.
+     *
+     * @throws IOException When the repository cannot be read.
+     */
+    ObjectId resolve() throws IOException;
+  }
+
+  /**
+   * A resolved id.
+   */
+  private static class Entry {
+    /**
+     * The blob id.
+     */
+    private final ObjectId id;
+    /**
+     * The state of the repository when the id was resolved.
+     */
+    private final String repositoryState;
+    /**
+     * When the entry expires.
+     */
+    private final long expires;
+
+    /**
+     * Constructor.
+     *
+     * @param id              The blob id.
+     * @param repositoryState The state of the repository when the id was resolved.
+     * @param expires         When the entry expires.
+     */
+    Entry(ObjectId id, String repositoryState, long expires) {
+      this.id = id;
+      this.repositoryState = repositoryState;
+      this.expires = expires;
+    }
+  }
+
+  /**
+   * Private constructor.
+   */
+  private RevisionIdCache() {}
+
+  /**
+   * @return The singleton instance.
+   */
+  static RevisionIdCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Gets the blob id of a URL, resolving it if it isn't remembered.
+   *
+   * @param repository The repository.
+   * @param host       The URL host: a {@link VersionIdentifier} or a commit id.
+   * @param path       The file path, relative to the repository.
+   * @param resolver   Resolves the id.
+   *
+   * @return The blob id. <code>null</code> if it cannot be resolved.
+   *
+   * @throws IOException When the repository cannot be read.
+   */
+  ObjectId get(Repository repository, String host, String path, Resolver resolver) throws IOException {
+    boolean immutable = ObjectId.isId(host);
+    String key = repository.getDirectory().getAbsolutePath() + "|" + host + "|" + path;
+    String repositoryState = immutable ? "" : getRepositoryState(repository);
+    long now = System.currentTimeMillis();
+
+    synchronized (this) {
+      Entry entry = cache.get(key);
+      if (entry != null && entry.expires > now && entry.repositoryState.equals(repositoryState)) {
+        return entry.id;
+      }
+    }
+
+    ObjectId id = resolver.resolve();
+    if (id != null) {
+      synchronized (this) {
+        cache.put(key, new Entry(id, repositoryState, immutable ? Long.MAX_VALUE : now + TTL));
+      }
+    }
+    return id;
+  }
+
+  /**
+   * Describes the index and HEAD. A rewritten index gets another file key or modification time.
+   *
+   * @param repository The repository.
+   *
+   * @return The state.
+   *
+   * @throws IOException When the state cannot be read.
+   */
+  private static String getRepositoryState(Repository repository) throws IOException {
+    StringBuilder state = new StringBuilder();
+    File index = repository.getIndexFile();
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(index.toPath(), BasicFileAttributes.class);
+      state.append(attributes.fileKey())
+        .append(':').append(attributes.lastModifiedTime())
+        .append(':').append(attributes.size());
+    } catch (NoSuchFileException e) {
+      state.append("no index");
+    }
+    state.append('|').append(Objects.toString(repository.resolve(Constants.HEAD)));
+    return state.toString();
+  }
+
+  /**
+   * Forgets all the URLs.
+   */
+  synchronized void clear() {
+    cache.clear();
+  }
+}
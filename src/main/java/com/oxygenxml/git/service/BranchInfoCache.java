@@ -0,0 +1,145 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.view.event.GitEventInfo;
+
+/**
+ * Keeps the state of the HEAD (current branch, detached or not) of the loaded repository.
+ * The state is read directly from the HEAD reference, without walking the history, and it is
+ * reused for as long as the HEAD file and the packed refs file remain unchanged.
+ */
+public class BranchInfoCache {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BranchInfoCache.class);
+  /**
+   * Name of the file holding the packed references.
+   */
+  private static final String PACKED_REFS = "packed-refs";
+  /**
+   * Information about the branch returned when there is no repository loaded.
+   */
+  private static final BranchInfo NO_BRANCH_INFO = new BranchInfo("", false);
+  /**
+   * Supplies the currently loaded repository.
+   */
+  private final Supplier<Git> gitSupplier;
+  /**
+   * The repository for which the cached info was computed.
+   */
+  private Repository cachedRepository;
+  /**
+   * Cached branch info.
+   */
+  private BranchInfo cache;
+  /**
+   * The state of the HEAD file when the cache was computed.
+   */
+  private FileState headState = FileState.UNKNOWN;
+  /**
+   * The state of the packed refs file when the cache was computed.
+   */
+  private FileState packedRefsState = FileState.UNKNOWN;
+
+  /**
+   * Constructor.
+   *
+   * @param listeners The repository for installing Git event listeners.
+   * @param gitSupplier Supplies the currently loaded repository.
+   */
+  public BranchInfoCache(GitListeners listeners, Supplier<Git> gitSupplier) {
+    this.gitSupplier = gitSupplier;
+    listeners.addGitPriorityListener(new GitEventAdapter() {
+      @Override
+      public void operationSuccessfullyEnded(GitEventInfo info) {
+        resetCache();
+      }
+
+      @Override
+      public void operationFailed(GitEventInfo info, Throwable t) {
+        // A failed checkout, pull or rebase might still move the HEAD.
+        resetCache();
+      }
+    });
+  }
+
+  /**
+   * @return Information about the current branch of the loaded repository. Never <code>null</code>.
+   */
+  public synchronized BranchInfo getBranchInfo() {
+    Git git = gitSupplier.get();
+    if (git == null) {
+      return NO_BRANCH_INFO;
+    }
+
+    Repository repository = git.getRepository();
+    File gitDir = repository.getDirectory();
+    File headFile = new File(gitDir, Constants.HEAD);
+    File packedRefsFile = new File(gitDir, PACKED_REFS);
+    if (cache == null
+        || cachedRepository != repository
+        || headState.isModified(headFile)
+        || packedRefsState.isModified(packedRefsFile)) {
+      // Take the states before reading, so that a concurrent change is detected next time.
+      headState = FileState.of(headFile);
+      packedRefsState = FileState.of(packedRefsFile);
+      cachedRepository = repository;
+      cache = computeBranchInfo(repository);
+    }
+
+    return cache;
+  }
+
+  /**
+   * Reset inner cache.
+   */
+  public synchronized void resetCache() {
+    cache = null;
+    cachedRepository = null;
+  }
+
+  /**
+   * Reads the HEAD reference and builds the branch info. The cost doesn't depend on the
+   * depth of the history.
+   *
+   * @param repository The repository.
+   *
+   * @return The branch info. Never <code>null</code>.
+   */
+  static BranchInfo computeBranchInfo(Repository repository) {
+    BranchInfo branchInfo = new BranchInfo("", false);
+    try {
+      Ref head = repository.exactRef(Constants.HEAD);
+      if (head != null) {
+        if (head.isSymbolic()) {
+          // On a branch. The branch might be unborn (no commits yet).
+          branchInfo.setBranchName(Repository.shortenRefName(head.getTarget().getName()));
+        } else {
+          ObjectId headId = head.getObjectId();
+          if (headId != null) {
+            branchInfo.setBranchName(headId.name());
+            branchInfo.setDetached(true);
+            branchInfo.setShortBranchName(
+                headId.abbreviate(RevCommitUtilBase.ABBREVIATED_COMMIT_LENGTH).name());
+          }
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.error(e.getMessage(), e);
+    }
+
+    return branchInfo;
+  }
+}
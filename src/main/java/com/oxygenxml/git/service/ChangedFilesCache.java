@@ -0,0 +1,186 @@
+package com.oxygenxml.git.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.view.event.GitEventInfo;
+import com.oxygenxml.git.view.event.GitOperation;
+
+/**
+ * Least recently used cache for the files changed by each commit. The changes of a commit never
+ * change, so the entries are only evicted to bound the memory. The weight of an entry is the
+ * number of files it holds.<br><br>
+ *
+ * The callers may change the returned files, so the cache keeps its own copies and hands out copies.
+ */
+public class ChangedFilesCache {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChangedFilesCache.class);
+  /**
+   * The default maximum number of files kept in the cache, for all the commits.
+   */
+  static final int DEFAULT_MAX_WEIGHT = 50_000;
+  /**
+   * The statistics are logged after this many lookups.
+   */
+  private static final int LOG_STATISTICS_INTERVAL = 100;
+  /**
+   * The maximum number of files kept in the cache.
+   */
+  private final int maxWeight;
+  /**
+   * The changed files by commit id, from the least recently used.
+   */
+  private final Map<ObjectId, List<FileStatus>> cache = new LinkedHashMap<>(16, 0.75f, true);
+  /**
+   * The number of files in the cache.
+   */
+  private int weight;
+  /**
+   * The number of lookups that found the commit in the cache.
+   */
+  private final AtomicLong hits = new AtomicLong();
+  /**
+   * The number of lookups that didn't find the commit in the cache.
+   */
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param listeners The repository for installing Git event listeners.
+   * @param maxWeight The maximum number of files kept in the cache.
+   */
+  public ChangedFilesCache(GitListeners listeners, int maxWeight) {
+    this.maxWeight = maxWeight;
+    listeners.addGitListener(new GitEventAdapter() {
+      @Override
+      public void operationSuccessfullyEnded(GitEventInfo info) {
+        if (info.getGitOperation() == GitOperation.OPEN_WORKING_COPY) {
+          clear();
+        }
+      }
+    });
+  }
+
+  /**
+   * @param commit The commit id.
+   *
+   * @return Copies of the files changed by the commit or <code>null</code> if not cached.
+   */
+  public List<FileStatus> get(AnyObjectId commit) {
+    List<FileStatus> files;
+    synchronized (this) {
+      files = cache.get(commit);
+    }
+
+    if (files != null) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    long lookups = hits.get() + misses.get();
+    if (LOGGER.isDebugEnabled() && lookups % LOG_STATISTICS_INTERVAL == 0) {
+      LOGGER.debug("Changed files cache: {} hits, {} misses, {} commits, {} files",
+          hits.get(), misses.get(), size(), getWeight());
+    }
+    return files != null ? copy(files) : null;
+  }
+
+  /**
+   * @param commit The commit id.
+   *
+   * @return <code>true</code> if the changes of the commit are cached. Doesn't count as a lookup.
+   */
+  public synchronized boolean contains(AnyObjectId commit) {
+    return cache.containsKey(commit);
+  }
+
+  /**
+   * Caches the files changed by a commit.
+   *
+   * @param commit The commit id.
+   * @param files  The changed files.
+   */
+  public synchronized void put(AnyObjectId commit, List<FileStatus> files) {
+    if (files.size() > maxWeight) {
+      return;
+    }
+
+    List<FileStatus> old = cache.put(commit.copy(), Collections.unmodifiableList(copy(files)));
+    if (old != null) {
+      weight -= old.size();
+    }
+    weight += files.size();
+
+    Iterator<List<FileStatus>> iterator = cache.values().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      weight -= iterator.next().size();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Copies a list of files.
+   *
+   * @param files The files.
+   *
+   * @return A new list with copies of the files.
+   */
+  private static List<FileStatus> copy(List<FileStatus> files) {
+    List<FileStatus> copies = new ArrayList<>(files.size());
+    for (FileStatus file : files) {
+      copies.add(new FileStatus(file).setDescription(file.getDescription()));
+    }
+    return copies;
+  }
+
+  /**
+   * Removes all the entries.
+   */
+  public synchronized void clear() {
+    cache.clear();
+    weight = 0;
+  }
+
+  /**
+   * @return The number of cached commits.
+   */
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /**
+   * @return The number of cached files.
+   */
+  public synchronized int getWeight() {
+    return weight;
+  }
+
+  /**
+   * @return The number of lookups that found the commit in the cache.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return The number of lookups that didn't find the commit in the cache.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+}
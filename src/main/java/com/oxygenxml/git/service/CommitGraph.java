@@ -0,0 +1,614 @@
+package com.oxygenxml.git.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdOwnerMap;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The commit graph of a repository: parent links, generation numbers, commit times and root trees.
+ * Walking it doesn't require reading and inflating the commit objects.<br><br>
+ *
+ * The graph is persisted in a file from the Git directory. The file is a header followed by one
+ * record per commit. The parents of a commit are recorded before the commit itself and are
+ * referenced by their record index, so new commits are simply appended to the file.<br><br>
+ *
+ * Not thread safe.
+ */
+public class CommitGraph {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(CommitGraph.class);
+  /**
+   * The name of the file, inside the Git directory.
+   */
+  static final String FILE_NAME = "oxygen-commit-graph";
+  /**
+   * Identifies the file format.
+   */
+  private static final int MAGIC = 0x4f584347;
+  /**
+   * The version of the file format.
+   */
+  private static final int VERSION = 1;
+  /**
+   * Commit flag: reachable from the first tip.
+   */
+  private static final int FROM_FIRST = 1;
+  /**
+   * Commit flag: reachable from the second tip.
+   */
+  private static final int FROM_SECOND = 2;
+  /**
+   * Commit flags: reachable from both tips.
+   */
+  private static final int FROM_BOTH = FROM_FIRST | FROM_SECOND;
+  /**
+   * Commit flag: an ancestor of a merge base found so far.
+   */
+  private static final int STALE = 4;
+  /**
+   * Visits the children before their parents: by decreasing generation and then by decreasing commit time.
+   */
+  private static final Comparator<Node> CHILDREN_FIRST = (n1, n2) -> {
+    int result = Integer.compare(n2.generation, n1.generation);
+    if (result == 0) {
+      result = Integer.compare(n2.commitTime, n1.commitTime);
+    }
+    return result;
+  };
+
+  /**
+   * A commit from the graph.
+   */
+  public static class Node extends ObjectIdOwnerMap.Entry {
+    /**
+     * The index of the record in the file.
+     */
+    private final int index;
+    /**
+     * The root tree.
+     */
+    private final ObjectId tree;
+    /**
+     * Committer time, in seconds since the epoch.
+     */
+    private final int commitTime;
+    /**
+     * 1 for a root commit, 1 + the maximum generation of the parents otherwise.
+     */
+    private final int generation;
+    /**
+     * The parents. The ones missing from the repository (shallow clones) are not present.
+     */
+    private final Node[] parents;
+
+    /**
+     * Constructor.
+     *
+     * @param id         The commit id.
+     * @param index      The index of the record in the file.
+     * @param tree       The root tree.
+     * @param commitTime Committer time, in seconds since the epoch.
+     * @param parents    The parents.
+     */
+    Node(AnyObjectId id, int index, ObjectId tree, int commitTime, Node[] parents) {
+      super(id);
+      this.index = index;
+      this.tree = tree;
+      this.commitTime = commitTime;
+      this.parents = parents;
+      int maxParentGeneration = 0;
+      for (Node parent : parents) {
+        maxParentGeneration = Math.max(maxParentGeneration, parent.generation);
+      }
+      this.generation = maxParentGeneration + 1;
+    }
+
+    /**
+     * @return The root tree.
+     */
+    public ObjectId getTree() {
+      return tree;
+    }
+
+    /**
+     * @return Committer time, in seconds since the epoch.
+     */
+    public int getCommitTime() {
+      return commitTime;
+    }
+
+    /**
+     * @return 1 for a root commit, 1 + the maximum generation of the parents otherwise.
+     */
+    public int getGeneration() {
+      return generation;
+    }
+
+    /**
+     * @return The number of parents.
+     */
+    public int getParentCount() {
+      return parents.length;
+    }
+
+    /**
+     * @param i The index of the parent.
+     *
+     * @return The parent.
+     */
+    public Node getParent(int i) {
+      return parents[i];
+    }
+  }
+
+  /**
+   * The commits reachable from one tip but not from the other.
+   */
+  public static class Divergence {
+    /**
+     * Reachable only from the first tip, newest first.
+     */
+    private final List<ObjectId> onlyFromFirst;
+    /**
+     * Reachable only from the second tip, newest first.
+     */
+    private final List<ObjectId> onlyFromSecond;
+
+    /**
+     * Constructor.
+     *
+     * @param onlyFromFirst  Reachable only from the first tip, newest first.
+     * @param onlyFromSecond Reachable only from the second tip, newest first.
+     */
+    Divergence(List<ObjectId> onlyFromFirst, List<ObjectId> onlyFromSecond) {
+      this.onlyFromFirst = onlyFromFirst;
+      this.onlyFromSecond = onlyFromSecond;
+    }
+
+    /**
+     * @return The commits reachable only from the first tip, newest first.
+     */
+    public List<ObjectId> getOnlyFromFirst() {
+      return onlyFromFirst;
+    }
+
+    /**
+     * @return The commits reachable only from the second tip, newest first.
+     */
+    public List<ObjectId> getOnlyFromSecond() {
+      return onlyFromSecond;
+    }
+  }
+
+  /**
+   * The commits, by id.
+   */
+  private final ObjectIdOwnerMap<Node> nodes = new ObjectIdOwnerMap<>();
+  /**
+   * The commits, by record index.
+   */
+  private final List<Node> records = new ArrayList<>();
+  /**
+   * The file in which the graph is persisted.
+   */
+  private final File file;
+
+  /**
+   * Constructor.
+   *
+   * @param file The file in which the graph is persisted.
+   */
+  private CommitGraph(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Loads the graph persisted for a repository. A missing or corrupted file results in an empty graph.
+   *
+   * @param repository The repository.
+   *
+   * @return The graph. Never <code>null</code>.
+   */
+  public static CommitGraph load(Repository repository) {
+    CommitGraph graph = new CommitGraph(new File(repository.getDirectory(), FILE_NAME));
+    if (graph.file.isFile()) {
+      try {
+        graph.read();
+      } catch (IOException | IndexOutOfBoundsException e) {
+        LOGGER.warn("Discarding the commit graph " + graph.file + ": " + e.getMessage());
+        graph.nodes.clear();
+        graph.records.clear();
+        try {
+          Files.deleteIfExists(graph.file.toPath());
+        } catch (IOException ex) {
+          LOGGER.debug(ex.getMessage(), ex);
+        }
+      }
+    }
+    return graph;
+  }
+
+  /**
+   * Reads the records from the file.
+   *
+   * @throws IOException When the file is unreadable or corrupted.
+   */
+  private void read() throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Unknown format");
+      }
+      byte[] buffer = new byte[Constants.OBJECT_ID_LENGTH];
+      while (true) {
+        int firstByte = in.read();
+        if (firstByte == -1) {
+          break;
+        }
+        buffer[0] = (byte) firstByte;
+        in.readFully(buffer, 1, buffer.length - 1);
+        ObjectId id = ObjectId.fromRaw(buffer);
+        in.readFully(buffer);
+        ObjectId tree = ObjectId.fromRaw(buffer);
+        int commitTime = in.readInt();
+        Node[] parents = new Node[in.readUnsignedShort()];
+        for (int i = 0; i < parents.length; i++) {
+          parents[i] = records.get(in.readInt());
+        }
+        add(new Node(id, records.size(), tree, commitTime, parents));
+      }
+    } catch (EOFException e) {
+      throw new IOException("Truncated file", e);
+    }
+  }
+
+  /**
+   * Adds a node in memory.
+   *
+   * @param node The node.
+   */
+  private void add(Node node) {
+    nodes.add(node);
+    records.add(node);
+  }
+
+  /**
+   * @param id A commit id.
+   *
+   * @return The commit or <code>null</code> if it is not in the graph.
+   */
+  public Node get(AnyObjectId id) {
+    return nodes.get(id);
+  }
+
+  /**
+   * @return The number of commits in the graph.
+   */
+  public int size() {
+    return records.size();
+  }
+
+  /**
+   * Adds the commits reachable from the references of the repository that are not already in the
+   * graph and appends them to the file. Only the commit headers are parsed.
+   *
+   * @param repository The repository.
+   *
+   * @return The number of added commits.
+   *
+   * @throws IOException When the commits cannot be read or the file cannot be written.
+   */
+  public int update(Repository repository) throws IOException {
+    List<Node> added = new ArrayList<>();
+    try (RevWalk walk = new RevWalk(repository)) {
+      walk.setRetainBody(false);
+      for (Ref ref : RefSnapshot.get(repository).getRefs()) {
+        ObjectId id = ref.getObjectId();
+        if (id != null && get(ref.getPeeledObjectId() != null ? ref.getPeeledObjectId() : id) == null) {
+          addReachable(walk, id, added);
+        }
+      }
+    }
+
+    if (!added.isEmpty()) {
+      append(added);
+    }
+    return added.size();
+  }
+
+  /**
+   * Adds a commit and its ancestors that are not already in the graph. Parents are added before their children.
+   *
+   * @param walk  The revision walk used for parsing the commits.
+   * @param tip   The commit, or a tag pointing to it.
+   * @param added Receives the added commits.
+   *
+   * @throws IOException When the commits cannot be read.
+   */
+  private void addReachable(RevWalk walk, ObjectId tip, List<Node> added) throws IOException {
+    RevObject peeled;
+    try {
+      peeled = walk.peel(walk.parseAny(tip));
+    } catch (MissingObjectException e) {
+      LOGGER.debug(e.getMessage(), e);
+      return;
+    }
+    if (!(peeled instanceof RevCommit)) {
+      return;
+    }
+
+    // Iterative post-order traversal. The history can be deeper than the stack.
+    Deque<RevCommit> stack = new ArrayDeque<>();
+    stack.push((RevCommit) peeled);
+    while (!stack.isEmpty()) {
+      RevCommit commit = stack.peek();
+      if (get(commit) != null) {
+        stack.pop();
+        continue;
+      }
+
+      walk.parseHeaders(commit);
+      boolean parentsReady = true;
+      for (RevCommit parent : commit.getParents()) {
+        if (get(parent) == null && isAvailable(walk, parent)) {
+          stack.push(parent);
+          parentsReady = false;
+        }
+      }
+
+      if (parentsReady) {
+        stack.pop();
+        List<Node> parents = new ArrayList<>(commit.getParentCount());
+        for (RevCommit parent : commit.getParents()) {
+          Node parentNode = get(parent);
+          if (parentNode != null) {
+            parents.add(parentNode);
+          }
+        }
+        Node node = new Node(
+            commit,
+            records.size(),
+            commit.getTree().copy(),
+            commit.getCommitTime(),
+            parents.toArray(new Node[0]));
+        add(node);
+        added.add(node);
+      }
+    }
+  }
+
+  /**
+   * @param walk   The revision walk.
+   * @param commit A commit.
+   *
+   * @return <code>false</code> if the commit is missing from the repository, as in a shallow clone.
+   *
+   * @throws IOException When the commit cannot be read.
+   */
+  private static boolean isAvailable(RevWalk walk, RevCommit commit) throws IOException {
+    try {
+      walk.parseHeaders(commit);
+      return true;
+    } catch (MissingObjectException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Appends records to the file. The file is rewritten if it doesn't exist or if it doesn't hold
+   * the records that precede the new ones.
+   *
+   * @param added The new nodes, parents before children.
+   *
+   * @throws IOException When the file cannot be written.
+   */
+  private void append(List<Node> added) throws IOException {
+    boolean rewrite = !file.isFile() || added.get(0).index == 0;
+    Collection<Node> toWrite = rewrite ? records : added;
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(file, !rewrite)))) {
+      if (rewrite) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+      }
+      byte[] buffer = new byte[Constants.OBJECT_ID_LENGTH];
+      for (Node node : toWrite) {
+        node.copyRawTo(buffer, 0);
+        out.write(buffer);
+        node.tree.copyRawTo(buffer, 0);
+        out.write(buffer);
+        out.writeInt(node.commitTime);
+        out.writeShort(node.parents.length);
+        for (Node parent : node.parents) {
+          out.writeInt(parent.index);
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the commits reachable from one tip but not from the other. The walk visits the commits
+   * by decreasing generation and stops as soon as all the commits left to visit are reachable from both tips.
+   *
+   * @param first  The first tip.
+   * @param second The second tip.
+   *
+   * @return The divergence or <code>null</code> if one of the tips is not in the graph.
+   */
+  public Divergence divergence(AnyObjectId first, AnyObjectId second) {
+    Node firstNode = get(first);
+    Node secondNode = get(second);
+    if (firstNode == null || secondNode == null) {
+      return null;
+    }
+
+    Map<Node, Integer> flags = new IdentityHashMap<>();
+    PriorityQueue<Node> queue = new PriorityQueue<>(CHILDREN_FIRST);
+    // The number of queued nodes that are not reachable from both tips.
+    int[] interesting = new int[1];
+    enqueue(firstNode, FROM_FIRST, flags, queue, interesting);
+    enqueue(secondNode, FROM_SECOND, flags, queue, interesting);
+
+    List<ObjectId> onlyFromFirst = new ArrayList<>();
+    List<ObjectId> onlyFromSecond = new ArrayList<>();
+    while (interesting[0] > 0) {
+      Node node = queue.poll();
+      // All the children have a greater generation, so the flags are final.
+      int nodeFlags = flags.get(node);
+      if (nodeFlags != FROM_BOTH) {
+        interesting[0]--;
+        if (nodeFlags == FROM_FIRST) {
+          onlyFromFirst.add(node.copy());
+        } else {
+          onlyFromSecond.add(node.copy());
+        }
+      }
+      for (Node parent : node.parents) {
+        enqueue(parent, nodeFlags, flags, queue, interesting);
+      }
+    }
+
+    return new Divergence(
+        Collections.unmodifiableList(onlyFromFirst),
+        Collections.unmodifiableList(onlyFromSecond));
+  }
+
+  /**
+   * Computes the merge bases of two commits: the common ancestors that are not ancestors of 
+   * other common ancestors. The walk visits the commits by decreasing generation and stops as soon as
+   * all the commits left to visit are ancestors of the merge bases found so far.
+   *
+   * @param first  The first commit.
+   * @param second The second commit.
+   *
+   * @return The merge bases, newest first, or <code>null</code> if one of the commits is not in the graph.
+   * Empty if the commits have no common ancestor.
+   */
+  public List<ObjectId> mergeBases(AnyObjectId first, AnyObjectId second) {
+    Node firstNode = get(first);
+    Node secondNode = get(second);
+    if (firstNode == null || secondNode == null) {
+      return null;
+    }
+
+    Map<Node, Integer> flags = new IdentityHashMap<>();
+    PriorityQueue<Node> queue = new PriorityQueue<>(CHILDREN_FIRST);
+    // The number of queued nodes that are not ancestors of a merge base.
+    int[] active = new int[1];
+    paint(firstNode, FROM_FIRST, flags, queue, active);
+    paint(secondNode, FROM_SECOND, flags, queue, active);
+
+    List<ObjectId> mergeBases = new ArrayList<>(1);
+    while (active[0] > 0) {
+      Node node = queue.poll();
+      // All the children have a greater generation, so the flags are final.
+      int nodeFlags = flags.get(node);
+      if ((nodeFlags & STALE) == 0) {
+        active[0]--;
+        if ((nodeFlags & FROM_BOTH) == FROM_BOTH) {
+          // Not an ancestor of another merge base, as all the descendants were already visited.
+          mergeBases.add(node.copy());
+          nodeFlags |= STALE;
+        }
+      }
+      for (Node parent : node.parents) {
+        paint(parent, nodeFlags, flags, queue, active);
+      }
+    }
+
+    return Collections.unmodifiableList(mergeBases);
+  }
+
+  /**
+   * Propagates flags to a node and queues it, if not already queued.
+   *
+   * @param node     The node.
+   * @param newFlags The flags to add.
+   * @param flags    The flags of the visited nodes.
+   * @param queue    The nodes to visit.
+   * @param active   Holds the number of queued nodes that are not ancestors of a merge base.
+   */
+  private static void paint(
+      Node node,
+      int newFlags,
+      Map<Node, Integer> flags,
+      PriorityQueue<Node> queue,
+      int[] active) {
+    Integer oldFlags = flags.get(node);
+    if (oldFlags == null) {
+      flags.put(node, newFlags);
+      queue.add(node);
+      if ((newFlags & STALE) == 0) {
+        active[0]++;
+      }
+    } else if ((oldFlags | newFlags) != oldFlags) {
+      // Only nodes not yet visited can receive flags. They are still queued.
+      flags.put(node, oldFlags | newFlags);
+      if ((oldFlags & STALE) == 0 && (newFlags & STALE) != 0) {
+        active[0]--;
+      }
+    }
+  }
+
+  /**
+   * Propagates flags to a node and queues it, if not already queued.
+   *
+   * @param node        The node.
+   * @param newFlags    The flags to add.
+   * @param flags       The flags of the visited nodes.
+   * @param queue       The nodes to visit.
+   * @param interesting Holds the number of queued nodes that are not reachable from both tips.
+   */
+  private static void enqueue(
+      Node node,
+      int newFlags,
+      Map<Node, Integer> flags,
+      PriorityQueue<Node> queue,
+      int[] interesting) {
+    Integer oldFlags = flags.get(node);
+    if (oldFlags == null) {
+      flags.put(node, newFlags);
+      queue.add(node);
+      if (newFlags != FROM_BOTH) {
+        interesting[0]++;
+      }
+    } else if ((oldFlags | newFlags) != oldFlags) {
+      // Only nodes not yet visited can receive flags. They are still queued.
+      flags.put(node, oldFlags | newFlags);
+      if (oldFlags != FROM_BOTH) {
+        interesting[0]--;
+      }
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.BranchConfig;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.CommitGraph.Divergence;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
+import com.oxygenxml.git.service.GitOperationScheduler.Priority;
+import com.oxygenxml.git.view.event.GitEventInfo;
+import com.oxygenxml.git.view.event.GitOperation;
+
+/**
+ * Keeps the {@link CommitGraph} of the loaded repository. The graph is loaded from disk and
+ * brought up to date on the read lane of the {@link GitOperationScheduler}, after the
+ * operations that create commits or move references. The first build walks the whole history,
+ * so it stays off the background lane, where it would hold back the fetches and the remote checks.<br><br>
+ *
+ * Queries never wait for the graph. While it is being updated, or when it doesn't contain the
+ * requested commits, they return <code>null</code> and the caller falls back to walking the commits.
+ */
+public class CommitGraphCache {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(CommitGraphCache.class);
+  /**
+   * The operations after which the graph is updated.
+   */
+  private static final Set<GitOperation> UPDATING_OPERATIONS = EnumSet.of(
+      GitOperation.COMMIT,
+      GitOperation.PULL,
+      GitOperation.PUSH,
+      GitOperation.MERGE,
+      GitOperation.REVERT_COMMIT,
+      GitOperation.RESET_TO_COMMIT,
+      GitOperation.CONTINUE_REBASE,
+      GitOperation.CREATE_BRANCH,
+      GitOperation.CHECKOUT,
+      GitOperation.CHECKOUT_COMMIT,
+      GitOperation.CREATE_TAG,
+      GitOperation.STASH_CREATE);
+  /**
+   * Supplies the currently loaded repository.
+   */
+  private final Supplier<Git> gitSupplier;
+  /**
+   * Guards the graph.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+  /**
+   * The graph. <code>null</code> until loaded.
+   */
+  private CommitGraph graph;
+  /**
+   * The Git directory of the repository to which the graph belongs.
+   */
+  private File graphDirectory;
+  /**
+   * The update waiting to be executed, if any.
+   */
+  private final AtomicReference<ScheduledFuture<?>> scheduledUpdate = new AtomicReference<>();
+
+  /**
+   * Constructor.
+   *
+   * @param listeners   The repository for installing Git event listeners.
+   * @param gitSupplier Supplies the currently loaded repository.
+   */
+  public CommitGraphCache(GitListeners listeners, Supplier<Git> gitSupplier) {
+    this.gitSupplier = gitSupplier;
+    listeners.addGitListener(new GitEventAdapter() {
+      @Override
+      public void operationSuccessfullyEnded(GitEventInfo info) {
+        GitOperation operation = info.getGitOperation();
+        if (operation == GitOperation.OPEN_WORKING_COPY || UPDATING_OPERATIONS.contains(operation)) {
+          scheduleUpdate();
+        }
+      }
+    });
+  }
+
+  /**
+   * Computes the commits reachable from one commit but not from the other.
+   *
+   * @param repository The repository.
+   * @param first      The first commit.
+   * @param second     The second commit.
+   *
+   * @return The divergence or <code>null</code> if the graph is not available for the two commits.
+   */
+  public Divergence getDivergence(Repository repository, AnyObjectId first, AnyObjectId second) {
+    return query(repository, g -> g.divergence(first, second));
+  }
+
+  /**
+   * Computes the merge bases of two commits.
+   *
+   * @param repository The repository.
+   * @param first      The first commit.
+   * @param second     The second commit.
+   *
+   * @return The merge bases, empty if the commits have no common ancestor, or <code>null</code> if 
+   * the graph is not available for the two commits.
+   */
+  public List<ObjectId> getMergeBases(Repository repository, AnyObjectId first, AnyObjectId second) {
+    return query(repository, g -> g.mergeBases(first, second));
+  }
+
+  /**
+   * Runs a query on the graph, without waiting for it.
+   *
+   * @param <T>        The type of the result.
+   * @param repository The repository.
+   * @param query      The query. Returns <code>null</code> if the graph cannot answer it.
+   *
+   * @return The result or <code>null</code> if the graph is not available or cannot answer the query.
+   */
+  private <T> T query(Repository repository, Function<CommitGraph, T> query) {
+    T result = null;
+    if (lock.tryLock()) {
+      try {
+        if (graph != null && repository.getDirectory().equals(graphDirectory)) {
+          result = query.apply(graph);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    if (result == null) {
+      // Probably new commits were fetched.
+      scheduleUpdate();
+    }
+    return result;
+  }
+
+  /**
+   * Computes the commits of a local branch not yet pushed and the ones from its upstream branch not yet pulled.
+   *
+   * @param repository The repository.
+   * @param branchName The local branch.
+   *
+   * @return The divergence between the local branch (first) and its upstream branch (second) or <code>null</code>
+   * if the branch has no upstream or the graph is not available for the two branches.
+   *
+   * @throws IOException When the references cannot be read.
+   */
+  public Divergence getTrackingDivergence(Repository repository, String branchName) throws IOException {
+    String shortBranchName = Repository.shortenRefName(branchName);
+    String trackingBranch = new BranchConfig(repository.getConfig(), shortBranchName).getTrackingBranch();
+    if (trackingBranch == null) {
+      return null;
+    }
+
+    Ref tracking = repository.exactRef(trackingBranch);
+    Ref local = repository.exactRef(Constants.R_HEADS + shortBranchName);
+    if (tracking == null || local == null) {
+      return null;
+    }
+
+    return getDivergence(repository, local.getObjectId(), tracking.getObjectId());
+  }
+
+  /**
+   * Schedules an update of the graph of the loaded repository, unless one is already waiting.
+   */
+  public void scheduleUpdate() {
+    ScheduledFuture<?> waiting = scheduledUpdate.get();
+    if (waiting == null || waiting.isDone()) {
+      ScheduledFuture<?> update = GitOperationScheduler.getInstance().schedule(
+          Lane.READ,
+          Priority.LOW,
+          () -> {
+            scheduledUpdate.set(null);
+            update();
+          },
+          0);
+      if (!scheduledUpdate.compareAndSet(waiting, update)) {
+        update.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Loads the graph of the loaded repository, if needed, and adds the new commits to it.
+   */
+  public void update() {
+    Git git = gitSupplier.get();
+    if (git == null) {
+      return;
+    }
+
+    Repository repository = git.getRepository();
+    lock.lock();
+    try {
+      if (graph == null || !repository.getDirectory().equals(graphDirectory)) {
+        graph = CommitGraph.load(repository);
+        graphDirectory = repository.getDirectory();
+      }
+      long start = System.currentTimeMillis();
+      int added = graph.update(repository);
+      if (LOGGER.isDebugEnabled() && added > 0) {
+        LOGGER.debug("Added {} commits to the commit graph in {} ms",
+            added, System.currentTimeMillis() - start);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Cannot update the commit graph: " + e.getMessage(), e);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
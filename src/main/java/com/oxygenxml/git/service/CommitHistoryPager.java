@@ -0,0 +1,206 @@
+package com.oxygenxml.git.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.revplot.PlotCommit;
+import org.eclipse.jgit.revplot.PlotCommitList;
+import org.eclipse.jgit.revplot.PlotWalk;
+
+import com.oxygenxml.git.view.history.CommitCharacteristics;
+import com.oxygenxml.git.view.history.graph.VisualCommitsList.VisualLane;
+
+/**
+ * Loads the history of a repository or of a file in pages. The commits are walked only
+ * as far as the requested pages need. All the pages come from the same plot list, so the
+ * lanes of the graph are assigned consistently across pages.<br><br>
+ *
+ * The pager owns the revision walk and must be closed when no longer needed.
+ */
+public class CommitHistoryPager implements Closeable {
+  /**
+   * The default number of commits in a page.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 500;
+  /**
+   * How many commits to walk between two checks of the time budget.
+   */
+  private static final int CHUNK_SIZE = 50;
+  /**
+   * The revision walk.
+   */
+  private final PlotWalk plotWalk;
+  /**
+   * The walked commits, with their graph lanes.
+   */
+  private final PlotCommitList<VisualLane> plotCommitList;
+  /**
+   * How many commits from the plot list were already published.
+   */
+  private int published;
+  /**
+   * <code>true</code> to publish {@link GitAccess#UNCOMMITED_CHANGES} before the first commit.
+   */
+  private boolean includeUncommittedChanges;
+  /**
+   * <code>true</code> when there are no more commits to walk.
+   */
+  private boolean exhausted;
+  /**
+   * <code>true</code> after the pager was closed.
+   */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   *
+   * @param plotWalk                  The revision walk, with the start points and the filters already set.
+   * @param plotCommitList            The plot list that will receive the walked commits.
+   * @param includeUncommittedChanges <code>true</code> to publish {@link GitAccess#UNCOMMITED_CHANGES}
+   *                                  before the first commit.
+   */
+  CommitHistoryPager(
+      PlotWalk plotWalk,
+      PlotCommitList<VisualLane> plotCommitList,
+      boolean includeUncommittedChanges) {
+    this.plotWalk = plotWalk;
+    this.plotCommitList = plotCommitList;
+    this.includeUncommittedChanges = includeUncommittedChanges;
+    plotCommitList.source(plotWalk);
+  }
+
+  /**
+   * Loads the next page.
+   *
+   * @param pageSize     The maximum number of commits to load.
+   * @param budgetMillis Loading stops after this many milliseconds, even if the page is not full.
+   *                     At least one commit is loaded, if available. A negative value means no limit.
+   *
+   * @return The commits of the page. Empty when there are no more commits.
+   *
+   * @throws IOException When the commits cannot be read.
+   */
+  public synchronized List<CommitCharacteristics> nextPage(int pageSize, long budgetMillis) throws IOException {
+    long deadline = budgetMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + budgetMillis;
+    int target = published + pageSize;
+    while (!exhausted && plotCommitList.size() < target) {
+      fill(Math.min(target, plotCommitList.size() + CHUNK_SIZE));
+      if (plotCommitList.size() > published && System.currentTimeMillis() >= deadline) {
+        break;
+      }
+    }
+
+    return publish(Math.min(target, plotCommitList.size()));
+  }
+
+  /**
+   * Loads commits until the given commit is loaded, there are no more commits or the limit is reached.
+   *
+   * @param id    The commit to reach.
+   * @param limit The maximum number of commits to load.
+   *
+   * @return The commits loaded, ending with the given one if it was reached.
+   *
+   * @throws IOException When the commits cannot be read.
+   */
+  public synchronized List<CommitCharacteristics> nextPageUntil(AnyObjectId id, int limit) throws IOException {
+    int max = published + limit;
+    int found = indexOf(id, published);
+    while (found == -1 && !exhausted && plotCommitList.size() < max) {
+      int from = plotCommitList.size();
+      fill(Math.min(max, from + CHUNK_SIZE));
+      found = indexOf(id, from);
+    }
+
+    return publish(found == -1 ? Math.min(max, plotCommitList.size()) : found + 1);
+  }
+
+  /**
+   * Loads all the remaining commits.
+   *
+   * @return The commits. Empty when there are no more commits.
+   *
+   * @throws IOException When the commits cannot be read.
+   */
+  public synchronized List<CommitCharacteristics> remaining() throws IOException {
+    fill(Integer.MAX_VALUE);
+    return publish(plotCommitList.size());
+  }
+
+  /**
+   * @return <code>true</code> if all the commits were published.
+   */
+  public synchronized boolean isComplete() {
+    return exhausted && published == plotCommitList.size();
+  }
+
+  /**
+   * Walks commits until the plot list contains the given number of commits or there are no more commits.
+   *
+   * @param size The number of commits.
+   *
+   * @throws IOException When the commits cannot be read.
+   */
+  private void fill(int size) throws IOException {
+    if (closed) {
+      exhausted = true;
+    } else if (!exhausted) {
+      // The plot list loads until it holds more than the given index.
+      plotCommitList.fillTo(size - 1);
+      exhausted = plotCommitList.size() < size;
+    }
+  }
+
+  /**
+   * Searches a commit in the plot list.
+   *
+   * @param id   The commit.
+   * @param from The index from which to search.
+   *
+   * @return The index of the commit or -1.
+   */
+  private int indexOf(AnyObjectId id, int from) {
+    for (int i = from; i < plotCommitList.size(); i++) {
+      if (id.equals(plotCommitList.get(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Publishes the commits loaded in the plot list up to the given index.
+   *
+   * @param end The index of the first commit that is not published.
+   *
+   * @return The published commits.
+   */
+  private List<CommitCharacteristics> publish(int end) {
+    List<CommitCharacteristics> page = new ArrayList<>(end - published + 1);
+    if (includeUncommittedChanges) {
+      page.add(GitAccess.UNCOMMITED_CHANGES);
+      includeUncommittedChanges = false;
+    }
+    for (int i = published; i < end; i++) {
+      PlotCommit<VisualLane> commit = plotCommitList.get(i);
+      page.add(new CommitCharacteristics(commit));
+    }
+    published = Math.max(published, end);
+
+    return page;
+  }
+
+  /**
+   * Releases the revision walk.
+   */
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      plotWalk.close();
+    }
+  }
+}
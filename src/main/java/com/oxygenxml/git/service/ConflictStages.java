@@ -0,0 +1,108 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The versions recorded in the index for the conflicted files: the base (stage 1),
+ * mine (stage 2) and theirs (stage 3). All the conflicted files are read in a single
+ * scan of the index and the result is reused until the index file changes.
+ */
+public final class ConflictStages {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConflictStages.class);
+  /**
+   * The current stages, by Git directory.
+   */
+  private static final Map<File, ConflictStages> CURRENT = new ConcurrentHashMap<>();
+  /**
+   * The state of the index file when it was read.
+   */
+  private final FileState indexState;
+  /**
+   * The versions of each conflicted file, sorted by stage.
+   */
+  private final Map<String, List<ObjectId>> stages;
+
+  /**
+   * Constructor.
+   *
+   * @param indexState The state of the index file when it was read.
+   * @param stages     The versions of each conflicted file, sorted by stage.
+   */
+  private ConflictStages(FileState indexState, Map<String, List<ObjectId>> stages) {
+    this.indexState = indexState;
+    this.stages = stages;
+  }
+
+  /**
+   * Gets the conflict stages of a repository, reading the index again only if it changed.
+   *
+   * @param repository The repository.
+   *
+   * @return The conflict stages. Never <code>null</code>.
+   *
+   * @throws IOException When the index cannot be read.
+   */
+  public static ConflictStages get(Repository repository) throws IOException {
+    File indexFile = repository.getIndexFile();
+    ConflictStages current = CURRENT.get(repository.getDirectory());
+    if (current != null && !current.indexState.isModified(indexFile)) {
+      return current;
+    }
+
+    long started = System.currentTimeMillis();
+    // Taken before reading, so that a change made while reading is noticed next time.
+    FileState indexState = FileState.of(indexFile);
+    DirCache dirCache = repository.readDirCache();
+    Map<String, List<ObjectId>> stages = new HashMap<>();
+    // The entries are sorted by path and then by stage.
+    for (int i = 0; i < dirCache.getEntryCount(); i++) {
+      DirCacheEntry entry = dirCache.getEntry(i);
+      if (entry.getStage() != DirCacheEntry.STAGE_0) {
+        stages.computeIfAbsent(entry.getPathString(), k -> new ArrayList<>(3)).add(entry.getObjectId());
+      }
+    }
+
+    current = new ConflictStages(indexState, stages);
+    CURRENT.put(repository.getDirectory(), current);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Read the stages of {} conflicted files in {} ms", stages.size(), System.currentTimeMillis() - started);
+    }
+    return current;
+  }
+
+  /**
+   * @param path The path of a file, relative to the working tree.
+   *
+   * @return <code>true</code> if the file is conflicted.
+   */
+  public boolean isConflicted(String path) {
+    return stages.containsKey(path);
+  }
+
+  /**
+   * @param path The path of a file, relative to the working tree.
+   *
+   * @return The versions of the conflicted file, sorted by stage. A stage is missing when
+   * the file doesn't exist on that side. Empty if the file is not conflicted.
+   */
+  public List<ObjectId> getStages(String path) {
+    return Collections.unmodifiableList(stages.getOrDefault(path, Collections.emptyList()));
+  }
+}
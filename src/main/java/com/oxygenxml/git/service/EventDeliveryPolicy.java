@@ -0,0 +1,23 @@
+package com.oxygenxml.git.service;
+
+/**
+ * How the Git events are delivered to a listener.
+ */
+public enum EventDeliveryPolicy {
+  /**
+   * On the thread that fires the event, before the operation continues. The default.
+   * Needed by the listeners that must observe the event before anyone else queries the repository,
+   * like the caches.
+   */
+  SYNCHRONOUS,
+  /**
+   * On a dispatch thread, all the events, in the order in which they were fired.
+   * For listeners that only schedule work or update views.
+   */
+  ASYNC_ORDERED,
+  /**
+   * On a dispatch thread, only the latest of the events fired while the listener was busy.
+   * For listeners that only need to know that something changed.
+   */
+  COALESCED
+}
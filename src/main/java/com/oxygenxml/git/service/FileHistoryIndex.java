@@ -0,0 +1,571 @@
+package com.oxygenxml.git.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdOwnerMap;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.entities.FileStatusUtil;
+
+/**
+ * Index from the file paths to the commits that changed them, including the renames.
+ * Each commit is compared with its first parent, merge commits included, as <code>git log --follow</code> does.<br><br>
+ *
+ * The index is persisted in a file from the Git directory, a header followed by one record per commit.
+ * Commits are indexed parents first, so the indexed commits always include all their ancestors
+ * and a new update only needs to walk the commits added since.<br><br>
+ *
+ * Not thread safe.
+ */
+public class FileHistoryIndex {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileHistoryIndex.class);
+  /**
+   * The name of the file, inside the Git directory.
+   */
+  static final String FILE_NAME = "oxygen-file-history";
+  /**
+   * Identifies the file format.
+   */
+  private static final int MAGIC = 0x4f584648;
+  /**
+   * The version of the file format.
+   */
+  private static final int VERSION = 2;
+
+  /**
+   * The paths changed by an indexed commit.
+   */
+  private static class IndexedCommit extends ObjectIdOwnerMap.Entry {
+    /**
+     * The changed paths. For renames, the new path.
+     */
+    private final String[] paths;
+    /**
+     * For each changed path, the path in the parent if it was renamed or <code>null</code>.
+     */
+    private final String[] renamedFrom;
+
+    /**
+     * Constructor.
+     *
+     * @param id          The commit id.
+     * @param paths       The changed paths. For renames, the new path.
+     * @param renamedFrom For each changed path, the path in the parent if it was renamed or <code>null</code>.
+     */
+    IndexedCommit(AnyObjectId id, String[] paths, String[] renamedFrom) {
+      super(id);
+      this.paths = paths;
+      this.renamedFrom = renamedFrom;
+    }
+
+    /**
+     * @param path A path.
+     *
+     * @return The position of the path among the changed paths or -1 if the commit didn't change it.
+     */
+    int indexOf(String path) {
+      for (int i = 0; i < paths.length; i++) {
+        if (paths[i].equals(path)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * The history of a file, across renames. An old path belongs to the file only in the commits
+   * older than the one that renamed it, so the history must be followed from the newer commits
+   * to the older ones, switching to the old path at each rename.
+   */
+  public static class PathHistory {
+    /**
+     * All the paths the file had.
+     */
+    private final Set<String> paths;
+    /**
+     * The commits that changed any of the paths.
+     */
+    private final Map<ObjectId, IndexedCommit> changes;
+
+    /**
+     * Constructor.
+     *
+     * @param paths   All the paths the file had.
+     * @param changes The commits that changed any of the paths.
+     */
+    PathHistory(Set<String> paths, Map<ObjectId, IndexedCommit> changes) {
+      this.paths = paths;
+      this.changes = changes;
+    }
+
+    /**
+     * @return All the paths the file had, starting with the current one.
+     */
+    public Set<String> getPaths() {
+      return paths;
+    }
+
+    /**
+     * @param id   A commit id.
+     * @param path A path the file had.
+     *
+     * @return <code>true</code> if the commit changed the path, compared with its first parent.
+     */
+    public boolean isChanged(AnyObjectId id, String path) {
+      IndexedCommit commit = changes.get(id);
+      return commit != null && commit.indexOf(path) != -1;
+    }
+
+    /**
+     * @param id   A commit id.
+     * @param path A path the file had.
+     *
+     * @return The path of the file in the first parent, if the commit renamed it, or <code>null</code>.
+     */
+    public String getRenamedFrom(AnyObjectId id, String path) {
+      IndexedCommit commit = changes.get(id);
+      int index = commit != null ? commit.indexOf(path) : -1;
+      return index != -1 ? commit.renamedFrom[index] : null;
+    }
+  }
+
+  /**
+   * The indexed commits.
+   */
+  private final ObjectIdOwnerMap<IndexedCommit> commits = new ObjectIdOwnerMap<>();
+  /**
+   * The commits that changed each path.
+   */
+  private final Map<String, List<IndexedCommit>> commitsByPath = new HashMap<>();
+  /**
+   * For each path, the paths renamed into it.
+   */
+  private final Map<String, Set<String>> renameSources = new HashMap<>();
+  /**
+   * Shares the path strings between the records.
+   */
+  private final Map<String, String> pathPool = new HashMap<>();
+  /**
+   * The file in which the index is persisted.
+   */
+  private final File file;
+  /**
+   * The commits found by the last walk that are not indexed yet, parents first.
+   */
+  private final Deque<ObjectId> pending = new ArrayDeque<>();
+
+  /**
+   * Constructor.
+   *
+   * @param file The file in which the index is persisted.
+   */
+  private FileHistoryIndex(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Loads the index persisted for a repository. A missing or corrupted file results in an empty index.
+   *
+   * @param repository The repository.
+   *
+   * @return The index. Never <code>null</code>.
+   */
+  public static FileHistoryIndex load(Repository repository) {
+    FileHistoryIndex index = new FileHistoryIndex(new File(repository.getDirectory(), FILE_NAME));
+    if (index.file.isFile()) {
+      try {
+        index.read();
+      } catch (IOException e) {
+        LOGGER.warn("Discarding the file history index " + index.file + ": " + e.getMessage());
+        index = new FileHistoryIndex(index.file);
+        try {
+          Files.deleteIfExists(index.file.toPath());
+        } catch (IOException ex) {
+          LOGGER.debug(ex.getMessage(), ex);
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Reads the records from the file.
+   *
+   * @throws IOException When the file is unreadable or corrupted.
+   */
+  private void read() throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Unknown format");
+      }
+      byte[] buffer = new byte[Constants.OBJECT_ID_LENGTH];
+      while (true) {
+        int firstByte = in.read();
+        if (firstByte == -1) {
+          break;
+        }
+        buffer[0] = (byte) firstByte;
+        in.readFully(buffer, 1, buffer.length - 1);
+        int count = in.readInt();
+        String[] paths = new String[count];
+        String[] renamedFrom = new String[count];
+        for (int i = 0; i < count; i++) {
+          boolean renamed = in.readBoolean();
+          paths[i] = in.readUTF();
+          if (renamed) {
+            renamedFrom[i] = in.readUTF();
+          }
+        }
+        add(new IndexedCommit(ObjectId.fromRaw(buffer), paths, renamedFrom));
+      }
+    } catch (EOFException e) {
+      throw new IOException("Truncated file", e);
+    }
+  }
+
+  /**
+   * Adds an indexed commit in memory.
+   *
+   * @param commit The commit.
+   */
+  private void add(IndexedCommit commit) {
+    for (int i = 0; i < commit.paths.length; i++) {
+      commit.paths[i] = pathPool.computeIfAbsent(commit.paths[i], p -> p);
+      commitsByPath.computeIfAbsent(commit.paths[i], p -> new ArrayList<>(2)).add(commit);
+      if (commit.renamedFrom[i] != null) {
+        commit.renamedFrom[i] = pathPool.computeIfAbsent(commit.renamedFrom[i], p -> p);
+        renameSources.computeIfAbsent(commit.paths[i], p -> new LinkedHashSet<>(2)).add(commit.renamedFrom[i]);
+      }
+    }
+    commits.add(commit);
+  }
+
+  /**
+   * @param id A commit id.
+   *
+   * @return <code>true</code> if the commit is indexed.
+   */
+  public boolean isIndexed(AnyObjectId id) {
+    return commits.contains(id);
+  }
+
+  /**
+   * @return The number of indexed commits.
+   */
+  public int size() {
+    return commits.size();
+  }
+
+  /**
+   * @param repository The repository.
+   *
+   * @return <code>true</code> if the HEAD and all the branches are indexed.
+   *
+   * @throws IOException When the references cannot be read.
+   */
+  public boolean isUpToDate(Repository repository) throws IOException {
+    RefSnapshot snapshot = RefSnapshot.get(repository);
+    List<Ref> refs = new ArrayList<>(snapshot.getRefsByPrefix(Constants.R_HEADS));
+    refs.addAll(snapshot.getRefsByPrefix(Constants.R_REMOTES));
+    Ref head = repository.exactRef(Constants.HEAD);
+    if (head != null) {
+      refs.add(head);
+    }
+    for (Ref ref : refs) {
+      ObjectId id = ref.getObjectId();
+      if (id != null && !isIndexed(id)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the history of a file, following the renames backwards.
+   *
+   * @param path The current path of the file.
+   *
+   * @return The history. Never <code>null</code>.
+   */
+  public PathHistory getPathHistory(String path) {
+    Set<String> paths = new LinkedHashSet<>();
+    Deque<String> toVisit = new ArrayDeque<>();
+    toVisit.add(path);
+    while (!toVisit.isEmpty()) {
+      String current = toVisit.poll();
+      if (paths.add(current)) {
+        toVisit.addAll(renameSources.getOrDefault(current, Collections.emptySet()));
+      }
+    }
+
+    Map<ObjectId, IndexedCommit> changes = new HashMap<>();
+    for (String p : paths) {
+      for (IndexedCommit commit : commitsByPath.getOrDefault(p, Collections.emptyList())) {
+        changes.put(commit, commit);
+      }
+    }
+
+    return new PathHistory(Collections.unmodifiableSet(paths), changes);
+  }
+
+  /**
+   * @param id A commit id.
+   * @param newPath The path of a file in the commit.
+   *
+   * @return The path of the file in the first parent, if the commit renamed it, or <code>null</code>.
+   * Also <code>null</code> if the commit is not indexed.
+   */
+  public String getRenamedFrom(AnyObjectId id, String newPath) {
+    IndexedCommit commit = commits.get(id);
+    int index = commit != null ? commit.indexOf(newPath) : -1;
+    return index != -1 ? commit.renamedFrom[index] : null;
+  }
+
+  /**
+   * @param id A commit id.
+   * @param oldPath The path of a file in the first parent of the commit.
+   *
+   * @return The path of the file in the commit, if the commit renamed it, or <code>null</code>.
+   * Also <code>null</code> if the commit is not indexed.
+   */
+  public String getRenamedTo(AnyObjectId id, String oldPath) {
+    IndexedCommit commit = commits.get(id);
+    if (commit != null) {
+      for (int i = 0; i < commit.paths.length; i++) {
+        if (oldPath.equals(commit.renamedFrom[i])) {
+          return commit.paths[i];
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Indexes the oldest commits reachable from the HEAD, the branches and the tags that are not indexed yet,
+   * then appends them to the file. The commits to index are found with a single walk and the next calls
+   * continue from where the previous one stopped, so each commit is read once.
+   *
+   * @param repository The repository.
+   * @param maxCommits The maximum number of commits to index.
+   *
+   * @return The number of indexed commits. If it is <code>maxCommits</code>, there might be more commits to index.
+   *
+   * @throws IOException When the commits cannot be read or the file cannot be written.
+   */
+  public int update(Repository repository, int maxCommits) throws IOException {
+    List<IndexedCommit> added = new ArrayList<>();
+    try (RevWalk walk = new RevWalk(repository);
+        ObjectReader reader = repository.newObjectReader();
+        TreeWalk treeWalk = new TreeWalk(repository, reader)) {
+      walk.setRetainBody(false);
+      if (pending.isEmpty()) {
+        findCommitsToIndex(repository, walk);
+      }
+
+      treeWalk.setRecursive(true);
+      treeWalk.setFilter(TreeFilter.ANY_DIFF);
+      RenameDetector renameDetector = new RenameDetector(repository);
+      while (added.size() < maxCommits && !pending.isEmpty()) {
+        if (!isIndexed(pending.peek())) {
+          RevCommit commit = walk.parseCommit(pending.peek());
+          if (commit.getParentCount() > 0) {
+            walk.parseHeaders(commit.getParent(0));
+          }
+          IndexedCommit indexed = index(commit, treeWalk, renameDetector);
+          add(indexed);
+          added.add(indexed);
+        }
+        pending.poll();
+      }
+    } catch (MissingObjectException e) {
+      // Probably removed by a garbage collection. Walk again next time.
+      LOGGER.debug(e.getMessage(), e);
+      pending.clear();
+    }
+
+    if (!added.isEmpty()) {
+      append(added);
+    }
+    return added.size();
+  }
+
+  /**
+   * Walks the commits that are not indexed yet, parents first, and remembers them as pending.
+   *
+   * @param repository The repository.
+   * @param walk       The walk.
+   *
+   * @throws IOException When the commits cannot be read.
+   */
+  private void findCommitsToIndex(Repository repository, RevWalk walk) throws IOException {
+    walk.sort(RevSort.TOPO);
+    walk.sort(RevSort.REVERSE, true);
+    if (markTips(repository, walk)) {
+      RevCommit commit;
+      while ((commit = walk.next()) != null) {
+        if (!isIndexed(commit)) {
+          pending.add(commit.copy());
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks the commits pointed by the references as start points of the walk, or as uninteresting
+   * if they are already indexed.
+   *
+   * @param repository The repository.
+   * @param walk       The walk.
+   *
+   * @return <code>true</code> if there are commits to index.
+   *
+   * @throws IOException When the references cannot be read.
+   */
+  private boolean markTips(Repository repository, RevWalk walk) throws IOException {
+    List<Ref> refs = new ArrayList<>(RefSnapshot.get(repository).getRefs());
+    Ref head = repository.exactRef(Constants.HEAD);
+    if (head != null) {
+      refs.add(head);
+    }
+
+    boolean hasStart = false;
+    for (Ref ref : refs) {
+      if (ref.getObjectId() == null) {
+        continue;
+      }
+      RevObject peeled;
+      try {
+        peeled = walk.peel(walk.parseAny(ref.getObjectId()));
+      } catch (MissingObjectException e) {
+        LOGGER.debug(e.getMessage(), e);
+        continue;
+      }
+      if (peeled instanceof RevCommit) {
+        if (isIndexed(peeled)) {
+          walk.markUninteresting((RevCommit) peeled);
+        } else {
+          walk.markStart((RevCommit) peeled);
+          hasStart = true;
+        }
+      }
+    }
+    return hasStart;
+  }
+
+  /**
+   * Finds the paths changed by a commit, compared with its first parent.
+   *
+   * @param commit         The commit.
+   * @param treeWalk       Tree walk for comparing the trees.
+   * @param renameDetector Detects the renames.
+   *
+   * @return The indexed commit.
+   *
+   * @throws IOException When the trees cannot be read.
+   */
+  private static IndexedCommit index(
+      RevCommit commit,
+      TreeWalk treeWalk,
+      RenameDetector renameDetector) throws IOException {
+    treeWalk.reset();
+    if (commit.getParentCount() > 0) {
+      treeWalk.addTree(commit.getParent(0).getTree());
+    } else {
+      treeWalk.addTree(new EmptyTreeIterator());
+    }
+    treeWalk.addTree(commit.getTree());
+
+    List<DiffEntry> diffs = DiffEntry.scan(treeWalk);
+    renameDetector.reset();
+    renameDetector.addAll(diffs);
+    diffs = renameDetector.compute();
+
+    String[] paths = new String[diffs.size()];
+    String[] renamedFrom = new String[diffs.size()];
+    for (int i = 0; i < paths.length; i++) {
+      DiffEntry diff = diffs.get(i);
+      paths[i] = diff.getChangeType() == DiffEntry.ChangeType.DELETE ? diff.getOldPath() : diff.getNewPath();
+      if (FileStatusUtil.isRename(diff.getChangeType())) {
+        renamedFrom[i] = diff.getOldPath();
+      }
+    }
+    return new IndexedCommit(commit, paths, renamedFrom);
+  }
+
+  /**
+   * Appends records to the file, writing the header first if the file doesn't exist.
+   *
+   * @param added The new records.
+   *
+   * @throws IOException When the file cannot be written.
+   */
+  private void append(List<IndexedCommit> added) throws IOException {
+    boolean newFile = !file.isFile();
+    if (newFile && commits.size() != added.size()) {
+      // The file was removed. Write everything.
+      added = new ArrayList<>();
+      for (IndexedCommit commit : commits) {
+        added.add(commit);
+      }
+    }
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(file, !newFile)))) {
+      if (newFile) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+      }
+      byte[] buffer = new byte[Constants.OBJECT_ID_LENGTH];
+      for (IndexedCommit commit : added) {
+        commit.copyRawTo(buffer, 0);
+        out.write(buffer);
+        out.writeInt(commit.paths.length);
+        for (int i = 0; i < commit.paths.length; i++) {
+          out.writeBoolean(commit.renamedFrom[i] != null);
+          out.writeUTF(commit.paths[i]);
+          if (commit.renamedFrom[i] != null) {
+            out.writeUTF(commit.renamedFrom[i]);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.FileHistoryIndex.PathHistory;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
+import com.oxygenxml.git.service.GitOperationScheduler.Priority;
+import com.oxygenxml.git.view.event.GitEventInfo;
+import com.oxygenxml.git.view.event.GitOperation;
+
+/**
+ * Keeps the {@link FileHistoryIndex} of the loaded repository. The index is loaded from disk and
+ * brought up to date on the read lane of the {@link GitOperationScheduler}, with a low priority and
+ * in chunks, so that indexing a long history doesn't delay the other read tasks for long. The updates
+ * are serialized by a lock.<br><br>
+ *
+ * Queries never wait for the index. While it is being updated, or when it is not up to date, they
+ * return <code>null</code> and the caller falls back to walking and comparing the commits.
+ */
+public class FileHistoryIndexCache {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileHistoryIndexCache.class);
+  /**
+   * How many commits to index in one task.
+   */
+  private static final int CHUNK_SIZE = 500;
+  /**
+   * The operations after which the index is updated.
+   */
+  private static final Set<GitOperation> UPDATING_OPERATIONS = EnumSet.of(
+      GitOperation.OPEN_WORKING_COPY,
+      GitOperation.COMMIT,
+      GitOperation.PULL,
+      GitOperation.MERGE,
+      GitOperation.REVERT_COMMIT,
+      GitOperation.RESET_TO_COMMIT,
+      GitOperation.CONTINUE_REBASE,
+      GitOperation.CHECKOUT,
+      GitOperation.CHECKOUT_COMMIT);
+  /**
+   * Supplies the currently loaded repository.
+   */
+  private final Supplier<Git> gitSupplier;
+  /**
+   * Guards the index.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+  /**
+   * The index. <code>null</code> until loaded.
+   */
+  private FileHistoryIndex index;
+  /**
+   * The Git directory of the repository to which the index belongs.
+   */
+  private File indexDirectory;
+  /**
+   * The update waiting to be executed, if any.
+   */
+  private final AtomicReference<ScheduledFuture<?>> scheduledUpdate = new AtomicReference<>();
+
+  /**
+   * Constructor.
+   *
+   * @param listeners   The repository for installing Git event listeners.
+   * @param gitSupplier Supplies the currently loaded repository.
+   */
+  public FileHistoryIndexCache(GitListeners listeners, Supplier<Git> gitSupplier) {
+    this.gitSupplier = gitSupplier;
+    listeners.addGitListener(new GitEventAdapter() {
+      @Override
+      public void operationSuccessfullyEnded(GitEventInfo info) {
+        if (UPDATING_OPERATIONS.contains(info.getGitOperation())) {
+          scheduleUpdate();
+        }
+      }
+    });
+  }
+
+  /**
+   * Finds the history of a file from the index.
+   *
+   * @param repository The repository.
+   * @param path       The current path of the file.
+   *
+   * @return The history or <code>null</code> if the index is not available or not up to date.
+   */
+  public PathHistory getPathHistory(Repository repository, String path) {
+    return query(repository, fileIndex -> {
+      try {
+        return fileIndex.isUpToDate(repository) ? fileIndex.getPathHistory(path) : null;
+      } catch (IOException e) {
+        LOGGER.debug(e.getMessage(), e);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Runs a query on the index.
+   *
+   * @param <T>        The type of the result.
+   * @param repository The repository.
+   * @param query      The query. Returns <code>null</code> if the index cannot answer it.
+   *
+   * @return The result or <code>null</code> if the index is not available or cannot answer the query.
+   */
+  public <T> T query(Repository repository, Function<FileHistoryIndex, T> query) {
+    T result = null;
+    if (lock.tryLock()) {
+      try {
+        if (index != null && repository.getDirectory().equals(indexDirectory)) {
+          result = query.apply(index);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    if (result == null) {
+      // Probably new commits to index.
+      scheduleUpdate();
+    }
+    return result;
+  }
+
+  /**
+   * Schedules an update of the index of the loaded repository, unless one is already waiting.
+   */
+  public void scheduleUpdate() {
+    ScheduledFuture<?> waiting = scheduledUpdate.get();
+    if (waiting == null || waiting.isDone()) {
+      ScheduledFuture<?> update = GitOperationScheduler.getInstance().schedule(
+          Lane.READ,
+          Priority.LOW,
+          () -> {
+            scheduledUpdate.set(null);
+            if (update() == CHUNK_SIZE) {
+              // Let the other read tasks run before the next chunk.
+              scheduleUpdate();
+            }
+          },
+          0);
+      if (!scheduledUpdate.compareAndSet(waiting, update)) {
+        update.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Loads the index of the loaded repository, if needed, and indexes the next chunk of new commits.
+   *
+   * @return The number of indexed commits.
+   */
+  public int update() {
+    Git git = gitSupplier.get();
+    if (git == null) {
+      return 0;
+    }
+
+    Repository repository = git.getRepository();
+    int added = 0;
+    lock.lock();
+    try {
+      if (index == null || !repository.getDirectory().equals(indexDirectory)) {
+        index = FileHistoryIndex.load(repository);
+        indexDirectory = repository.getDirectory();
+      }
+      long start = System.currentTimeMillis();
+      added = index.update(repository, CHUNK_SIZE);
+      if (LOGGER.isDebugEnabled() && added > 0) {
+        LOGGER.debug("Indexed the changed files of {} commits in {} ms",
+            added, System.currentTimeMillis() - start);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Cannot update the file history index: " + e.getMessage(), e);
+    } finally {
+      lock.unlock();
+    }
+    return added;
+  }
+}
@@ -0,0 +1,71 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+
+/**
+ * The size and the last modification time of a file, used to find out cheaply whether the file
+ * was modified since it was last read.<br><br>
+ *
+ * The modification time has a coarse granularity on some file systems, so a second change made
+ * shortly after the state was taken might keep both the time and the size. A file modified shortly
+ * before its state was taken is always considered modified.
+ */
+final class FileState {
+  /**
+   * How long after a file was modified its state can still miss a change, in milliseconds.
+   */
+  private static final long RACY_INTERVAL = 2500;
+  /**
+   * The state of a file that was never read. Always considered modified.
+   */
+  static final FileState UNKNOWN = new FileState(0, -1, 0);
+  /**
+   * The last modification time of the file, <code>0</code> if the file doesn't exist.
+   */
+  private final long lastModified;
+  /**
+   * The size of the file, <code>0</code> if the file doesn't exist.
+   */
+  private final long size;
+  /**
+   * When the state was taken.
+   */
+  private final long taken;
+
+  /**
+   * Constructor.
+   *
+   * @param lastModified The last modification time of the file.
+   * @param size         The size of the file.
+   * @param taken        When the state was taken.
+   */
+  private FileState(long lastModified, long size, long taken) {
+    this.lastModified = lastModified;
+    this.size = size;
+    this.taken = taken;
+  }
+
+  /**
+   * Takes the current state of a file. Take it before reading the file, so that a change made
+   * while reading is noticed next time.
+   *
+   * @param file The file. It might not exist.
+   *
+   * @return The state of the file.
+   */
+  static FileState of(File file) {
+    long now = System.currentTimeMillis();
+    return new FileState(file.lastModified(), file.length(), now);
+  }
+
+  /**
+   * @param file The file whose state this is.
+   *
+   * @return <code>true</code> if the file might have been modified since this state was taken.
+   */
+  boolean isModified(File file) {
+    return taken - lastModified < RACY_INTERVAL
+        || file.lastModified() != lastModified
+        || file.length() != size;
+  }
+}
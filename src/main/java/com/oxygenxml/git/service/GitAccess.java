@@ -1,5 +1,6 @@
 package com.oxygenxml.git.service;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -16,7 +17,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.concurrent.ScheduledFuture;
 
@@ -24,7 +24,6 @@ import org.apache.sshd.common.SshConstants;
 import org.apache.sshd.common.SshException;
 import org.eclipse.jgit.annotations.NonNull;
 import org.eclipse.jgit.annotations.Nullable;
-import org.eclipse.jgit.api.AddCommand;
 import org.eclipse.jgit.api.CheckoutCommand;
 import org.eclipse.jgit.api.CheckoutCommand.Stage;
 import org.eclipse.jgit.api.CloneCommand;
@@ -32,8 +31,6 @@ import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
 import org.eclipse.jgit.api.DeleteBranchCommand;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.ListBranchCommand.ListMode;
-import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.MergeCommand;
 import org.eclipse.jgit.api.MergeResult;
 import org.eclipse.jgit.api.MergeResult.MergeStatus;
@@ -42,9 +39,7 @@ import org.eclipse.jgit.api.PullResult;
 import org.eclipse.jgit.api.PushCommand;
 import org.eclipse.jgit.api.RebaseCommand.Operation;
 import org.eclipse.jgit.api.RebaseResult;
-import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.ResetCommand.ResetType;
-import org.eclipse.jgit.api.RmCommand;
 import org.eclipse.jgit.api.StashCreateCommand;
 import org.eclipse.jgit.api.StashListCommand;
 import org.eclipse.jgit.api.Status;
@@ -85,9 +80,7 @@ import org.eclipse.jgit.merge.MergeStrategy;
 import org.eclipse.jgit.merge.ResolveMerger.MergeFailureReason;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevSort;
-import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.submodule.SubmoduleWalk;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.PushResult;
@@ -108,6 +101,7 @@ import com.oxygenxml.git.auth.AuthenticationInterceptor;
 import com.oxygenxml.git.auth.SSHCapableUserCredentialsProvider;
 import com.oxygenxml.git.constants.UIConstants;
 import com.oxygenxml.git.options.OptionsManager;
+import com.oxygenxml.git.service.CommitGraph.Divergence;
 import com.oxygenxml.git.service.entities.FileStatus;
 import com.oxygenxml.git.service.entities.GitChangeType;
 import com.oxygenxml.git.translator.Tags;
@@ -172,6 +166,14 @@ public class GitAccess {
 	 * Translation support.
 	 */
 	private static final Translator TRANSLATOR = Translator.getInstance();
+	/**
+	 * Objects of at least this many bytes are streamed instead of being inflated in memory.
+	 */
+	static final int LARGE_OBJECT_THRESHOLD = 5 * 1024 * 1024;
+	/**
+	 * The size of the buffer used when streaming a large object.
+	 */
+	private static final int LARGE_OBJECT_BUFFER_SIZE = 64 * 1024;
 	
 	/**
    * A synthetic object representing the uncommitted changes.
@@ -191,12 +193,41 @@ public class GitAccess {
 	 * Keeps a cache of the computed status to avoid processing overhead.
 	 */
 	private StatusCache statusCache = null;
+	
+	/**
+	 * Keeps a cache of the HEAD state to avoid reading the references too often.
+	 */
+	private BranchInfoCache branchInfoCache = null;
+
+	/**
+	 * Keeps the commit graph, for computing ahead/behind counts without walking the commits.
+	 */
+	private CommitGraphCache commitGraphCache = null;
+
+	/**
+	 * Keeps the index of the commits that changed each file, for the file history.
+	 */
+	private FileHistoryIndexCache fileHistoryIndexCache = null;
+
+	/**
+	 * The last computed tags and branches pointing to each commit.
+	 */
+	private volatile RefDecorations refDecorations = RefDecorations.EMPTY;
+
+	/**
+	 * Keeps the files changed by the recently presented commits.
+	 */
+	private ChangedFilesCache changedFilesCache = null;
 
 	/**
 	 * Singleton instance.
 	 */
 	private GitAccess() {
 	  statusCache = new StatusCache(GitListeners.getInstance(), this::getGit);
+	  branchInfoCache = new BranchInfoCache(GitListeners.getInstance(), this::getGit);
+	  commitGraphCache = new CommitGraphCache(GitListeners.getInstance(), this::getGit);
+	  fileHistoryIndexCache = new FileHistoryIndexCache(GitListeners.getInstance(), this::getGit);
+	  changedFilesCache = new ChangedFilesCache(GitListeners.getInstance(), ChangedFilesCache.DEFAULT_MAX_WEIGHT);
 	}
 	
 	/**
@@ -206,6 +237,27 @@ public class GitAccess {
     return statusCache;
   }
 
+	/**
+	 * @return The commit graph of the loaded repository.
+	 */
+	public CommitGraphCache getCommitGraphCache() {
+	  return commitGraphCache;
+	}
+
+	/**
+	 * @return The index of the commits that changed each file of the loaded repository.
+	 */
+	public FileHistoryIndexCache getFileHistoryIndexCache() {
+	  return fileHistoryIndexCache;
+	}
+
+	/**
+	 * @return The files changed by the recently presented commits.
+	 */
+	public ChangedFilesCache getChangedFilesCache() {
+	  return changedFilesCache;
+	}
+
 	/**
 	 * @return the singleton instance.
 	 */
@@ -696,6 +748,7 @@ public class GitAccess {
 	 * Frees resources associated with the git instance.
 	 */
 	public void closeRepo() {
+	  statusCache.stopWatching();
 		if (git != null) {
 		  AuthenticationInterceptor.unbind(getHostName());
 			git.close();
@@ -711,18 +764,9 @@ public class GitAccess {
 		List<Ref> branches = Collections.emptyList();
 		if(git != null) {
 			try {
-				branches = git.branchList().call();
-				// EXM-47153: if we are on a detached HEAD, 
-				// remove it from the list of local branches
-				Iterator<Ref> iterator = branches.iterator();
-				while (iterator.hasNext()) {
-					Ref ref = iterator.next();
-					if (Constants.HEAD.equals(ref.getName())) {
-						iterator.remove();
-						break;
-					}
-				}
-			} catch (GitAPIException e) {
+				// EXM-47153: on a detached HEAD, HEAD is not listed among the local branches
+				branches = RefSnapshot.get(git.getRepository()).getRefsByPrefix(Constants.R_HEADS);
+			} catch (IOException e) {
 				LOGGER.error(e.getMessage(), e);
 			}
 		}
@@ -738,8 +782,8 @@ public class GitAccess {
     List<Ref> branches = Collections.emptyList();
     if(git != null) {
     	try {
-    		branches = git.branchList().setListMode(ListMode.REMOTE).call();
-    	} catch (GitAPIException e) {
+    		branches = RefSnapshot.get(git.getRepository()).getRefsByPrefix(Constants.R_REMOTES);
+    	} catch (IOException e) {
     		LOGGER.error(e.getMessage(), e);
     	}
     }
@@ -1242,20 +1286,15 @@ public class GitAccess {
 	 * @throws IOException
 	 */
 	private RevCommit getCommonAncestor(RevWalk walk, RevCommit a, RevCommit b) throws IOException {
-		walk.reset();
-		walk.setRevFilter(RevFilter.MERGE_BASE);
-		walk.markStart(a);
-		walk.markStart(b);
-		final RevCommit base = walk.next();
-		if (base == null) {
+		final List<RevCommit> bases = RevCommitUtil.getMergeBases(git.getRepository(), walk, a, b);
+		if (bases.isEmpty()) {
 			return null;
 		}
-		final RevCommit base2 = walk.next();
-		if (base2 != null) {
+		if (bases.size() > 1) {
 			throw new NoMergeBaseException(MergeBaseFailureReason.MULTIPLE_MERGE_BASES_NOT_SUPPORTED,
-					MessageFormat.format(JGitText.get().multipleMergeBasesFor, a.name(), b.name(), base.name(), base2.name()));
+					MessageFormat.format(JGitText.get().multipleMergeBasesFor, a.name(), b.name(), bases.get(0).name(), bases.get(1).name()));
 		}
-		return base;
+		return bases.get(0);
 	}
 
 	/**
@@ -1264,61 +1303,35 @@ public class GitAccess {
 	 * @param file - the name of the file to be added
 	 */
 	public void add(FileStatus file) {
-	  Collection<String> filePaths = getFilePaths(Arrays.asList(file));
-	  try {
-	    fireOperationAboutToStart(new FileGitEventInfo(GitOperation.STAGE, filePaths));
-	    if (file.getChangeType().equals(GitChangeType.REMOVED)) {
-	      git.rm().addFilepattern(file.getFileLocation()).call();
-	    } else {
-	      git.add().addFilepattern(file.getFileLocation()).call();
-	    }
-	    fireOperationSuccessfullyEnded(new FileGitEventInfo(GitOperation.STAGE, filePaths));
-	  } catch (GitAPIException e) {
-	    fireOperationFailed(new FileGitEventInfo(GitOperation.STAGE, filePaths), e);
-	    LOGGER.error(e.getMessage(), e);
-		}
+	  addAll(Arrays.asList(file));
 	}
 
 	/**
-	 * Adds multiple files to the staging area. Preparing the for commit
+	 * Adds multiple files to the staging area. Preparing the for commit.
+	 * The index is updated and written once, no matter how many files are given.
 	 * 
 	 * @param files The files to be added.
 	 */
 	public void addAll(List<FileStatus> files) {
-	  Collection<String> filePaths = getFilePaths(files);
-		try {
-		  fireOperationAboutToStart(new FileGitEventInfo(GitOperation.STAGE, filePaths));
-		  
-		  RmCommand removeCmd = null;
-		  AddCommand addCmd = null;
-		  
-			for (FileStatus file : files) {
-				if (file.getChangeType() == GitChangeType.MISSING) {
-				  if (removeCmd == null) {
-				    removeCmd = git.rm().setCached(true);
-				  }
-          removeCmd.addFilepattern(file.getFileLocation());
-				} else {
-				  if (addCmd == null) {
-				    addCmd = git.add();
-				  }
-          addCmd.addFilepattern(file.getFileLocation());
-				}
-			}
-			
-			if (addCmd != null) {
-			  addCmd.call();
-			}
-			
-			if (removeCmd != null) {
-			  removeCmd.call();
-			}
-			
-			fireOperationSuccessfullyEnded(new FileGitEventInfo(GitOperation.STAGE, filePaths));
-		} catch (GitAPIException e) {
-		  fireOperationFailed(new FileGitEventInfo(GitOperation.STAGE, filePaths), e);
-		  LOGGER.error(e.getMessage(), e);
-		}
+	  updateIndex(GitOperation.STAGE, new IndexBatchUpdate().stage(files));
+	}
+
+	/**
+	 * Applies a batch of index changes and fires one event for all the paths.
+	 * 
+	 * @param operation The operation, stage or unstage.
+	 * @param update    The index changes.
+	 */
+	private void updateIndex(GitOperation operation, IndexBatchUpdate update) {
+	  Collection<String> filePaths = new ArrayList<>(update.getPaths());
+	  try {
+	    fireOperationAboutToStart(new FileGitEventInfo(operation, filePaths));
+	    update.apply(getRepository());
+	    fireOperationSuccessfullyEnded(new FileGitEventInfo(operation, filePaths));
+	  } catch (IOException | NoRepositorySelected e) {
+	    fireOperationFailed(new FileGitEventInfo(operation, filePaths), e);
+	    LOGGER.error(e.getMessage(), e);
+	  }
 	}
 	
 	 /**
@@ -1373,21 +1386,7 @@ public class GitAccess {
 	 * @param files The list of file to be removed
 	 */
 	public void resetAll(List<FileStatus> files) {
-	  Collection<String> filePaths = getFilePaths(files);
-		try {
-		  fireOperationAboutToStart(new FileGitEventInfo(GitOperation.UNSTAGE, filePaths));
-			if (!files.isEmpty()) {
-				ResetCommand reset = git.reset();
-				for (FileStatus file : files) {
-					reset.addPath(file.getFileLocation());
-				}
-				reset.call();
-			}
-			fireOperationSuccessfullyEnded(new FileGitEventInfo(GitOperation.UNSTAGE, filePaths));
-		} catch (GitAPIException e) {
-		  fireOperationFailed(new FileGitEventInfo(GitOperation.UNSTAGE, filePaths), e);
-		  LOGGER.error(e.getMessage(), e);
-		}
+	  updateIndex(GitOperation.UNSTAGE, new IndexBatchUpdate().unstage(files));
 	}
 
 	/**
@@ -1458,7 +1457,9 @@ public class GitAccess {
 	}
 
 	/**
-	 * Gets the loader for a file from a specified commit and its path
+	 * Gets the loader for a file from a specified commit and its path. The loader
+	 * of a file of at least {@link #LARGE_OBJECT_THRESHOLD} bytes doesn't keep the
+	 * content in memory.
 	 * 
 	 * @param commit - the commit from which to get the loader
 	 * @param path   - the path to the file
@@ -1467,30 +1468,38 @@ public class GitAccess {
 	 * @throws IOException
 	 */
 	public ObjectLoader getLoaderFrom(ObjectId commit, String path) throws IOException {
+		ObjectId objectId = getObjectIdFrom(commit, path);
+		return objectId != null ? openObject(objectId) : null;
+	}
+
+	/**
+	 * Gets the id of a file from a specified commit. The content of the file is not read.
+	 * 
+	 * @param commit The commit.
+	 * @param path   The path to the file.
+	 * 
+	 * @return The id of the file or <code>null</code> if the commit doesn't contain it.
+	 * 
+	 * @throws IOException When the commit cannot be read.
+	 */
+	public ObjectId getObjectIdFrom(ObjectId commit, String path) throws IOException {
 		Repository repository = git.getRepository();
-		RevWalk revWalk = new RevWalk(repository);
-		RevCommit revCommit = revWalk.parseCommit(commit);
-		// and using commit's tree find the path
-		RevTree tree = revCommit.getTree();
-		TreeWalk treeWalk = new TreeWalk(repository);
-		treeWalk.addTree(tree);
-		treeWalk.setRecursive(true);
-		treeWalk.setFilter(PathFilter.create(path));
-
-		ObjectLoader loader = null;
-		if (treeWalk.next()) {
-			ObjectId objectId = treeWalk.getObjectId(0);
-			loader = repository.open(objectId);
+		try (RevWalk revWalk = new RevWalk(repository);
+		    TreeWalk treeWalk = new TreeWalk(repository)) {
+		  RevCommit revCommit = revWalk.parseCommit(commit);
+		  // and using commit's tree find the path
+		  treeWalk.addTree(revCommit.getTree());
+		  treeWalk.setRecursive(true);
+		  treeWalk.setFilter(PathFilter.create(path));
+		  return treeWalk.next() ? treeWalk.getObjectId(0) : null;
 		}
-
-		treeWalk.close();
-		revWalk.close();
-		return loader;
 	}
 
 	/**
 	 * Gets the InputStream for the file that is found in the given commit at the
-	 * given path
+	 * given path. Objects of at least {@link #LARGE_OBJECT_THRESHOLD} bytes are
+	 * streamed from the object database through a bounded buffer instead of
+	 * being inflated in memory.
 	 * 
 	 * @param commitID The commit in which the file exists
 	 *          
@@ -1499,14 +1508,40 @@ public class GitAccess {
 	 * @throws IOException
 	 */
 	public InputStream getInputStream(ObjectId commitID) throws IOException {
-		InputStream toReturn = null;
-		if (commitID != null) {
-			ObjectLoader loader = git.getRepository().open(commitID);
-			toReturn = loader.openStream();
-		} else {
+		if (commitID == null) {
 			throw new IOException("The commit ID can't be null");
 		}
-		return toReturn;
+
+		ObjectLoader loader = openObject(commitID);
+		return loader.isLarge() 
+		    ? new BufferedInputStream(loader.openStream(), LARGE_OBJECT_BUFFER_SIZE) 
+		    : loader.openStream();
+	}
+
+	/**
+	 * Opens an object. Only the objects smaller than {@link #LARGE_OBJECT_THRESHOLD}
+	 * bytes are inflated in memory. The larger ones, even when they are stored as
+	 * deltas, are read when their stream is read.
+	 * 
+	 * @param objectId The object id.
+	 * 
+	 * @return The loader.
+	 * 
+	 * @throws IOException When the object cannot be read.
+	 */
+	private ObjectLoader openObject(ObjectId objectId) throws IOException {
+		// The loaders of the large objects open their own readers, so this one can be closed.
+		try (ObjectReader reader = git.getRepository().newObjectReader()) {
+		  int threshold = reader.getStreamFileThreshold();
+		  if (threshold <= 0 || threshold > LARGE_OBJECT_THRESHOLD) {
+		    reader.setStreamFileThreshold(LARGE_OBJECT_THRESHOLD);
+		  }
+		  ObjectLoader loader = reader.open(objectId);
+		  if (loader.isLarge() && LOGGER.isDebugEnabled()) {
+		    LOGGER.debug("Stream object {} of {} bytes", objectId.name(), loader.getSize());
+		  }
+		  return loader;
+		}
 	}
 
   /**
@@ -1629,11 +1664,17 @@ public class GitAccess {
 	  try {
 	    String branchName = getBranchInfo().getBranchName();
 	    if (branchName != null && branchName.length() > 0) {
-	      BranchTrackingStatus bts = BranchTrackingStatus.of(getRepository(), branchName);
-	      if (bts != null) {
-	        numberOfCommits = bts.getAheadCount();
+	      Repository repository = getRepository();
+	      Divergence divergence = commitGraphCache.getTrackingDivergence(repository, branchName);
+	      if (divergence != null) {
+	        numberOfCommits = divergence.getOnlyFromFirst().size();
 	      } else {
-	        throw new RepoNotInitializedException();
+	        BranchTrackingStatus bts = BranchTrackingStatus.of(repository, branchName);
+	        if (bts != null) {
+	          numberOfCommits = bts.getAheadCount();
+	        } else {
+	          throw new RepoNotInitializedException();
+	        }
 	      }
 	    }
 	  } catch (IOException | NoRepositorySelected e) {
@@ -1655,9 +1696,15 @@ public class GitAccess {
 	  try {
 	    String branchName = getBranchInfo().getBranchName();
 	    if (branchName != null && branchName.length() > 0) {
-	      BranchTrackingStatus bts = BranchTrackingStatus.of(getRepository(), branchName);
-	      if (bts != null) {
-	        numberOfCommits = bts.getBehindCount();
+	      Repository repository = getRepository();
+	      Divergence divergence = commitGraphCache.getTrackingDivergence(repository, branchName);
+	      if (divergence != null) {
+	        numberOfCommits = divergence.getOnlyFromSecond().size();
+	      } else {
+	        BranchTrackingStatus bts = BranchTrackingStatus.of(repository, branchName);
+	        if (bts != null) {
+	          numberOfCommits = bts.getBehindCount();
+	        }
 	      }
 	    }
 	  } catch (IOException | NoRepositorySelected e) {
@@ -1771,38 +1818,15 @@ public class GitAccess {
 	 * Checks whether or not he branch is detached. If the branch is detached it
 	 * stores the state and the name of the commit on which it is. If the branch is
 	 * not detached then it stores the branch name. After this it returns this
-	 * information
+	 * information.
+	 * <br><br>
+	 * The information is read from the HEAD reference and cached until the HEAD changes,
+	 * so calling this method often is cheap.
 	 * 
 	 * @return An object specifying the branch name and if it is detached or not
 	 */
 	public BranchInfo getBranchInfo() {
-	  BranchInfo branchInfo = new BranchInfo("", false);
-		if (git != null) {
-			branchInfo = new BranchInfo();
-			String branchName = "";
-			try {
-				branchName = git.getRepository().getBranch();
-				branchInfo.setBranchName(branchName);
-				LogCommand log = git.log();
-				if(log != null) {
-					Iterable<RevCommit> results = log.call();
-					for (RevCommit revCommit : results) {
-						if (revCommit.getId().name().equals(branchName)) {
-							branchInfo.setDetached(true);
-							branchInfo.setShortBranchName(
-									revCommit.getId().abbreviate(RevCommitUtilBase.ABBREVIATED_COMMIT_LENGTH).name());
-							break;
-						}
-					}
-				}
-			} catch (NoHeadException e) {
-			  branchInfo = new BranchInfo(branchName, false);
-			  LOGGER.debug(e.getMessage(), e);
-			} catch (IOException | GitAPIException e) {
-			  LOGGER.error(e.getMessage(), e);
-			}
-		}
-		return branchInfo;
+	  return branchInfoCache.getBranchInfo();
 	}
 
 	/**
@@ -2007,7 +2031,12 @@ public class GitAccess {
    */
   public void cleanUp() {
     listeners.clear();
+    statusCache.stopWatching();
     statusCache = new StatusCache(listeners, () -> git);
+    branchInfoCache = new BranchInfoCache(listeners, () -> git);
+    commitGraphCache = new CommitGraphCache(listeners, () -> git);
+    fileHistoryIndexCache = new FileHistoryIndexCache(listeners, () -> git);
+    changedFilesCache = new ChangedFilesCache(listeners, ChangedFilesCache.DEFAULT_MAX_WEIGHT);
     closeRepo();
   }
 	
@@ -2165,6 +2194,44 @@ public class GitAccess {
 		return revisions;
 	}
 
+	/**
+	 * Creates a pager over the history of the repository or of a resource. The history
+	 * starts with {@link #UNCOMMITED_CHANGES} if the repository history is requested and there
+	 * are uncommitted changes.
+	 * 
+	 * @param strategy      Which branches to present.
+	 * @param filePath      A resource for which we are interested in its history. If <code>null</code>, 
+	 * the repository history will be computed.
+	 * @param renameTracker The rename tracker to follow rename path changes.
+	 * 
+	 * @return The pager. Must be closed by the caller.
+	 * 
+	 * @throws NoRepositorySelected No repository is loaded.
+	 * @throws IOException          The history cannot be read.
+	 */
+	public CommitHistoryPager createHistoryPager(HistoryStrategy strategy, String filePath, RenameTracker renameTracker)
+	    throws NoRepositorySelected, IOException {
+	  boolean includeUncommittedChanges = filePath == null && statusCache.getStatus().hasUncommittedChanges();
+	  return RevCommitUtil.createHistoryPager(
+	      strategy, filePath, getRepository(), renameTracker, includeUncommittedChanges);
+	}
+
+	/**
+	 * Gets the tags and the branches pointing to each commit. The decorations are computed in a
+	 * single pass over the references and reused for as long as no reference changes.
+	 * 
+	 * @param repository The current repository.
+	 * 
+	 * @return The decorations, never <code>null</code>.
+	 * 
+	 * @throws IOException When the references cannot be read.
+	 */
+	public RefDecorations getRefDecorations(Repository repository) throws IOException {
+	  RefDecorations decorations = RefDecorations.compute(repository, RefSnapshot.get(repository).getRefs(), refDecorations);
+	  refDecorations = decorations;
+	  return decorations;
+	}
+
 	/**
 	 * Get a LinkedHashMap with all tag names in current repository.
 	 * Map shows: key = commitID, value = list of tag names.
@@ -2180,30 +2247,10 @@ public class GitAccess {
 			throws GitAPIException, IOException {
 		Map<String, List<String>> commitTagMap = new LinkedHashMap<>();
 		if(git != null) {
-			List<Ref> call = git.tagList().call();
-
-			// search through all commits for tags
-			for (Ref ref : call) {
-				List<String> tagList = new ArrayList<>();
-				String tagName = ref.getName();
-				StringTokenizer st = new StringTokenizer(tagName, "/");
-				while (st.hasMoreTokens()) {
-					tagName = st.nextToken();
-				}
-				LogCommand log = git.log();
-
-				Ref peeledRef = repository.getRefDatabase().peel(ref);
-				if (peeledRef.getPeeledObjectId() != null) {
-					log.add(peeledRef.getPeeledObjectId());
-				} else {
-					log.add(ref.getObjectId());
-				}
-				Iterable<RevCommit> logs = log.call();
-				tagList.add(tagName);
-				String commitToPut = logs.iterator().next().getId().abbreviate(RevCommitUtilBase.ABBREVIATED_COMMIT_LENGTH).name();
-				List<String> tags = commitTagMap.computeIfAbsent(commitToPut, key -> new ArrayList<>());
-				tags.addAll(tagList);
-			}
+		  getRefDecorations(repository).getTags().forEach((commit, tags) -> 
+		    commitTagMap.computeIfAbsent(
+		        commit.abbreviate(RevCommitUtilBase.ABBREVIATED_COMMIT_LENGTH).name(),
+		        key -> new ArrayList<>()).addAll(tags));
 		}
 		return commitTagMap;
 	}
@@ -2218,31 +2265,23 @@ public class GitAccess {
 	 */
 	public Map<String, List<String>> getBranchMap(Repository repository, String branchType) {
 		Map<String, List<String>> branchMap = new LinkedHashMap<>();
-		
-		List<Ref> localBranchList = null;
-		String prefix = "";
-		if (branchType.equals(ConfigConstants.CONFIG_KEY_LOCAL)) {
-			localBranchList = getLocalBranchList();
-			prefix = "heads/";
-		} else if (branchType.equals(ConfigConstants.CONFIG_KEY_REMOTE)) {
-			localBranchList = getRemoteBrachListForCurrentRepo();
-			prefix = "remotes/";
+		if (git != null) {
+		  try {
+		    RefDecorations decorations = getRefDecorations(repository);
+		    Map<ObjectId, List<String>> branches = Collections.emptyMap();
+		    if (branchType.equals(ConfigConstants.CONFIG_KEY_LOCAL)) {
+		      branches = decorations.getLocalBranches();
+		    } else if (branchType.equals(ConfigConstants.CONFIG_KEY_REMOTE)) {
+		      branches = decorations.getRemoteBranches();
+		    }
+		    branches.forEach((commit, names) -> 
+		      branchMap.computeIfAbsent(
+		          commit.getName().substring(0, SHORT_COMMIT_ID_LENGTH), 
+		          t -> new ArrayList<>()).addAll(names));
+		  } catch (IOException e) {
+		    LOGGER.error(e.getMessage(), e);
+		  }
 		}
-		
-		for (Ref ref : localBranchList) {
-      // refresh and populate local branch list for each commit
-      int indexOfPrefix = ref.getName().indexOf(prefix);
-      if (indexOfPrefix != -1) {
-        int refIdx = indexOfPrefix + prefix.length();
-        String branchName = ref.getName().substring(refIdx);
-        
-        ObjectId objectId = ref.getObjectId();
-        if (objectId != null) {
-          String commit = objectId.getName().substring(0, SHORT_COMMIT_ID_LENGTH);
-          branchMap.computeIfAbsent(commit, t -> new ArrayList<>()).add(branchName);
-        }
-      }
-    }
 
 		return branchMap;
 	}
@@ -316,6 +316,16 @@ public abstract class GitControllerBase {
     listeners.addGitListener(listener);
   }
 
+  /**
+   * Add a listener that gets notified about file or repository changes.
+   * 
+   * @param listener The listener to add.
+   * @param policy   How the events are delivered to the listener.
+   */
+  public void addGitListener(GitEventListener listener, EventDeliveryPolicy policy) {
+    listeners.addGitListener(listener, policy);
+  }
+
   /**
    * Removes a listener that gets notified about file or repository changes.
    * 
@@ -1,7 +1,14 @@
 package com.oxygenxml.git.service;
 
-import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,14 +25,18 @@ public class GitListeners {
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(GitListeners.class);
   /**
-   * Receive notifications when things change. First ones to be notified.
+   * Receive notifications when things change. First ones to be notified, always synchronously.
    */
-  private HashSet<GitEventListener> gitEventPriorityListeners = new LinkedHashSet<>();
+  private LinkedHashMap<GitEventListener, ListenerDispatcher> gitEventPriorityListeners = new LinkedHashMap<>();
   
   /**
-   * Receive notifications when things change.
+   * Receive notifications when things change, each one according to its delivery policy.
    */
-  private HashSet<GitEventListener> gitEventListeners = new LinkedHashSet<>();
+  private LinkedHashMap<GitEventListener, ListenerDispatcher> gitEventListeners = new LinkedHashMap<>();
+  /**
+   * Delivers the events to the asynchronous listeners.
+   */
+  private final ThreadPoolExecutor dispatchExecutor = newDispatchExecutor();
   /**
    * Singleton.
    */
@@ -55,13 +66,7 @@ public class GitListeners {
       LOGGER.debug("Fire operation about to start: " + info);
     }
     
-    for (GitEventListener gitEventListener : gitEventPriorityListeners) {
-      gitEventListener.operationAboutToStart(info);
-    }
-    
-    for (GitEventListener gitEventListener : gitEventListeners) {
-      gitEventListener.operationAboutToStart(info);
-    }
+    fire(l -> l.operationAboutToStart(info));
   }
   
   /**
@@ -74,13 +79,7 @@ public class GitListeners {
       LOGGER.debug("Fire operation successfully ended: " + info);
     }
     
-    for (GitEventListener gitEventListener : gitEventPriorityListeners) {
-      gitEventListener.operationSuccessfullyEnded(info);
-    }
-    
-    for (GitEventListener gitEventListener : gitEventListeners) {
-      gitEventListener.operationSuccessfullyEnded(info);
-    }
+    fire(l -> l.operationSuccessfullyEnded(info));
   }
   
   /**
@@ -94,12 +93,21 @@ public class GitListeners {
       LOGGER.debug("Fire operation failed: " + info + ". Reason: " + t.getMessage());
     }
     
-    for (GitEventListener gitEventListener : gitEventPriorityListeners) {
-      gitEventListener.operationFailed(info, t);
+    fire(l -> l.operationFailed(info, t));
+  }
+  
+  /**
+   * Notifies all the listeners, the priority ones first.
+   * 
+   * @param notification Calls the listener method that corresponds to the event.
+   */
+  private void fire(Consumer<GitEventListener> notification) {
+    for (ListenerDispatcher dispatcher : gitEventPriorityListeners.values()) {
+      dispatcher.dispatch(notification);
     }
     
-    for (GitEventListener gitEventListener : gitEventListeners) {
-      gitEventListener.operationFailed(info, t);
+    for (ListenerDispatcher dispatcher : gitEventListeners.values()) {
+      dispatcher.dispatch(notification);
     }
   }
   
@@ -110,21 +118,36 @@ public class GitListeners {
    */
   @SuppressWarnings("unchecked")
   void addGitPriorityListener(GitEventListener listener) {
-    HashSet<GitEventListener> clone = (HashSet<GitEventListener>) gitEventPriorityListeners.clone();
-    clone.add(listener);
+    LinkedHashMap<GitEventListener, ListenerDispatcher> clone = 
+        (LinkedHashMap<GitEventListener, ListenerDispatcher>) gitEventPriorityListeners.clone();
+    clone.computeIfAbsent(
+        listener, 
+        l -> new ListenerDispatcher(l, EventDeliveryPolicy.SYNCHRONOUS, dispatchExecutor));
     
     gitEventPriorityListeners = clone;
   } 
 
+  /**
+   * Add a listener that gets notified synchronously about file or repository changes.
+   * 
+   * @param listener The listener to add.
+   */
+  public void addGitListener(GitEventListener listener) {
+    addGitListener(listener, EventDeliveryPolicy.SYNCHRONOUS);
+  }
+  
   /**
    * Add a listener that gets notified about file or repository changes.
    * 
    * @param listener The listener to add.
+   * @param policy   How the events are delivered to the listener.
    */
   @SuppressWarnings("unchecked")
-  public void addGitListener(GitEventListener listener) {
-    HashSet<GitEventListener> clone = (HashSet<GitEventListener>) gitEventListeners.clone();
-    clone.add(listener);
+  public void addGitListener(GitEventListener listener, EventDeliveryPolicy policy) {
+    LinkedHashMap<GitEventListener, ListenerDispatcher> clone = 
+        (LinkedHashMap<GitEventListener, ListenerDispatcher>) gitEventListeners.clone();
+    // Adding a listener again keeps its dispatcher and the events it has not delivered yet.
+    clone.computeIfAbsent(listener, l -> new ListenerDispatcher(l, policy, dispatchExecutor));
     
     gitEventListeners = clone;
   }
@@ -136,17 +159,67 @@ public class GitListeners {
    */
   @SuppressWarnings("unchecked")
   public void removeGitListener(GitEventListener listener) {
-    HashSet<GitEventListener> clone = (HashSet<GitEventListener>) gitEventListeners.clone();
+    LinkedHashMap<GitEventListener, ListenerDispatcher> clone = 
+        (LinkedHashMap<GitEventListener, ListenerDispatcher>) gitEventListeners.clone();
     clone.remove(listener);
     
     gitEventListeners = clone;
   }
+  
+  /**
+   * @return The event delivery statistics of every listener, the priority ones first.
+   */
+  public List<ListenerStatistics> getStatistics() {
+    List<ListenerStatistics> statistics = new ArrayList<>();
+    for (ListenerDispatcher dispatcher : gitEventPriorityListeners.values()) {
+      statistics.add(dispatcher.getStatistics());
+    }
+    for (ListenerDispatcher dispatcher : gitEventListeners.values()) {
+      statistics.add(dispatcher.getStatistics());
+    }
+    return statistics;
+  }
+  
+  /**
+   * @return <code>true</code> if all the events were delivered to the asynchronous listeners.
+   * Usually used from tests.
+   */
+  public boolean isIdle() {
+    for (ListenerDispatcher dispatcher : gitEventListeners.values()) {
+      if (!dispatcher.isIdle()) {
+        return false;
+      }
+    }
+    return true;
+  }
 
   /**
    * Drops all recorded listeners. Usually used from tests.
    */
   void clear() {
-    gitEventPriorityListeners.clear();
-    gitEventListeners.clear();
+    gitEventPriorityListeners = new LinkedHashMap<>();
+    gitEventListeners = new LinkedHashMap<>();
+  }
+  
+  /**
+   * @return The executor that delivers the events to the asynchronous listeners. 
+   * Its threads die when idle.
+   */
+  private static ThreadPoolExecutor newDispatchExecutor() {
+    AtomicInteger counter = new AtomicInteger();
+    ThreadFactory threadFactory = r -> {
+      Thread thread = new Thread(r, "Git event dispatch " + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        2, 
+        2, 
+        60, 
+        TimeUnit.SECONDS, 
+        new LinkedBlockingQueue<>(), 
+        threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 }
@@ -1,67 +1,147 @@
 package com.oxygenxml.git.service;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Schedules git operations on a thread. The same thread is being used. 
+ * Schedules git operations on threads. The operations are distributed on lanes, each lane
+ * with its own threads, so that a long read-only query doesn't delay an operation requested by the user.
+ * Inside a lane, the tasks are executed in the order of their priority and, for the same priority,
+ * in the order in which they were scheduled.<br><br>
+ *
+ * The methods that don't specify a lane use {@link Lane#INTERACTIVE}, the lane on which all the
+ * operations used to be serialized.
  */
 public class GitOperationScheduler {
-  
+
+  /**
+   * The lanes on which the tasks are executed.
+   */
+  public enum Lane {
+    /**
+     * Operations that change the repository (commit, checkout, merge, etc.) and the operations
+     * that must observe their effects. Executed one after the other, on a single thread.
+     */
+    INTERACTIVE("Git operations", 1),
+    /**
+     * Read-only queries (history, branches, blame, diff contents). Executed in parallel on a bounded pool.<br><br>
+     * 
+     * The tasks of this lane run concurrently with each other, in no guaranteed order. A task that
+     * updates shared state must synchronize it and must read the repository when it runs, so that the
+     * last one to run presents the latest state (see <code>HistoryPanel.showHistory</code> and 
+     * <code>BranchManagementPanel.refreshBranches</code>). Work that relies on being executed one task
+     * at a time, in order (the staging refresh, the tags and branches dialogs) belongs to {@link #INTERACTIVE}.
+     */
+    READ("Git read", Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()))),
+    /**
+     * Background work that talks to the remote repositories. Executed one after the other, on a single thread.
+     */
+    BACKGROUND("Git background", 1);
+
+    /**
+     * The name of the threads of the lane.
+     */
+    private final String threadName;
+    /**
+     * The maximum number of threads of the lane.
+     */
+    private final int threads;
+
+    /**
+     * Constructor.
+     *
+     * @param threadName  The name of the threads of the lane.
+     * @param threads     The maximum number of threads of the lane.
+     */
+    Lane(String threadName, int threads) {
+      this.threadName = threadName;
+      this.threads = threads;
+    }
+  }
+
+  /**
+   * The priority of a task inside its lane.
+   */
+  public enum Priority {
+    /**
+     * Executed before the other tasks waiting in the lane.
+     */
+    HIGH,
+    /**
+     * The default priority.
+     */
+    NORMAL,
+    /**
+     * Executed after the other tasks waiting in the lane.
+     */
+    LOW
+  }
+
   /**
    * Logger.
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(GitOperationScheduler.class);
-  
+
   /**
    * Operation shutdown timeout in milliseconds.
    */
   private static final int OPERATION_SHUTDOWN_TIMEOUT_MS = 2000;
-  
+
   /**
-   * Refresh executor.
+   * Idle time after which a lane thread is released. Seconds.
    */
-  private ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1) {
-    @Override
-    protected void afterExecute(Runnable r, Throwable t) {
-      if (t != null) {
-        LOGGER.error(t.getMessage(), t);
-      }
+  private static final int THREAD_KEEP_ALIVE = 60;
+
+  /**
+   * Initial capacity of the queue of a lane.
+   */
+  private static final int INITIAL_QUEUE_CAPACITY = 16;
+
+  /**
+   * Executes the tasks of each lane.
+   */
+  private Map<Lane, LaneExecutor> executors;
+
+  /**
+   * Hands the delayed tasks to their lanes when the delay expires.
+   */
+  private ScheduledThreadPoolExecutor timer;
+
+  /**
+   * Gives the scheduling order of the tasks with the same priority.
+   */
+  private final AtomicLong sequencer = new AtomicLong();
 
-      if (r instanceof Future) {
-        try {
-          ((Future<?>) r).get();
-        } catch (CancellationException e) {
-          LOGGER.debug(e.getMessage(), e);
-        } catch (InterruptedException e) { 
-          LOGGER.error(e.getMessage(), e);
-          Thread.currentThread().interrupt();
-        } catch (Exception e) {
-          LOGGER.error(e.getMessage(), e);
-        }
-      }
-    }
-  };
-  
   /**
    * Singleton instance.
    */
   private static GitOperationScheduler instance;
-  
+
   /**
    * Singleton private constructor.
    */
-  private GitOperationScheduler() {}
-  
+  private GitOperationScheduler() {
+    createExecutors();
+  }
+
   /**
    * @return The singleton instance.
    */
@@ -69,35 +149,66 @@ public class GitOperationScheduler {
     if (instance == null) {
       instance = new GitOperationScheduler();
     }
-    
+
     return instance;
   }
-  
+
+  /**
+   * Creates the executors of the lanes.
+   */
+  private void createExecutors() {
+    executors = new EnumMap<>(Lane.class);
+    for (Lane lane : Lane.values()) {
+      executors.put(lane, new LaneExecutor(lane));
+    }
+    timer = new ScheduledThreadPoolExecutor(1, newThreadFactory("Git scheduler timer"));
+    timer.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Creates the executors again if a shutdown operation was canceled.
+   */
+  private synchronized void ensureRunning() {
+    if (timer.isShutdown()) {
+      // A shutdown operation was canceled.
+      createExecutors();
+    }
+  }
+
   /**
    * Schedules a runnable for immediate execution.
-   * 
+   *
    * @param r Code to be executed on thread.
-   * 
-   * @return a ScheduledFuture representing pending completion of the task 
+   *
+   * @return a ScheduledFuture representing pending completion of the task
    * and whose get() method will return null upon completion.
    */
   @SuppressWarnings("java:S1452")
   public ScheduledFuture<?> schedule(Runnable r) {
-    if (executor.isShutdown()) {
-      // A shutdown operation was canceled.
-      executor = new ScheduledThreadPoolExecutor(1);
-    }
-    
-    return executor.schedule(r, 0, TimeUnit.MILLISECONDS);
+    return schedule(Lane.INTERACTIVE, Priority.NORMAL, r, 0);
+  }
+
+  /**
+   * Schedules a runnable for immediate execution on the given lane.
+   *
+   * @param lane The lane.
+   * @param r    Code to be executed on thread.
+   *
+   * @return a ScheduledFuture representing pending completion of the task
+   * and whose get() method will return null upon completion.
+   */
+  @SuppressWarnings("java:S1452")
+  public ScheduledFuture<?> schedule(Lane lane, Runnable r) {
+    return schedule(lane, Priority.NORMAL, r, 0);
   }
-  
+
   /**
    * Schedules a task.
-   * 
+   *
    * @param <V> the type of the result returned by the future task.
    * @param task A task to run on the dedicated Git actions thread.
    * @param errorHandler Receives notifications when the task fails with an exception.
-   * 
+   *
    * @return A future that monitors the task.
    */
   @SuppressWarnings("java:S1452")
@@ -108,39 +219,55 @@ public class GitOperationScheduler {
         try {
           get();
         } catch (ExecutionException e) {
-          errorHandler.accept(e.getCause());      
+          errorHandler.accept(e.getCause());
         } catch (InterruptedException e) {
-          errorHandler.accept(e);      
+          errorHandler.accept(e);
           // Restore interrupted state...
-          Thread.currentThread().interrupt();      
+          Thread.currentThread().interrupt();
         }
       }
     });
   }
-  
+
   /**
    * Schedules a task.
-   * 
+   *
    * @param <V> the type of the result returned by the future task.
    * @param task A task to run on the dedicated Git actions thread.
    * @param resultHandler Result handler.
    * @param errorHandler Receives notifications when the task fails with an exception.
-   * 
+   *
    * @return A future that monitors the task.
    */
   @SuppressWarnings("java:S1452")
   public <V> ScheduledFuture<?> schedule(Callable<V> task, Consumer<V> resultHandler,  Consumer<Throwable> errorHandler) {
-    return schedule(new java.util.concurrent.FutureTask<V> (task) {
+    return schedule(Lane.INTERACTIVE, task, resultHandler, errorHandler);
+  }
+
+  /**
+   * Schedules a task on the given lane.
+   *
+   * @param <V> the type of the result returned by the future task.
+   * @param lane The lane.
+   * @param task A task to run on a thread of the lane.
+   * @param resultHandler Result handler.
+   * @param errorHandler Receives notifications when the task fails with an exception.
+   *
+   * @return A future that monitors the task.
+   */
+  @SuppressWarnings("java:S1452")
+  public <V> ScheduledFuture<?> schedule(Lane lane, Callable<V> task, Consumer<V> resultHandler,  Consumer<Throwable> errorHandler) {
+    return schedule(lane, new java.util.concurrent.FutureTask<V> (task) {
       @Override
       protected void done() {
         try {
           resultHandler.accept(get());
         } catch (ExecutionException e) {
-          errorHandler.accept(e.getCause());      
+          errorHandler.accept(e.getCause());
         } catch (InterruptedException e) {
-          errorHandler.accept(e);      
+          errorHandler.accept(e);
           // Restore interrupted state...
-          Thread.currentThread().interrupt();      
+          Thread.currentThread().interrupt();
         }
       }
     });
@@ -148,42 +275,79 @@ public class GitOperationScheduler {
 
   /**
    * Schedules a runnable for execution.
-   * 
+   *
    * @param r Code to be executed on thread.
    * @param delayMillis Milliseconds after which to execute the runnable.
-   * 
-   * @return a ScheduledFuture representing pending completion of the task 
+   *
+   * @return a ScheduledFuture representing pending completion of the task
    * and whose get() method will return null upon completion.
    */
   @SuppressWarnings("java:S1452")
   public ScheduledFuture<?> schedule(Runnable r, int delayMillis) {
-    if (executor.isShutdown()) {
-      // A shutdown operation was canceled.
-      executor = new ScheduledThreadPoolExecutor(1);
+    return schedule(Lane.INTERACTIVE, Priority.NORMAL, r, delayMillis);
+  }
+
+  /**
+   * Schedules a runnable for execution on the given lane.
+   *
+   * @param lane        The lane.
+   * @param priority    The priority of the task inside the lane.
+   * @param r           Code to be executed on thread.
+   * @param delayMillis Milliseconds after which to execute the runnable.
+   *
+   * @return a ScheduledFuture representing pending completion of the task
+   * and whose get() method will return null upon completion. Cancelling it removes
+   * the task from the lane if it didn't start yet.
+   */
+  @SuppressWarnings("java:S1452")
+  public ScheduledFuture<?> schedule(Lane lane, Priority priority, Runnable r, int delayMillis) {
+    ensureRunning();
+
+    LaneExecutor executor = executors.get(lane);
+    LaneTask task = new LaneTask(executor, r, priority, sequencer.getAndIncrement(), delayMillis);
+    if (delayMillis <= 0) {
+      executor.execute(task);
+    } else {
+      task.setTimerFuture(timer.schedule(() -> executor.execute(task), delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Scheduled task on lane " + lane + ". Queue depth: " + executor.getQueue().size());
     }
-    
-    return executor.schedule(r, delayMillis, TimeUnit.MILLISECONDS);
+
+    return task;
   }
-  
+
   /**
    * Attempts to shutdown any running tasks.
-   * 
+   *
    * @return <code>true</code> if all tasks have been executed. <code>false</code>
    * if there are still tasks running.
    */
   public boolean shutdown() {
-    executor.shutdown();
+    // The delayed tasks are dropped.
+    timer.shutdownNow();
+    for (LaneExecutor executor : executors.values()) {
+      executor.shutdown();
+    }
+
+    boolean terminated = true;
     try {
-      return executor.awaitTermination(OPERATION_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      long deadline = System.currentTimeMillis() + OPERATION_SHUTDOWN_TIMEOUT_MS;
+      for (LaneExecutor executor : executors.values()) {
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        terminated &= executor.awaitTermination(remaining, TimeUnit.MILLISECONDS);
+      }
+      return terminated;
     } catch (InterruptedException e) {
       LOGGER.warn("Unable to stop task thread: " + e.getMessage(), e);
       // Restore interrupted state...
       Thread.currentThread().interrupt();
 
-    }   
+    }
     return false;
   }
-  
+
   /**
    * Returns the approximate number of threads that are actively
    * executing tasks.
@@ -191,6 +355,235 @@ public class GitOperationScheduler {
    * @return the number of threads
    */
   public int getActiveCount() {
-    return executor.getActiveCount();
+    int count = 0;
+    for (Lane lane : Lane.values()) {
+      count += getActiveCount(lane);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the approximate number of threads of a lane that are actively
+   * executing tasks.
+   *
+   * @param lane The lane.
+   *
+   * @return the number of threads
+   */
+  public int getActiveCount(Lane lane) {
+    return executors.get(lane).getActiveCount();
+  }
+
+  /**
+   * Returns the number of tasks of a lane that wait for a thread. The delayed tasks are
+   * not counted until their delay expires.
+   *
+   * @param lane The lane.
+   *
+   * @return the number of waiting tasks.
+   */
+  public int getQueueDepth(Lane lane) {
+    return executors.get(lane).getQueue().size();
+  }
+
+  /**
+   * Returns the largest number of tasks that waited at the same time for a thread of the lane.
+   *
+   * @param lane The lane.
+   *
+   * @return the largest queue depth.
+   */
+  public int getMaxQueueDepth(Lane lane) {
+    return executors.get(lane).maxQueueDepth.get();
+  }
+
+  /**
+   * Returns the approximate number of tasks of a lane that have completed execution.
+   *
+   * @param lane The lane.
+   *
+   * @return the number of completed tasks.
+   */
+  public long getCompletedTaskCount(Lane lane) {
+    return executors.get(lane).getCompletedTaskCount();
+  }
+
+  /**
+   * @return <code>true</code> if no task is executing or waiting for a thread. The delayed tasks
+   * are not taken into account until their delay expires.
+   */
+  public boolean isIdle() {
+    for (LaneExecutor executor : executors.values()) {
+      if (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates a factory for named threads.
+   *
+   * @param name The name of the threads.
+   *
+   * @return The thread factory.
+   */
+  private static ThreadFactory newThreadFactory(String name) {
+    AtomicInteger counter = new AtomicInteger();
+    return r -> new Thread(r, name + " " + counter.incrementAndGet());
+  }
+
+  /**
+   * Executes the tasks of a lane, in the order of their priority.
+   */
+  private static class LaneExecutor extends ThreadPoolExecutor {
+    /**
+     * The largest number of tasks that waited at the same time.
+     */
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param lane The lane.
+     */
+    LaneExecutor(Lane lane) {
+      super(
+          lane.threads,
+          lane.threads,
+          THREAD_KEEP_ALIVE,
+          TimeUnit.SECONDS,
+          new PriorityBlockingQueue<>(INITIAL_QUEUE_CAPACITY, LaneExecutor::compareTasks),
+          newThreadFactory(lane.threadName));
+      allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Orders the waiting tasks by priority and, for the same priority, by the scheduling order.
+     *
+     * @param r1 A task.
+     * @param r2 Another task.
+     *
+     * @return A negative number if the first task must be executed first.
+     */
+    private static int compareTasks(Runnable r1, Runnable r2) {
+      LaneTask t1 = (LaneTask) r1;
+      LaneTask t2 = (LaneTask) r2;
+      int result = t1.priority.compareTo(t2.priority);
+      if (result == 0) {
+        result = Long.compare(t1.sequence, t2.sequence);
+      }
+      return result;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      super.execute(command);
+      maxQueueDepth.accumulateAndGet(getQueue().size(), Math::max);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+      if (t != null) {
+        LOGGER.error(t.getMessage(), t);
+      }
+
+      if (r instanceof Future) {
+        try {
+          ((Future<?>) r).get();
+        } catch (CancellationException e) {
+          LOGGER.debug(e.getMessage(), e);
+        } catch (InterruptedException e) {
+          LOGGER.error(e.getMessage(), e);
+          Thread.currentThread().interrupt();
+        } catch (Exception e) {
+          LOGGER.error(e.getMessage(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * A task waiting in a lane.
+   */
+  private static class LaneTask extends FutureTask<Object> implements ScheduledFuture<Object> {
+    /**
+     * The executor of the lane.
+     */
+    private final LaneExecutor executor;
+    /**
+     * The priority inside the lane.
+     */
+    private final Priority priority;
+    /**
+     * The scheduling order.
+     */
+    private final long sequence;
+    /**
+     * The moment after which the task can be executed. Nanoseconds.
+     */
+    private final long triggerTime;
+    /**
+     * Hands the task to the lane after the delay. <code>null</code> if the task was not delayed.
+     */
+    private volatile Future<?> timerFuture;
+
+    /**
+     * Constructor.
+     *
+     * @param executor    The executor of the lane.
+     * @param r           Code to be executed on thread.
+     * @param priority    The priority inside the lane.
+     * @param sequence    The scheduling order.
+     * @param delayMillis Milliseconds after which to execute the task.
+     */
+    LaneTask(LaneExecutor executor, Runnable r, Priority priority, long sequence, int delayMillis) {
+      super(r, null);
+      this.executor = executor;
+      this.priority = priority;
+      this.sequence = sequence;
+      this.triggerTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+    }
+
+    /**
+     * @param timerFuture Hands the task to the lane after the delay.
+     */
+    void setTimerFuture(Future<?> timerFuture) {
+      this.timerFuture = timerFuture;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        Future<?> delayed = timerFuture;
+        if (delayed != null) {
+          delayed.cancel(false);
+        }
+        // Don't keep the lane queue busy with a task that will never run.
+        executor.remove(this);
+      }
+      return cancelled;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(triggerTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(sequence);
+    }
   }
 }
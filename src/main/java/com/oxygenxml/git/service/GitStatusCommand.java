@@ -1,25 +1,28 @@
 package com.oxygenxml.git.service;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.StatusCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.errors.NoWorkTreeException;
-import org.eclipse.jgit.submodule.SubmoduleStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.oxygenxml.git.service.entities.FileStatus;
 import com.oxygenxml.git.service.entities.GitChangeType;
-import com.oxygenxml.git.utils.RepoUtil;
 
 /**
  * A wrapper over a JGit status command that performs groups the files into stage and 
@@ -56,10 +59,17 @@ public class GitStatusCommand {
     if (git != null && git.get() != null) {
       try {
         LOGGER.debug("-- Compute our GitStatus -> getStatus() --");
-        Status status = git.get().status().call();
+        // The submodules are checked while the main tree status is computed.
+        CompletableFuture<List<FileStatus>> changedSubmodules = getChangedSubmodules();
+        UntrackedDirectoryCache.Scan scan = 
+            UntrackedDirectoryCache.getInstance(git.get().getRepository()).startScan(git.get().getRepository());
+        Status status = git.get().status().setWorkingTreeIt(scan.newIterator()).call();
         LOGGER.debug("-- Get JGit status -> git.status().call() --");
-        gitStatus = new GitStatus(getUnstagedFiles(status), getStagedFiles(status), status.hasUncommittedChanges());
-      } catch (GitAPIException e) {
+        gitStatus = new GitStatus(
+            getUnstagedFiles(status, scan.finish(status), changedSubmodules), 
+            getStagedFiles(status), 
+            status.hasUncommittedChanges());
+      } catch (GitAPIException | IOException e) {
         LOGGER.error(e.getMessage(), e);
       }
     }
@@ -100,9 +110,11 @@ public class GitStatusCommand {
         statusCmd.addPath(iterator.next());
       }
       try {
+        CompletableFuture<List<FileStatus>> changedSubmodules = paths.isEmpty() 
+            ? getChangedSubmodules() : getChangedSubmodules(paths);
         Status status = statusCmd.call();
         LOGGER.debug("JGit Status computed: " + status);
-        return getUnstagedFiles(status);
+        return getUnstagedFiles(status, status.getUntracked(), changedSubmodules);
       } catch (GitAPIException e) {
         LOGGER.error(e.getMessage(), e);
       }
@@ -115,22 +127,27 @@ public class GitStatusCommand {
    * Makes a diff between the files from the last commit and the files from the
    * working directory. If there are diffs, they will be saved and returned.
    * 
-   * @param status The repository's status.
+   * @param status            The repository's status.
+   * @param untracked         The untracked files.
+   * @param changedSubmodules The submodules that have other commits checked out than the ones in the INDEX.
    * 
    * @return The unstaged files and their states.
    */
-  private List<FileStatus> getUnstagedFiles(Status status) {
+  private List<FileStatus> getUnstagedFiles(
+      Status status, 
+      Set<String> untracked, 
+      CompletableFuture<List<FileStatus>> changedSubmodules) {
     LOGGER.debug("PRIVATE - GET UNSTAGE FOR GIVEN STATUS " + status);
     List<FileStatus> unstagedFiles = new ArrayList<>();
     if (git != null) {
       try {
         Set<String> submodules = getSubmoduleAccess().getSubmodules();
-        addSubmodulesToUnstaged(unstagedFiles, submodules);
-        addUntrackedFilesToUnstaged(status, unstagedFiles, submodules);
+        addUntrackedFilesToUnstaged(untracked, unstagedFiles, submodules);
         addModifiedFilesToUnstaged(status, unstagedFiles, submodules);
         addMissingFilesToUnstaged(status, unstagedFiles, submodules);
         addConflictingFilesToUnstaged(status, unstagedFiles);
-      } catch (NoWorkTreeException | GitAPIException e1) {
+        addSubmodulesToUnstaged(unstagedFiles, changedSubmodules);
+      } catch (NoWorkTreeException e1) {
         LOGGER.error(e1.getMessage(), e1);
       }
     }
@@ -195,15 +212,15 @@ public class GitStatusCommand {
    * Add untracked files (i.e. newly created files) to the list of resources that
    * are not staged (not in the INDEX).
    * 
-   * @param status        The repository's status.
+   * @param untracked     The untracked files.
    * @param unstagedFiles The list of unstaged (not in the INDEX) files.
    * @param submodules    The set of submodules.
    */
-  private void addUntrackedFilesToUnstaged(Status status, List<FileStatus> unstagedFiles, Set<String> submodules) {
+  private void addUntrackedFilesToUnstaged(Set<String> untracked, List<FileStatus> unstagedFiles, Set<String> submodules) {
     if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("addUntrackedFilesToUnstaged " + status.getUntracked());
+      LOGGER.debug("addUntrackedFilesToUnstaged " + untracked);
     }
-    for (String string : status.getUntracked()) {
+    for (String string : untracked) {
       if (!submodules.contains(string)) {
         unstagedFiles.add(new FileStatus(GitChangeType.UNTRACKED, string));
       }
@@ -211,29 +228,71 @@ public class GitStatusCommand {
   }
 
   /**
-   * Add submodules to the list of resources that are not staged.
+   * Add submodules to the list of resources that are not staged, before the other files.
    * 
-   * @param unstagedFiles The list of unstaged (not in the INDEX) files.
-   * @param submodules    The set of submodules.
+   * @param unstagedFiles     The list of unstaged (not in the INDEX) files.
+   * @param changedSubmodules The submodules that have other commits checked out than the ones in the INDEX.
+   */
+  private void addSubmodulesToUnstaged(List<FileStatus> unstagedFiles, CompletableFuture<List<FileStatus>> changedSubmodules) {
+    try {
+      List<FileStatus> submodules = changedSubmodules.join();
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("addSubmodulesToUnstaged " + submodules);
+      }
+      unstagedFiles.addAll(0, submodules);
+    } catch (CompletionException e) {
+      LOGGER.error(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Starts checking the submodules on a bounded pool. The submodules whose HEAD, index and 
+   * recorded commit didn't change since the previous check are not checked again.
    * 
-   * @throws GitAPIException When an error occurs when trying to check the
-   *                         submodules status.
+   * @return The submodules that have other commits checked out than the ones in the INDEX.
    */
-  private void addSubmodulesToUnstaged(List<FileStatus> unstagedFiles, Set<String> submodules) throws GitAPIException {
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("addSubmodulesToUnstaged " + submodules);
+  private CompletableFuture<List<FileStatus>> getChangedSubmodules() {
+    return SubmoduleStatusCache.getInstance().getChangedSubmodules(git.get().getRepository());
+  }
+  
+  /**
+   * Checks the submodules covered by the given paths. When no submodule is covered, the submodules 
+   * are not checked at all.
+   * 
+   * @param paths Paths of files or directories.
+   * 
+   * @return The submodules covered by the paths that have other commits checked out than the ones in the INDEX.
+   */
+  private CompletableFuture<List<FileStatus>> getChangedSubmodules(Collection<String> paths) {
+    Set<String> pathSet = new HashSet<>(paths);
+    if (getSubmoduleAccess().getSubmodules().stream().noneMatch(submodule -> isCovered(submodule, pathSet))) {
+      return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+    return getChangedSubmodules().thenApply(submodules -> submodules.stream()
+        .filter(submodule -> isCovered(submodule.getFileLocation(), pathSet))
+        .collect(Collectors.toList()));
+  }
+  
+  /**
+   * Checks if a path is one of the given paths or a descendant of one of them.
+   * 
+   * @param path  The path to check.
+   * @param paths Paths of files or directories.
+   * 
+   * @return <code>true</code> if the path is covered.
+   */
+  static boolean isCovered(String path, Set<String> paths) {
+    if (paths.contains(path)) {
+      return true;
     }
-    for (String submodulePath : submodules) {
-      SubmoduleStatus submoduleStatus = git.get().submoduleStatus().call().get(submodulePath);
-      if (submoduleStatus != null && submoduleStatus.getHeadId() != null
-          && !submoduleStatus.getHeadId().equals(submoduleStatus.getIndexId())) {
-        
-        unstagedFiles.add(
-            new FileStatus(GitChangeType.SUBMODULE, submodulePath).setDescription(
-                RepoUtil.extractSubmoduleChangeDescription(git.get().getRepository(), submoduleStatus)));
-        
+    int index = path.lastIndexOf('/');
+    while (index > 0) {
+      if (paths.contains(path.substring(0, index))) {
+        return true;
       }
+      index = path.lastIndexOf('/', index - 1);
     }
+    return false;
   }
 
   /**
@@ -0,0 +1,288 @@
+package com.oxygenxml.git.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuildIterator;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+
+/**
+ * Stages and unstages many files at once. The new index is built in a single pass over the
+ * index, the HEAD tree and the working tree, restricted to the given paths, and it is written once.
+ * <ul>
+ * <li>Staging a missing or removed file removes it from the index.</li>
+ * <li>Staging any other file adds its working tree content to the index.</li>
+ * <li>Unstaging a file restores the index entry from the HEAD commit, or removes it if it is not there.</li>
+ * </ul>
+ */
+public class IndexBatchUpdate {
+  /**
+   * Index of the index tree in the tree walk.
+   */
+  private static final int INDEX = 0;
+  /**
+   * Index of the HEAD tree in the tree walk.
+   */
+  private static final int HEAD = 1;
+  /**
+   * Index of the working tree in the tree walk.
+   */
+  private static final int WORKING_TREE = 2;
+  /**
+   * The paths whose working tree content must be added to the index.
+   */
+  private final Set<String> toAdd = new HashSet<>();
+  /**
+   * The paths that must be removed from the index.
+   */
+  private final Set<String> toRemove = new HashSet<>();
+  /**
+   * The paths that must be reset to their HEAD version.
+   */
+  private final Set<String> toReset = new HashSet<>();
+  /**
+   * All the paths, in the order in which they were given.
+   */
+  private final Set<String> paths = new LinkedHashSet<>();
+
+  /**
+   * Adds files to be staged.
+   *
+   * @param files The files.
+   *
+   * @return This object.
+   */
+  public IndexBatchUpdate stage(Collection<FileStatus> files) {
+    for (FileStatus file : files) {
+      String path = file.getFileLocation();
+      GitChangeType changeType = file.getChangeType();
+      if (changeType == GitChangeType.MISSING || changeType == GitChangeType.REMOVED) {
+        toRemove.add(path);
+      } else {
+        toAdd.add(path);
+      }
+      paths.add(path);
+    }
+    return this;
+  }
+
+  /**
+   * Adds files to be unstaged.
+   *
+   * @param files The files.
+   *
+   * @return This object.
+   */
+  public IndexBatchUpdate unstage(Collection<FileStatus> files) {
+    for (FileStatus file : files) {
+      toReset.add(file.getFileLocation());
+      paths.add(file.getFileLocation());
+    }
+    return this;
+  }
+
+  /**
+   * @return All the paths, in the order in which they were given.
+   */
+  public Set<String> getPaths() {
+    return paths;
+  }
+
+  /**
+   * Builds the new index and writes it.
+   *
+   * @param repository The repository.
+   *
+   * @throws IOException When the index cannot be locked, read or written.
+   */
+  public void apply(Repository repository) throws IOException {
+    if (paths.isEmpty()) {
+      return;
+    }
+
+    DirCache dirCache = repository.lockDirCache();
+    try (ObjectInserter inserter = repository.newObjectInserter();
+        ObjectReader reader = inserter.newReader();
+        TreeWalk treeWalk = new TreeWalk(repository, reader)) {
+      DirCacheBuilder builder = dirCache.builder();
+      treeWalk.setOperationType(TreeWalk.OperationType.CHECKIN_OP);
+      treeWalk.setRecursive(true);
+      treeWalk.setFilter(PathFilterGroup.createFromStrings(paths));
+      treeWalk.addTree(new DirCacheBuildIterator(builder));
+      treeWalk.addTree(headTree(repository, reader));
+      FileTreeIterator workingTree = new FileTreeIterator(repository);
+      workingTree.setDirCacheIterator(treeWalk, INDEX);
+      treeWalk.addTree(workingTree);
+
+      String lastPath = null;
+      while (treeWalk.next()) {
+        String path = treeWalk.getPathString();
+        DirCacheIterator index = treeWalk.getTree(INDEX, DirCacheIterator.class);
+        if (path.equals(lastPath)) {
+          // A conflict. The index iterator visits all the stages but only one entry must result.
+          continue;
+        }
+        lastPath = path;
+
+        DirCacheEntry entry;
+        if (contains(toReset, path)) {
+          entry = resetEntry(treeWalk, index);
+        } else if (contains(toRemove, path)) {
+          entry = null;
+        } else if (contains(toAdd, path)) {
+          entry = addEntry(treeWalk, index, inserter, reader);
+        } else {
+          entry = index != null ? index.getDirCacheEntry() : null;
+        }
+
+        if (entry != null) {
+          builder.add(entry);
+        }
+      }
+
+      inserter.flush();
+      builder.commit();
+    } finally {
+      dirCache.unlock();
+    }
+  }
+
+  /**
+   * @param repository The repository.
+   * @param reader     The object reader.
+   *
+   * @return An iterator over the tree of the HEAD commit. Empty if there is no commit yet.
+   *
+   * @throws IOException When the HEAD commit cannot be read.
+   */
+  private static AbstractTreeIterator headTree(Repository repository, ObjectReader reader) throws IOException {
+    ObjectId head = repository.resolve(Constants.HEAD);
+    if (head == null) {
+      return new EmptyTreeIterator();
+    }
+    try (RevWalk walk = new RevWalk(reader)) {
+      CanonicalTreeParser parser = new CanonicalTreeParser();
+      parser.reset(reader, walk.parseCommit(head).getTree());
+      return parser;
+    }
+  }
+
+  /**
+   * Checks if a path or one of its parent folders is in a set.
+   *
+   * @param set  The set of paths.
+   * @param path The path.
+   *
+   * @return <code>true</code> if the path or one of its parents is in the set.
+   */
+  private static boolean contains(Set<String> set, String path) {
+    String current = path;
+    while (true) {
+      if (set.contains(current)) {
+        return true;
+      }
+      int lastSlash = current.lastIndexOf('/');
+      if (lastSlash == -1) {
+        return false;
+      }
+      current = current.substring(0, lastSlash);
+    }
+  }
+
+  /**
+   * Creates the index entry of an unstaged file.
+   *
+   * @param treeWalk The tree walk, positioned on the file.
+   * @param index    The index entry or <code>null</code>.
+   *
+   * @return The HEAD version of the file or <code>null</code> if it is not in the HEAD commit.
+   */
+  private static DirCacheEntry resetEntry(TreeWalk treeWalk, DirCacheIterator index) {
+    CanonicalTreeParser head = treeWalk.getTree(HEAD, CanonicalTreeParser.class);
+    if (head == null) {
+      return null;
+    }
+
+    DirCacheEntry entry = new DirCacheEntry(treeWalk.getRawPath());
+    entry.setFileMode(head.getEntryFileMode());
+    entry.setObjectId(head.getEntryObjectId());
+    if (index != null && index.getDirCacheEntry().getStage() == DirCacheEntry.STAGE_0 && index.idEqual(head)) {
+      // Keep the cached file stats, so that the working tree file is not seen as modified.
+      entry.setLastModified(index.getDirCacheEntry().getLastModifiedInstant());
+      entry.setLength(index.getDirCacheEntry().getLength());
+    }
+    return entry;
+  }
+
+  /**
+   * Creates the index entry of a staged file, inserting its content in the object database if needed.
+   *
+   * @param treeWalk The tree walk, positioned on the file.
+   * @param index    The index entry or <code>null</code>.
+   * @param inserter Inserts the file contents.
+   * @param reader   The object reader.
+   *
+   * @return The entry, <code>null</code> if the file must not be in the index.
+   *
+   * @throws IOException When the file cannot be read.
+   */
+  private static DirCacheEntry addEntry(
+      TreeWalk treeWalk,
+      DirCacheIterator index,
+      ObjectInserter inserter,
+      ObjectReader reader) throws IOException {
+    WorkingTreeIterator file = treeWalk.getTree(WORKING_TREE, WorkingTreeIterator.class);
+    if (file == null) {
+      // Not in the working tree anymore.
+      return null;
+    }
+    if (index == null && file.isEntryIgnored()) {
+      return null;
+    }
+
+    if (index != null
+        && index.getDirCacheEntry().getStage() == DirCacheEntry.STAGE_0
+        && !file.isModified(index.getDirCacheEntry(), true, reader)) {
+      return index.getDirCacheEntry();
+    }
+
+    DirCacheEntry entry = new DirCacheEntry(treeWalk.getRawPath());
+    FileMode mode = file.getIndexFileMode(index);
+    entry.setFileMode(mode);
+    if (FileMode.GITLINK == mode) {
+      entry.setObjectId(file.getEntryObjectId());
+    } else {
+      entry.setLength(file.getEntryLength());
+      entry.setLastModified(file.getEntryLastModifiedInstant());
+      long contentLength = file.getEntryContentLength();
+      try (InputStream in = file.openEntryStream()) {
+        entry.setObjectId(inserter.insert(Constants.OBJ_BLOB, contentLength, in));
+      }
+    }
+    return entry;
+  }
+}
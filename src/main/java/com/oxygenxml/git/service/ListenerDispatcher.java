@@ -0,0 +1,222 @@
+package com.oxygenxml.git.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the Git events to one listener, according to its {@link EventDeliveryPolicy},
+ * and measures the time spent in the listener.
+ */
+class ListenerDispatcher {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ListenerDispatcher.class);
+  /**
+   * The maximum number of events waiting for an {@link EventDeliveryPolicy#ASYNC_ORDERED} listener.
+   */
+  static final int QUEUE_CAPACITY = 1024;
+  /**
+   * The deliveries that take longer are logged.
+   */
+  private static final long SLOW_DELIVERY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  /**
+   * The listener.
+   */
+  private final GitEventListener listener;
+  /**
+   * How the events are delivered.
+   */
+  private final EventDeliveryPolicy policy;
+  /**
+   * Runs the asynchronous deliveries.
+   */
+  private final Executor executor;
+  /**
+   * The events waiting for an {@link EventDeliveryPolicy#ASYNC_ORDERED} listener.
+   */
+  private final BlockingQueue<Consumer<GitEventListener>> queue;
+  /**
+   * The latest event waiting for a {@link EventDeliveryPolicy#COALESCED} listener.
+   */
+  private final AtomicReference<Consumer<GitEventListener>> latest = new AtomicReference<>();
+  /**
+   * <code>true</code> while a task that delivers the waiting events is scheduled or running.
+   */
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  /**
+   * Makes sure the listener receives the events one at a time and in order.
+   */
+  private final Object deliveryLock = new Object();
+  /**
+   * The number of delivered events.
+   */
+  private final AtomicLong deliveries = new AtomicLong();
+  /**
+   * The total time spent in the listener.
+   */
+  private final AtomicLong totalNanos = new AtomicLong();
+  /**
+   * The longest time spent in the listener for an event.
+   */
+  private final AtomicLong maxNanos = new AtomicLong();
+  /**
+   * The number of events replaced by a newer one.
+   */
+  private final AtomicLong coalesced = new AtomicLong();
+  /**
+   * The number of events delivered on the firing thread because the queue was full.
+   */
+  private final AtomicLong overflows = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param listener The listener.
+   * @param policy   How the events are delivered.
+   * @param executor Runs the asynchronous deliveries.
+   */
+  ListenerDispatcher(GitEventListener listener, EventDeliveryPolicy policy, Executor executor) {
+    this.listener = listener;
+    this.policy = policy;
+    this.executor = executor;
+    this.queue = policy == EventDeliveryPolicy.ASYNC_ORDERED ? new ArrayBlockingQueue<>(QUEUE_CAPACITY) : null;
+  }
+
+  /**
+   * Delivers an event, now or later, depending on the policy.
+   *
+   * @param notification Calls the listener method that corresponds to the event.
+   */
+  void dispatch(Consumer<GitEventListener> notification) {
+    switch (policy) {
+      case ASYNC_ORDERED:
+        if (queue.offer(notification)) {
+          scheduleDrain();
+        } else {
+          // The listener can't keep up. Deliver on this thread, after the waiting events.
+          overflows.incrementAndGet();
+          synchronized (deliveryLock) {
+            Consumer<GitEventListener> waiting;
+            while ((waiting = queue.poll()) != null) {
+              deliverSafely(waiting);
+            }
+            deliverSafely(notification);
+          }
+        }
+        break;
+      case COALESCED:
+        if (latest.getAndSet(notification) != null) {
+          coalesced.incrementAndGet();
+        }
+        scheduleDrain();
+        break;
+      default:
+        synchronized (deliveryLock) {
+          // The exceptions reach the caller, as before the dispatch policies.
+          deliver(notification);
+        }
+        break;
+    }
+  }
+
+  /**
+   * Schedules a task that delivers the waiting events, unless one is already scheduled.
+   */
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  /**
+   * Delivers the waiting events.
+   */
+  private void drain() {
+    do {
+      Consumer<GitEventListener> notification;
+      do {
+        synchronized (deliveryLock) {
+          notification = queue != null ? queue.poll() : latest.getAndSet(null);
+          if (notification != null) {
+            deliverSafely(notification);
+          }
+        }
+      } while (notification != null);
+
+      drainScheduled.set(false);
+      // An event might have been added after the last poll, without scheduling another task.
+    } while (hasWaitingEvents() && drainScheduled.compareAndSet(false, true));
+  }
+
+  /**
+   * @return <code>true</code> if there are events waiting to be delivered.
+   */
+  private boolean hasWaitingEvents() {
+    return queue != null ? !queue.isEmpty() : latest.get() != null;
+  }
+
+  /**
+   * Delivers an event and logs the exceptions thrown by the listener.
+   *
+   * @param notification Calls the listener method that corresponds to the event.
+   */
+  private void deliverSafely(Consumer<GitEventListener> notification) {
+    try {
+      deliver(notification);
+    } catch (RuntimeException e) {
+      LOGGER.error(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Delivers an event and measures the time spent in the listener.
+   *
+   * @param notification Calls the listener method that corresponds to the event.
+   */
+  private void deliver(Consumer<GitEventListener> notification) {
+    long start = System.nanoTime();
+    try {
+      notification.accept(listener);
+    } finally {
+      long duration = System.nanoTime() - start;
+      deliveries.incrementAndGet();
+      totalNanos.addAndGet(duration);
+      maxNanos.accumulateAndGet(duration, Math::max);
+      if (duration > SLOW_DELIVERY_NANOS && LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Slow Git listener " + listener.getClass().getName() + ": "
+            + TimeUnit.NANOSECONDS.toMillis(duration) + " ms");
+      }
+    }
+  }
+
+  /**
+   * @return <code>true</code> if no event is waiting or being delivered asynchronously.
+   */
+  boolean isIdle() {
+    return !drainScheduled.get() && !hasWaitingEvents();
+  }
+
+  /**
+   * @return The delivery statistics.
+   */
+  ListenerStatistics getStatistics() {
+    return new ListenerStatistics(
+        listener.getClass().getName(),
+        policy,
+        deliveries.get(),
+        totalNanos.get(),
+        maxNanos.get(),
+        coalesced.get(),
+        overflows.get());
+  }
+}
@@ -0,0 +1,120 @@
+package com.oxygenxml.git.service;
+
+/**
+ * Timing statistics about the delivery of the Git events to a listener.
+ */
+public class ListenerStatistics {
+  /**
+   * The class of the listener.
+   */
+  private final String listener;
+  /**
+   * How the events are delivered.
+   */
+  private final EventDeliveryPolicy policy;
+  /**
+   * The number of delivered events.
+   */
+  private final long deliveries;
+  /**
+   * The total time spent in the listener, in nanoseconds.
+   */
+  private final long totalNanos;
+  /**
+   * The longest time spent in the listener for an event, in nanoseconds.
+   */
+  private final long maxNanos;
+  /**
+   * The number of events replaced by a newer one before being delivered.
+   */
+  private final long coalesced;
+  /**
+   * The number of events delivered on the firing thread because the queue was full.
+   */
+  private final long overflows;
+
+  /**
+   * Constructor.
+   *
+   * @param listener   The class of the listener.
+   * @param policy     How the events are delivered.
+   * @param deliveries The number of delivered events.
+   * @param totalNanos The total time spent in the listener, in nanoseconds.
+   * @param maxNanos   The longest time spent in the listener for an event, in nanoseconds.
+   * @param coalesced  The number of events replaced by a newer one before being delivered.
+   * @param overflows  The number of events delivered on the firing thread because the queue was full.
+   */
+  ListenerStatistics(
+      String listener,
+      EventDeliveryPolicy policy,
+      long deliveries,
+      long totalNanos,
+      long maxNanos,
+      long coalesced,
+      long overflows) {
+    this.listener = listener;
+    this.policy = policy;
+    this.deliveries = deliveries;
+    this.totalNanos = totalNanos;
+    this.maxNanos = maxNanos;
+    this.coalesced = coalesced;
+    this.overflows = overflows;
+  }
+
+  /**
+   * @return The class of the listener.
+   */
+  public String getListener() {
+    return listener;
+  }
+
+  /**
+   * @return How the events are delivered.
+   */
+  public EventDeliveryPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * @return The number of delivered events.
+   */
+  public long getDeliveries() {
+    return deliveries;
+  }
+
+  /**
+   * @return The total time spent in the listener, in nanoseconds.
+   */
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * @return The longest time spent in the listener for an event, in nanoseconds.
+   */
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  /**
+   * @return The number of events replaced by a newer one before being delivered.
+   */
+  public long getCoalesced() {
+    return coalesced;
+  }
+
+  /**
+   * @return The number of events delivered on the firing thread because the queue was full.
+   */
+  public long getOverflows() {
+    return overflows;
+  }
+
+  @Override
+  public String toString() {
+    return "ListenerStatistics [listener: " + listener + ", policy: " + policy
+        + ", deliveries: " + deliveries + ", total ms: " + totalNanos / 1_000_000
+        + ", max ms: " + maxNanos / 1_000_000 + ", coalesced: " + coalesced
+        + ", overflows: " + overflows + "]";
+  }
+}
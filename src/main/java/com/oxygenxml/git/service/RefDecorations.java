@@ -0,0 +1,229 @@
+package com.oxygenxml.git.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The tags and the branches pointing to each commit, used for decorating the history.
+ * Built in a single pass over the reference database. Immutable.
+ */
+public class RefDecorations {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(RefDecorations.class);
+  /**
+   * Decorations for a repository without references.
+   */
+  public static final RefDecorations EMPTY = new RefDecorations(
+      Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+  /**
+   * The object pointed by each reference, by reference name. Identifies the state of the reference database.
+   */
+  private final Map<String, ObjectId> refIds;
+  /**
+   * The commit pointed by each annotated tag object.
+   */
+  private final Map<ObjectId, ObjectId> peeledTags;
+  /**
+   * Commit ID to a list of tag names.
+   */
+  private final Map<ObjectId, List<String>> tags;
+  /**
+   * Commit ID to a list of local branch names.
+   */
+  private final Map<ObjectId, List<String>> localBranches;
+  /**
+   * Commit ID to a list of remote branch names.
+   */
+  private final Map<ObjectId, List<String>> remoteBranches;
+
+  /**
+   * Constructor.
+   *
+   * @param refIds         The object pointed by each reference, by reference name.
+   * @param peeledTags     The commit pointed by each annotated tag object.
+   * @param tags           Commit ID to a list of tag names.
+   * @param localBranches  Commit ID to a list of local branch names.
+   * @param remoteBranches Commit ID to a list of remote branch names.
+   */
+  private RefDecorations(
+      Map<String, ObjectId> refIds,
+      Map<ObjectId, ObjectId> peeledTags,
+      Map<ObjectId, List<String>> tags,
+      Map<ObjectId, List<String>> localBranches,
+      Map<ObjectId, List<String>> remoteBranches) {
+    this.refIds = refIds;
+    this.peeledTags = peeledTags;
+    this.tags = tags;
+    this.localBranches = localBranches;
+    this.remoteBranches = remoteBranches;
+  }
+
+  /**
+   * Computes the decorations of a repository.
+   *
+   * @param repository The repository.
+   * @param previous   Decorations computed before for the same repository. Returned as they are if no
+   *                   reference changed. Otherwise the tags that still exist are not peeled again.
+   *
+   * @return The decorations. Never <code>null</code>.
+   *
+   * @throws IOException When the references cannot be read.
+   */
+  public static RefDecorations compute(Repository repository, RefDecorations previous) throws IOException {
+    return compute(repository, RefSnapshot.get(repository).getRefs(), previous);
+  }
+
+  /**
+   * Computes the decorations of a repository from its references.
+   *
+   * @param repository The repository.
+   * @param refs       All the references of the repository.
+   * @param previous   Decorations computed before for the same repository. Returned as they are if no
+   *                   reference changed. Otherwise the tags that still exist are not peeled again.
+   *
+   * @return The decorations. Never <code>null</code>.
+   *
+   * @throws IOException When the tags cannot be read.
+   */
+  public static RefDecorations compute(Repository repository, List<Ref> refs, RefDecorations previous) throws IOException {
+    Map<String, ObjectId> refIds = new HashMap<>(refs.size() * 2);
+    for (Ref ref : refs) {
+      refIds.put(ref.getName(), ref.getObjectId());
+    }
+    if (refIds.equals(previous.refIds)) {
+      return previous;
+    }
+
+    Map<ObjectId, ObjectId> peeledTags = new HashMap<>();
+    Map<ObjectId, List<String>> tags = new LinkedHashMap<>();
+    Map<ObjectId, List<String>> localBranches = new LinkedHashMap<>();
+    Map<ObjectId, List<String>> remoteBranches = new LinkedHashMap<>();
+    try (RevWalk walk = new RevWalk(repository)) {
+      for (Ref ref : refs) {
+        ObjectId id = ref.getObjectId();
+        if (id == null) {
+          continue;
+        }
+
+        String name = ref.getName();
+        if (name.startsWith(Constants.R_TAGS)) {
+          ObjectId target = peelTag(repository, walk, ref, previous, peeledTags);
+          // Only the last segment of the tag name is presented.
+          tags.computeIfAbsent(target, k -> new ArrayList<>()).add(name.substring(name.lastIndexOf('/') + 1));
+        } else if (name.startsWith(Constants.R_HEADS)) {
+          localBranches.computeIfAbsent(id, k -> new ArrayList<>()).add(name.substring(Constants.R_HEADS.length()));
+        } else if (name.startsWith(Constants.R_REMOTES)) {
+          remoteBranches.computeIfAbsent(id, k -> new ArrayList<>()).add(name.substring(Constants.R_REMOTES.length()));
+        }
+      }
+    }
+
+    return new RefDecorations(refIds, peeledTags, tags, localBranches, remoteBranches);
+  }
+
+  /**
+   * Finds the object pointed by a tag.
+   *
+   * @param repository The repository.
+   * @param walk       Revision walk for parsing the tag objects.
+   * @param ref        The tag.
+   * @param previous   Previously computed decorations.
+   * @param peeledTags Receives the annotated tags.
+   *
+   * @return The id of the tagged object.
+   *
+   * @throws IOException When the tag cannot be read.
+   */
+  private static ObjectId peelTag(
+      Repository repository,
+      RevWalk walk,
+      Ref ref,
+      RefDecorations previous,
+      Map<ObjectId, ObjectId> peeledTags) throws IOException {
+    ObjectId id = ref.getObjectId();
+    ObjectId target = previous.peeledTags.get(id);
+    if (target == null) {
+      // The packed references usually record the peeled value.
+      Ref peeledRef = ref.isPeeled() ? ref : repository.getRefDatabase().peel(ref);
+      target = peeledRef.getPeeledObjectId();
+      if (target == null && !peeledRef.isPeeled()) {
+        try {
+          target = walk.peel(walk.parseAny(id)).copy();
+        } catch (IOException e) {
+          LOGGER.debug(e.getMessage(), e);
+        }
+      }
+    }
+
+    if (target != null && !target.equals(id)) {
+      peeledTags.put(id, target);
+      return target;
+    }
+    // Lightweight tag.
+    return id;
+  }
+
+  /**
+   * @param commit A commit.
+   *
+   * @return The names of the tags pointing to the commit. Never <code>null</code>.
+   */
+  public List<String> getTags(AnyObjectId commit) {
+    return tags.getOrDefault(commit, Collections.emptyList());
+  }
+
+  /**
+   * @param commit A commit.
+   *
+   * @return The names of the local branches pointing to the commit. Never <code>null</code>.
+   */
+  public List<String> getLocalBranches(AnyObjectId commit) {
+    return localBranches.getOrDefault(commit, Collections.emptyList());
+  }
+
+  /**
+   * @param commit A commit.
+   *
+   * @return The names of the remote branches pointing to the commit. Never <code>null</code>.
+   */
+  public List<String> getRemoteBranches(AnyObjectId commit) {
+    return remoteBranches.getOrDefault(commit, Collections.emptyList());
+  }
+
+  /**
+   * @return Commit ID to a list of tag names.
+   */
+  public Map<ObjectId, List<String>> getTags() {
+    return Collections.unmodifiableMap(tags);
+  }
+
+  /**
+   * @return Commit ID to a list of local branch names.
+   */
+  public Map<ObjectId, List<String>> getLocalBranches() {
+    return Collections.unmodifiableMap(localBranches);
+  }
+
+  /**
+   * @return Commit ID to a list of remote branch names.
+   */
+  public Map<ObjectId, List<String>> getRemoteBranches() {
+    return Collections.unmodifiableMap(remoteBranches);
+  }
+}
@@ -0,0 +1,249 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An immutable view over all the references of a repository, indexed by name, by prefix and
+ * by the object they point to. All the views read the references from here instead of
+ * listing them on their own.<br><br>
+ *
+ * A repository has a single current snapshot. It is built again only when the
+ * <code>packed-refs</code> file, the <code>HEAD</code> file or a directory under
+ * <code>refs</code> changes. Git and JGit write the loose references by renaming a lock file,
+ * which changes the modification time of the directory.
+ */
+public final class RefSnapshot {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(RefSnapshot.class);
+  /**
+   * A file modified this recently, in milliseconds, might be modified again without its
+   * modification time changing, so the snapshot is built again next time.
+   */
+  private static final long RACY_INTERVAL = 2000;
+  /**
+   * A snapshot without references.
+   */
+  public static final RefSnapshot EMPTY = new RefSnapshot(0, null, Collections.emptyList());
+  /**
+   * The current snapshots, by Git directory.
+   */
+  private static final Map<File, RefSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+  /**
+   * Incremented each time a reference changes.
+   */
+  private final long version;
+  /**
+   * Describes the files of the reference database when the snapshot was built.
+   * <code>null</code> if the snapshot must be built again.
+   */
+  private final String stamp;
+  /**
+   * The references, sorted by name.
+   */
+  private final List<Ref> refs;
+  /**
+   * The references by name.
+   */
+  private final NavigableMap<String, Ref> byName = new TreeMap<>();
+  /**
+   * The references by the object they point to. An annotated tag is also found by the peeled
+   * object, when the reference database knows it.
+   */
+  private final Map<ObjectId, List<Ref>> byTarget = new HashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param version The version.
+   * @param stamp   Describes the files of the reference database.
+   * @param refs    The references.
+   */
+  private RefSnapshot(long version, String stamp, List<Ref> refs) {
+    this.version = version;
+    this.stamp = stamp;
+    for (Ref ref : refs) {
+      byName.put(ref.getName(), ref);
+      ObjectId id = ref.getObjectId();
+      if (id != null) {
+        byTarget.computeIfAbsent(id, k -> new ArrayList<>(1)).add(ref);
+        ObjectId peeled = ref.getPeeledObjectId();
+        if (peeled != null && !peeled.equals(id)) {
+          byTarget.computeIfAbsent(peeled, k -> new ArrayList<>(1)).add(ref);
+        }
+      }
+    }
+    this.refs = Collections.unmodifiableList(new ArrayList<>(byName.values()));
+  }
+
+  /**
+   * Gets the current snapshot of a repository, building it again if the references changed.
+   *
+   * @param repository The repository.
+   *
+   * @return The snapshot. Never <code>null</code>.
+   *
+   * @throws IOException When the references cannot be read.
+   */
+  public static RefSnapshot get(Repository repository) throws IOException {
+    File gitDir = repository.getDirectory();
+    RefSnapshot previous = SNAPSHOTS.getOrDefault(gitDir, EMPTY);
+    long started = System.currentTimeMillis();
+    String stamp = computeStamp(gitDir, started);
+    if (stamp != null && stamp.equals(previous.stamp)) {
+      return previous;
+    }
+
+    List<Ref> refs = repository.getRefDatabase().getRefs();
+    boolean changed = !previous.hasSameRefs(refs);
+    RefSnapshot snapshot = new RefSnapshot(changed ? previous.version + 1 : previous.version, stamp, refs);
+    SNAPSHOTS.put(gitDir, snapshot);
+    if (changed && LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Built the snapshot of {} references in {} ms", refs.size(), System.currentTimeMillis() - started);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Describes the files of the reference database.
+   *
+   * @param gitDir  The Git directory.
+   * @param started When the snapshot started to be built.
+   *
+   * @return The description or <code>null</code> if the files might change without being noticed.
+   */
+  private static String computeStamp(File gitDir, long started) {
+    if (new File(gitDir, "commondir").exists() || new File(gitDir, "reftable").exists()) {
+      // The references are not all in this directory.
+      return null;
+    }
+
+    StringBuilder stamp = new StringBuilder();
+    long[] newest = new long[1];
+    appendFileStamp(stamp, new File(gitDir, Constants.PACKED_REFS), newest);
+    appendFileStamp(stamp, new File(gitDir, Constants.HEAD), newest);
+    appendDirectoryStamps(stamp, new File(gitDir, Constants.R_REFS), newest);
+    return newest[0] > started - RACY_INTERVAL ? null : stamp.toString();
+  }
+
+  /**
+   * Describes a file by its modification time and size.
+   *
+   * @param stamp  Receives the description.
+   * @param file   The file.
+   * @param newest The newest modification time. Updated.
+   */
+  private static void appendFileStamp(StringBuilder stamp, File file, long[] newest) {
+    long lastModified = file.lastModified();
+    newest[0] = Math.max(newest[0], lastModified);
+    stamp.append(lastModified).append(':').append(file.length()).append('|');
+  }
+
+  /**
+   * Describes a directory and its subdirectories by their modification times.
+   *
+   * @param stamp     Receives the description.
+   * @param directory The directory.
+   * @param newest    The newest modification time. Updated.
+   */
+  private static void appendDirectoryStamps(StringBuilder stamp, File directory, long[] newest) {
+    long lastModified = directory.lastModified();
+    newest[0] = Math.max(newest[0], lastModified);
+    stamp.append(directory.getName()).append(':').append(lastModified).append('|');
+    File[] children = directory.listFiles(File::isDirectory);
+    if (children != null) {
+      for (File child : children) {
+        appendDirectoryStamps(stamp, child, newest);
+      }
+    }
+  }
+
+  /**
+   * @param other Other references.
+   *
+   * @return <code>true</code> if this snapshot has the same references, pointing to the same objects.
+   */
+  private boolean hasSameRefs(List<Ref> other) {
+    if (refs.size() != other.size()) {
+      return false;
+    }
+    for (Ref otherRef : other) {
+      Ref ref = byName.get(otherRef.getName());
+      if (ref == null
+          || ref.isSymbolic() != otherRef.isSymbolic()
+          || !Objects.equals(ref.getObjectId(), otherRef.getObjectId())
+          || ref.isSymbolic() && !ref.getTarget().getName().equals(otherRef.getTarget().getName())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return Incremented each time a reference changes.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @param name The full name of the reference, like "refs/heads/main".
+   *
+   * @return The reference or <code>null</code> if it doesn't exist.
+   */
+  public Ref getRef(String name) {
+    return byName.get(name);
+  }
+
+  /**
+   * @return All the references, including HEAD, sorted by name.
+   */
+  public List<Ref> getRefs() {
+    return refs;
+  }
+
+  /**
+   * @param prefix The prefix of the reference names, like {@link Constants#R_HEADS}.
+   *
+   * @return The references whose names start with the prefix, sorted by name. Never <code>null</code>.
+   */
+  public List<Ref> getRefsByPrefix(String prefix) {
+    List<Ref> result = new ArrayList<>();
+    for (Map.Entry<String, Ref> entry : byName.tailMap(prefix, true).entrySet()) {
+      if (!entry.getKey().startsWith(prefix)) {
+        break;
+      }
+      result.add(entry.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * @param id An object id.
+   *
+   * @return The references pointing to the object, directly or through an annotated tag.
+   *         Never <code>null</code>.
+   */
+  public List<Ref> getRefsByTarget(AnyObjectId id) {
+    return Collections.unmodifiableList(byTarget.getOrDefault(id, Collections.emptyList()));
+  }
+}
@@ -0,0 +1,162 @@
+package com.oxygenxml.git.service;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.BranchConfig;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.auth.AuthUtil;
+import com.oxygenxml.git.auth.AuthenticationInterceptor;
+import com.oxygenxml.git.utils.URIUtil;
+
+/**
+ * Finds out if the upstream branch moved without fetching. The branches advertised by the
+ * remote (ls-remote) are compared with the remote-tracking branch. The advertised branches
+ * are kept for a while for each remote URL, so that opening several editors asks the remote
+ * only once.
+ */
+class RemoteChangeProbe {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(RemoteChangeProbe.class);
+  /**
+   * How long the advertised branches of a remote are reused. Milliseconds.
+   */
+  static final long DEFAULT_TTL = 30 * 1000L;
+  /**
+   * The shared instance.
+   */
+  private static final RemoteChangeProbe INSTANCE = new RemoteChangeProbe(DEFAULT_TTL);
+  /**
+   * How long the advertised branches of a remote are reused. Milliseconds.
+   */
+  private final long ttl;
+  /**
+   * The advertised branches, by remote URL.
+   */
+  private final Map<String, Advertisement> advertisements = new ConcurrentHashMap<>();
+
+  /**
+   * The branches advertised by a remote.
+   */
+  private static final class Advertisement {
+    /**
+     * The commits to which the branches point, by full branch name.
+     */
+    private final Map<String, ObjectId> tips;
+    /**
+     * When the branches were listed. Milliseconds.
+     */
+    private final long time;
+
+    /**
+     * Constructor.
+     *
+     * @param tips The commits to which the branches point, by full branch name.
+     * @param time When the branches were listed. Milliseconds.
+     */
+    Advertisement(Map<String, ObjectId> tips, long time) {
+      this.tips = tips;
+      this.time = time;
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param ttl How long the advertised branches of a remote are reused. Milliseconds.
+   */
+  RemoteChangeProbe(long ttl) {
+    this.ttl = ttl;
+  }
+
+  /**
+   * @return The shared instance.
+   */
+  static RemoteChangeProbe getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Checks if the upstream of the current branch points to a different commit than its
+   * remote-tracking branch.
+   *
+   * @param repository The repository.
+   *
+   * @return <code>true</code> if the upstream branch changed or if it cannot be told without fetching.
+   */
+  boolean isUpstreamChanged(Repository repository) {
+    boolean changed = true;
+    try {
+      BranchConfig branchConfig = new BranchConfig(repository.getConfig(), repository.getBranch());
+      String remote = branchConfig.getRemote();
+      String merge = branchConfig.getMerge();
+      String trackingBranch = branchConfig.getRemoteTrackingBranch();
+      String url = remote != null
+          ? repository.getConfig().getString(ConfigConstants.CONFIG_KEY_REMOTE, remote, ConfigConstants.CONFIG_KEY_URL)
+          : null;
+      if (merge != null && trackingBranch != null && url != null) {
+        Map<String, ObjectId> tips = getAdvertisedTips(repository, remote, url);
+        if (tips != null) {
+          Ref trackingRef = RefSnapshot.get(repository).getRef(trackingBranch);
+          changed = !Objects.equals(tips.get(merge), trackingRef != null ? trackingRef.getObjectId() : null);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.debug(e.getMessage(), e);
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Upstream changed: " + changed);
+    }
+    return changed;
+  }
+
+  /**
+   * Gets the branches advertised by a remote, listing them again if they are too old.
+   *
+   * @param repository The repository.
+   * @param remote     The name of the remote.
+   * @param url        The URL of the remote.
+   *
+   * @return The commits to which the branches point, by full branch name, or <code>null</code>
+   * if the remote cannot be reached.
+   */
+  private Map<String, ObjectId> getAdvertisedTips(Repository repository, String remote, String url) {
+    long now = System.currentTimeMillis();
+    Advertisement advertisement = advertisements.get(url);
+    if (advertisement == null || now - advertisement.time >= ttl) {
+      AuthenticationInterceptor.install();
+      try {
+        Collection<Ref> refs = Git.wrap(repository).lsRemote()
+            .setRemote(remote)
+            .setHeads(true)
+            .setCredentialsProvider(AuthUtil.getCredentialsProvider(URIUtil.extractHostName(url)))
+            .call();
+        Map<String, ObjectId> tips = new HashMap<>();
+        for (Ref ref : refs) {
+          tips.put(ref.getName(), ref.getObjectId());
+        }
+        advertisement = new Advertisement(tips, now);
+        advertisements.put(url, advertisement);
+      } catch (GitAPIException e) {
+        LOGGER.debug(e.getMessage(), e);
+        advertisement = null;
+      }
+    }
+    return advertisement != null ? advertisement.tips : null;
+  }
+}
@@ -14,6 +14,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.oxygenxml.git.options.OptionsManager;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
+import com.oxygenxml.git.service.GitOperationScheduler.Priority;
 import com.oxygenxml.git.translator.Tags;
 import com.oxygenxml.git.translator.Translator;
 import com.oxygenxml.git.view.dialog.MessagePresenterProvider;
@@ -71,7 +73,7 @@ public class RemoteRepositoryChangeWatcher {
     // Check the currently opened editors.
     boolean isNotifyAboutNewRemoteCommits = OptionsManager.getInstance().isNotifyAboutNewRemoteCommits();
     if(isNotifyAboutNewRemoteCommits) {
-      GitOperationScheduler.getInstance().schedule(() -> checkRemoteRepository(true), 2 * SLEEP);
+      GitOperationScheduler.getInstance().schedule(Lane.BACKGROUND, Priority.NORMAL, () -> checkRemoteRepository(true), 2 * SLEEP);
     }
   
   }
@@ -104,7 +106,7 @@ public class RemoteRepositoryChangeWatcher {
           if (future != null) {
             future.cancel(false);
           }
-          future = GitOperationScheduler.getInstance().schedule(() -> checkRemoteRepository(true), SLEEP);
+          future = GitOperationScheduler.getInstance().schedule(Lane.BACKGROUND, Priority.NORMAL, () -> checkRemoteRepository(true), SLEEP);
         }
       }
     };
@@ -226,7 +228,8 @@ public class RemoteRepositoryChangeWatcher {
   
   /**
    * Checks in the remote repository if there are new commits. 
-   * @param fetch <code>true</code> to execute a fetch before making the checks.
+   * @param fetch <code>true</code> to execute a fetch before making the checks, if the
+   * upstream branch moved.
    * 
    * @return <code>commitsAhead</code> a list with all new commits
    */
@@ -234,10 +237,11 @@ public class RemoteRepositoryChangeWatcher {
     List<RevCommit> commitsBehind = Collections.emptyList();
     try {
       GitAccess gitAccess = GitAccess.getInstance();
-      if (fetch) {
+      Repository repository = gitAccess.getRepository();
+      // Probe with ls-remote first. Most of the time the upstream branch didn't move.
+      if (fetch && RemoteChangeProbe.getInstance().isUpstreamChanged(repository)) {
         gitAccess.fetch();
       }
-      Repository repository = gitAccess.getRepository();
       CommitsAheadAndBehind commitsAheadAndBehind = RevCommitUtil.getCommitsAheadAndBehind(repository, repository.getFullBranch());
       if (commitsAheadAndBehind != null) {
         commitsBehind = commitsAheadAndBehind.getCommitsBehind();
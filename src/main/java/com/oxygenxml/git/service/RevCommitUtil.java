@@ -5,11 +5,11 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.eclipse.jgit.api.Git;
@@ -26,7 +26,6 @@ import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.revplot.PlotCommit;
 import org.eclipse.jgit.revplot.PlotCommitList;
 import org.eclipse.jgit.revplot.PlotWalk;
 import org.eclipse.jgit.revwalk.FollowFilter;
@@ -38,18 +37,23 @@ import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.FileTreeIterator;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.eclipse.jgit.util.io.NullOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.oxygenxml.git.service.CommitGraph.Divergence;
+import com.oxygenxml.git.service.FileHistoryIndex.PathHistory;
 import com.oxygenxml.git.service.entities.FileStatus;
 import com.oxygenxml.git.service.entities.FileStatusOverDiffEntry;
 import com.oxygenxml.git.service.entities.FileStatusUtil;
 import com.oxygenxml.git.service.entities.GitChangeType;
 import com.oxygenxml.git.view.history.CommitCharacteristics;
 import com.oxygenxml.git.view.history.CommitsAheadAndBehind;
+import com.oxygenxml.git.view.history.HistoryStrategy;
 import com.oxygenxml.git.view.history.RenameTracker;
 import com.oxygenxml.git.view.history.graph.GraphColorUtil;
 import com.oxygenxml.git.view.history.graph.VisualCommitsList;
@@ -93,12 +97,35 @@ public class RevCommitUtil {
    * @throws GitAPIException
    */
   public static List<FileStatus> getChangedFiles(String commitID) throws IOException, GitAPIException {
+    return getChangedFiles(commitID, null);
+  }
+  
+  
+  /**
+   * Get changed files as compared with the parent version. For the large commits, the modified files 
+   * are reported before the renames are detected.
+   *
+   * @param commitID       The commit ID.
+   * @param partialResults Receives a part of the changed files, on the calling thread, before the 
+   *                       whole list is computed. May be <code>null</code>.
+   *
+   * @return A list with changed files. Never <code>null</code>.
+   *
+   * @throws IOException
+   * @throws GitAPIException
+   */
+  public static List<FileStatus> getChangedFiles(String commitID, Consumer<List<FileStatus>> partialResults) 
+      throws IOException, GitAPIException {
     List<FileStatus> changedFiles = new ArrayList<>();
     try {
       Repository repository = GitAccess.getInstance().getRepository();
       if (!GitAccess.UNCOMMITED_CHANGES.getCommitId().equals(commitID)) {
         ObjectId head = repository.resolve(commitID);
-
+        ChangedFilesCache cache = GitAccess.getInstance().getChangedFilesCache();
+        List<FileStatus> cached = head != null ? cache.get(head) : null;
+        if (cached != null) {
+          return cached;
+        }
       
         try (RevWalk rw = new RevWalk(repository)) {
           RevCommit commit = rw.parseCommit(head);
@@ -113,11 +140,14 @@ public class RevCommitUtil {
           treewalk.setRecursive(true);
           treewalk.setFilter(TreeFilter.ANY_DIFF);
 
-          changedFiles = FileStatusUtil.compute(repository, treewalk, commit, oldCommit, TreeFilter.ALL);
+          changedFiles = FileStatusUtil.compute(repository, treewalk, commit, oldCommit, partialResults, TreeFilter.ALL);
 
           if(parents.length > 2) {
             addUntrackedFiles(changedFiles, repository, rw, commit);
-          }          
+          }
+          
+          // The changes of a commit never change.
+          cache.put(commit, changedFiles);
         }
       } else {
         changedFiles = GitAccess.getInstance().getUnstagedFiles();
@@ -432,42 +462,46 @@ public class RevCommitUtil {
       Repository repository,
       RenameTracker renameTracker,
       boolean includeRemote) throws IOException {
-
+    try (CommitHistoryPager pager = createHistoryPager(
+        filePath, repository, renameTracker, false, plotWalk -> markCurrentBranch(plotWalk, repository, includeRemote))) {
+      revisions.addAll(pager.remaining());
+    }
+  }
+  
+  
+  /**
+   * Marks the current branch and, optionally, the remote branch linked to it as start points of the walk.
+   * 
+   * @param plotWalk         Revision iterator.
+   * @param repository       Loaded repository.
+   * @param includeRemote    <code>true</code> if the remote branch should be also presented.
+   * 
+   * @throws IOException
+   */
+  private static void markCurrentBranch(PlotWalk plotWalk, Repository repository, boolean includeRemote) throws IOException {
     // a RevWalk allows to walk over commits based on some filtering that is defined
     // EXM-44307 Show current branch commits only.
     String fullBranch = repository.getFullBranch();
     Ref branchHead = repository.exactRef(fullBranch);
     if (branchHead != null) {
-      try (PlotWalk plotWalk = new PlotWalk(repository)) {
-    	  RevCommit root = plotWalk.parseCommit(branchHead.getObjectId());
-		  plotWalk.markStart(root);
-		  if(filePath != null && renameTracker != null) {
-			  renameTracker.reset(filePath);
-			  plotWalk.setRevFilter(renameTracker.getFilter());
-		  }
-		
-		if(includeRemote) {
-			 // If we have a remote, put it as well.
-	        String fullRemoteBranchName = getUpstreamBranchName(repository, repository.getBranch());
-	        if (fullRemoteBranchName != null) {
-	          Ref fullRemoteBranchHead = repository.exactRef(fullRemoteBranchName);
-	          if (fullRemoteBranchHead != null) {
-	            plotWalk.markStart(plotWalk.parseCommit(fullRemoteBranchHead.getObjectId()));
-	          }
-	        }
-		}  
-		
-        collectRevisions(filePath, revisions, repository, plotWalk, renameTracker);
-      }
-
+      plotWalk.markStart(plotWalk.parseCommit(branchHead.getObjectId()));
+
+      if(includeRemote) {
+        // If we have a remote, put it as well.
+        String fullRemoteBranchName = getUpstreamBranchName(repository, repository.getBranch());
+        if (fullRemoteBranchName != null) {
+          Ref fullRemoteBranchHead = repository.exactRef(fullRemoteBranchName);
+          if (fullRemoteBranchHead != null) {
+            plotWalk.markStart(plotWalk.parseCommit(fullRemoteBranchHead.getObjectId()));
+          }
+        }
+      }  
     } else {
       // Probably a new repository without any history. 
     }
   }
   
   
-  
-  
   /**
    * Collects the revisions from all repository branches.
    * 
@@ -486,21 +520,29 @@ public class RevCommitUtil {
       Repository repository,
       RenameTracker renameTracker,
       boolean includeRemote) throws IOException {
-
+    try (CommitHistoryPager pager = createHistoryPager(
+        filePath, repository, renameTracker, false, plotWalk -> markAllBranches(plotWalk, includeRemote))) {
+      revisions.addAll(pager.remaining());
+    }
+  }
+  
+  
+  /**
+   * Marks all the local branches and, optionally, the remote branches as start points of the walk.
+   * 
+   * @param plotWalk         Revision iterator.
+   * @param includeRemote    <code>true</code> if the remote branches should be also presented.
+   * 
+   * @throws IOException
+   */
+  private static void markAllBranches(PlotWalk plotWalk, boolean includeRemote) throws IOException {
 	  List<Ref> allRefs = GitAccess.getInstance().getLocalBranchList();
 	  if(includeRemote) {
 		  allRefs.addAll(GitAccess.getInstance().getRemoteBrachListForCurrentRepo());
 	  }
 	  
-	  try (PlotWalk plotWalk = new PlotWalk(repository)) {
-		  for (Ref ref : allRefs) {
-			  plotWalk.markStart(plotWalk.parseCommit(ref.getObjectId()));
-			}
-		  if(filePath != null && renameTracker != null) {
-			  renameTracker.reset(filePath);
-			  plotWalk.setRevFilter(renameTracker.getFilter());
-		  }
-		  collectRevisions(filePath, revisions, repository, plotWalk, renameTracker);
+	  for (Ref ref : allRefs) {
+		  plotWalk.markStart(plotWalk.parseCommit(ref.getObjectId()));
 	  }
   }
   
@@ -522,42 +564,116 @@ public class RevCommitUtil {
  
   
   /**
-   * Collects all the revisions by waking the revision iterator.
+   * Creates a pager over the history presented for the given strategy. The commits are walked
+   * only as the pages are requested.
    * 
-   * @param filePath An optional resource path. If not null, only the revisions that changed this resource are collected.
-   * @param commits Revisions/Commits are collected in here.
-   * @param repository Loaded repository.
-   * @param plotWalk Revision iterator.
+   * @param strategy                  Which branches to present.
+   * @param filePath                  An optional resource path. If not null, only the revisions that changed this resource are presented.
+   * @param repository                Loaded repository.
+   * @param renameTracker             Track the renames for current file path.
+   * @param includeUncommittedChanges <code>true</code> to start the history with {@link GitAccess#UNCOMMITED_CHANGES}.
+   * 
+   * @return The pager. Must be closed by the caller.
+   * 
+   * @throws IOException
+   */
+  public static CommitHistoryPager createHistoryPager(
+      HistoryStrategy strategy,
+      String filePath,
+      Repository repository,
+      RenameTracker renameTracker,
+      boolean includeUncommittedChanges) throws IOException {
+    StartPointsMarker marker;
+    switch (strategy) {
+    case ALL_BRANCHES:
+      marker = plotWalk -> markAllBranches(plotWalk, true);
+      break;
+    case ALL_LOCAL_BRANCHES:
+      marker = plotWalk -> markAllBranches(plotWalk, false);
+      break;
+    case CURRENT_LOCAL_BRANCH:
+      marker = plotWalk -> markCurrentBranch(plotWalk, repository, false);
+      break;
+    case CURRENT_BRANCH:
+    default:
+      marker = plotWalk -> markCurrentBranch(plotWalk, repository, true);
+      break;
+    }
+    
+    return createHistoryPager(filePath, repository, renameTracker, includeUncommittedChanges, marker);
+  }
+  
+  
+  /**
+   * Marks the start points of a history walk.
+   */
+  @FunctionalInterface
+  private interface StartPointsMarker {
+    /**
+     * Marks the start points.
+     * 
+     * @param plotWalk Revision iterator.
+     * 
+     * @throws IOException
+     */
+    void markStartPoints(PlotWalk plotWalk) throws IOException;
+  }
+  
+  
+  /**
+   * Creates a pager over the revisions reachable from the start points.
+   * 
+   * @param filePath                  An optional resource path. If not null, only the revisions that changed this resource are collected.
+   * @param repository                Loaded repository.
+   * @param renameTracker             Track the renames for current file path.
+   * @param includeUncommittedChanges <code>true</code> to start the history with {@link GitAccess#UNCOMMITED_CHANGES}.
+   * @param marker                    Marks the start points of the walk.
+   * 
+   * @return The pager. Must be closed by the caller.
    * 
    * @throws IOException
-   * @throws GitAPIException
    */
-  private static void collectRevisions(
+  private static CommitHistoryPager createHistoryPager(
 		  String filePath,
-		  List<CommitCharacteristics> commits,
 		  Repository repository,
-		  PlotWalk plotWalk, RenameTracker renameTracker) throws IOException {
-
-	  if (filePath != null) {
-		  FollowFilter filter = FollowFilter.create(filePath, repository.getConfig().get(DiffConfig.KEY));
-		  if(renameTracker != null) {
-			  filter.setRenameCallback(renameTracker.getCallback());
+		  RenameTracker renameTracker,
+		  boolean includeUncommittedChanges,
+		  StartPointsMarker marker) throws IOException {
+	  PlotWalk plotWalk = new PlotWalk(repository);
+	  try {
+		  marker.markStartPoints(plotWalk);
+		  
+		  PathHistory pathHistory = filePath != null
+		      ? GitAccess.getInstance().getFileHistoryIndexCache().getPathHistory(repository, filePath) : null;
+		  if (pathHistory != null) {
+		    // The renames are known from the index. Only the trees along the known paths are compared
+		    // and the tracker keeps each old path to the commits older than its rename.
+		    RenameTracker tracker = renameTracker != null ? renameTracker : new RenameTracker();
+		    tracker.reset(filePath, pathHistory);
+		    plotWalk.setRevFilter(tracker.getFilter());
+		    plotWalk.setTreeFilter(AndTreeFilter.create(
+		        PathFilterGroup.createFromStrings(pathHistory.getPaths()),
+		        TreeFilter.ANY_DIFF));
+		  } else if(filePath != null && renameTracker != null) {
+			  renameTracker.reset(filePath);
+			  plotWalk.setRevFilter(renameTracker.getFilter());
+		  }
+		  
+		  if (filePath != null && pathHistory == null) {
+			  FollowFilter filter = FollowFilter.create(filePath, repository.getConfig().get(DiffConfig.KEY));
+			  if(renameTracker != null) {
+				  filter.setRenameCallback(renameTracker.getCallback());
+			  }
+			  plotWalk.setTreeFilter(filter);
 		  }
-		  plotWalk.setTreeFilter(filter);
+	  } catch (IOException | RuntimeException e) {
+		  plotWalk.close();
+		  throw e;
 	  }
 
 	  boolean isDarkTheme = PluginWorkspaceProvider.getPluginWorkspace().getColorTheme().isDarkTheme();
 	  PlotCommitList<VisualLane> plotCommitList = new VisualCommitsList(GraphColorUtil.createColorDispatcher(isDarkTheme));
-	  plotCommitList.source(plotWalk);
-	  plotCommitList.fillTo(Integer.MAX_VALUE);
-
-	  Iterator<PlotCommit<VisualLane>> commitListIterator = plotCommitList.iterator();
-
-	  while (commitListIterator.hasNext()) {
-		  PlotCommit<VisualLane> commit = commitListIterator.next();
-		  commits.add(new CommitCharacteristics(commit));
-	  }
-
+	  return new CommitHistoryPager(plotWalk, plotCommitList, includeUncommittedChanges);
   }
   
   
@@ -604,7 +720,8 @@ public class RevCommitUtil {
 
     List<RevCommit> revisions = sort(revs, since, true);
 
-    return findPath(git, filePath, revisions);
+    String indexedPath = findPathInIndex(git.getRepository(), filePath, revisions, true);
+    return indexedPath != null ? indexedPath : findPath(git, filePath, revisions);
   }
 
   /**
@@ -630,7 +747,8 @@ public class RevCommitUtil {
 
     List<RevCommit> sorted = sort(revs, since, false);
 
-    return findPath(git, newFilePath, sorted);
+    String indexedPath = findPathInIndex(git.getRepository(), newFilePath, sorted, false);
+    return indexedPath != null ? indexedPath : findPath(git, newFilePath, sorted);
   }
 
 
@@ -659,6 +777,45 @@ public class RevCommitUtil {
     return getOldPath(git, olderRevCommit, headRevCommit, originalFilePath);
   }
 
+  /**
+   * Finds the location of a resource that might have been moved / renamed across revisions using
+   * the renames recorded in the file history index. No tree is read.
+   * 
+   * @param repository The repository.
+   * @param filePath   The path in the first revision from the list.
+   * @param revisions  The revisions across which to follow the resource renames.
+   * @param ascending  <code>true</code> if the revisions are sorted from old to new.
+   * 
+   * @return The path of the resource as present in the last revision from the list or <code>null</code>
+   * if the index is not available for all the revisions.
+   */
+  private static String findPathInIndex(
+      Repository repository,
+      String filePath,
+      List<RevCommit> revisions,
+      boolean ascending) {
+    return GitAccess.getInstance().getFileHistoryIndexCache().query(repository, index -> {
+      String path = filePath;
+      RevCommit previous = null;
+      for (RevCommit revCommit : revisions) {
+        if (!index.isIndexed(revCommit)) {
+          return null;
+        }
+        if (previous != null) {
+          // The renames are recorded on the newer commit.
+          String renamed = ascending 
+              ? index.getRenamedTo(revCommit, path) 
+              : index.getRenamedFrom(previous, path);
+          if (renamed != null) {
+            path = renamed;
+          }
+        }
+        previous = revCommit;
+      }
+      return path;
+    });
+  }
+
   /**
    * Finds the new location of a resource that might have been moved / renamed across revisions.
    * 
@@ -897,6 +1054,15 @@ public class RevCommitUtil {
     }
 
     try (RevWalk walk = new RevWalk(repository)) {
+      Divergence divergence = GitAccess.getInstance().getCommitGraphCache().getDivergence(
+          repository, local.getObjectId(), tracking.getObjectId());
+      if (divergence != null) {
+        // Only the commits that differ are parsed.
+        return new CommitsAheadAndBehind(
+            parseCommits(walk, divergence.getOnlyFromFirst()),
+            parseCommits(walk, divergence.getOnlyFromSecond()));
+      }
+
       RevCommit localCommit = walk.parseCommit(local.getObjectId());
       RevCommit trackingCommit = walk.parseCommit(tracking.getObjectId());
 
@@ -914,6 +1080,80 @@ public class RevCommitUtil {
     }
   }
 
+  /**
+   * Parses commits.
+   *
+   * @param walk The revision walk.
+   * @param ids  The commit ids.
+   *
+   * @return The parsed commits, in the same order.
+   *
+   * @throws IOException When a commit cannot be read.
+   */
+  private static List<RevCommit> parseCommits(RevWalk walk, List<ObjectId> ids) throws IOException {
+    List<RevCommit> commits = new ArrayList<>(ids.size());
+    for (ObjectId id : ids) {
+      commits.add(walk.parseCommit(id));
+    }
+    return commits;
+  }
+
+  /**
+   * Finds the merge bases of two commits. The commit graph is used when it is available, so that only the
+   * merge bases are parsed. Otherwise the commits are walked.
+   *
+   * @param repository The repository.
+   * @param walk       The revision walk. It is reset.
+   * @param first      The first commit.
+   * @param second     The second commit.
+   *
+   * @return The merge bases. Empty if the commits have no common ancestor.
+   *
+   * @throws IOException When a commit cannot be read.
+   */
+  public static List<RevCommit> getMergeBases(Repository repository, RevWalk walk, RevCommit first, RevCommit second)
+      throws IOException {
+    walk.reset();
+    List<ObjectId> fromGraph = GitAccess.getInstance().getCommitGraphCache().getMergeBases(repository, first, second);
+    if (fromGraph != null) {
+      return parseCommits(walk, fromGraph);
+    }
+
+    List<RevCommit> mergeBases = new ArrayList<>(1);
+    walk.setRevFilter(RevFilter.MERGE_BASE);
+    walk.markStart(first);
+    walk.markStart(second);
+    for (RevCommit mergeBase = walk.next(); mergeBase != null; mergeBase = walk.next()) {
+      mergeBases.add(mergeBase);
+    }
+    walk.reset();
+    walk.setRevFilter(RevFilter.ALL);
+    return mergeBases;
+  }
+
+
+  /**
+   * Gets the versions of a file from the index that differ from the working tree. A conflicted file
+   * has one version for each stage: base, mine and theirs, and they are all read in one scan of the index.
+   * 
+   * @param git Git access.
+   * @param path File path.
+   * 
+   * @return The versions, sorted by stage. Empty if the file is not changed.
+   * 
+   * @throws IOException
+   * @throws GitAPIException
+   */
+  private static List<ObjectId> getIndexVersions(Git git, String path) throws IOException, GitAPIException {
+    ConflictStages conflictStages = ConflictStages.get(git.getRepository());
+    if (conflictStages.isConflicted(path)) {
+      return conflictStages.getStages(path);
+    }
+    
+    List<DiffEntry> entries = git.diff().setPathFilter(PathFilter.create(path)).call();
+    return entries.stream().map(entry -> entry.getOldId().toObjectId()).collect(Collectors.toList());
+  }
+  
 
   /**
    * Returns the SHA-1 id for the BASE commit of a file. The BASE commit
@@ -930,9 +1170,9 @@ public class RevCommitUtil {
   public static ObjectId getBaseCommit(Git git, String filePath) throws IOException, GitAPIException {
     ObjectId toReturn = null;
     if(git != null) {
-      List<DiffEntry> entries = git.diff().setPathFilter(PathFilter.create(filePath)).call();
-      if (!entries.isEmpty()) {
-        toReturn = entries.get(0).getOldId().toObjectId();
+      List<ObjectId> versions = getIndexVersions(git, filePath);
+      if (!versions.isEmpty()) {
+        toReturn = versions.get(0);
       } else { 
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("No BASE commit for: '" + filePath + "'");
@@ -959,12 +1199,12 @@ public class RevCommitUtil {
   public static ObjectId getTheirCommit(Git git, String filePath) throws IOException, GitAPIException {
     ObjectId toReturn = null;
     if(git != null) {
-      List<DiffEntry> entries = git.diff().setPathFilter(PathFilter.create(filePath)).call();
-      int noOfDiffEntries = entries.size();
+      List<ObjectId> versions = getIndexVersions(git, filePath);
+      int noOfDiffEntries = versions.size();
       boolean isTwoWayDiff = noOfDiffEntries < THREE_DIFF_ENTRIES;
       int indexOfTheirs = isTwoWayDiff ? 1 : 2;
       if (indexOfTheirs < noOfDiffEntries) {
-        toReturn =  entries.get(indexOfTheirs).getOldId().toObjectId();
+        toReturn = versions.get(indexOfTheirs);
       } else {
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("No THEIRS commit available for: '" + filePath + "'. "
@@ -992,12 +1232,12 @@ public class RevCommitUtil {
   public static ObjectId getMyCommit(Git git, String path) throws IOException, GitAPIException {
     ObjectId toReturn = null;
     if(git != null) {
-      List<DiffEntry> entries = git.diff().setPathFilter(PathFilter.create(path)).call();
-      int noOfDiffEntries = entries.size();
+      List<ObjectId> versions = getIndexVersions(git, path);
+      int noOfDiffEntries = versions.size();
       boolean isTwoWayDiff = noOfDiffEntries < THREE_DIFF_ENTRIES;
       int indexOfMine = isTwoWayDiff ? 0 : 1;
       if (indexOfMine < noOfDiffEntries) {
-        toReturn =  entries.get(indexOfMine).getOldId().toObjectId();
+        toReturn = versions.get(indexOfMine);
       } else {
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("No MINE commit available for: '" + path + "'."
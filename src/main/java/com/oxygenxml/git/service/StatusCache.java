@@ -1,23 +1,38 @@
 package com.oxygenxml.git.service;
 
+import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import org.eclipse.jgit.api.Git;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+import com.oxygenxml.git.utils.FileUtil;
+import com.oxygenxml.git.utils.GitAddonSystemProperties;
 import com.oxygenxml.git.utils.RepoUtil;
 import com.oxygenxml.git.view.event.GitEventInfo;
 import com.oxygenxml.git.view.event.GitOperation;
 
 import ro.sync.exml.workspace.api.PluginWorkspace;
+import ro.sync.exml.workspace.api.PluginWorkspaceProvider;
 import ro.sync.exml.workspace.api.editor.WSEditor;
 import ro.sync.exml.workspace.api.listeners.WSEditorChangeListener;
 import ro.sync.exml.workspace.api.listeners.WSEditorListener;
 
 /**
- * A cache intended to avoid reading the file system too often.
+ * A cache intended to avoid reading the file system too often.<br><br>
+ * 
+ * When a resource from the working copy changes (an editor is saved or the file system watcher
+ * detects a change), only the status of that resource is recomputed and patched into the cached status.
+ * The entire status is recomputed after Git operations, HEAD/index changes or lost file system events.
+ * 
  * @author alex_jitianu
  */
 public class StatusCache {
@@ -33,6 +48,14 @@ public class StatusCache {
    * A supplier of a newly computed status.
    */
   private Supplier<Git> statusComputer;
+  /**
+   * Paths, relative to the working copy, whose status must be recomputed.
+   */
+  private Set<String> dirtyPaths = new HashSet<>();
+  /**
+   * Watches the working copy for changes. <code>null</code> if no repository is loaded.
+   */
+  private WorkingCopyWatcher watcher;
   
   /**
    * Constructor.
@@ -43,8 +66,18 @@ public class StatusCache {
   public StatusCache(GitListeners listeners, Supplier<Git> statusComputer) {
     this.statusComputer = statusComputer;
     listeners.addGitPriorityListener(new GitEventAdapter() {
+      @Override
+      public void operationAboutToStart(GitEventInfo info) {
+        if (info.getGitOperation() == GitOperation.OPEN_WORKING_COPY) {
+          stopWatching();
+        }
+      }
+      
       @Override
       public void operationSuccessfullyEnded(GitEventInfo info) {
+        if (info.getGitOperation() == GitOperation.OPEN_WORKING_COPY) {
+          startWatching();
+        }
         if (// If you push changes the state of the working copy doesn't change.
             info.getGitOperation() != GitOperation.PUSH &&
             // If another branch is removed the state of the working copy doesn't change.
@@ -60,18 +93,103 @@ public class StatusCache {
    */
   public synchronized GitStatus getStatus() {
     if (cache == null) {
+      dirtyPaths.clear();
       cache = new GitStatusCommand(statusComputer).getStatus();
+    } else if (!dirtyPaths.isEmpty()) {
+      Set<String> paths = dirtyPaths;
+      dirtyPaths = new HashSet<>();
+      cache = patchStatus(cache, paths);
     }
     return cache;
   }
+  
+  /**
+   * Recomputes the status of the given paths and replaces their entries from the old status.
+   * 
+   * @param oldStatus The old status.
+   * @param paths     The paths to recompute, relative to the working copy. A path to a directory
+   * covers all its descendants.
+   * 
+   * @return The updated status.
+   */
+  private GitStatus patchStatus(GitStatus oldStatus, Set<String> paths) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Recompute status for: " + paths);
+    }
+    
+    GitStatusCommand statusCommand = new GitStatusCommand(statusComputer);
+    List<FileStatus> unstagedFiles = retainUnaffected(oldStatus.getUnstagedFiles(), paths);
+    unstagedFiles.addAll(statusCommand.getUnstagedFiles(paths));
+    List<FileStatus> stagedFiles = retainUnaffected(oldStatus.getStagedFiles(), paths);
+    stagedFiles.addAll(statusCommand.getStagedFile(paths));
+    
+    // Same as in JGit: untracked files are not uncommitted changes.
+    boolean hasUncommittedChanges = !stagedFiles.isEmpty() 
+        || unstagedFiles.stream().anyMatch(f -> f.getChangeType() != GitChangeType.UNTRACKED);
+    
+    return new GitStatus(unstagedFiles, stagedFiles, hasUncommittedChanges);
+  }
 
+  /**
+   * Filters out the files covered by the given paths.
+   * 
+   * @param files The files.
+   * @param paths Paths of files or directories.
+   * 
+   * @return A new list with the files not covered by any of the paths.
+   */
+  private static List<FileStatus> retainUnaffected(List<FileStatus> files, Set<String> paths) {
+    List<FileStatus> retained = new ArrayList<>(files.size());
+    for (FileStatus file : files) {
+      if (!GitStatusCommand.isCovered(file.getFileLocation(), paths)) {
+        retained.add(file);
+      }
+    }
+    return retained;
+  }
+  
   /**
    * Reset inner cache.
    */
   public synchronized void resetCache() {
     LOGGER.debug("Reset cahche", new Exception());
     cache = null;
-    
+    dirtyPaths.clear();
+  }
+  
+  /**
+   * Marks a resource as changed. Its status will be recomputed on the next request.
+   * 
+   * @param path The path of a file or of a directory, relative to the working copy.
+   */
+  public synchronized void markDirty(String path) {
+    if (cache != null) {
+      dirtyPaths.add(path);
+    }
+  }
+  
+  /**
+   * Starts watching the working copy of the currently loaded repository.
+   */
+  private synchronized void startWatching() {
+    stopWatching();
+    Git git = statusComputer.get();
+    if (git != null 
+        && !git.getRepository().isBare()
+        && !Boolean.getBoolean(GitAddonSystemProperties.DISABLE_WORKING_COPY_WATCHER)) {
+      watcher = new WorkingCopyWatcher(git.getRepository(), this::markDirty, this::resetCache);
+      watcher.start();
+    }
+  }
+  
+  /**
+   * Stops watching the working copy.
+   */
+  public synchronized void stopWatching() {
+    if (watcher != null) {
+      watcher.close();
+      watcher = null;
+    }
   }
 
   /**
@@ -103,11 +221,35 @@ public class StatusCache {
       editorAccess.addEditorListener(new WSEditorListener() {
         @Override
         public void editorSaved(int operationType) {
-          if (RepoUtil.isFileFromRepository(editorAccess.getEditorLocation())) {
-            resetCache();
+          URL editorLocation = editorAccess.getEditorLocation();
+          if (RepoUtil.isFileFromRepository(editorLocation)) {
+            markEditorDirty(editorLocation);
           }
         }
       });
     }
   }
+
+  /**
+   * Marks the resource of a saved editor as changed.
+   * 
+   * @param editorLocation The location of a file from the working copy.
+   */
+  private void markEditorDirty(URL editorLocation) {
+    String path = null;
+    try {
+      File file = PluginWorkspaceProvider.getPluginWorkspace().getUtilAccess().locateFile(editorLocation);
+      if (file != null) {
+        path = FileUtil.getPath(file);
+      }
+    } catch (NoRepositorySelected e) {
+      LOGGER.debug(e.getMessage(), e);
+    }
+    
+    if (path != null) {
+      markDirty(path);
+    } else {
+      resetCache();
+    }
+  }
 }
@@ -1,6 +1,7 @@
 package com.oxygenxml.git.service;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -9,6 +10,7 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.merge.MergeStrategy;
 import org.eclipse.jgit.submodule.SubmoduleStatus;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,14 +66,18 @@ public class SubmoduleAccess {
    * @return a list containing all the submodules
    */
   public Set<String> getSubmodules() {
-    try {
-      if (git.get() != null) {
-        return git.get().submoduleStatus().call().keySet();
+    Set<String> submodules = new LinkedHashSet<>();
+    if (git.get() != null) {
+      // Only the INDEX is read. Unlike the status command, the submodule repositories are not opened.
+      try (SubmoduleWalk walk = SubmoduleWalk.forIndex(git.get().getRepository())) {
+        while (walk.next()) {
+          submodules.add(walk.getPath());
+        }
+      } catch (IOException e) {
+        LOGGER.error(e.getMessage(), e);
       }
-    } catch (GitAPIException e) {
-      LOGGER.error(e.getMessage(), e);
     }
-    return new HashSet<>();
+    return submodules;
   }
   
   /**
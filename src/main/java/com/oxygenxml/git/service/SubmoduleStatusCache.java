@@ -0,0 +1,220 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jgit.errors.ConfigInvalidException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.submodule.SubmoduleStatus;
+import org.eclipse.jgit.submodule.SubmoduleStatusType;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+import com.oxygenxml.git.utils.RepoUtil;
+
+/**
+ * Computes which submodules have a checked out commit other than the one recorded in the
+ * index of the main repository. The submodules are checked concurrently and the result for a submodule
+ * is reused until its HEAD, its index or the recorded commit change.
+ */
+class SubmoduleStatusCache {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubmoduleStatusCache.class);
+  /**
+   * The maximum number of submodules checked at the same time.
+   */
+  private static final int POOL_SIZE = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  /**
+   * Singleton.
+   */
+  private static final SubmoduleStatusCache INSTANCE = new SubmoduleStatusCache();
+  /**
+   * Work tree of the main repository -> submodule path -> the last computed status.
+   */
+  private final Map<File, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+  /**
+   * Checks the submodules.
+   */
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * A computed submodule status.
+   */
+  private static class Entry {
+    /**
+     * The commit recorded in the index of the main repository.
+     */
+    private final ObjectId indexId;
+    /**
+     * The commit checked out in the submodule.
+     */
+    private final ObjectId headId;
+    /**
+     * The last modification time of the submodule index.
+     */
+    private final long indexModified;
+    /**
+     * The unstaged submodule change. <code>null</code> if the submodule is unchanged.
+     */
+    private final FileStatus fileStatus;
+
+    /**
+     * Constructor.
+     *
+     * @param indexId       The commit recorded in the index of the main repository.
+     * @param headId        The commit checked out in the submodule.
+     * @param indexModified The last modification time of the submodule index.
+     * @param fileStatus    The unstaged submodule change. <code>null</code> if the submodule is unchanged.
+     */
+    Entry(ObjectId indexId, ObjectId headId, long indexModified, FileStatus fileStatus) {
+      this.indexId = indexId;
+      this.headId = headId;
+      this.indexModified = indexModified;
+      this.fileStatus = fileStatus;
+    }
+
+    /**
+     * @param indexId       The commit recorded in the index of the main repository.
+     * @param headId        The commit checked out in the submodule.
+     * @param indexModified The last modification time of the submodule index.
+     *
+     * @return <code>true</code> if the entry was computed for the same state.
+     */
+    boolean isFor(ObjectId indexId, ObjectId headId, long indexModified) {
+      return Objects.equals(this.indexId, indexId)
+          && Objects.equals(this.headId, headId)
+          && this.indexModified == indexModified;
+    }
+  }
+
+  /**
+   * Private constructor.
+   */
+  private SubmoduleStatusCache() {
+    AtomicInteger counter = new AtomicInteger();
+    executor = new ThreadPoolExecutor(
+        POOL_SIZE,
+        POOL_SIZE,
+        60,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        r -> {
+          Thread thread = new Thread(r, "Git submodule status " + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * @return The singleton instance.
+   */
+  static SubmoduleStatusCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts checking the submodules of a repository.
+   *
+   * @param repository The main repository.
+   *
+   * @return The unstaged submodule changes, in the index order.
+   */
+  CompletableFuture<List<FileStatus>> getChangedSubmodules(Repository repository) {
+    Map<String, ObjectId> submodules = new LinkedHashMap<>();
+    try (SubmoduleWalk walk = SubmoduleWalk.forIndex(repository)) {
+      while (walk.next()) {
+        // Like the submodule status command, the submodules that are not configured have no HEAD.
+        if (walk.getModulesPath() != null && walk.getConfigUrl() != null) {
+          submodules.put(walk.getPath(), walk.getObjectId());
+        }
+      }
+    } catch (IOException | ConfigInvalidException e) {
+      LOGGER.error(e.getMessage(), e);
+      return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+
+    if (submodules.isEmpty()) {
+      entries.remove(repository.getWorkTree());
+      return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+
+    Map<String, Entry> previous = entries.getOrDefault(repository.getWorkTree(), Collections.emptyMap());
+    Map<String, CompletableFuture<Entry>> futures = new LinkedHashMap<>();
+    submodules.forEach((path, indexId) -> futures.put(
+        path,
+        CompletableFuture.supplyAsync(() -> check(repository, path, indexId, previous.get(path)), executor)));
+
+    return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+        .thenApply(v -> {
+          Map<String, Entry> current = new ConcurrentHashMap<>();
+          List<FileStatus> changed = new ArrayList<>();
+          futures.forEach((path, future) -> {
+            Entry entry = future.join();
+            if (entry != null) {
+              current.put(path, entry);
+              if (entry.fileStatus != null) {
+                changed.add(entry.fileStatus);
+              }
+            }
+          });
+          // Also forgets the removed submodules.
+          entries.put(repository.getWorkTree(), current);
+          return changed;
+        });
+  }
+
+  /**
+   * Checks a submodule, unless its state is the one of the previous check.
+   *
+   * @param repository The main repository.
+   * @param path       The submodule path.
+   * @param indexId    The commit recorded in the index of the main repository.
+   * @param previous   The previous check. May be <code>null</code>.
+   *
+   * @return The check result. <code>null</code> if the submodule couldn't be checked.
+   */
+  private static Entry check(Repository repository, String path, ObjectId indexId, Entry previous) {
+    try (Repository submodule = SubmoduleWalk.getSubmoduleRepository(repository, path)) {
+      if (submodule == null) {
+        // Not initialized.
+        return new Entry(indexId, null, 0, null);
+      }
+      ObjectId headId = submodule.resolve(Constants.HEAD);
+      long indexModified = submodule.getIndexFile().lastModified();
+      if (previous != null && previous.isFor(indexId, headId, indexModified)) {
+        return previous;
+      }
+
+      FileStatus fileStatus = null;
+      if (headId != null && !headId.equals(indexId)) {
+        SubmoduleStatus status = new SubmoduleStatus(SubmoduleStatusType.REV_CHECKED_OUT, path, indexId, headId);
+        fileStatus = new FileStatus(GitChangeType.SUBMODULE, path).setDescription(
+            RepoUtil.extractSubmoduleChangeDescription(repository, status));
+      }
+      return new Entry(indexId, headId, indexModified, fileStatus);
+    } catch (IOException e) {
+      LOGGER.error(e.getMessage(), e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,497 @@
+package com.oxygenxml.git.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.CoreConfig;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.util.FS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the untracked files of the directories that contain no tracked file, so that the
+ * status command doesn't walk those directories again while they are unchanged. Similar to the
+ * untracked cache of Git.<br><br>
+ *
+ * A directory is reused while the modification times of the directory, of its walked
+ * subdirectories and of the <code>.gitignore</code> files that apply to it are unchanged and the
+ * index contains no file from it. The whole cache is dropped when <code>info/exclude</code> or
+ * the global excludes file change.<br><br>
+ *
+ * The cache is persisted in a file from the Git directory.
+ */
+class UntrackedDirectoryCache {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(UntrackedDirectoryCache.class);
+  /**
+   * The name of the file, inside the Git directory.
+   */
+  static final String FILE_NAME = "oxygen-untracked-cache";
+  /**
+   * Identifies the file format.
+   */
+  private static final int MAGIC = 0x4f585543;
+  /**
+   * The version of the file format.
+   */
+  private static final int VERSION = 1;
+  /**
+   * A directory modified this recently, in milliseconds, might be modified again without its
+   * modification time changing, so it is not cached.
+   */
+  private static final long RACY_INTERVAL = 2000;
+  /**
+   * The caches of the repositories, by Git directory.
+   */
+  private static final Map<File, UntrackedDirectoryCache> INSTANCES = new ConcurrentHashMap<>();
+  /**
+   * The file in which the cache is persisted.
+   */
+  private final File file;
+  /**
+   * Describes the ignore rules that are not in the work tree. The directories were cached under these rules.
+   */
+  private String ignoreFingerprint = "";
+  /**
+   * The cached directories, by path relative to the work tree.
+   */
+  private Map<String, CachedDirectory> directories = new HashMap<>();
+
+  /**
+   * A directory that contains no tracked file.
+   */
+  private static class CachedDirectory {
+    /**
+     * The path, relative to the work tree.
+     */
+    private final String path;
+    /**
+     * The modification times of the walked directories and of the <code>.gitignore</code> files
+     * that apply to them, by path relative to the work tree. 0 for a missing file.
+     */
+    private final Map<String, Long> stamps;
+    /**
+     * The untracked files, relative to the work tree.
+     */
+    private final List<String> untracked;
+
+    /**
+     * Constructor.
+     *
+     * @param path      The path, relative to the work tree.
+     * @param stamps    The modification times of the walked directories and of the <code>.gitignore</code> files.
+     * @param untracked The untracked files, relative to the work tree.
+     */
+    CachedDirectory(String path, Map<String, Long> stamps, List<String> untracked) {
+      this.path = path;
+      this.stamps = stamps;
+      this.untracked = untracked;
+    }
+
+    /**
+     * @param workTree The work tree.
+     *
+     * @return <code>true</code> if none of the recorded files changed.
+     */
+    boolean isUpToDate(File workTree) {
+      for (Map.Entry<String, Long> stamp : stamps.entrySet()) {
+        if (new File(workTree, stamp.getKey()).lastModified() != stamp.getValue()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Collects the walked directories during a status computation.
+   */
+  class Scan {
+    /**
+     * The repository.
+     */
+    private final Repository repository;
+    /**
+     * The index, read when the scan started.
+     */
+    private final DirCache dirCache;
+    /**
+     * The cached directories, when the scan started.
+     */
+    private final Map<String, CachedDirectory> cached;
+    /**
+     * When the scan started.
+     */
+    private final long started = System.currentTimeMillis();
+    /**
+     * The modification times of the walked directories, by path.
+     */
+    private final Map<String, Long> walked = new LinkedHashMap<>();
+    /**
+     * The cached directories that were not walked.
+     */
+    private final List<CachedDirectory> skipped = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param repository The repository.
+     * @param dirCache   The index.
+     * @param cached     The cached directories.
+     */
+    private Scan(Repository repository, DirCache dirCache, Map<String, CachedDirectory> cached) {
+      this.repository = repository;
+      this.dirCache = dirCache;
+      this.cached = cached;
+    }
+
+    /**
+     * @return The working tree iterator to give to the status command.
+     */
+    WorkingTreeIterator newIterator() {
+      return new CachingIterator(repository, this);
+    }
+
+    /**
+     * Called before entering a directory.
+     *
+     * @param path      The directory path, relative to the work tree.
+     * @param directory The directory.
+     *
+     * @return <code>true</code> to skip the directory because its cached untracked files are still valid.
+     */
+    private boolean skip(String path, File directory) {
+      CachedDirectory cachedDirectory = cached.get(path);
+      if (cachedDirectory != null
+          && !containsTrackedFiles(path)
+          && cachedDirectory.isUpToDate(repository.getWorkTree())) {
+        skipped.add(cachedDirectory);
+        return true;
+      }
+
+      walked.put(path, directory.lastModified());
+      return false;
+    }
+
+    /**
+     * @param path A directory path, relative to the work tree.
+     *
+     * @return <code>true</code> if the index contains files from the directory.
+     */
+    private boolean containsTrackedFiles(String path) {
+      String prefix = path + "/";
+      int index = dirCache.findEntry(prefix);
+      if (index < 0) {
+        index = -(index + 1);
+      }
+      return index < dirCache.getEntryCount() && dirCache.getEntry(index).getPathString().startsWith(prefix);
+    }
+
+    /**
+     * Adds the untracked files of the skipped directories to the ones found by the status command
+     * and caches the walked directories that contain no tracked files.
+     *
+     * @param status The status computed with the iterator of this scan.
+     *
+     * @return All the untracked files.
+     */
+    Set<String> finish(Status status) {
+      Set<String> untracked = new LinkedHashSet<>(status.getUntracked());
+      Map<String, CachedDirectory> updated = new HashMap<>();
+      for (CachedDirectory cachedDirectory : skipped) {
+        untracked.addAll(cachedDirectory.untracked);
+        updated.put(cachedDirectory.path, cachedDirectory);
+      }
+
+      // The outermost walked directories without tracked files.
+      Set<String> candidates = new LinkedHashSet<>();
+      for (String path : walked.keySet()) {
+        if (!containsTrackedFiles(path)) {
+          candidates.add(path);
+        }
+      }
+      for (String path : candidates) {
+        int separator = path.lastIndexOf('/');
+        if (separator == -1 || !candidates.contains(path.substring(0, separator))) {
+          CachedDirectory cachedDirectory = createCachedDirectory(path, status.getUntracked());
+          if (cachedDirectory != null) {
+            updated.put(path, cachedDirectory);
+          }
+        }
+      }
+
+      update(cached, updated);
+      return untracked;
+    }
+
+    /**
+     * Records a walked directory.
+     *
+     * @param path      The directory path, relative to the work tree.
+     * @param untracked All the untracked files found by the status command.
+     *
+     * @return The cached directory. <code>null</code> if it was modified too recently to be cached.
+     */
+    private CachedDirectory createCachedDirectory(String path, Set<String> untracked) {
+      File workTree = repository.getWorkTree();
+      Map<String, Long> stamps = new LinkedHashMap<>();
+      // The ignore rules from the parent directories also apply.
+      int separator = -1;
+      do {
+        String gitignore = (separator == -1 ? "" : path.substring(0, separator + 1)) + Constants.DOT_GIT_IGNORE;
+        stamps.put(gitignore, new File(workTree, gitignore).lastModified());
+        separator = path.indexOf('/', separator + 1);
+      } while (separator != -1);
+
+      String prefix = path + "/";
+      for (Map.Entry<String, Long> directory : walked.entrySet()) {
+        String directoryPath = directory.getKey();
+        if (directoryPath.equals(path) || directoryPath.startsWith(prefix)) {
+          stamps.put(directoryPath, directory.getValue());
+          String gitignore = directoryPath + "/" + Constants.DOT_GIT_IGNORE;
+          stamps.put(gitignore, new File(workTree, gitignore).lastModified());
+        }
+      }
+      for (long stamp : stamps.values()) {
+        if (stamp > started - RACY_INTERVAL) {
+          return null;
+        }
+      }
+
+      List<String> files = new ArrayList<>();
+      for (String file : untracked) {
+        if (file.startsWith(prefix)) {
+          files.add(file);
+        }
+      }
+      return new CachedDirectory(path, stamps, files);
+    }
+  }
+
+  /**
+   * A working tree iterator that doesn't enter the cached directories.
+   */
+  private static class CachingIterator extends FileTreeIterator {
+    /**
+     * The scan that decides which directories are entered.
+     */
+    private final Scan scan;
+
+    /**
+     * Constructor for the work tree root.
+     *
+     * @param repository The repository.
+     * @param scan       The scan that decides which directories are entered.
+     */
+    CachingIterator(Repository repository, Scan scan) {
+      super(repository);
+      this.scan = scan;
+    }
+
+    /**
+     * Constructor for a subdirectory.
+     *
+     * @param parent    The iterator of the parent directory.
+     * @param directory The directory.
+     * @param fs        The file system abstraction.
+     * @param scan      The scan that decides which directories are entered.
+     */
+    private CachingIterator(CachingIterator parent, File directory, FS fs, Scan scan) {
+      super(parent, directory, fs, parent.fileModeStrategy);
+      this.scan = scan;
+    }
+
+    @Override
+    protected AbstractTreeIterator enterSubtree() {
+      File directory = getEntryFile();
+      if (scan.skip(getEntryPathString(), directory)) {
+        // Like an ignored directory.
+        byte[] childPath = Arrays.copyOf(path, pathLen + 1);
+        childPath[pathLen] = '/';
+        return new EmptyTreeIterator(this, childPath, pathLen + 1);
+      }
+      return new CachingIterator(this, directory, fs, scan);
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param file The file in which the cache is persisted.
+   */
+  private UntrackedDirectoryCache(File file) {
+    this.file = file;
+  }
+
+  /**
+   * @param repository The repository.
+   *
+   * @return The cache of the repository, loaded from the disk the first time.
+   */
+  static UntrackedDirectoryCache getInstance(Repository repository) {
+    return INSTANCES.computeIfAbsent(repository.getDirectory(), directory -> {
+      UntrackedDirectoryCache cache = new UntrackedDirectoryCache(new File(directory, FILE_NAME));
+      cache.load();
+      return cache;
+    });
+  }
+
+  /**
+   * Starts a status computation.
+   *
+   * @param repository The repository.
+   *
+   * @return The scan that supplies the working tree iterator and completes the untracked files.
+   *
+   * @throws IOException When the index cannot be read.
+   */
+  synchronized Scan startScan(Repository repository) throws IOException {
+    String fingerprint = computeIgnoreFingerprint(repository);
+    if (!fingerprint.equals(ignoreFingerprint)) {
+      // Other ignore rules.
+      ignoreFingerprint = fingerprint;
+      directories = new HashMap<>();
+    }
+    return new Scan(repository, repository.readDirCache(), directories);
+  }
+
+  /**
+   * Replaces the cached directories, if they changed, and persists them.
+   *
+   * @param previous The cached directories when the scan started.
+   * @param updated  The cached directories after the scan.
+   */
+  private synchronized void update(Map<String, CachedDirectory> previous, Map<String, CachedDirectory> updated) {
+    if (previous != directories) {
+      // Another scan already updated the cache, or the ignore rules changed meanwhile.
+      return;
+    }
+    boolean changed = previous.size() != updated.size();
+    for (Iterator<CachedDirectory> iterator = updated.values().iterator(); !changed && iterator.hasNext();) {
+      CachedDirectory directory = iterator.next();
+      changed = previous.get(directory.path) != directory;
+    }
+    if (changed) {
+      directories = updated;
+      save();
+    }
+  }
+
+  /**
+   * Describes the ignore rules that are not in the work tree: <code>info/exclude</code> and the global excludes file.
+   *
+   * @param repository The repository.
+   *
+   * @return The fingerprint.
+   */
+  private static String computeIgnoreFingerprint(Repository repository) {
+    StringBuilder fingerprint = new StringBuilder();
+    File exclude = new File(repository.getDirectory(), Constants.INFO_EXCLUDE);
+    fingerprint.append(exclude.lastModified()).append(':').append(exclude.length());
+
+    String excludesFile = repository.getConfig().get(CoreConfig.KEY).getExcludesFile();
+    if (excludesFile != null) {
+      FS fs = repository.getFS();
+      File excludes = excludesFile.startsWith("~/")
+          ? fs.resolve(fs.userHome(), excludesFile.substring(2))
+          : fs.resolve(null, excludesFile);
+      fingerprint.append(';').append(excludes.getAbsolutePath())
+        .append(':').append(excludes.lastModified())
+        .append(':').append(excludes.length());
+    }
+    return fingerprint.toString();
+  }
+
+  /**
+   * Loads the persisted cache. A missing or corrupted file results in an empty cache.
+   */
+  private void load() {
+    if (file.isFile()) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+          throw new IOException("Unknown format");
+        }
+        String fingerprint = in.readUTF();
+        Map<String, CachedDirectory> loaded = new HashMap<>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+          String path = in.readUTF();
+          Map<String, Long> stamps = new LinkedHashMap<>();
+          int stampCount = in.readInt();
+          for (int j = 0; j < stampCount; j++) {
+            stamps.put(in.readUTF(), in.readLong());
+          }
+          int untrackedCount = in.readInt();
+          List<String> untracked = new ArrayList<>(untrackedCount);
+          for (int j = 0; j < untrackedCount; j++) {
+            untracked.add(in.readUTF());
+          }
+          loaded.put(path, new CachedDirectory(path, stamps, Collections.unmodifiableList(untracked)));
+        }
+        ignoreFingerprint = fingerprint;
+        directories = loaded;
+      } catch (IOException e) {
+        LOGGER.warn("Discarding the untracked cache " + file + ": " + e.getMessage());
+        try {
+          Files.deleteIfExists(file.toPath());
+        } catch (IOException ex) {
+          LOGGER.debug(ex.getMessage(), ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Persists the cache.
+   */
+  private void save() {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeUTF(ignoreFingerprint);
+      out.writeInt(directories.size());
+      for (CachedDirectory directory : directories.values()) {
+        out.writeUTF(directory.path);
+        out.writeInt(directory.stamps.size());
+        for (Map.Entry<String, Long> stamp : directory.stamps.entrySet()) {
+          out.writeUTF(stamp.getKey());
+          out.writeLong(stamp.getValue());
+        }
+        out.writeInt(directory.untracked.size());
+        for (String untracked : directory.untracked) {
+          out.writeUTF(untracked);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Unable to save the untracked cache " + file + ": " + e.getMessage());
+    }
+  }
+}
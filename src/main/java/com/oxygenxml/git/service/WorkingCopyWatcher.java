@@ -0,0 +1,308 @@
+package com.oxygenxml.git.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.utils.FileUtil;
+
+/**
+ * Watches the working copy of a repository for changes and reports the changed paths.
+ * Ignored directories (as specified by the <code>.gitignore</code> files and the other exclude
+ * rules) are not watched.<br><br>
+ *
+ * Changes to the HEAD or to the index, a change in the ignore rules and a lost event (overflow)
+ * are reported as a need to recompute everything. A change in the ignore rules (a <code>.gitignore</code>
+ * file or <code>.git/info/exclude</code>) also re-registers the directories, as some of them might
+ * have become ignored or not ignored.
+ */
+public class WorkingCopyWatcher implements Closeable {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(WorkingCopyWatcher.class);
+  /**
+   * The name of the index file from the Git directory.
+   */
+  private static final String INDEX_FILE = "index";
+  /**
+   * The events of interest.
+   */
+  @SuppressWarnings("unchecked")
+  private static final WatchEvent.Kind<Path>[] EVENT_KINDS = new WatchEvent.Kind[] {
+      StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_DELETE,
+      StandardWatchEventKinds.ENTRY_MODIFY
+  };
+  /**
+   * The repository.
+   */
+  private final Repository repository;
+  /**
+   * The root of the working copy.
+   */
+  private final Path workTree;
+  /**
+   * The Git directory.
+   */
+  private final Path gitDir;
+  /**
+   * The directory that contains the exclude file of the repository.
+   */
+  private final Path infoDir;
+  /**
+   * Receives the path, relative to the working copy, of each changed resource.
+   */
+  private final Consumer<String> pathChangedListener;
+  /**
+   * Notified when the entire status must be recomputed.
+   */
+  private final Runnable rescanListener;
+  /**
+   * The watched directories.
+   */
+  private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+  /**
+   * The JDK service.
+   */
+  private WatchService watchService;
+  /**
+   * <code>true</code> after the watcher was closed.
+   */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   *
+   * @param repository          The repository to watch.
+   * @param pathChangedListener Receives the path, relative to the working copy, of each changed resource.
+   * @param rescanListener      Notified when the entire status must be recomputed.
+   */
+  public WorkingCopyWatcher(Repository repository, Consumer<String> pathChangedListener, Runnable rescanListener) {
+    this.repository = repository;
+    this.workTree = repository.getWorkTree().toPath();
+    this.gitDir = repository.getDirectory().toPath();
+    this.infoDir = gitDir.resolve(Constants.INFO_EXCLUDE).getParent();
+    this.pathChangedListener = pathChangedListener;
+    this.rescanListener = rescanListener;
+  }
+
+  /**
+   * Starts watching on a dedicated daemon thread. Registering the directories of a large
+   * working copy takes a while so it is also done on that thread.
+   */
+  public void start() {
+    Thread thread = new Thread(this::run, "Git working copy watcher - " + workTree.getFileName());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Registers the directories and processes the events until the watcher is closed.
+   */
+  private void run() {
+    try {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+      }
+      // The HEAD and the index.
+      register(gitDir);
+      if (Files.isDirectory(infoDir)) {
+        register(infoDir);
+      }
+      registerTree("");
+    } catch (ClosedWatchServiceException e) {
+      return;
+    } catch (IOException e) {
+      LOGGER.warn("Unable to watch the working copy " + workTree + ": " + e.getMessage(), e);
+      close();
+      return;
+    }
+
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        processEvents(key);
+      }
+    } catch (ClosedWatchServiceException e) {
+      LOGGER.debug("Stopped watching " + workTree);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      close();
+    }
+  }
+
+  /**
+   * Processes the events received on a directory.
+   *
+   * @param key The key of the directory.
+   */
+  private void processEvents(WatchKey key) {
+    Path dir = watchedDirs.get(key);
+    if (dir != null) {
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          LOGGER.debug("Events lost for " + dir);
+          rescanListener.run();
+        } else {
+          processEvent(dir, (Path) event.context(), event.kind());
+        }
+      }
+    }
+
+    if (!key.reset()) {
+      // The directory is no longer accessible.
+      watchedDirs.remove(key);
+    }
+  }
+
+  /**
+   * Processes an event for a resource.
+   *
+   * @param dir  The directory containing the resource.
+   * @param name The name of the resource.
+   * @param kind The event type.
+   */
+  private void processEvent(Path dir, Path name, WatchEvent.Kind<?> kind) {
+    if (dir.equals(gitDir)) {
+      String fileName = name.toString();
+      if (Constants.HEAD.equals(fileName) || INDEX_FILE.equals(fileName)) {
+        rescanListener.run();
+      } else if (dir.resolve(name).equals(infoDir) 
+          && kind == StandardWatchEventKinds.ENTRY_CREATE 
+          && Files.isDirectory(infoDir)) {
+        try {
+          register(infoDir);
+        } catch (IOException e) {
+          LOGGER.debug(e.getMessage(), e);
+        }
+        ignoreRulesChanged();
+      }
+    } else if (dir.equals(infoDir)) {
+      if (dir.resolve(name).equals(gitDir.resolve(Constants.INFO_EXCLUDE))) {
+        ignoreRulesChanged();
+      }
+    } else if (!dir.equals(workTree) || !Constants.DOT_GIT.equals(name.toString())) {
+      Path file = dir.resolve(name);
+      String path = FileUtil.rewriteSeparator(workTree.relativize(file).toString());
+      if (Constants.DOT_GIT_IGNORE.equals(name.toString())) {
+        ignoreRulesChanged();
+      } else {
+        pathChangedListener.accept(path);
+      }
+
+      if (kind == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+        try {
+          registerTree(path);
+        } catch (IOException e) {
+          LOGGER.debug(e.getMessage(), e);
+          rescanListener.run();
+        }
+      }
+    }
+  }
+
+  /**
+   * The ignore rules changed. Directories might have become ignored or not ignored so all
+   * the directories from the working copy are registered again before recomputing everything.
+   */
+  private void ignoreRulesChanged() {
+    for (Map.Entry<WatchKey, Path> entry : watchedDirs.entrySet()) {
+      Path dir = entry.getValue();
+      if (!dir.equals(gitDir) && !dir.equals(infoDir)) {
+        entry.getKey().cancel();
+        watchedDirs.remove(entry.getKey());
+      }
+    }
+    
+    try {
+      registerTree("");
+    } catch (IOException e) {
+      LOGGER.debug(e.getMessage(), e);
+    }
+    rescanListener.run();
+  }
+
+  /**
+   * Registers a directory and all its descendants that are not ignored.
+   *
+   * @param path The path of the directory, relative to the working copy. An empty string for the root.
+   *
+   * @throws IOException When it fails.
+   */
+  private void registerTree(String path) throws IOException {
+    if (path.isEmpty()) {
+      register(workTree);
+    }
+    try (TreeWalk treeWalk = new TreeWalk(repository)) {
+      treeWalk.addTree(new FileTreeIterator(repository));
+      if (!path.isEmpty()) {
+        treeWalk.setFilter(PathFilter.create(path));
+      }
+      while (treeWalk.next()) {
+        WorkingTreeIterator iterator = treeWalk.getTree(0, WorkingTreeIterator.class);
+        // Submodules are separate repositories.
+        if (treeWalk.isSubtree()
+            && treeWalk.getFileMode(0) != FileMode.GITLINK
+            && !iterator.isEntryIgnored()) {
+          String dirPath = treeWalk.getPathString();
+          if (dirPath.length() >= path.length()) {
+            register(workTree.resolve(dirPath));
+          }
+          treeWalk.enterSubtree();
+        }
+      }
+    }
+  }
+
+  /**
+   * Registers a directory with the watch service.
+   *
+   * @param dir The directory.
+   *
+   * @throws IOException When it fails.
+   */
+  private void register(Path dir) throws IOException {
+    // Throws ClosedWatchServiceException if the watcher was closed in the meantime.
+    watchedDirs.put(dir.register(watchService, EVENT_KINDS), dir);
+  }
+
+  /**
+   * Stops watching.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        LOGGER.debug(e.getMessage(), e);
+      }
+    }
+    watchedDirs.clear();
+  }
+}
@@ -8,6 +8,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.eclipse.jgit.annotations.NonNull;
@@ -20,6 +21,8 @@ import org.eclipse.jgit.diff.RenameDetector;
 import org.eclipse.jgit.errors.CorruptObjectException;
 import org.eclipse.jgit.errors.IncorrectObjectTypeException;
 import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.NullProgressMonitor;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
@@ -28,6 +31,7 @@ import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.EmptyTreeIterator;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
 import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +53,16 @@ public class FileStatusUtil {
    * Logger for logging.
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(FileStatusUtil.class);
+  
+  /**
+   * From this many added and removed files, the modified files are presented before the renames are detected.
+   */
+  static final int PARTIAL_RESULTS_THRESHOLD = 1000;
+  
+  /**
+   * While the trees are compared, the modified files found so far are reported each time this many more are found.
+   */
+  static final int PARTIAL_RESULTS_BATCH_SIZE = 500;
 
 
   /**
@@ -82,6 +96,33 @@ public class FileStatusUtil {
         markTreeFilters);
   }
   
+  
+  /**
+   * Computer files statues for specified tree walk and commit. For the large changes, the modified 
+   * files are reported while the trees are compared and before detecting the renames.
+   *
+   * @param repository         The current repository.
+   * @param walk               Tree walk for current repository.
+   * @param commit             The current commit
+   * @param oldCommit          The commit to compare with. May be <code>null</code>.
+   * @param partialResults     Receives, on the calling thread, the modified files found so far each time 
+   *                           {@link #PARTIAL_RESULTS_BATCH_SIZE} more are found and all of them when there are
+   *                           at least {@link #PARTIAL_RESULTS_THRESHOLD} added and removed files.
+   * @param markTreeFilters    optional filters for marking entries, see {@link #isMarked(int)}
+   *            
+   * @return non-null but possibly empty list with file statues.
+   * 
+   * @throws IOException
+   */
+  @NonNull
+  public static List<FileStatus> compute(final Repository repository,
+      final TreeWalk walk, final RevCommit commit, @Nullable final RevCommit oldCommit,
+      final Consumer<List<FileStatus>> partialResults,
+      final TreeFilter... markTreeFilters) throws IOException {
+    return compute(repository, walk, commit, oldCommit, commit.getParents(), partialResults,
+        markTreeFilters);
+  }
+  
 
   /**
    * Computer files statues for specified tree walk and commit.
@@ -105,6 +146,30 @@ public class FileStatusUtil {
       final RevCommit[] parents,
       final TreeFilter... markTreeFilters) throws MissingObjectException,
   IncorrectObjectTypeException, CorruptObjectException, IOException {
+    return compute(repository, walk, commit, oldCommit, parents, null, markTreeFilters);
+  }
+  
+  
+  /**
+   * Computer files statues for specified tree walk and commit.
+   *
+   * @param repository         The current repository.
+   * @param walk               Tree walk for current repository.
+   * @param commit             The current commit
+   * @param oldCommit          The commit to compare with. May be <code>null</code>.
+   * @param parents            The current commit parents.
+   * @param partialResults     Receives the modified files found so far. May be <code>null</code>.
+   * @param markTreeFilters    optional filters for marking entries, see {@link #isMarked(int)}
+   *            
+   * @return non-null but possibly empty list with file statues.
+   * 
+   * @throws IOException
+   */
+  private static List<FileStatus> compute(final Repository repository,
+      final TreeWalk walk, final RevCommit commit, final RevCommit oldCommit,
+      final RevCommit[] parents,
+      final Consumer<List<FileStatus>> partialResults,
+      final TreeFilter... markTreeFilters) throws IOException {
 
     final List<FileStatus> filesToReturn = new ArrayList<>();
 
@@ -119,7 +184,10 @@ public class FileStatusUtil {
     final String commitName     = commit.getName();
     final String oldCommitName  = oldCommit !=null ? oldCommit.getName() : null;
     if (walk.getTreeCount() <= 2) {
-      List<DiffEntry> entries = DiffEntry.scan(walk, false, markTreeFilters);
+      ModifiedFilesReporter reporter = partialResults != null 
+          ? new ModifiedFilesReporter(partialResults, commitName, oldCommitName) : null;
+      List<DiffEntry> entries = scan(walk, reporter, markTreeFilters);
+      reportModifiedFiles(entries, reporter, commitName, oldCommitName);
       List<DiffEntry> xentries = new LinkedList<>(entries);
       RenameDetector detector = new RenameDetector(repository);
       detector.addAll(entries);
@@ -138,7 +206,7 @@ public class FileStatusUtil {
     	// This case is for merge commits, this file extraction method is a bit slower than before. 
     	// It should be seen in the future if a faster way can be found to generate affected files in merge commits.
         try {
-          filesToReturn.addAll(getChanges(repository, commit, oldCommit));
+          filesToReturn.addAll(getChanges(repository, commit, oldCommit, partialResults));
         } catch (IOException | GitAPIException e) {
          
         }
@@ -148,6 +216,58 @@ public class FileStatusUtil {
   }
   
   
+  /**
+   * Compares the two trees of the walk.
+   * 
+   * @param walk            The tree walk.
+   * @param reporter        Reports the modified files while the trees are compared. May be <code>null</code>.
+   * @param markTreeFilters Optional filters for marking entries.
+   * 
+   * @return The changes.
+   * 
+   * @throws IOException
+   */
+  private static List<DiffEntry> scan(TreeWalk walk, ModifiedFilesReporter reporter, TreeFilter... markTreeFilters) 
+      throws IOException {
+    if (reporter == null) {
+      return DiffEntry.scan(walk, false, markTreeFilters);
+    }
+    
+    TreeFilter filter = walk.getFilter();
+    walk.setFilter(AndTreeFilter.create(filter, reporter));
+    try {
+      return DiffEntry.scan(walk, false, markTreeFilters);
+    } finally {
+      walk.setFilter(filter);
+    }
+  }
+  
+  
+  /**
+   * Reports all the modified files before detecting the renames, if there are many added and removed files.
+   * The modified files are never part of a rename.
+   * 
+   * @param entries   The changes.
+   * @param reporter  Reports the modified files found while comparing the trees. May be <code>null</code>.
+   * @param commit    The current commit.
+   * @param oldCommit The commit to compare with. May be <code>null</code>.
+   */
+  private static void reportModifiedFiles(List<DiffEntry> entries, ModifiedFilesReporter reporter, 
+      String commit, String oldCommit) {
+    if (reporter != null) {
+      List<DiffEntry> modified = entries.stream()
+          .filter(entry -> entry.getChangeType() == ChangeType.MODIFY)
+          .collect(Collectors.toList());
+      if (entries.size() - modified.size() >= PARTIAL_RESULTS_THRESHOLD
+          && modified.size() > reporter.getReportedCount()) {
+        List<FileStatus> files = new ArrayList<>(modified.size());
+        addFiles(files, modified, commit, oldCommit);
+        reporter.partialResults.accept(files);
+      }
+    }
+  }
+  
+  
   /**
    * Clean diff entries from xentries list raported to file diff. If the list has an element with the same old and new path, this element will be removed from list.
    * 
@@ -293,12 +413,15 @@ public class FileStatusUtil {
    * @param newCommit The new commit.
    * @param oldCommit The previous commit. Maybe <code>null<code>.
    * 
+   * @param partialResults Receives the modified files found so far. May be <code>null</code>.
+   * 
    * @return A list with changed files. Never <code>null</code>.
    * @throws IOException
    * @throws GitAPIException
    */
-  private static List<FileStatus> getChanges(Repository repository, RevCommit newCommit, RevCommit oldCommit) throws IOException, GitAPIException {
-    List<DiffEntry> diffs = diff(repository, newCommit, oldCommit);
+  private static List<FileStatus> getChanges(Repository repository, RevCommit newCommit, RevCommit oldCommit, 
+      Consumer<List<FileStatus>> partialResults) throws IOException, GitAPIException {
+    List<DiffEntry> diffs = diff(repository, newCommit, oldCommit, partialResults);
 
     return diffs
         .stream()
@@ -313,6 +436,7 @@ public class FileStatusUtil {
    * @param repository Repository.
    * @param newCommit The new commit.
    * @param oldCommit The previous commit. Maybe <code>null<code>.
+   * @param partialResults Receives the modified files found so far. May be <code>null</code>.
    * 
    * @return A list with changed files. Never <code>null</code>.
    * @throws IOException
@@ -321,8 +445,11 @@ public class FileStatusUtil {
   private static List<DiffEntry> diff(
       Repository repository, 
       RevCommit newCommit, 
-      RevCommit oldCommit) throws IOException, GitAPIException {
+      RevCommit oldCommit,
+      Consumer<List<FileStatus>> partialResults) throws IOException, GitAPIException {
     List<DiffEntry> collect = Collections.emptyList();
+    String newCommitName = newCommit.getId().name();
+    String oldCommitName = oldCommit != null ? oldCommit.getId().name() : null;
     try (ObjectReader reader = repository.newObjectReader()) {
       CanonicalTreeParser newTreeIter = new CanonicalTreeParser();
       newTreeIter.reset(reader, newCommit.getTree().getId());
@@ -335,10 +462,14 @@ public class FileStatusUtil {
 
       // finally get the list of changed files
       try (Git git = new Git(repository)) {
+        ModifiedFilesReporter reporter = partialResults != null 
+            ? new ModifiedFilesReporter(partialResults, newCommitName, oldCommitName) : null;
         List<DiffEntry> diffs= git.diff()
             .setNewTree(newTreeIter)
             .setOldTree(oldTreeIter)
+            .setPathFilter(reporter != null ? reporter : TreeFilter.ALL)
             .call();
+        reportModifiedFiles(diffs, reporter, newCommitName, oldCommitName);
 
         // Identify potential renames.
         RenameDetector rd = new RenameDetector(git.getRepository());
@@ -349,6 +480,111 @@ public class FileStatusUtil {
 
     return collect;
   }
+  
+  
+  /**
+   * Observes the entries of a tree walk that compares two trees and reports the modified files
+   * in batches, while the walk is still running. Includes all the entries.
+   */
+  private static class ModifiedFilesReporter extends TreeFilter {
+    /**
+     * Receives the modified files found so far.
+     */
+    private final Consumer<List<FileStatus>> partialResults;
+    /**
+     * The current commit.
+     */
+    private final String commit;
+    /**
+     * The commit to compare with. May be <code>null</code>.
+     */
+    private final String oldCommit;
+    /**
+     * The modified files found so far.
+     */
+    private final List<FileStatus> modified = new ArrayList<>();
+    /**
+     * How many modified files were reported.
+     */
+    private int reportedCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param partialResults Receives the modified files found so far.
+     * @param commit         The current commit.
+     * @param oldCommit      The commit to compare with. May be <code>null</code>.
+     */
+    ModifiedFilesReporter(Consumer<List<FileStatus>> partialResults, String commit, String oldCommit) {
+      this.partialResults = partialResults;
+      this.commit = commit;
+      this.oldCommit = oldCommit;
+    }
 
+    @Override
+    public boolean include(TreeWalk walker) {
+      if (isModifiedFile(walker)) {
+        modified.add(new FileStatusOverDiffEntry(new ModifiedEntry(walker), commit, oldCommit));
+        if (modified.size() - reportedCount >= PARTIAL_RESULTS_BATCH_SIZE) {
+          reportedCount = modified.size();
+          partialResults.accept(new ArrayList<>(modified));
+        }
+      }
+      return true;
+    }
+    
+    /**
+     * @param walker The tree walk.
+     * 
+     * @return <code>true</code> if the current entry is a file whose content differs between the two trees.
+     */
+    private static boolean isModifiedFile(TreeWalk walker) {
+      int oldMode = walker.getRawMode(0);
+      int newMode = walker.getRawMode(1);
+      return !walker.isSubtree()
+          && oldMode != 0
+          && newMode != 0
+          && FileMode.fromBits(oldMode).getObjectType() == FileMode.fromBits(newMode).getObjectType()
+          && !walker.idEqual(0, 1);
+    }
+    
+    /**
+     * @return How many modified files were reported.
+     */
+    int getReportedCount() {
+      return reportedCount;
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+      return false;
+    }
+
+    @Override
+    public TreeFilter clone() { // NOSONAR
+      // Observes a single walk.
+      return this;
+    }
+  }
   
+  
+  /**
+   * A modification of the current entry of a tree walk that compares two trees.
+   */
+  private static class ModifiedEntry extends DiffEntry {
+    /**
+     * Constructor.
+     * 
+     * @param walker The tree walk.
+     */
+    ModifiedEntry(TreeWalk walker) {
+      oldPath = walker.getPathString();
+      newPath = oldPath;
+      oldMode = walker.getFileMode(0);
+      newMode = walker.getFileMode(1);
+      oldId = AbbreviatedObjectId.fromObjectId(walker.getObjectId(0));
+      newId = AbbreviatedObjectId.fromObjectId(walker.getObjectId(1));
+      changeType = ChangeType.MODIFY;
+    }
+  }
 }
@@ -0,0 +1,122 @@
+package com.oxygenxml.git.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * Finds the conflict markers written by Git, as Git itself matches them: "=======" alone on its line,
+ * "&lt;&lt;&lt;&lt;&lt;&lt;&lt;" and "&gt;&gt;&gt;&gt;&gt;&gt;&gt;" at the start of a line, followed
+ * by a space or by the end of the line. The underlines of the Markdown and reStructuredText headings
+ * are not markers. The file is streamed through a fixed buffer and the bytes are matched directly,
+ * without decoding them into lines.
+ */
+final class ConflictMarkerScanner {
+  /**
+   * The number of characters in a conflict marker.
+   */
+  static final int MARKER_LENGTH = 7;
+  /**
+   * The size of the read buffer.
+   */
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Hidden constructor.
+   */
+  private ConflictMarkerScanner() {
+    // Nothing
+  }
+
+  /**
+   * Checks if a file contains conflict markers. UTF-8 and the encodings compatible with ASCII are
+   * matched byte by byte. For UTF-16, detected by its byte order mark, the zero bytes of the
+   * ASCII characters are skipped.
+   *
+   * @param file The file.
+   *
+   * @return <code>true</code> if the file contains at least a conflict marker.
+   *
+   * @throws IOException When the file cannot be read.
+   */
+  static boolean containsConflictMarkers(File file) throws IOException {
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      boolean lineStart = true;
+      // The marker character matched at the start of the current line and how many times.
+      byte marker = 0;
+      int count = 0;
+      boolean skipZeros = false;
+      boolean first = true;
+
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        int start = 0;
+        if (first) {
+          first = false;
+          int bomLength = getBOMLength(buffer, read);
+          skipZeros = bomLength == 2;
+          start = bomLength;
+        }
+
+        for (int i = start; i < read; i++) {
+          byte b = buffer[i];
+          if (skipZeros && b == 0) {
+            continue;
+          }
+          if (count == MARKER_LENGTH) {
+            // The character after the marker decides.
+            if (isMarkerEnd(marker, b)) {
+              return true;
+            }
+            count = 0;
+            lineStart = false;
+          } else if (count > 0 && b == marker) {
+            count++;
+          } else if (b == '\n' || b == '\r') {
+            lineStart = true;
+            count = 0;
+          } else {
+            count = lineStart && (b == '<' || b == '=' || b == '>') ? 1 : 0;
+            marker = b;
+            lineStart = false;
+          }
+        }
+      }
+      // A marker at the end of the file.
+      return count == MARKER_LENGTH;
+    }
+  }
+
+  /**
+   * @param marker The marker character.
+   * @param b      The character after the marker.
+   *
+   * @return <code>true</code> if the character ends a marker. The separator must be alone on its line,
+   * the other markers can be followed by a space and a label.
+   */
+  private static boolean isMarkerEnd(byte marker, byte b) {
+    return b == '\n' || b == '\r' || (b == ' ' && marker != '=');
+  }
+
+  /**
+   * Gets the length of the byte order mark from the start of a file.
+   *
+   * @param buffer The first bytes of the file.
+   * @param length How many bytes were read.
+   *
+   * @return 3 for UTF-8, 2 for UTF-16 and 0 if there is no byte order mark.
+   */
+  private static int getBOMLength(byte[] buffer, int length) {
+    int bomLength = 0;
+    if (length >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+      bomLength = 3;
+    } else if (length >= 2
+        && (buffer[0] == (byte) 0xFE && buffer[1] == (byte) 0xFF
+            || buffer[0] == (byte) 0xFF && buffer[1] == (byte) 0xFE)) {
+      bomLength = 2;
+    }
+    return bomLength;
+  }
+}
@@ -1,21 +1,20 @@
 package com.oxygenxml.git.utils;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.FilenameUtils;
 import org.eclipse.jgit.annotations.Nullable;
 import org.eclipse.jgit.lib.Repository;
 import org.slf4j.Logger;
@@ -29,7 +28,6 @@ import com.oxygenxml.git.service.entities.GitChangeType;
 import ro.sync.exml.workspace.api.PluginWorkspaceProvider;
 import ro.sync.exml.workspace.api.standalone.StandalonePluginWorkspace;
 import ro.sync.exml.workspace.api.standalone.project.ProjectController;
-import ro.sync.exml.workspace.api.util.UtilAccess;
 
 /**
  * An utility class for files
@@ -53,6 +51,17 @@ public class FileUtil {
       "pptm", "potx", "potm", "thmx", "ppsx", "ppsm", "ppam",
       "epub", "idml", "kmz");
   
+  /**
+   * How many files are scanned for conflict markers at the same time.
+   */
+  private static final int MAX_PARALLEL_MARKER_SCANS = 4;
+  
+  /**
+   * Scans the files for conflict markers. The threads are created when needed.
+   */
+  private static final ForkJoinPool MARKER_SCAN_POOL = new ForkJoinPool(
+      Math.min(MAX_PARALLEL_MARKER_SCANS, Runtime.getRuntime().availableProcessors()));
+  
   /**
    * Hidden constructor.
    */
@@ -515,9 +524,19 @@ public class FileUtil {
   public static boolean containsConflictMarkers(
           final List<FileStatus> allSelectedResources,
           final File workingCopy) {
-    return allSelectedResources.stream()
+    boolean toReturn = false;
+    try {
+      // Runs in a dedicated pool to limit the number of files read at the same time.
+      toReturn = MARKER_SCAN_POOL.submit(
+          () -> allSelectedResources.stream()
             .parallel()
-            .anyMatch(file -> containsConflictMarkers(file, workingCopy));
+            .anyMatch(file -> containsConflictMarkers(file, workingCopy))).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOGGER.error(e.getMessage(), e);
+    }
+    return toReturn;
   }
 
   /**
@@ -532,16 +551,9 @@ public class FileUtil {
           final FileStatus fileStatus,
           final File workingCopy) {
     boolean toReturn = false;
-    UtilAccess utilAccess = PluginWorkspaceProvider.getPluginWorkspace().getUtilAccess();
-    File currentFile = new File(workingCopy, FilenameUtils.getName(fileStatus.getFileLocation())); // NOSONAR findsecbugs:PATH_TRAVERSAL_IN
-    try (BufferedReader reader =  new BufferedReader(utilAccess.createReader(currentFile.toURI().toURL(), StandardCharsets.UTF_8.toString()))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        if (line.contains("<<<<<<<") || line.contains("=======") || line.contains(">>>>>>>")) {
-          toReturn = true;
-          break;
-        }
-      }
+    File currentFile = new File(workingCopy, fileStatus.getFileLocation()); // NOSONAR findsecbugs:PATH_TRAVERSAL_IN
+    try {
+      toReturn = ConflictMarkerScanner.containsConflictMarkers(currentFile);
     } catch (IOException ex) {
       LOGGER.error(ex.getMessage(), ex);
     }
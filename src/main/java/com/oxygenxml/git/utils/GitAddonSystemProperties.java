@@ -18,4 +18,22 @@ public class GitAddonSystemProperties {
    */
   public static final String USE_JSCH_FOR_SSH_OPERATIONS = "useJschForSSHOperations";
   
+  /**
+   * By default the add-on watches the working copy for changes so that only the status of the changed
+   * resources is recomputed. Setting this property to <code>true</code> disables the watcher.
+   */
+  public static final String DISABLE_WORKING_COPY_WATCHER = "disableWorkingCopyWatcher";
+  
+  /**
+   * The memory, in megabytes, used for caching the file revisions opened in the diff tool. 
+   * 64 by default.
+   */
+  public static final String BLOB_CONTENT_CACHE_SIZE = "blobContentCacheSizeMB";
+  
+  /**
+   * How long, in milliseconds, an SSH session is kept open after a remote operation, to be used
+   * by the next one. 60000 by default. 0 closes the sessions right away.
+   */
+  public static final String SSH_SESSION_IDLE_TIME = "sshSessionIdleTimeMillis";
+  
 }
@@ -340,7 +340,7 @@ public class DiffPresenter {
 	      // diff is presented
 	      ObjectId baseCommit = GitAccess.getInstance().getBaseCommit(null);
 	      if (baseCommit == null 
-	          || GitAccess.getInstance().getLoaderFrom(baseCommit, filePath) == null) {
+	          || GitAccess.getInstance().getObjectIdFrom(baseCommit, filePath) == null) {
 	        threeWays = false;
 	      }
 	    }
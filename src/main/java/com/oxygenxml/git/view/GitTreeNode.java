@@ -1,9 +1,18 @@
 package com.oxygenxml.git.view;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreePath;
 
 public class GitTreeNode extends DefaultMutableTreeNode {
+
+  /**
+   * The children by their user object. Built on the first lookup and kept in sync afterwards.
+   */
+  private transient Map<Object, GitTreeNode> childrenByName;
 	
 	
 	public GitTreeNode(String rootFolder) {
@@ -14,6 +23,63 @@ public class GitTreeNode extends DefaultMutableTreeNode {
 		super(path);
 	}
 
+  /**
+   * Finds a child by its user object in constant time.
+   *
+   * @param name The user object of the child.
+   *
+   * @return The child or <code>null</code> if there is no such child.
+   */
+  public GitTreeNode getChild(Object name) {
+    if (childrenByName == null) {
+      childrenByName = new HashMap<>();
+      for (int i = 0; i < getChildCount(); i++) {
+        index(getChildAt(i));
+      }
+    }
+    return childrenByName.get(name);
+  }
+
+  @Override
+  public void insert(MutableTreeNode newChild, int childIndex) {
+    super.insert(newChild, childIndex);
+    if (childrenByName != null) {
+      index(newChild);
+    }
+  }
+
+  @Override
+  public void remove(int childIndex) {
+    Object child = getChildAt(childIndex);
+    super.remove(childIndex);
+    if (childrenByName != null && child instanceof GitTreeNode) {
+      childrenByName.remove(((GitTreeNode) child).getUserObject(), child);
+    }
+  }
+
+  @Override
+  public void setUserObject(Object userObject) {
+    Object parentNode = getParent();
+    if (parentNode instanceof GitTreeNode && ((GitTreeNode) parentNode).childrenByName != null) {
+      ((GitTreeNode) parentNode).childrenByName.remove(getUserObject(), this);
+      super.setUserObject(userObject);
+      ((GitTreeNode) parentNode).index(this);
+    } else {
+      super.setUserObject(userObject);
+    }
+  }
+
+  /**
+   * Adds a child to the lookup map.
+   *
+   * @param child The child.
+   */
+  private void index(Object child) {
+    if (child instanceof GitTreeNode && ((GitTreeNode) child).getUserObject() != null) {
+      childrenByName.put(((GitTreeNode) child).getUserObject(), (GitTreeNode) child);
+    }
+  }
+
 	@Override
 	public boolean equals(Object obj) {
 		
@@ -37,10 +37,12 @@ import org.slf4j.LoggerFactory;
 
 import com.oxygenxml.git.constants.Icons;
 import com.oxygenxml.git.constants.UIConstants;
+import com.oxygenxml.git.service.EventDeliveryPolicy;
 import com.oxygenxml.git.service.GitAccess;
 import com.oxygenxml.git.service.GitControllerBase;
 import com.oxygenxml.git.service.GitEventAdapter;
 import com.oxygenxml.git.service.GitOperationScheduler;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
 import com.oxygenxml.git.service.NoRepositorySelected;
 import com.oxygenxml.git.translator.Tags;
 import com.oxygenxml.git.translator.Translator;
@@ -153,7 +155,7 @@ public class BranchManagementPanel extends JPanel {
             || operation == GitOperation.CHECKOUT_COMMIT) {
           
           if(isShowing()) {
-            GitOperationScheduler.getInstance().schedule(BranchManagementPanel.this::refreshBranches);
+            GitOperationScheduler.getInstance().schedule(Lane.READ, BranchManagementPanel.this::refreshBranches);
           } else {
             shouldRefresh = true;
           }
@@ -161,7 +163,7 @@ public class BranchManagementPanel extends JPanel {
         
         } else if (operation == GitOperation.OPEN_WORKING_COPY) {
           if(isShowing()) {
-            GitOperationScheduler.getInstance().schedule(BranchManagementPanel.this::showBranches);
+            GitOperationScheduler.getInstance().schedule(Lane.READ, BranchManagementPanel.this::showBranches);
           } else {
             forceShowBranches = true;
             shouldRefresh = true;
@@ -169,7 +171,7 @@ public class BranchManagementPanel extends JPanel {
           
         }
       }
-    });
+    }, EventDeliveryPolicy.ASYNC_ORDERED);
     
     addTreeListeners();
     
@@ -485,10 +487,11 @@ public class BranchManagementPanel extends JPanel {
   }
 
   /**
-   * Refresh branches.
+   * Refresh branches. The refreshes scheduled after the Git operations run on a lane with several threads,
+   * so they are serialized: each one reads the branches when it runs and the last one to run presents them.
    */
-  public void refreshBranches() {
-    cache.reset();
+  public synchronized void refreshBranches() {
+    cache.refresh();
     currentBranchName = GitAccess.getInstance().getBranchInfo().getBranchName();
     allBranches = getAllBranches();
     filterTree(searchField.getText());
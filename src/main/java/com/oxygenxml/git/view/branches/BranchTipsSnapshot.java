@@ -0,0 +1,208 @@
+package com.oxygenxml.git.view.branches;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.RefSnapshot;
+import com.oxygenxml.git.service.RevCommitUtil;
+
+/**
+ * An immutable view over the tips of the local and remote branches: the author of the last commit,
+ * the upstream branch and the remote URL. Each load reuses the tips of the branches that still
+ * point to the same commit and increments the version only when something changed.
+ */
+class BranchTipsSnapshot {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BranchTipsSnapshot.class);
+  /**
+   * A snapshot without branches.
+   */
+  static final BranchTipsSnapshot EMPTY = new BranchTipsSnapshot(null, 0, Collections.emptyMap());
+  /**
+   * The Git directory of the repository. <code>null</code> for {@link #EMPTY}.
+   */
+  private final String gitDir;
+  /**
+   * Incremented each time a branch changes.
+   */
+  private final long version;
+  /**
+   * The tips, by full branch name.
+   */
+  private final Map<String, BranchTip> tips;
+
+  /**
+   * The tip of a branch.
+   */
+  static final class BranchTip {
+    /**
+     * The commit to which the branch points.
+     */
+    private final ObjectId commitId;
+    /**
+     * The author of the commit.
+     */
+    private final PersonIdent author;
+    /**
+     * The short name of the upstream branch of a local branch. <code>null</code> if there is none.
+     */
+    private final String upstreamBranch;
+    /**
+     * The URL of the remote of a remote branch. <code>null</code> for the local branches.
+     */
+    private final String remoteURL;
+
+    /**
+     * Constructor.
+     *
+     * @param commitId       The commit to which the branch points.
+     * @param author         The author of the commit.
+     * @param upstreamBranch The short name of the upstream branch or <code>null</code>.
+     * @param remoteURL      The URL of the remote or <code>null</code>.
+     */
+    BranchTip(ObjectId commitId, PersonIdent author, String upstreamBranch, String remoteURL) {
+      this.commitId = commitId;
+      this.author = author;
+      this.upstreamBranch = upstreamBranch;
+      this.remoteURL = remoteURL;
+    }
+
+    /**
+     * @return The author of the last commit.
+     */
+    PersonIdent getAuthor() {
+      return author;
+    }
+
+    /**
+     * @return The short name of the upstream branch of a local branch. <code>null</code> if there is none.
+     */
+    String getUpstreamBranch() {
+      return upstreamBranch;
+    }
+
+    /**
+     * @return The URL of the remote of a remote branch. <code>null</code> for the local branches.
+     */
+    String getRemoteURL() {
+      return remoteURL;
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param gitDir  The Git directory of the repository.
+   * @param version The version.
+   * @param tips    The tips, by full branch name.
+   */
+  private BranchTipsSnapshot(String gitDir, long version, Map<String, BranchTip> tips) {
+    this.gitDir = gitDir;
+    this.version = version;
+    this.tips = tips;
+  }
+
+  /**
+   * Reads the tips of all the branches. The commits are parsed in a single walk and only for the
+   * branches that changed since the previous snapshot.
+   *
+   * @param repository The repository.
+   * @param previous   The previous snapshot.
+   *
+   * @return The new snapshot or the previous one, if nothing changed.
+   *
+   * @throws IOException When the references cannot be read.
+   */
+  static BranchTipsSnapshot load(Repository repository, BranchTipsSnapshot previous) throws IOException {
+    String gitDir = repository.getDirectory().getAbsolutePath();
+    Map<String, BranchTip> previousTips = gitDir.equals(previous.gitDir) ? previous.tips : Collections.emptyMap();
+
+    RefSnapshot refSnapshot = RefSnapshot.get(repository);
+    List<Ref> refs = new ArrayList<>(refSnapshot.getRefsByPrefix(Constants.R_HEADS));
+    refs.addAll(refSnapshot.getRefsByPrefix(Constants.R_REMOTES));
+
+    Config config = repository.getConfig();
+    Map<String, BranchTip> tips = new HashMap<>();
+    boolean changed = false;
+    try (RevWalk revWalk = new RevWalk(repository)) {
+      for (Ref ref : refs) {
+        String name = ref.getName();
+        ObjectId commitId = ref.getObjectId();
+        if (ref.isSymbolic() || commitId == null) {
+          continue;
+        }
+
+        String upstreamBranch = null;
+        String remoteURL = null;
+        if (name.startsWith(Constants.R_HEADS)) {
+          String upstream = RevCommitUtil.getUpstreamBranchName(repository, Repository.shortenRefName(name));
+          upstreamBranch = upstream != null ? Repository.shortenRefName(upstream) : null;
+        } else {
+          String remote = name.split("/")[BranchManagementConstants.REMOTE_BRANCH_REMOTE_NODE_TREE_LEVEL];
+          remoteURL = config.getString(ConfigConstants.CONFIG_KEY_REMOTE, remote, ConfigConstants.CONFIG_KEY_URL);
+        }
+
+        BranchTip tip = previousTips.get(name);
+        if (tip == null
+            || !tip.commitId.equals(commitId)
+            || !Objects.equals(tip.upstreamBranch, upstreamBranch)
+            || !Objects.equals(tip.remoteURL, remoteURL)) {
+          PersonIdent author = tip != null && tip.commitId.equals(commitId) ? tip.author : null;
+          if (author == null) {
+            try {
+              author = revWalk.parseCommit(commitId).getAuthorIdent();
+            } catch (MissingObjectException | IncorrectObjectTypeException e) {
+              LOGGER.debug("Cannot read the tip of " + name, e);
+              continue;
+            }
+          }
+          tip = new BranchTip(commitId.copy(), author, upstreamBranch, remoteURL);
+          changed = true;
+        }
+        tips.put(name, tip);
+      }
+    }
+
+    // A removed branch changes the number of tips, unless another one was added.
+    changed |= tips.size() != previousTips.size();
+    return changed || !gitDir.equals(previous.gitDir)
+        ? new BranchTipsSnapshot(gitDir, previous.version + 1, Collections.unmodifiableMap(tips))
+        : previous;
+  }
+
+  /**
+   * @return Incremented each time a branch changes.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * @param branchName The full name of the branch, like "refs/heads/main".
+   *
+   * @return The tip of the branch or <code>null</code> if the branch was not loaded.
+   */
+  BranchTip getTip(String branchName) {
+    return tips.get(branchName);
+  }
+}
@@ -4,17 +4,22 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
 
-import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.oxygenxml.git.service.GitAccess;
+import com.oxygenxml.git.service.GitOperationScheduler;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
 import com.oxygenxml.git.service.NoRepositorySelected;
 import com.oxygenxml.git.translator.Tags;
 import com.oxygenxml.git.translator.Translator;
+import com.oxygenxml.git.view.branches.BranchTipsSnapshot.BranchTip;
 import com.oxygenxml.git.view.util.UIUtil;
 
 
@@ -22,7 +27,8 @@ import com.oxygenxml.git.view.util.UIUtil;
  * 
  * TODO Asta nu e cumva un Branch Tooltip Cacher?
  * 
- * A cache for branches details.
+ * A cache for branches details. The tips of the branches are read in a single pass, when the
+ * branches are refreshed, and the tool tips are computed only from them.
  * 
  * @author alex_smarandache
  */
@@ -40,38 +46,77 @@ public class BranchesCache {
 
 	/**
 	 * A map where: <code>key</code>: the node value, <code>value</code>: the tool tip for node. 
+	 * Only accessed on the AWT thread.
 	 */
 	private final Map<String, String> nodesTooltips = new HashMap<>();
+	
+	/**
+	 * The version of the tips from which the tool tips were computed.
+	 */
+	private long tooltipsVersion = -1;
+	
+	/**
+	 * The tips of the branches, read in the background.
+	 */
+	private volatile BranchTipsSnapshot tips = BranchTipsSnapshot.EMPTY;
+	
+	/**
+	 * <code>true</code> while a load of the tips is scheduled and not yet started.
+	 */
+	private final AtomicBoolean loadScheduled = new AtomicBoolean();
 
 
 	/**
+	 * Gets the tool tip of a branch. Only the loaded tips are used, the repository is not read.
+	 * 
 	 * @param leaf <code>true<code> if is leaf
 	 * @param path the branch path
 	 * @param branchName the branch name
 	 * 
-	 * @return The computed tool tip text.
-	 * 
-	 * @throws NoRepositorySelected 
-	 * @throws IOException 
-	 * @throws GitAPIException 
+	 * @return The computed tool tip text. <code>null</code> if the branch tip was not loaded yet.
 	 */
 	public String getToolTip(boolean leaf, String path, String branchName) {
-		return !branchName.isEmpty() ? nodesTooltips.computeIfAbsent(path, s -> {
-			try {
-				return ToolTipContentProvider.computeToolTipText(leaf, path, branchName);
-			} catch (GitAPIException | IOException | NoRepositorySelected e) {
-				LOGGER.error(e.getMessage(), e);
-				return null;
-			}
-		}) : null;
+		BranchTipsSnapshot snapshot = tips;
+		if (snapshot.getVersion() != tooltipsVersion) {
+			nodesTooltips.clear();
+			tooltipsVersion = snapshot.getVersion();
+		}
+		return !branchName.isEmpty() ? nodesTooltips.computeIfAbsent(
+				path, 
+				s -> ToolTipContentProvider.computeToolTipText(snapshot, leaf, path, branchName)) : null;
 	}
 
 
 	/**
-	 * Reset the cache.
+	 * Reads again the tips of the branches that changed. On the AWT thread the tips are read in the 
+	 * background, otherwise on the calling thread.
 	 */
-	public void reset() {
-		nodesTooltips.clear();
+	public void refresh() {
+		if (SwingUtilities.isEventDispatchThread()) {
+			if (loadScheduled.compareAndSet(false, true)) {
+				GitOperationScheduler.getInstance().schedule(Lane.READ, () -> {
+					loadScheduled.set(false);
+					loadTips();
+				});
+			}
+		} else {
+			loadTips();
+		}
+	}
+	
+	/**
+	 * Reads the tips of the branches of the current repository.
+	 */
+	private void loadTips() {
+		try {
+			synchronized (this) {
+				tips = GitAccess.getInstance().isRepoInitialized() 
+						? BranchTipsSnapshot.load(GitAccess.getInstance().getRepository(), tips)
+						: BranchTipsSnapshot.EMPTY;
+			}
+		} catch (IOException | NoRepositorySelected e) {
+			LOGGER.error(e.getMessage(), e);
+		}
 	}
 
 
@@ -86,28 +131,24 @@ public class BranchesCache {
 		/**
 		 * Compute tooltip text.
 		 * 
+		 * @param snapshot The tips of the branches.
 		 * @param leaf <code>true<code> if is leaf
 		 * @param path the path
 		 * @param text the extracted text
 		 * 
 		 * @return the computed tooltip.
-		 * 
-		 * @throws GitAPIException
-		 * @throws IOException
-		 * @throws NoRepositorySelected
 		 */
-		static String computeToolTipText(boolean leaf, String path, String text) throws GitAPIException, IOException, NoRepositorySelected {
+		static String computeToolTipText(BranchTipsSnapshot snapshot, boolean leaf, String path, String text) {
 			String toolTipText = null;
-			if (GitAccess.getInstance().isRepoInitialized() && leaf) {
-				if(path.contains(Constants.R_REMOTES)) {
-					toolTipText = constructRemoteBranchToolTip(text, path);
-				} else if (path.contains(Constants.R_HEADS)) {
+			BranchTip tip = leaf ? snapshot.getTip(path) : null;
+			if (tip != null) {
+				if(path.startsWith(Constants.R_REMOTES)) {
+					toolTipText = constructRemoteBranchToolTip(text, path, tip);
+				} else if (path.startsWith(Constants.R_HEADS)) {
 					String branchName = BranchesUtil.createBranchPath(
 							path,
 							BranchManagementConstants.LOCAL_BRANCH_NODE_TREE_LEVEL);
-					if(BranchesUtil.existsLocalBranch(branchName)) {
-						toolTipText = constructLocalBranchToolTip(branchName);
-					}    
+					toolTipText = constructLocalBranchToolTip(branchName, tip);
 				}
 			}
 			return toolTipText;
@@ -118,18 +159,15 @@ public class BranchesCache {
 		 * Construct message for local branches.
 		 * 
 		 * @param nameBranch name of the branch.
+		 * @param tip        the tip of the branch.
 		 * 
 		 * @return the message.
-		 * 
-		 * @throws GitAPIException
-		 * @throws IOException
-		 * @throws NoRepositorySelected 
 		 */
-		private static String constructLocalBranchToolTip(String nameBranch) throws GitAPIException, IOException, NoRepositorySelected {
+		private static String constructLocalBranchToolTip(String nameBranch, BranchTip tip) {
 			StringBuilder toolTipText = new StringBuilder();
 			final SimpleDateFormat dateFormat = new SimpleDateFormat(UIUtil.DATE_FORMAT_PATTERN);
-			PersonIdent authorDetails = GitAccess.getInstance().getLatestCommitForBranch(nameBranch).getAuthorIdent();
-			String remoteBranchName = GitAccess.getInstance().getUpstreamBranchShortNameFromConfig(nameBranch);
+			PersonIdent authorDetails = tip.getAuthor();
+			String remoteBranchName = tip.getUpstreamBranch();
 			boolean foundRemoteBranch = remoteBranchName != null;
 			toolTipText.append("<html><p>")
 			.append(TRANSLATOR.getTranslation(Tags.LOCAL_BRANCH))
@@ -164,19 +202,16 @@ public class BranchesCache {
 		 * 
 		 * @param branchName name of the branch.
 		 * @param path       the location of the branch.
+		 * @param tip        the tip of the branch.
 		 * 
 		 * @return the message.
-		 * 
-		 * @throws GitAPIException
-		 * @throws IOException
-		 * @throws NoRepositorySelected
 		 */
-		private static String constructRemoteBranchToolTip(String branchName, String path) throws GitAPIException, IOException, NoRepositorySelected {
+		private static String constructRemoteBranchToolTip(String branchName, String path, BranchTip tip) {
 			StringBuilder toolTipText = new StringBuilder();
 			final SimpleDateFormat dateFormat = new SimpleDateFormat(UIUtil.DATE_FORMAT_PATTERN);
-			PersonIdent authorDetails = GitAccess.getInstance().getLatestCommitForBranch(path).getAuthorIdent();
+			PersonIdent authorDetails = tip.getAuthor();
 			String[] pathDetails = path.split("/");
-			String remoteURL = GitAccess.getInstance().getRemoteURLFromConfig(pathDetails[2]);
+			String remoteURL = tip.getRemoteURL();
 			toolTipText.append("<html><p>")
 			.append(TRANSLATOR.getTranslation(Tags.REMOTE_BRANCH))
 			.append(" ")
@@ -10,7 +10,6 @@ import java.awt.Insets;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.util.List;
-import java.util.Map;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -21,11 +20,13 @@ import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.TableCellRenderer;
 
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.oxygenxml.git.service.RefDecorations;
 import com.oxygenxml.git.translator.Tags;
 import com.oxygenxml.git.translator.Translator;
 import com.oxygenxml.git.view.RoundedLineBorder;
@@ -80,17 +81,9 @@ public class CommitMessageTableRenderer extends JPanel implements TableCellRende
    */
   private final String currentBranchName;
   /**
-   * Commit ID to a list of tags.
+   * The tags and the branches pointing to each commit.
    */
-  private final Map<String, List<String>> tagMap;
-  /**
-   * Commit ID to a list of branch labels.
-   */
-  private final Map<String, List<String>> localBranchMap;
-  /**
-   * Commit ID to a list of branch labels.
-   */
-  private final Map<String, List<String>> remoteBranchMap;
+  private final RefDecorations refDecorations;
 
   /**
    * Table for this render.
@@ -114,23 +107,17 @@ public class CommitMessageTableRenderer extends JPanel implements TableCellRende
    * @param repository            The current repository
    * @param commitsAheadAndBehind Commits ahead (to push) and behind (to pull).
    * @param branchName            Branch name.
-   * @param tagMap                Tags map.
-   * @param localBranchMap        Local branches map.
-   * @param remoteBranchMap       Remote branches map.
+   * @param refDecorations        The tags and the branches pointing to each commit.
    */
   public CommitMessageTableRenderer(
       Repository repository, 
       CommitsAheadAndBehind commitsAheadAndBehind,
       String branchName,
-      Map<String, List<String>> tagMap,
-      Map<String, List<String>> localBranchMap,
-      Map<String, List<String>> remoteBranchMap) {
+      RefDecorations refDecorations) {
     this.repository = repository;
     this.commitsAheadAndBehind = commitsAheadAndBehind;
     this.currentBranchName = branchName;
-    this.tagMap = tagMap;
-    this.localBranchMap = localBranchMap;
-    this.remoteBranchMap = remoteBranchMap;
+    this.refDecorations = refDecorations;
 
     setLayout(new GridBagLayout());
   }
@@ -226,18 +213,19 @@ public class CommitMessageTableRenderer extends JPanel implements TableCellRende
     if (toRender.equals(uncommittedChangesMessage)) {
       toRender = "<html><body><b>" + uncommittedChangesMessage + "</b></body></html>";
     } else if (repository != null) {
-      String abbreviatedId = commitCharacteristics.getCommitAbbreviatedId();
+      ObjectId commitId = commitCharacteristics.getPlotCommit() != null 
+          ? commitCharacteristics.getPlotCommit() : ObjectId.fromString(commitCharacteristics.getCommitId());
       boolean isDarkTheme = PluginWorkspaceProvider.getPluginWorkspace().getColorTheme().isDarkTheme();
 
-      List<String> tagList = tagMap.get(abbreviatedId);
+      List<String> tagList = refDecorations.getTags(commitId);
       Color tagBackgroundColor = isDarkTheme ? UIUtil.TAG_GRAPHITE_BACKGROUND 
           : UIUtil.TAG_LIGHT_BACKGROUND;
       addTagOrBranchLabel(tagList, constr, tagBackgroundColor, table.getForeground());
 
-      List<String> localBranchList = localBranchMap.get(abbreviatedId);
+      List<String> localBranchList = refDecorations.getLocalBranches(commitId);
       addTagOrBranchLabel(localBranchList, constr, table.getBackground(), table.getForeground());
 
-      List<String> remoteBranchList = remoteBranchMap.get(abbreviatedId);
+      List<String> remoteBranchList = refDecorations.getRemoteBranches(commitId);
       Color remoteBackgroundColor = isDarkTheme ? UIUtil.REMOTE_BRANCH_GRAPHITE_BACKGROUND 
           : UIUtil.REMOTE_BRANCH_LIGHT_BACKGROUND;
 
@@ -198,6 +198,27 @@ public class HistoryCommitTableModel extends AbstractTableModel {
     return allCommitsCharacteristicsFiltered;
   }
 	
+	/**
+	 * Adds commits at the end of the history, as they are loaded. The current filter is applied to them.
+	 * 
+	 * @param commits The commits to add.
+	 */
+	public void appendCommits(List<CommitCharacteristics> commits) {
+	  if (!commits.isEmpty()) {
+	    allCommitsCharacteristics.addAll(commits);
+	    int firstRow = allCommitsCharacteristicsFiltered.size();
+	    for (CommitCharacteristics commit : commits) {
+	      if (!shouldFilter(commit, textToFilter)) {
+	        allCommitsCharacteristicsFiltered.add(commit);
+	      }
+	    }
+	    int lastRow = allCommitsCharacteristicsFiltered.size() - 1;
+	    if (lastRow >= firstRow) {
+	      fireTableRowsInserted(firstRow, lastRow);
+	    }
+	  }
+	}
+	
 	/**
 	 * Filters the table
 	 * 
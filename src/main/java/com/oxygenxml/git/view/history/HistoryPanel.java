@@ -16,18 +16,18 @@ import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.BorderFactory;
+import javax.swing.BoundedRangeModel;
 import javax.swing.ButtonGroup;
 import javax.swing.JComponent;
 import javax.swing.JEditorPane;
@@ -47,7 +47,6 @@ import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
 
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
@@ -61,11 +60,15 @@ import com.jidesoft.swing.JideSplitPane;
 import com.oxygenxml.git.constants.Icons;
 import com.oxygenxml.git.constants.UIConstants;
 import com.oxygenxml.git.options.OptionTags;
+import com.oxygenxml.git.service.CommitHistoryPager;
+import com.oxygenxml.git.service.EventDeliveryPolicy;
 import com.oxygenxml.git.service.GitAccess;
 import com.oxygenxml.git.service.GitEventAdapter;
 import com.oxygenxml.git.service.GitOperationScheduler;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
 import com.oxygenxml.git.service.NoRepositorySelected;
 import com.oxygenxml.git.service.PrivateRepositoryException;
+import com.oxygenxml.git.service.RefDecorations;
 import com.oxygenxml.git.service.RepositoryUnavailableException;
 import com.oxygenxml.git.service.RevCommitUtil;
 import com.oxygenxml.git.service.SSHPassphraseRequiredException;
@@ -102,6 +105,14 @@ public class HistoryPanel extends JPanel {
    * Logger for logging.
    */
   private static final Logger LOGGER =  LoggerFactory.getLogger(HistoryPanel.class);
+  /**
+   * The time spent loading the first page of history before presenting it. Milliseconds.
+   */
+  private static final int FIRST_PAGE_BUDGET_MS = 300;
+  /**
+   * The maximum number of commits loaded to reach the local branch HEAD.
+   */
+  private static final int MAX_COMMITS_UNTIL_HEAD = 10 * CommitHistoryPager.DEFAULT_PAGE_SIZE;
   /**
    * Git API access.
    */
@@ -191,6 +202,26 @@ public class HistoryPanel extends JPanel {
    */
   private boolean wasPreviousShowed = false;
   
+  /**
+   * Loads the presented history in pages. <code>null</code> if no history is presented.
+   */
+  private volatile CommitHistoryPager historyPager;
+  
+  /**
+   * <code>true</code> while a page of history is being loaded. Accessed on AWT.
+   */
+  private boolean loadingHistoryPage = false;
+  
+  /**
+   * <code>true</code> when all the history was loaded. Accessed on AWT.
+   */
+  private boolean historyComplete = true;
+  
+  /**
+   * The scroll pane of the history table.
+   */
+  private JScrollPane historyTableScrollPane;
+  
 
   /**
    * Constructor.
@@ -226,8 +257,10 @@ public class HistoryPanel extends JPanel {
     contextualMenuPresenter = new HistoryViewContextualMenuPresenter(gitCtrl);
     initHistoryTable();
 
-    JScrollPane historyTableScrollPane = new JScrollPane(historyTable);
+    historyTableScrollPane = new JScrollPane(historyTable);
     historyTable.setFillsViewportHeight(true);
+    // Load more history as the user scrolls.
+    historyTableScrollPane.getVerticalScrollBar().addAdjustmentListener(e -> loadNextHistoryPageIfNeeded());
 
     commitDescriptionPane = new JEditorPane();
     initEditorPane(commitDescriptionPane);
@@ -297,7 +330,7 @@ public class HistoryPanel extends JPanel {
           GitOperation operation = info.getGitOperation();
           switch (operation) {
           case OPEN_WORKING_COPY:
-            GitOperationScheduler.getInstance().schedule(HistoryPanel.this::showRepositoryHistory);
+            GitOperationScheduler.getInstance().schedule(Lane.READ, HistoryPanel.this::showRepositoryHistory);
             break;
           case PULL:
           case PUSH:
@@ -323,7 +356,7 @@ public class HistoryPanel extends JPanel {
           }
         }
       }
-    });
+    }, EventDeliveryPolicy.ASYNC_ORDERED);
 
     // Listens on the save event in the Oxygen editor and updates the history table
     PluginWorkspaceProvider.getPluginWorkspace().addEditorChangeListener(new WSEditorChangeListener() {
@@ -745,7 +778,7 @@ public class HistoryPanel extends JPanel {
    * Schedules commit history to show for the active file.
    */
   public void scheduleRefreshHistory() {
-    GitOperationScheduler.getInstance().schedule(() -> showHistory(activeFilePath, true));
+    GitOperationScheduler.getInstance().schedule(Lane.READ, () -> showHistory(activeFilePath, true));
   }
   
 
@@ -756,7 +789,7 @@ public class HistoryPanel extends JPanel {
    * @param force    <code>true</code> to recompute the history data, even if the
    *                 view already presents the history for the given resource.
    */
-  private void showHistory(String filePath, boolean force) {
+  private synchronized void showHistory(String filePath, boolean force) {
 	 
     SwingUtilities.invokeLater(() -> updateSelectionMode(filePath));
 
@@ -803,27 +836,37 @@ public class HistoryPanel extends JPanel {
         commitDescriptionPane.setText("");
         
         RenameTracker renameTracker = new RenameTracker();
-        final List<CommitCharacteristics> commitCharacteristicsVector = gitAccess.getCommitsCharacteristics(
-        		currentStrategy, filePath, renameTracker);
+        if (historyPager != null) {
+          historyPager.close();
+        }
+        final CommitHistoryPager pager = gitAccess.createHistoryPager(currentStrategy, filePath, renameTracker);
+        historyPager = pager;
+        final List<CommitCharacteristics> commitCharacteristicsVector = new ArrayList<>(
+            pager.nextPage(CommitHistoryPager.DEFAULT_PAGE_SIZE, FIRST_PAGE_BUDGET_MS));
 
         hasUncommitedChanges = GitAccess.getInstance().getStatusCache().getStatus().hasUncommittedChanges();
         
         final Repository repo = gitAccess.getRepository();
+        if (filePath == null) {
+          // The local branch HEAD is selected, so it must be loaded.
+          commitCharacteristicsVector.addAll(loadUntilLocalBranchHead(pager, commitCharacteristicsVector, repo));
+        }
+        final boolean complete = pager.isComplete();
        
         final CommitsAheadAndBehind commitsAheadAndBehind = RevCommitUtil.getCommitsAheadAndBehind(repo,
             repo.getFullBranch());
 
         // Compute the row height.
         CommitMessageTableRenderer renderer = new CommitMessageTableRenderer(repo, commitsAheadAndBehind,
-            gitAccess.getBranchInfo().getBranchName(), getTagMap(repo),
-            gitAccess.getBranchMap(repo, ConfigConstants.CONFIG_KEY_LOCAL),
-            gitAccess.getBranchMap(repo, ConfigConstants.CONFIG_KEY_REMOTE));
+            gitAccess.getBranchInfo().getBranchName(), getRefDecorations(repo));
         final int rh = getRowHeight(renderer, getFirstCommit(commitCharacteristicsVector));
 
         final HistoryCommitTableModel historyModel = new HistoryCommitTableModel(
             commitCharacteristicsVector);
         
         SwingUtilities.invokeLater(() -> { 
+          historyComplete = complete;
+          loadingHistoryPage = false;
           historyModel.filterChanged(filter.getText());
           historyTable.setModel(historyModel);
           updateHistoryTableWidths();
@@ -834,6 +877,9 @@ public class HistoryPanel extends JPanel {
           TableColumn authorColumn = historyTable.getColumn(TRANSLATOR.getTranslation(Tags.AUTHOR));
           authorColumn.setCellRenderer(createAuthorColumnRenderer());
           historyTable.setRowHeight(rh);
+          
+          // The first page might not fill the view.
+          loadNextHistoryPageIfNeeded();
         });
 
         revisionDataUpdater = new RowHistoryTableSelectionListener(getUpdateDelay(), 
@@ -866,6 +912,80 @@ public class HistoryPanel extends JPanel {
   }
 
   
+  /**
+   * Loads history until the local branch HEAD, if it isn't already loaded.
+   * 
+   * @param pager    Loads the history.
+   * @param loaded   The commits already loaded.
+   * @param repo     The current repository.
+   * 
+   * @return The newly loaded commits.
+   * 
+   * @throws IOException
+   */
+  private static List<CommitCharacteristics> loadUntilLocalBranchHead(
+      CommitHistoryPager pager,
+      List<CommitCharacteristics> loaded,
+      Repository repo) throws IOException {
+    List<CommitCharacteristics> newCommits = Collections.emptyList();
+    String fullBranch = repo.getFullBranch();
+    Ref branchHead = fullBranch != null ? repo.exactRef(fullBranch) : null;
+    if (branchHead != null && branchHead.getObjectId() != null) {
+      String headId = branchHead.getObjectId().getName();
+      boolean isLoaded = loaded.stream().anyMatch(c -> headId.equals(c.getCommitId()));
+      if (!isLoaded && !pager.isComplete()) {
+        newCommits = pager.nextPageUntil(branchHead.getObjectId(), MAX_COMMITS_UNTIL_HEAD);
+      }
+    }
+    return newCommits;
+  }
+  
+  
+  /**
+   * Loads the next page of history when the user scrolls near the end of the loaded history.
+   * Called on AWT.
+   */
+  private void loadNextHistoryPageIfNeeded() {
+    final CommitHistoryPager pager = historyPager;
+    if (pager != null && !historyComplete && !loadingHistoryPage && isNearHistoryEnd()) {
+      loadingHistoryPage = true;
+      GitOperationScheduler.getInstance().schedule(Lane.READ, () -> {
+        List<CommitCharacteristics> page = Collections.emptyList();
+        boolean complete = true;
+        try {
+          page = pager.nextPage(CommitHistoryPager.DEFAULT_PAGE_SIZE, -1);
+          complete = pager.isComplete();
+        } catch (IOException e) {
+          LOGGER.error(e.getMessage(), e);
+        }
+        
+        final List<CommitCharacteristics> loadedPage = page;
+        final boolean loadedAll = complete;
+        SwingUtilities.invokeLater(() -> {
+          if (pager == historyPager) {
+            loadingHistoryPage = false;
+            historyComplete = loadedAll;
+            ((HistoryCommitTableModel) historyTable.getModel()).appendCommits(loadedPage);
+            // Loading more commits can add passing lanes to the graph of the previous ones.
+            historyTable.repaint();
+            
+            loadNextHistoryPageIfNeeded();
+          }
+        });
+      });
+    }
+  }
+  
+  
+  /**
+   * @return <code>true</code> if less than a screen of history is left below the visible area.
+   */
+  private boolean isNearHistoryEnd() {
+    BoundedRangeModel scrollModel = historyTableScrollPane.getVerticalScrollBar().getModel();
+    return scrollModel.getValue() + 2 * scrollModel.getExtent() >= scrollModel.getMaximum();
+  }
+  
+  
   /**
    * Select the local branch HEAD.
    * 
@@ -894,21 +1014,21 @@ public class HistoryPanel extends JPanel {
   
 
   /**
-   * Gets the tags from the current repository.
+   * Gets the tags and the branches from the current repository.
    * 
    * @param repo Git repository.
    * 
-   * @return The tags or an empty map. Never null.
+   * @return The decorations or empty decorations. Never null.
    */
-  private Map<String, List<String>> getTagMap(Repository repo) {
-    Map<String, List<String>> tagMap = new HashMap<>();
+  private RefDecorations getRefDecorations(Repository repo) {
+    RefDecorations decorations = RefDecorations.EMPTY;
     try {
-      tagMap = gitAccess.getTagMap(repo);
-    } catch (GitAPIException | IOException e) {
+      decorations = gitAccess.getRefDecorations(repo);
+    } catch (IOException e) {
       LOGGER.debug(e.getMessage(), e);
     }
 
-    return tagMap;
+    return decorations;
   }
 
   
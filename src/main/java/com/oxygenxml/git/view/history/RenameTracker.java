@@ -12,6 +12,8 @@ import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
 
+import com.oxygenxml.git.service.FileHistoryIndex.PathHistory;
+
 /**
  * Class to track all renames encountered during a {@link RevWalk}.
  *
@@ -32,7 +34,17 @@ public class RenameTracker {
 		@Override
 		public boolean include(final RevWalk walker, final RevCommit commit)
 				throws IOException {
-			if (currentPath != null)
+			if (pathHistory != null) {
+				if (!pathHistory.isChanged(commit, currentPath)) {
+					// Another file that had one of the paths at another time.
+					return false;
+				}
+				filePathOnCommitMap.put(commit, currentPath);
+				String renamedFrom = pathHistory.getRenamedFrom(commit, currentPath);
+				if (renamedFrom != null) {
+					currentPath = renamedFrom;
+				}
+			} else if (currentPath != null)
 				filePathOnCommitMap.put(commit, currentPath);
 			else if (currentDiff != null) {
 				filePathOnCommitMap.put(commit, currentDiff.getNewPath());
@@ -86,6 +98,12 @@ public class RenameTracker {
 	 * The initial path.
 	 */
 	private String initialPath = null;
+	
+	/**
+	 * The history of the file, when known from the file history index.
+	 * <code>null</code> when the renames are detected during the walk.
+	 */
+	private PathHistory pathHistory;
 
 	
 	/**
@@ -138,9 +156,23 @@ public class RenameTracker {
 	 * 
 	 */
 	public void reset(final String path) {
+		reset(path, null);
+	}
+	
+	
+	/**
+	 * Reset the tracker for a new path, whose renames are already known.
+	 *
+	 * @param path          The new path.
+	 * @param pathHistory   The history of the file. Only the commits that changed the path the file
+	 *                      had at that time are accepted. <code>null</code> to detect the renames during the walk.
+	 */
+	public void reset(final String path, final PathHistory pathHistory) {
 		filePathOnCommitMap.clear();
 		currentPath = path;
 		initialPath = path;
+		currentDiff = null;
+		this.pathHistory = pathHistory;
 	}
 	
 }
@@ -5,6 +5,8 @@ import java.awt.event.ActionListener;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.JEditorPane;
 import javax.swing.JTable;
@@ -17,7 +19,11 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.oxygenxml.git.service.ChangedFilesCache;
 import com.oxygenxml.git.service.GitAccess;
+import com.oxygenxml.git.service.GitOperationScheduler;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
+import com.oxygenxml.git.service.GitOperationScheduler.Priority;
 import com.oxygenxml.git.service.RevCommitUtil;
 import com.oxygenxml.git.service.entities.FileStatus;
 import com.oxygenxml.git.translator.Tags;
@@ -49,6 +55,12 @@ public class RowHistoryTableSelectionListener implements ListSelectionListener {
       int selectedRow = historyTable.getSelectedRow();
       HistoryTableAffectedFilesModel dataModel = (HistoryTableAffectedFilesModel) changesTable.getModel();
       dataModel.setFilesStatus(new ArrayList<>());
+      // The files still loaded for the previous selection are no longer needed.
+      long version = selectionVersion.incrementAndGet();
+      if (currentLoad != null) {
+        currentLoad.cancel(false);
+        currentLoad = null;
+      }
       if (selectedRow != -1) {
         CommitCharacteristics commitCharacteristics = ((HistoryCommitTableModel) historyTable.getModel())
             .getAllCommits().get(selectedRow);
@@ -80,7 +92,53 @@ public class RowHistoryTableSelectionListener implements ListSelectionListener {
         commitDescriptionPane.setText(commitDescription.toString());
         commitDescriptionPane.setCaretPosition(0);
 
-       updateDataModel(commitCharacteristics);
+       loadFiles(commitCharacteristics, version);
+       prefetchNeighbors(selectedRow);
+      }
+    }
+
+    /**
+     * Computes, on the read lane, the files changed by the commits presented around the selected one,
+     * so that moving the selection with the keyboard finds them in the cache.
+     * 
+     * @param selectedRow The selected row.
+     */
+    private void prefetchNeighbors(int selectedRow) {
+      for (ScheduledFuture<?> prefetch : prefetches) {
+        prefetch.cancel(false);
+      }
+      prefetches.clear();
+
+      List<CommitCharacteristics> commits = ((HistoryCommitTableModel) historyTable.getModel()).getAllCommits();
+      ChangedFilesCache cache = GitAccess.getInstance().getChangedFilesCache();
+      for (int distance = 1; distance <= PREFETCH_DISTANCE; distance++) {
+        for (int row : new int[] {selectedRow + distance, selectedRow - distance}) {
+          if (row >= 0 && row < commits.size()) {
+            CommitCharacteristics neighbor = commits.get(row);
+            if (GitAccess.UNCOMMITED_CHANGES != neighbor
+                && neighbor.getPlotCommit() != null
+                && !cache.contains(neighbor.getPlotCommit())) {
+              prefetches.add(GitOperationScheduler.getInstance().schedule(
+                  Lane.READ,
+                  Priority.LOW,
+                  () -> prefetch(neighbor.getCommitId()),
+                  0));
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Computes the files changed by a commit. The result ends up in the cache.
+     * 
+     * @param commitId The commit id.
+     */
+    private void prefetch(String commitId) {
+      try {
+        RevCommitUtil.getChangedFiles(commitId);
+      } catch (IOException | GitAPIException e) {
+        LOGGER.debug(e.getMessage(), e);
       }
     }
 
@@ -125,23 +183,58 @@ public class RowHistoryTableSelectionListener implements ListSelectionListener {
     }
 
     /**
-     * Update data model.
+     * Computes the changed files on the read lane, ahead of the other waiting tasks.
      * 
      * @param commitCharacteristics Details about the current commit.
+     * @param version               The version of the selection.
      */
-    private void updateDataModel(CommitCharacteristics commitCharacteristics) {
-      HistoryTableAffectedFilesModel dataModel = (HistoryTableAffectedFilesModel) changesTable.getModel();
+    private void loadFiles(CommitCharacteristics commitCharacteristics, long version) {
+      currentLoad = GitOperationScheduler.getInstance().schedule(
+          Lane.READ,
+          Priority.HIGH,
+          () -> updateDataModel(commitCharacteristics, version),
+          0);
+    }
+
+    /**
+     * Update data model. The modified files of a large commit are presented before the whole list is computed.
+     * 
+     * @param commitCharacteristics Details about the current commit.
+     * @param version               The version of the selection.
+     */
+    private void updateDataModel(CommitCharacteristics commitCharacteristics, long version) {
+      if (selectionVersion.get() != version) {
+        return;
+      }
+      
       List<FileStatus> files = new ArrayList<>();
       if(GitAccess.UNCOMMITED_CHANGES != commitCharacteristics) {
         try {
-          files.addAll(RevCommitUtil.getChangedFiles(commitCharacteristics.getCommitId()));
+          files.addAll(RevCommitUtil.getChangedFiles(
+              commitCharacteristics.getCommitId(),
+              partialFiles -> presentFiles(partialFiles, version)));
         } catch (IOException | GitAPIException e) {
         LOGGER.error(e.getMessage(), e);
       }
       } else {
         files.addAll(GitAccess.getInstance().getUnstagedFiles());
       }
-      SwingUtilities.invokeLater(() -> dataModel.setFilesStatus(files));
+      presentFiles(files, version);
+    }
+    
+    /**
+     * Presents the changed files, unless another revision was selected in the meantime.
+     * 
+     * @param files   The changed files.
+     * @param version The version of the selection for which they were computed.
+     */
+    private void presentFiles(List<FileStatus> files, long version) {
+      SwingUtilities.invokeLater(() -> {
+        if (selectionVersion.get() == version) {
+          HistoryTableAffectedFilesModel dataModel = (HistoryTableAffectedFilesModel) changesTable.getModel();
+          dataModel.setFilesStatus(files);
+        }
+      });
     }
   }
   
@@ -150,6 +243,10 @@ public class RowHistoryTableSelectionListener implements ListSelectionListener {
     * Logger for logging.
     */
     private static final Logger LOGGER =  LoggerFactory.getLogger(RowHistoryTableSelectionListener.class);
+	/**
+	 * How many commits above and below the selected one have their changed files computed in advance.
+	 */
+	private static final int PREFETCH_DISTANCE = 2;
 	/**
 	 * Fake commit URL to search for parents when using hyperlink.
 	 */
@@ -184,6 +281,21 @@ public class RowHistoryTableSelectionListener implements ListSelectionListener {
    * The rename tracker for presented file.
    */
   private final RenameTracker renameTracker;
+
+  /**
+   * The prefetches scheduled for the current selection. Accessed only from the AWT thread.
+   */
+  private final List<ScheduledFuture<?>> prefetches = new ArrayList<>();
+  
+  /**
+   * Incremented each time the selection changes. The files computed for an older version are not presented.
+   */
+  private final AtomicLong selectionVersion = new AtomicLong();
+  
+  /**
+   * Computes the files changed by the selected commit. Accessed only from the AWT thread.
+   */
+  private ScheduledFuture<?> currentLoad;
     
     
     
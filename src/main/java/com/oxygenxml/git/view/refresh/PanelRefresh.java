@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.function.Supplier;
 
@@ -37,6 +38,7 @@ import com.oxygenxml.git.view.dialog.LoginDialog;
 import com.oxygenxml.git.view.dialog.PassphraseDialog;
 import com.oxygenxml.git.view.history.HistoryPanel;
 import com.oxygenxml.git.view.staging.ChangesPanel;
+import com.oxygenxml.git.view.staging.FileStatusDelta;
 import com.oxygenxml.git.view.staging.StagingPanel;
 
 /**
@@ -82,6 +84,10 @@ public class PanelRefresh implements GitRefreshSupport {
 	 * Repository change watcher.
 	 */
 	private RemoteRepositoryChangeWatcher watcher;
+	/**
+	 * Fetches from the remote repository, independently of the local refresh.
+	 */
+	private final RemoteSyncScheduler remoteSync;
 	/**
 	 * Branch management panel.
 	 */
@@ -132,14 +138,9 @@ public class PanelRefresh implements GitRefreshSupport {
 								stagingPanel.getStagedChangesPanel(), 
 								status.getStagedFiles());
 
-						RepositoryStatusInfo rstatus = fetch();
-						updateCounters(rstatus);
-
-
-						if (OptionsManager.getInstance().isNotifyAboutNewRemoteCommits()) {
-							// Make the check more frequently.
-							watcher.checkRemoteRepository(false);
-						}
+						// Present the last known state of the remote. The fetch runs on its own thread.
+						updateCounters(remoteSync.getLastStatusInfo());
+						remoteSync.requestSync();
 					}
 					if(branchesPanel != null && branchesPanel.isShowing()) {
 						branchesPanel.refreshBranches();
@@ -178,6 +179,7 @@ public class PanelRefresh implements GitRefreshSupport {
 	public PanelRefresh(RemoteRepositoryChangeWatcher watcher, Supplier<UpdateActionsStatesListener> updateActionsStatesListenerSupplier) {
 		this.watcher = watcher;
 		this.updateActionsStatesListenerSupplier = updateActionsStatesListenerSupplier;
+		this.remoteSync = new RemoteSyncScheduler(this::fetch, this::remoteSyncDone, getRemoteSyncInterval());
 	}
 	
 	/**
@@ -199,6 +201,37 @@ public class PanelRefresh implements GitRefreshSupport {
 		return EXECUTION_DELAY;
 	}
 
+	/**
+	 * @return The minimum interval between two fetches from the remote repository, in milliseconds.
+	 */
+	protected int getRemoteSyncInterval() {
+		return RemoteSyncScheduler.DEFAULT_MIN_INTERVAL;
+	}
+
+	/**
+	 * Called on the remote sync thread after a fetch.
+	 * 
+	 * @param status               The state of the remote repository.
+	 * @param remoteRefsChanged    <code>true</code> if the remote-tracking branches changed.
+	 */
+	private void remoteSyncDone(RepositoryStatusInfo status, boolean remoteRefsChanged) {
+		if (remoteRefsChanged) {
+			// Add the fetched commits to the graph used for the ahead/behind counters.
+			GitAccess.getInstance().getCommitGraphCache().scheduleUpdate();
+		}
+		if (stagingPanel != null) {
+			updateCounters(status);
+			if (remoteRefsChanged) {
+				// The Pull/Push counters, the branches and the history depend on the remote-tracking branches.
+				call();
+			}
+			if (watcher != null && OptionsManager.getInstance().isNotifyAboutNewRemoteCommits()) {
+				// Make the check more frequently.
+				watcher.checkRemoteRepository(false);
+			}
+		}
+	}
+
 	/**
 	 * Update the counters presented on the Pull/Push toolbar action.
 	 * 
@@ -274,33 +307,24 @@ public class PanelRefresh implements GitRefreshSupport {
 	}
 
 	/**
-	 * Updates the files in the model. 
+	 * Updates the files in the model. The differences are computed on the current thread,
+	 * against a snapshot of the presented files, and only they are applied on the AWT thread.
 	 * 
 	 * @param panelToUpdate The panel to update: staged or unstaged resources panel.
 	 * @param newfiles The new files to be presented in the panel.
 	 */
 	private void updateFiles(ChangesPanel panelToUpdate, final List<FileStatus> newfiles) {
-		// The current files presented in the panel.
-		List<FileStatus> filesInModel = panelToUpdate.getFilesStatuses();
+		// A snapshot of the files presented in the panel.
+		List<FileStatus> filesInModel = Collections.unmodifiableList(new ArrayList<>(panelToUpdate.getFilesStatuses()));
 
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug("New files      " + newfiles);
 			LOGGER.debug("Files in model " + filesInModel);
 		}
 
-		// Quick change detection.
-		boolean changeDetected = newfiles.size() != filesInModel.size();
-		if (!changeDetected) {
-			// Same size. Sort and compare files.
-			Collections.sort(newfiles, (o1, o2) -> o1.getFileLocation().compareTo(o2.getFileLocation()));
-			List<FileStatus> sortedModel = new ArrayList<>(filesInModel.size());
-			Collections.sort(sortedModel, (o1, o2) -> o1.getFileLocation().compareTo(o2.getFileLocation()));
-
-			changeDetected = !newfiles.equals(sortedModel);
-		}
-
-		if (changeDetected) {
-			SwingUtilities.invokeLater(() -> panelToUpdate.update(newfiles));
+		FileStatusDelta delta = FileStatusDelta.compute(filesInModel, newfiles);
+		if (!delta.isEmpty()) {
+			SwingUtilities.invokeLater(() -> panelToUpdate.applyDelta(delta));
 		}
 	}
 
@@ -339,6 +363,7 @@ public class PanelRefresh implements GitRefreshSupport {
 			// Just in case the task isn't running yet.
 			refreshFuture.cancel(false);
 		}
+		remoteSync.shutdown();
 		refreshExecutor.shutdown();
 	}
 
@@ -349,4 +374,11 @@ public class PanelRefresh implements GitRefreshSupport {
 		return refreshFuture;
 	}
 
+	/**
+	 * @return The fetch in progress or <code>null</code>.
+	 */
+	public Future<?> getRemoteSyncForTests() { // NOSONAR
+		return remoteSync.getInFlightSyncForTests();
+	}
+
 }
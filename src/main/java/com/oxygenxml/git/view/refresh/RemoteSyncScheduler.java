@@ -0,0 +1,231 @@
+package com.oxygenxml.git.view.refresh;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.service.GitAccess;
+import com.oxygenxml.git.service.GitEventAdapter;
+import com.oxygenxml.git.service.GitListeners;
+import com.oxygenxml.git.service.GitOperationScheduler;
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
+import com.oxygenxml.git.service.NoRepositorySelected;
+import com.oxygenxml.git.service.RefSnapshot;
+import com.oxygenxml.git.utils.RepositoryStatusInfo;
+import com.oxygenxml.git.utils.RepositoryStatusInfo.RepositoryStatus;
+import com.oxygenxml.git.view.event.GitEventInfo;
+import com.oxygenxml.git.view.event.GitOperation;
+
+/**
+ * Synchronizes the remote-tracking branches with the remote repository (fetch) on the
+ * {@link Lane#BACKGROUND} lane, separately from the refresh of the local state.<br><br>
+ *
+ * <ul>
+ * <li>A sync request is ignored while another sync is in progress or before the current interval elapses.</li>
+ * <li>The interval grows while the fetches bring nothing new and returns to the minimum when they do.</li>
+ * <li>When the remote repository is unavailable, the interval grows exponentially (back-off).</li>
+ * </ul>
+ */
+public class RemoteSyncScheduler {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSyncScheduler.class);
+  /**
+   * The default minimum interval between two fetches. Milliseconds.
+   */
+  public static final int DEFAULT_MIN_INTERVAL = 30 * 1000;
+  /**
+   * The maximum interval between two fetches when nothing changes in the remote. Milliseconds.
+   */
+  private static final int MAX_INTERVAL = 5 * 60 * 1000;
+  /**
+   * The maximum interval between two fetches when the remote is unavailable. Milliseconds.
+   */
+  private static final int MAX_BACKOFF_INTERVAL = 10 * 60 * 1000;
+  /**
+   * Performs the actual fetch and reports the state of the remote repository.
+   */
+  private final Supplier<RepositoryStatusInfo> fetcher;
+  /**
+   * Receives the state of the remote repository and whether the remote-tracking branches changed.
+   */
+  private final BiConsumer<RepositoryStatusInfo, Boolean> resultHandler;
+  /**
+   * The minimum interval between two fetches. Milliseconds.
+   */
+  private final long minInterval;
+  /**
+   * Resets the syncs state when a different repository is opened.
+   */
+  private final GitEventAdapter repositoryListener = new GitEventAdapter() {
+    @Override
+    public void operationSuccessfullyEnded(GitEventInfo info) {
+      if (info.getGitOperation() == GitOperation.OPEN_WORKING_COPY) {
+        // A different repository. Sync as soon as requested.
+        reset();
+      }
+    }
+  };
+  /**
+   * The last known state of the remote repository.
+   */
+  private volatile RepositoryStatusInfo lastStatusInfo = new RepositoryStatusInfo(RepositoryStatus.AVAILABLE);
+  /**
+   * The sync in progress, if any.
+   */
+  private Future<?> inFlight;
+  /**
+   * The current interval between two fetches. Milliseconds.
+   */
+  private long currentInterval;
+  /**
+   * The number of consecutive failed fetches.
+   */
+  private int consecutiveFailures;
+  /**
+   * No fetch is performed before this time. Milliseconds.
+   */
+  private long nextSyncTime;
+  /**
+   * <code>true</code> after shutdown. No other sync is started.
+   */
+  private boolean stopped;
+
+  /**
+   * Constructor.
+   *
+   * @param fetcher       Performs the actual fetch and reports the state of the remote repository.
+   * @param resultHandler Receives the state of the remote repository and whether the remote-tracking
+   * branches changed. Called on the background lane.
+   * @param minInterval   The minimum interval between two fetches. Milliseconds.
+   */
+  public RemoteSyncScheduler(
+      Supplier<RepositoryStatusInfo> fetcher,
+      BiConsumer<RepositoryStatusInfo, Boolean> resultHandler,
+      long minInterval) {
+    this.fetcher = fetcher;
+    this.resultHandler = resultHandler;
+    this.minInterval = minInterval;
+    this.currentInterval = minInterval;
+
+    GitListeners.getInstance().addGitListener(repositoryListener);
+  }
+
+  /**
+   * Requests a sync with the remote repository. The request is ignored if a sync is already in progress
+   * or if the current interval didn't elapse since the last sync.
+   *
+   * @return The sync in progress or <code>null</code> if none.
+   */
+  @SuppressWarnings("java:S1452")
+  public synchronized Future<?> requestSync() {
+    boolean isInFlight = inFlight != null && !inFlight.isDone();
+    if (!isInFlight && System.currentTimeMillis() >= nextSyncTime && !stopped) {
+      inFlight = GitOperationScheduler.getInstance().schedule(Lane.BACKGROUND, this::sync);
+    } else if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Skip remote sync. In progress: " + isInFlight);
+    }
+
+    return inFlight;
+  }
+
+  /**
+   * Fetches and computes the next interval.
+   */
+  private void sync() {
+    Map<String, ObjectId> oldRemoteRefs = getRemoteRefs();
+    RepositoryStatusInfo statusInfo = fetcher.get();
+    boolean remoteChanged = !oldRemoteRefs.equals(getRemoteRefs());
+
+    synchronized (this) {
+      if (statusInfo.getRepoStatus() == RepositoryStatus.UNAVAILABLE) {
+        consecutiveFailures++;
+        // Exponential back-off.
+        currentInterval = Math.min(
+            MAX_BACKOFF_INTERVAL,
+            minInterval << Math.min(consecutiveFailures, Integer.SIZE - 2));
+      } else if (remoteChanged) {
+        consecutiveFailures = 0;
+        currentInterval = minInterval;
+      } else {
+        consecutiveFailures = 0;
+        // Nothing new. Fetch less often.
+        currentInterval = Math.min(MAX_INTERVAL, Math.max(currentInterval, minInterval) * 2);
+      }
+      nextSyncTime = System.currentTimeMillis() + currentInterval;
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Remote sync done. Changed: " + remoteChanged + ". Next sync in " + currentInterval + " ms.");
+      }
+    }
+
+    lastStatusInfo = statusInfo;
+    resultHandler.accept(statusInfo, remoteChanged);
+  }
+
+  /**
+   * @return The remote-tracking branches and the commits they point to.
+   */
+  private static Map<String, ObjectId> getRemoteRefs() {
+    Map<String, ObjectId> refs = Collections.emptyMap();
+    try {
+      Repository repository = GitAccess.getInstance().getRepository();
+      refs = new HashMap<>();
+      for (Ref ref : RefSnapshot.get(repository).getRefsByPrefix(Constants.R_REMOTES)) {
+        refs.put(ref.getName(), ref.getObjectId());
+      }
+    } catch (NoRepositorySelected | IOException e) {
+      LOGGER.debug(e.getMessage(), e);
+    }
+    return refs;
+  }
+
+  /**
+   * Forgets the state of the previous syncs. The next request will be executed right away.
+   */
+  public synchronized void reset() {
+    consecutiveFailures = 0;
+    currentInterval = minInterval;
+    nextSyncTime = 0;
+    lastStatusInfo = new RepositoryStatusInfo(RepositoryStatus.AVAILABLE);
+  }
+
+  /**
+   * @return The state of the remote repository, as detected by the last sync.
+   */
+  public RepositoryStatusInfo getLastStatusInfo() {
+    return lastStatusInfo;
+  }
+
+  /**
+   * @return The sync in progress or <code>null</code>.
+   */
+  @SuppressWarnings("java:S1452")
+  public synchronized Future<?> getInFlightSyncForTests() { // NOSONAR
+    return inFlight;
+  }
+
+  /**
+   * Drops the sync that didn't start yet, if any, ignores the future requests and stops listening
+   * for repository changes.
+   */
+  public synchronized void shutdown() {
+    stopped = true;
+    GitListeners.getInstance().removeGitListener(repositoryListener);
+    if (inFlight != null) {
+      inFlight.cancel(false);
+    }
+  }
+}
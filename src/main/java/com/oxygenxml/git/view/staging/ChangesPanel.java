@@ -14,7 +14,9 @@ import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
@@ -389,6 +391,28 @@ public class ChangesPanel extends JPanel {
       updateTreeView(newFiles);
     }
   }
+
+  /**
+   * Applies the differences between the presented files and the newly detected ones.
+   * Unlike {@link #update(List)}, the models are not rebuilt, so the expanded paths and
+   * the selection are preserved.
+   *
+   * @param delta The differences, computed against a snapshot of {@link #getFilesStatuses()}.
+   */
+  public void applyDelta(FileStatusDelta delta) {
+    if (currentViewMode == ResourcesViewMode.FLAT_VIEW) {
+      if (filesTable != null) {
+        StagingResourcesTableModel modelTable = (StagingResourcesTableModel) filesTable.getModel();
+        List<FileStatus> selectedFiles = getTableSelectedFiles();
+        modelTable.applyDelta(delta);
+        restoreTableSelection(modelTable, selectedFiles);
+      }
+    } else if (tree != null) {
+      ((StagingResourcesTreeModel) tree.getModel()).applyDelta(delta);
+    }
+
+    toggleSelectedButton();
+  }
   
 	
 	/**
@@ -424,9 +448,13 @@ public class ChangesPanel extends JPanel {
 	 *          - previously selected files to restore
 	 */
 	private void restoreTableSelection(StagingResourcesTableModel model, List<FileStatus> previouslySelectedFiles) {
+		Set<String> selectedPaths = new HashSet<>();
 		for (FileStatus fileStatus : previouslySelectedFiles) {
-			int row = model.getRow(fileStatus.getFileLocation());
-			if (row != -1) {
+			selectedPaths.add(fileStatus.getFileLocation());
+		}
+		// A single pass over the rows.
+		for (int row = 0; row < model.getRowCount() && !selectedPaths.isEmpty(); row++) {
+			if (selectedPaths.remove(model.getFileLocation(row))) {
 				filesTable.addRowSelectionInterval(row, row);
 			}
 		}
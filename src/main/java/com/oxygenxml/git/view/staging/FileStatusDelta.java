@@ -0,0 +1,112 @@
+package com.oxygenxml.git.view.staging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+
+/**
+ * The differences between the files presented in a changes panel and the newly detected files.
+ * Computed on a background thread, so that only the differences are applied on the AWT thread.
+ */
+public class FileStatusDelta {
+  /**
+   * The files that are not presented yet.
+   */
+  private final List<FileStatus> added;
+  /**
+   * The presented files that are no longer changed.
+   */
+  private final List<FileStatus> removed;
+  /**
+   * The new state of the presented files whose change type is different.
+   */
+  private final List<FileStatus> changed;
+
+  /**
+   * Constructor.
+   *
+   * @param added   The files that are not presented yet.
+   * @param removed The presented files that are no longer changed.
+   * @param changed The new state of the presented files whose change type is different.
+   */
+  private FileStatusDelta(List<FileStatus> added, List<FileStatus> removed, List<FileStatus> changed) {
+    this.added = Collections.unmodifiableList(added);
+    this.removed = Collections.unmodifiableList(removed);
+    this.changed = Collections.unmodifiableList(changed);
+  }
+
+  /**
+   * Computes the differences between two sets of files. The files are matched by path.
+   *
+   * @param presented The files presented in the panel. Must not change during the computation.
+   * @param newFiles  The newly detected files.
+   *
+   * @return The differences.
+   */
+  public static FileStatusDelta compute(List<FileStatus> presented, List<FileStatus> newFiles) {
+    Map<String, FileStatus> presentedByPath = new HashMap<>(presented.size() * 2);
+    for (FileStatus fileStatus : presented) {
+      presentedByPath.put(fileStatus.getFileLocation(), fileStatus);
+    }
+
+    List<FileStatus> added = new ArrayList<>();
+    List<FileStatus> changed = new ArrayList<>();
+    for (FileStatus fileStatus : newFiles) {
+      FileStatus old = presentedByPath.remove(fileStatus.getFileLocation());
+      if (old == null) {
+        added.add(fileStatus);
+      } else if (old.getChangeType() != fileStatus.getChangeType()
+          || !Objects.equals(old.getDescription(), fileStatus.getDescription())) {
+        changed.add(fileStatus);
+      }
+    }
+
+    // What is left is no longer changed.
+    List<FileStatus> removed = new ArrayList<>(presentedByPath.size());
+    for (FileStatus fileStatus : presented) {
+      if (presentedByPath.containsKey(fileStatus.getFileLocation())) {
+        removed.add(fileStatus);
+      }
+    }
+
+    return new FileStatusDelta(added, removed, changed);
+  }
+
+  /**
+   * @return The files that are not presented yet.
+   */
+  public List<FileStatus> getAdded() {
+    return added;
+  }
+
+  /**
+   * @return The presented files that are no longer changed.
+   */
+  public List<FileStatus> getRemoved() {
+    return removed;
+  }
+
+  /**
+   * @return The new state of the presented files whose change type is different.
+   */
+  public List<FileStatus> getChanged() {
+    return changed;
+  }
+
+  /**
+   * @return <code>true</code> if the presented files are up to date.
+   */
+  public boolean isEmpty() {
+    return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "FileStatusDelta [added: " + added + ", removed: " + removed + ", changed: " + changed + "]";
+  }
+}
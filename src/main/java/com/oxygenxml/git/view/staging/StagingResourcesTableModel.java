@@ -207,6 +207,29 @@ public class StagingResourcesTableModel extends AbstractTableModel {
 	  fireTableDataChanged();
 	}
 
+	/**
+	 * Applies the differences computed against a snapshot of the files in the model.
+	 * 
+	 * @param delta The differences.
+	 */
+	void applyDelta(FileStatusDelta delta) {
+	  if (LOGGER.isDebugEnabled()) {
+	    LOGGER.debug("Delta in the " + (inIndex ? "'staged'" : "'unstaged'") + " area: " + delta);
+	  }
+
+	  Set<String> replacedPaths = new HashSet<>();
+	  delta.getRemoved().forEach(f -> replacedPaths.add(f.getFileLocation()));
+	  delta.getChanged().forEach(f -> replacedPaths.add(f.getFileLocation()));
+	  delta.getAdded().forEach(f -> replacedPaths.add(f.getFileLocation()));
+	  synchronized (filesStatuses) {
+	    filesStatuses.removeIf(f -> replacedPaths.contains(f.getFileLocation()));
+	    filesStatuses.addAll(delta.getChanged());
+	    filesStatuses.addAll(delta.getAdded());
+	    filesStatuses.sort(fileStatusComparator);
+	  }
+	  fireTableDataChanged();
+	}
+
 	/**
 	 * Update the table model based on the given event.
 	 * 
@@ -1,8 +1,13 @@
 package com.oxygenxml.git.view.staging;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.tree.DefaultTreeModel;
 
@@ -30,9 +35,9 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
   private static final Logger LOGGER = LoggerFactory.getLogger(StagingResourcesTreeModel.class);
 
 	/**
-	 * The files in the model
+	 * The files in the model, by path, in the order in which they were added.
 	 */
-	private List<FileStatus> filesStatuses = Collections.synchronizedList(new ArrayList<>());
+	private final Map<String, FileStatus> filesStatuses = Collections.synchronizedMap(new LinkedHashMap<>());
 
   /**
    * <code>true</code> if this model presents the resources inside the index.
@@ -115,8 +120,30 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
 	      // Nothing
 	      break;
 	  }
+	}
+
+	/**
+	 * Applies the differences computed against a snapshot of the files in the model.
+	 * The expanded and selected nodes are preserved.
+	 * 
+	 * @param delta The differences.
+	 */
+	public void applyDelta(FileStatusDelta delta) {
+	  if (LOGGER.isDebugEnabled()) {
+	    LOGGER.debug("Tree model for index: " + inIndex + " delta " + delta);
+	  }
 
-	  fireTreeStructureChanged(this, null, null, null);
+	  deleteNodes(delta.getRemoved());
+	  for (FileStatus fileStatus : delta.getChanged()) {
+	    String path = fileStatus.getFileLocation();
+	    if (filesStatuses.replace(path, fileStatus) != null) {
+	      nodeChanged(TreeUtil.getTreeNodeFromString(this, path));
+	    } else {
+	      // Removed after the snapshot was taken.
+	      insertNodes(Collections.singletonList(fileStatus));
+	    }
+	  }
+	  insertNodes(delta.getAdded());
 	}
 
 	/**
@@ -127,44 +154,150 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
     // Rebuild the tree
     GitTreeNode root = (GitTreeNode) getRoot();
     root.removeAllChildren();
+    fireTreeStructureChanged(this, null, null, null);
   }
 
 	/**
-	 * Insert nodes to the tree based on the given files
+	 * Insert nodes to the tree based on the given files. The new nodes are inserted in their
+	 * sorted position and one insertion event is fired for each parent.
 	 * 
 	 * @param fileToBeUpdated
 	 *          - the files on which the nodes will be created
 	 */
 	private void insertNodes(List<FileStatus> fileToBeUpdated) {
+	  // The top-most new nodes, grouped by their parent.
+	  Map<GitTreeNode, Set<GitTreeNode>> insertedByParent = new IdentityHashMap<>();
+	  // All the nodes created in this batch.
+	  Set<GitTreeNode> created = Collections.newSetFromMap(new IdentityHashMap<>());
 		for (FileStatus fileStatus : fileToBeUpdated) {
-			TreeUtil.buildTreeFromString(this, fileStatus.getFileLocation());
+		  String path = fileStatus.getFileLocation();
+		  GitTreeNode parent = (GitTreeNode) getRoot();
+		  String[] segments = path.split("/");
+		  int i = 0;
+		  for (; i < segments.length; i++) {
+		    GitTreeNode child = parent.getChild(segments[i]);
+		    if (child == null) {
+		      break;
+		    }
+		    parent = child;
+		  }
+		  if (i < segments.length) {
+		    // Build the missing chain and attach it once complete, so that it is sorted as a folder or a file.
+		    GitTreeNode newNode = new GitTreeNode(segments[i]);
+		    created.add(newNode);
+		    GitTreeNode last = newNode;
+		    for (int k = i + 1; k < segments.length; k++) {
+		      GitTreeNode child = new GitTreeNode(segments[k]);
+		      created.add(child);
+		      last.add(child);
+		      last = child;
+		    }
+		    parent.insert(newNode, TreeUtil.getSortedInsertionIndex(parent, newNode));
+		    // The children of new nodes are covered by the event of their top-most new ancestor.
+		    if (!created.contains(parent)) {
+		      insertedByParent.computeIfAbsent(parent, p -> Collections.newSetFromMap(new IdentityHashMap<>())).add(newNode);
+		    }
+		  }
+
+		  // An updated file goes at the end, as a newly added one.
+		  filesStatuses.remove(path);
+		  filesStatuses.put(path, fileStatus);
+		}
+
+		for (Map.Entry<GitTreeNode, Set<GitTreeNode>> entry : insertedByParent.entrySet()) {
+		  nodesWereInserted(entry.getKey(), getChildIndices(entry.getKey(), entry.getValue()));
 		}
-		filesStatuses.addAll(fileToBeUpdated);
-		TreeUtil.sortGitTree(this);
 	}
 
 	/**
-	 * Delete nodes from the tree based on the given files
+	 * Delete nodes from the tree based on the given files. The folders left empty are removed too
+	 * and one removal event is fired for each parent.
 	 * 
 	 * @param fileToBeUpdated
 	 *          - the files on which the nodes will be deleted
 	 */
-	private void deleteNodes(List<FileStatus> fileToBeUpdated) {
+	private void deleteNodes(Collection<FileStatus> fileToBeUpdated) {
+	  GitTreeNode root = (GitTreeNode) getRoot();
+	  // The number of removed children of each folder.
+	  Map<GitTreeNode, Integer> removedCount = new IdentityHashMap<>();
+	  // The top-most removed nodes, grouped by their parent.
+	  Map<GitTreeNode, Set<GitTreeNode>> removedByParent = new IdentityHashMap<>();
 		for (FileStatus fileStatus : fileToBeUpdated) {
-			GitTreeNode node = TreeUtil.getTreeNodeFromString(this, fileStatus.getFileLocation());
-			while (node != null && node.getParent() != null) {
-				GitTreeNode parentNode = (GitTreeNode) node.getParent();
-				if (node.getSiblingCount() != 1) {
-					parentNode.remove(node);
-					break;
-				} else {
-					parentNode.remove(node);
-				}
-				node = parentNode;
-			}
+		  GitTreeNode node = TreeUtil.getTreeNodeFromString(this, fileStatus.getFileLocation());
+		  if (node != null && node != root && filesStatuses.remove(fileStatus.getFileLocation()) != null) {
+		    // Go up while the folders become empty.
+		    GitTreeNode parent = (GitTreeNode) node.getParent();
+		    while (parent != root && removedCount.merge(parent, 1, Integer::sum) == parent.getChildCount()) {
+		      removedByParent.remove(parent);
+		      node = parent;
+		      parent = (GitTreeNode) node.getParent();
+		    }
+		    removedByParent.computeIfAbsent(parent, p -> Collections.newSetFromMap(new IdentityHashMap<>())).add(node);
+		  }
+		}
+
+		for (Map.Entry<GitTreeNode, Set<GitTreeNode>> entry : removedByParent.entrySet()) {
+		  GitTreeNode parent = entry.getKey();
+		  Set<GitTreeNode> removed = entry.getValue();
+		  if (isRemoved(parent, removedByParent)) {
+		    continue;
+		  }
+
+		  int[] indices = getChildIndices(parent, removed);
+		  Object[] children = new Object[indices.length];
+		  List<GitTreeNode> remaining = new ArrayList<>(parent.getChildCount() - indices.length);
+		  int k = 0;
+		  for (int i = 0; i < parent.getChildCount(); i++) {
+		    GitTreeNode child = (GitTreeNode) parent.getChildAt(i);
+		    if (removed.contains(child)) {
+		      children[k++] = child;
+		    } else {
+		      remaining.add(child);
+		    }
+		  }
+		  // Removing all the children from the end and adding back the remaining ones is linear.
+		  parent.removeAllChildren();
+		  remaining.forEach(parent::add);
+		  nodesWereRemoved(parent, indices, children);
 		}
-		filesStatuses.removeAll(fileToBeUpdated);
-		TreeUtil.sortGitTree(this);
+	}
+
+	/**
+	 * @param node            A node.
+	 * @param removedByParent The removed nodes, by their parent.
+	 * 
+	 * @return <code>true</code> if the node or one of its ancestors is removed.
+	 */
+	private static boolean isRemoved(GitTreeNode node, Map<GitTreeNode, Set<GitTreeNode>> removedByParent) {
+	  GitTreeNode current = node;
+	  while (current.getParent() != null) {
+	    GitTreeNode parent = (GitTreeNode) current.getParent();
+	    Set<GitTreeNode> removed = removedByParent.get(parent);
+	    if (removed != null && removed.contains(current)) {
+	      return true;
+	    }
+	    current = parent;
+	  }
+	  return false;
+	}
+
+	/**
+	 * Computes the indices of some children with a single pass over the children.
+	 * 
+	 * @param parent   The parent.
+	 * @param children The children.
+	 * 
+	 * @return The indices, ascending.
+	 */
+	private static int[] getChildIndices(GitTreeNode parent, Set<GitTreeNode> children) {
+	  int[] indices = new int[children.size()];
+	  int k = 0;
+	  for (int i = 0; i < parent.getChildCount() && k < indices.length; i++) {
+	    if (children.contains(parent.getChildAt(i))) {
+	      indices[k++] = i;
+	    }
+	  }
+	  return indices;
 	}
 
 	/**
@@ -175,16 +308,7 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
 	 * @return the file
 	 */
 	public FileStatus getFileByPath(String path) {
-	  FileStatus toReturn = null;
-	  synchronized (filesStatuses) {
-	    for (FileStatus fileStatus : filesStatuses) {
-	      if (path.equals(fileStatus.getFileLocation())) {
-	        toReturn = fileStatus;
-	        break;
-	      }
-	    }
-    }
-		return toReturn;
+		return filesStatuses.get(path);
 	}
 
 	/**
@@ -197,16 +321,32 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
 	public List<FileStatus> getFilesByPaths(List<String> selectedPaths) {
 	  List<FileStatus> containingPaths = new ArrayList<>();
 	  for (String path : selectedPaths) {
-	    synchronized (filesStatuses) {
-	      for (FileStatus fileStatus : filesStatuses) {
-	        if (includePath(path, fileStatus.getFileLocation())) {
-	          containingPaths.add(new FileStatus(fileStatus));
-	        }
-	      }
+	    GitTreeNode node = TreeUtil.getTreeNodeFromString(this, path);
+	    if (node != null) {
+	      collectFiles(node, path, containingPaths);
 	    }
 	  }
 	  return containingPaths;
 	}
+
+	/**
+	 * Collects the files from a subtree.
+	 * 
+	 * @param node  The root of the subtree.
+	 * @param path  The path of the node.
+	 * @param files Receives the files.
+	 */
+	private void collectFiles(GitTreeNode node, String path, List<FileStatus> files) {
+	  FileStatus fileStatus = filesStatuses.get(path);
+	  if (fileStatus != null) {
+	    files.add(new FileStatus(fileStatus));
+	  }
+	  String prefix = path.isEmpty() ? "" : path + "/";
+	  for (int i = 0; i < node.getChildCount(); i++) {
+	    GitTreeNode child = (GitTreeNode) node.getChildAt(i);
+	    collectFiles(child, prefix + child.getUserObject(), files);
+	  }
+	}
 	
 	/**
    * Return the files corresponding to leaves from the given paths.
@@ -218,12 +358,9 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
 	public List<FileStatus> getFileLeavesByPaths(List<String> selectedPaths) {
 	  List<FileStatus> containingPaths = new ArrayList<>();
 	  for (String path : selectedPaths) {
-	    synchronized (filesStatuses) {
-	      for (FileStatus fileStatus : filesStatuses) {
-	        if (fileStatus.getFileLocation().equals(path)) {
-	          containingPaths.add(new FileStatus(fileStatus));
-	        }
-	      }
+	    FileStatus fileStatus = filesStatuses.get(path);
+	    if (fileStatus != null) {
+	      containingPaths.add(new FileStatus(fileStatus));
 	    }
 	  }
 	  return containingPaths;
@@ -241,7 +378,8 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
 	    filesStatus = Collections.emptyList();
 	  }
 	  
-		deleteNodes(this.filesStatuses);
+		filesStatuses.clear();
+		((GitTreeNode) getRoot()).removeAllChildren();
 		insertNodes(filesStatus);
 		
 		fireTreeStructureChanged(this, null, null, null);
@@ -251,7 +389,9 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
 	 * @return The files in the model.
 	 */
 	public List<FileStatus> getFilesStatuses() {
-    return filesStatuses;
+	  synchronized (filesStatuses) {
+	    return new ArrayList<>(filesStatuses.values());
+	  }
   }
 
   /**
@@ -260,7 +400,7 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
   public void switchAllFilesStageState() {
     List<FileStatus> filesToBeUpdated = new ArrayList<>();
     synchronized (filesStatuses) {
-      for (FileStatus fileStatus : filesStatuses) {
+      for (FileStatus fileStatus : filesStatuses.values()) {
         if (fileStatus.getChangeType() != GitChangeType.CONFLICT) {
           filesToBeUpdated.add(fileStatus);
         }
@@ -274,23 +414,4 @@ public class StagingResourcesTreeModel extends DefaultTreeModel {
     }
   }
   
-  /**
-   * @param path            A file path.
-   * @param candidatePath   A candidate to be child or even the path.
-   * 
-   * @return <code>true</code> if the candidate path is equals or a child of the given path.
-   */
-  private boolean includePath(final String path, final String candidatePath) {
-    boolean toReturn = false;
-    final int pathLength = path.length();
-    final int candidatePathLength = candidatePath.length();
-    if(candidatePathLength == pathLength) {
-      toReturn = path.equals(candidatePath);
-    } else if(candidatePathLength > pathLength) {
-      toReturn = candidatePath.startsWith(path + "/");
-    }
-    
-    return toReturn;
-  }
-  
 }
@@ -9,6 +9,8 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
@@ -22,6 +24,7 @@ import org.eclipse.jgit.transport.CredentialsProvider;
 import com.oxygenxml.git.auth.AuthUtil;
 import com.oxygenxml.git.service.GitAccess;
 import com.oxygenxml.git.service.NoRepositorySelected;
+import com.oxygenxml.git.service.RefSnapshot;
 
 /**
  * Used for working with GitTags
@@ -121,8 +124,8 @@ public class GitTagsManager {
     List<GitTag> allTags = new ArrayList<>();
     List<String> remoteTagsTitle = getRemoteTagsTitle();
     
-    List<Ref> refs = GitAccess.getInstance().getGit().tagList().call();
     Repository repository = GitAccess.getInstance().getRepository();
+    List<Ref> refs = RefSnapshot.get(repository).getRefsByPrefix(Constants.R_TAGS);
     try (RevWalk walk = new RevWalk(repository)) {
       walk.sort(RevSort.COMMIT_TIME_DESC);
       for (Ref ref : refs) {
@@ -184,7 +187,12 @@ public class GitTagsManager {
     
 	  List<Ref> refs = null;
     if(gitAccess.isRepoInitialized()) {
-    	refs = gitAccess.getGit().tagList().call();
+      try {
+        refs = RefSnapshot.get(gitAccess.getGit().getRepository()).getRefsByPrefix(Constants.R_TAGS);
+      } catch (IOException e) {
+        // Like the tag list command.
+        throw new JGitInternalException(e.getMessage(), e);
+      }
     }
 
     return Optional.ofNullable(refs).map(List<Ref>::size).orElse(0);
@@ -4,13 +4,14 @@ import java.awt.FontMetrics;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.JTree;
 import javax.swing.event.TreeExpansionEvent;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeModel;
-import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 
 import org.eclipse.jgit.lib.Constants;
@@ -53,19 +54,19 @@ public class TreeUtil {
 
 		// Iterate of the string array
 		for (String s : strings) {
-			// Look for the index of a node at the current level that
+			// Look for a node at the current level that
 			// has a value equal to the current string
-			int index = childIndex(node, s);
+			GitTreeNode child = node.getChild(s);
 
-			// Index less than 0, this is a new node not currently present on the tree
-			if (index < 0) {
+			// No such node, this is a new node not currently present on the tree
+			if (child == null) {
 				// Add the new node
 				GitTreeNode newChild = new GitTreeNode(s);
 				node.insert(newChild, node.getChildCount());
 				node = newChild;
 			} else {
 			  // Existing node, skip to the next string
-				node = (GitTreeNode) node.getChildAt(index);
+				node = child;
 			}
 		}
 	}
@@ -93,18 +94,18 @@ public class TreeUtil {
       // Make sure not to add the refs/ node in the tree.
       if (!currentNodePath.toString().equals(Constants.R_REFS) 
           && !currentNodePath.toString().equals(Constants.HEAD)) {
-        // Look for the index of a node at the current level that
+        // Look for a node at the current level that
         // has a value equal to the current string
-        int index = childIndex(node, currentNodePath.toString());
+        GitTreeNode child = node.getChild(currentNodePath.toString());
 
-        // Index less than 0, this is a new node not currently present on the tree
-        if (index < 0) {
+        // No such node, this is a new node not currently present on the tree
+        if (child == null) {
           GitTreeNode newChild = new GitTreeNode(currentNodePath.toString());
           node.insert(newChild, node.getChildCount());
           node = newChild;
         } else {
           // Existing node, skip to the next string
-          node = (GitTreeNode) node.getChildAt(index);
+          node = child;
         }
       }
     }
@@ -120,19 +121,8 @@ public class TreeUtil {
 	 * @return The index
 	 */
 	public static int childIndex(final GitTreeNode node, final String childValue) {
-		Enumeration<TreeNode> children = node.children();
-		GitTreeNode child = null;
-		int index = -1;
-
-		while (children.hasMoreElements() && index < 0) {
-			child = (GitTreeNode) children.nextElement();
-
-			if (child.getUserObject() != null && childValue.equals(child.getUserObject())) {
-				index = node.getIndex(child);
-			}
-		}
-
-		return index;
+		GitTreeNode child = node.getChild(childValue);
+		return child != null ? node.getIndex(child) : -1;
 	}
 
 	/**
@@ -149,11 +139,8 @@ public class TreeUtil {
 		if (node != null && path != null && !path.isEmpty()) {
 		  String[] strings = path.split("/");
 		  for (String s : strings) {
-		    int index = childIndex(node, s);
-		    if (index != -1) {
-		      node = (GitTreeNode) node.getChildAt(index);
-		    } else {
-		      node = null;
+		    node = node.getChild(s);
+		    if (node == null) {
 		      break;
 		    }
 		  }
@@ -261,15 +248,14 @@ public class TreeUtil {
 	 */
 	public static void restoreLastExpandedPaths(Enumeration<TreePath> expandedPaths, JTree tree) {
 		if (expandedPaths != null) {
-			List<TreePath> expPaths = Collections.list(expandedPaths);
+			Set<String> expPaths = new HashSet<>();
+			while (expandedPaths.hasMoreElements()) {
+			  expPaths.add(TreeUtil.getStringPath(expandedPaths.nextElement()));
+			}
 			for (int i = 0; i < tree.getRowCount(); i++) {
 				TreePath currentPath = tree.getPathForRow(i);
-				String currentStringPath = TreeUtil.getStringPath(currentPath);
-				for (TreePath expPath : expPaths) {
-					String stringTreePahr = TreeUtil.getStringPath(expPath);
-					if (currentStringPath.equals(stringTreePahr)) {
-						tree.expandRow(i);
-					}
+				if (expPaths.contains(TreeUtil.getStringPath(currentPath))) {
+					tree.expandRow(i);
 				}
 			}
 		}
@@ -364,6 +350,29 @@ public class TreeUtil {
     children.forEach(node::add);
   }
   
+  /**
+   * Finds where a new child must be inserted to keep the children of a node sorted.
+   * 
+   * @param parent The node, with sorted children.
+   * @param child  The new child.
+   * 
+   * @return The insertion index.
+   */
+  public static int getSortedInsertionIndex(GitTreeNode parent, GitTreeNode child) {
+    NodeTreeComparator comparator = new NodeTreeComparator();
+    int low = 0;
+    int high = parent.getChildCount();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (comparator.compare((GitTreeNode) parent.getChildAt(middle), child) <= 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+  
   /**
    * Trims the text to fit the given width.
    *  
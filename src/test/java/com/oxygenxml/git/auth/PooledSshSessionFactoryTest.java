@@ -0,0 +1,141 @@
+package com.oxygenxml.git.auth;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.RemoteSession;
+import org.eclipse.jgit.transport.SshSessionFactory;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.util.FS;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link PooledSshSessionFactory}.
+ */
+public class PooledSshSessionFactoryTest extends TestCase {
+
+  /**
+   * A session that records the executed commands.
+   */
+  private static class RecordingSession implements RemoteSession {
+    /**
+     * The executed commands.
+     */
+    private final List<String> commands = new ArrayList<>();
+    /**
+     * <code>true</code> after disconnecting.
+     */
+    private boolean disconnected;
+    /**
+     * <code>true</code> to fail when executing a command, as if the server closed the session.
+     */
+    private boolean closedByServer;
+
+    @Override
+    public Process exec(String commandName, int timeout) throws IOException {
+      if (disconnected || closedByServer) {
+        throw new IOException("Closed");
+      }
+      commands.add(commandName);
+      return null;
+    }
+
+    @Override
+    public void disconnect() {
+      disconnected = true;
+    }
+  }
+
+  /**
+   * Opens recording sessions.
+   */
+  private static class RecordingFactory extends SshSessionFactory {
+    /**
+     * The opened sessions.
+     */
+    private final List<RecordingSession> sessions = new ArrayList<>();
+
+    @Override
+    public RemoteSession getSession(URIish uri, CredentialsProvider credentialsProvider, FS fs, int tms) {
+      RecordingSession session = new RecordingSession();
+      sessions.add(session);
+      return session;
+    }
+
+    @Override
+    public String getType() {
+      return "recording";
+    }
+  }
+
+  /**
+   * <p><b>Description:</b> a released session is used again for the same remote. A session closed
+   * by the server is replaced and the command is executed on the new one.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testReuse() throws Exception {
+    RecordingFactory delegate = new RecordingFactory();
+    PooledSshSessionFactory factory = new PooledSshSessionFactory(delegate, PooledSshSessionFactory.DEFAULT_IDLE_TIME);
+    URIish uri = new URIish("ssh://git@example.com/repo.git");
+
+    RemoteSession session = factory.getSession(uri, null, FS.DETECTED, 0);
+    session.exec("git-upload-pack '/repo.git'", 0);
+    factory.releaseSession(session);
+
+    session = factory.getSession(uri, null, FS.DETECTED, 0);
+    session.exec("git-receive-pack '/repo.git'", 0);
+    factory.releaseSession(session);
+    assertEquals(1, delegate.sessions.size());
+    assertEquals(2, delegate.sessions.get(0).commands.size());
+    assertFalse(delegate.sessions.get(0).disconnected);
+
+    // Another remote.
+    RemoteSession other = factory.getSession(new URIish("ssh://git@other.com/repo.git"), null, FS.DETECTED, 0);
+    assertEquals(2, delegate.sessions.size());
+    factory.releaseSession(other);
+
+    // Closed by the server while idle.
+    delegate.sessions.get(0).closedByServer = true;
+    session = factory.getSession(uri, null, FS.DETECTED, 0);
+    session.exec("git-upload-pack '/repo.git'", 0);
+    assertEquals(3, delegate.sessions.size());
+    assertTrue(delegate.sessions.get(0).disconnected);
+    assertEquals(1, delegate.sessions.get(2).commands.size());
+
+    SshSessionStatistics statistics = factory.getStatistics();
+    assertEquals(3, statistics.getOpened());
+    assertEquals(2, statistics.getReused());
+
+    factory.releaseSession(session);
+    factory.closeIdleSessions();
+    assertTrue(delegate.sessions.get(1).disconnected);
+    assertTrue(delegate.sessions.get(2).disconnected);
+  }
+
+  /**
+   * <p><b>Description:</b> the sessions idle for too long are closed instead of being used again.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testIdleTime() throws Exception {
+    RecordingFactory delegate = new RecordingFactory();
+    PooledSshSessionFactory factory = new PooledSshSessionFactory(delegate, 1);
+    URIish uri = new URIish("ssh://git@example.com/repo.git");
+
+    factory.releaseSession(factory.getSession(uri, null, FS.DETECTED, 0));
+    Thread.sleep(20);
+    factory.releaseSession(factory.getSession(uri, null, FS.DETECTED, 0));
+
+    assertEquals(2, delegate.sessions.size());
+    assertTrue(delegate.sessions.get(0).disconnected);
+
+    // Not pooled at all.
+    factory = new PooledSshSessionFactory(delegate, 0);
+    factory.releaseSession(factory.getSession(uri, null, FS.DETECTED, 0));
+    assertTrue(delegate.sessions.get(2).disconnected);
+  }
+}
@@ -0,0 +1,42 @@
+package com.oxygenxml.git.protocol;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link BlobContentCache}.
+ */
+public class BlobContentCacheTest extends TestCase {
+
+  /**
+   * <p><b>Description:</b> the least recently used blobs are evicted to stay in the memory budget
+   * and the blobs larger than a quarter of the budget are not cached.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testEviction() throws Exception {
+    BlobContentCache cache = new BlobContentCache(100);
+    ObjectId first = ObjectId.fromString("0000000000000000000000000000000000000001");
+    ObjectId second = ObjectId.fromString("0000000000000000000000000000000000000002");
+    ObjectId third = ObjectId.fromString("0000000000000000000000000000000000000003");
+    ObjectId large = ObjectId.fromString("0000000000000000000000000000000000000004");
+
+    cache.put(first, new byte[25]);
+    cache.put(second, new byte[25]);
+    cache.put(large, new byte[26]);
+    assertNull(cache.get(large));
+    assertEquals(50, cache.getWeight());
+
+    // Use the first one, so that the second one is the least recently used.
+    assertNotNull(cache.get(first));
+    cache.put(third, new byte[25]);
+    cache.put(ObjectId.fromString("0000000000000000000000000000000000000005"), new byte[25]);
+    cache.put(ObjectId.fromString("0000000000000000000000000000000000000006"), new byte[25]);
+
+    assertEquals(100, cache.getWeight());
+    assertEquals(4, cache.size());
+    assertNull(cache.get(second));
+    assertNotNull(cache.get(first));
+  }
+}
@@ -6,9 +6,14 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
 import org.junit.Test;
 
+import com.oxygenxml.git.service.Commit;
 import com.oxygenxml.git.service.GitAccess;
 import com.oxygenxml.git.service.GitTestBase;
 import com.oxygenxml.git.service.TestUtil;
@@ -152,6 +157,82 @@ public class GitRevisionURLHandlerTest extends GitTestBase {
     // This used to fail with java.io.IOException: Unable to obtain commit ID for: git://IndexOrLastCommit/folder%20with%20spaces/f.txt
     assertEquals("content", TestUtil.read(new URL(encodedURL)));
   }
-
-
+  
+  /**
+   * <p><b>Description:</b> the content length is reported, the blob content is cached and the
+   * URLs are resolved again when HEAD changes.</p>
+   * 
+   * @throws Exception If it fails.
+   */
+  @Test
+  public void testContentLengthAndCache() throws Exception {
+    String localTestRepository = "target/test-resources/GitRevisionURLHandlerTest_testContentLengthAndCache";
+    Repository repository = createRepository(localTestRepository);
+    GitAccess gitAccess = GitAccess.getInstance();
+    
+    File file = new File(localTestRepository + "/test.txt");
+    setFileContent(file, "first version");
+    gitAccess.add(new FileStatus(GitChangeType.ADD, "test.txt"));
+    gitAccess.commit("First version.");
+    
+    URL headVersionURL = new URL("git://" + VersionIdentifier.LAST_COMMIT  + "/test.txt");
+    assertEquals("first version".length(), headVersionURL.openConnection().getContentLength());
+    assertEquals("first version", TestUtil.read(headVersionURL));
+    
+    ObjectId blobId = gitAccess.getCommit(Commit.LOCAL, "test.txt");
+    assertNotNull(BlobContentCache.getInstance().get(blobId));
+    assertEquals("first version", TestUtil.read(headVersionURL));
+    
+    // A new commit moves HEAD, so the URL points to another blob.
+    setFileContent(file, "second version, longer");
+    gitAccess.add(new FileStatus(GitChangeType.MODIFIED, "test.txt"));
+    gitAccess.commit("Second version.");
+    assertEquals("second version, longer".length(), headVersionURL.openConnection().getContentLength());
+    assertEquals("second version, longer", TestUtil.read(headVersionURL));
+    assertFalse(blobId.equals(repository.resolve("HEAD:test.txt")));
+  }
+  
+  /**
+   * <p><b>Description:</b> the URLs of the submodule commits present the commit IDs, generated in
+   * memory, with the right content length.</p>
+   * 
+   * @throws Exception If it fails.
+   */
+  @Test
+  public void testSubmoduleContent() throws Exception {
+    Repository subRepository = createRepository("target/test-resources/GitRevisionURLHandlerTest_testSubmoduleContent-sub");
+    RevCommit first;
+    RevCommit second;
+    try (Git sub = new Git(subRepository)) {
+      setFileContent(new File(subRepository.getWorkTree(), "a.txt"), "first");
+      sub.add().addFilepattern(".").call();
+      first = sub.commit().setMessage("First").call();
+      setFileContent(new File(subRepository.getWorkTree(), "a.txt"), "second");
+      sub.add().addFilepattern(".").call();
+      second = sub.commit().setMessage("Second").call();
+    }
+    
+    Repository repository = createRepository("target/test-resources/GitRevisionURLHandlerTest_testSubmoduleContent");
+    try (Git git = new Git(repository)) {
+      git.submoduleAdd()
+          .setURI(subRepository.getDirectory().toURI().toString())
+          .setPath("sub")
+          .call()
+          .close();
+      git.commit().setMessage("Add submodule").call();
+    }
+    try (Repository submodule = SubmoduleWalk.getSubmoduleRepository(repository, "sub");
+        Git sub = new Git(submodule)) {
+      sub.checkout().setName(first.getName()).call();
+    }
+    
+    URL currentURL = GitRevisionURLHandler.encodeURL(VersionIdentifier.CURRENT_SUBMODULE, "sub");
+    String expected = "Subproject commit " + first.getName() + "\n";
+    assertEquals(expected.length(), currentURL.openConnection().getContentLength());
+    // The read content is trimmed.
+    assertEquals(expected.trim(), TestUtil.read(currentURL));
+    
+    URL previousURL = GitRevisionURLHandler.encodeURL(VersionIdentifier.PREVIOUSLY_SUBMODULE, "sub");
+    assertEquals("Subproject commit " + second.getName(), TestUtil.read(previousURL));
+  }
 }
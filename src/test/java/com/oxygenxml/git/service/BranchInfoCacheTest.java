@@ -0,0 +1,120 @@
+package com.oxygenxml.git.service;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oxygenxml.git.view.event.GitEventInfo;
+import com.oxygenxml.git.view.event.GitOperation;
+
+/**
+ * Tests for the HEAD state cache behind {@link GitAccess#getBranchInfo()}.
+ */
+public class BranchInfoCacheTest extends GitTestBase {
+  /**
+   * Logger for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BranchInfoCacheTest.class);
+  /**
+   * Repository with a short history.
+   */
+  private static final String SHALLOW_REPOSITORY = "target/test-resources/BranchInfoCacheTest/shallow";
+  /**
+   * Repository with a deep history.
+   */
+  private static final String DEEP_REPOSITORY = "target/test-resources/BranchInfoCacheTest/deep";
+
+  /**
+   * <p><b>Description:</b> the branch info is detected for attached and detached HEADs, and it
+   * is cached until the HEAD changes.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testBranchInfo() throws Exception {
+    GitAccess gitAccess = GitAccess.getInstance();
+    Repository repository = createRepository(SHALLOW_REPOSITORY);
+
+    // Unborn branch.
+    BranchInfo branchInfo = gitAccess.getBranchInfo();
+    assertEquals(GitAccess.DEFAULT_BRANCH_NAME, branchInfo.getBranchName());
+    assertFalse(branchInfo.isDetached());
+
+    commitOneFile(SHALLOW_REPOSITORY, "a.txt", "a");
+    RevCommit first = getLastCommit();
+    commitOneFile(SHALLOW_REPOSITORY, "b.txt", "b");
+
+    branchInfo = gitAccess.getBranchInfo();
+    assertEquals(GitAccess.DEFAULT_BRANCH_NAME, branchInfo.getBranchName());
+    assertFalse(branchInfo.isDetached());
+    assertSame("Nothing changed. The cached info should be reused.", branchInfo, gitAccess.getBranchInfo());
+
+    // Detach the HEAD without notifying the listeners. The change in the HEAD file must be detected.
+    gitAccess.getGit().checkout().setName(first.getName()).call();
+    branchInfo = gitAccess.getBranchInfo();
+    assertTrue(branchInfo.isDetached());
+    assertEquals(first.getName(), branchInfo.getBranchName());
+    assertEquals(first.abbreviate(RevCommitUtilBase.ABBREVIATED_COMMIT_LENGTH).name(), branchInfo.getShortBranchName());
+
+    // A Git event drops the cache.
+    GitListeners.getInstance().fireOperationSuccessfullyEnded(new GitEventInfo(GitOperation.CHECKOUT));
+    assertNotSame(branchInfo, gitAccess.getBranchInfo());
+
+    gitAccess.setBranch(GitAccess.DEFAULT_BRANCH_NAME);
+    branchInfo = gitAccess.getBranchInfo();
+    assertEquals(GitAccess.DEFAULT_BRANCH_NAME, branchInfo.getBranchName());
+    assertFalse(branchInfo.isDetached());
+
+    assertEquals(repository.getBranch(), branchInfo.getBranchName());
+  }
+
+  /**
+   * <p><b>Description:</b> regression benchmark. Computing the HEAD state must not depend
+   * on the depth of the history.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testBranchInfoCostDoesNotDependOnHistoryDepth() throws Exception {
+    Repository shallow = createRepository(SHALLOW_REPOSITORY);
+    commitOneFile(SHALLOW_REPOSITORY, "a.txt", "a");
+
+    Repository deep = createRepository(DEEP_REPOSITORY);
+    commitOneFile(DEEP_REPOSITORY, "a.txt", "a");
+    try (Git git = new Git(deep)) {
+      for (int i = 0; i < 2000; i++) {
+        git.commit().setAllowEmpty(true).setMessage("Commit " + i).call();
+      }
+    }
+
+    // Warm up.
+    measure(shallow);
+    measure(deep);
+
+    long shallowCost = measure(shallow);
+    long deepCost = measure(deep);
+    LOGGER.info("Branch info cost. Shallow history: " + shallowCost + " ns. Deep history: " + deepCost + " ns.");
+
+    // An attached HEAD used to require a walk down to the root commit.
+    assertFalse(BranchInfoCache.computeBranchInfo(deep).isDetached());
+    // Generous margin. A history walk would be hundreds of times slower.
+    assertTrue("Shallow: " + shallowCost + " ns, deep: " + deepCost + " ns",
+        deepCost < shallowCost * 5 + 1_000_000);
+  }
+
+  /**
+   * Computes the branch info a number of times.
+   *
+   * @param repository The repository.
+   *
+   * @return The average duration of a computation, in nanoseconds.
+   */
+  private static long measure(Repository repository) {
+    int iterations = 500;
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      BranchInfoCache.computeBranchInfo(repository);
+    }
+    return (System.nanoTime() - start) / iterations;
+  }
+}
@@ -0,0 +1,85 @@
+package com.oxygenxml.git.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ChangedFilesCache}.
+ */
+public class ChangedFilesCacheTest extends TestCase {
+
+  /**
+   * <p><b>Description:</b> the least recently used commits are evicted when the cache holds too
+   * many files. The lookups are counted.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testEvictionAndCounters() throws Exception {
+    ChangedFilesCache cache = new ChangedFilesCache(GitListeners.getInstance(), 10);
+    ObjectId first = commitId(1);
+    ObjectId second = commitId(2);
+    ObjectId third = commitId(3);
+
+    cache.put(first, files(4));
+    cache.put(second, files(4));
+    assertEquals(8, cache.getWeight());
+
+    // The first commit becomes the most recently used.
+    assertEquals(4, cache.get(first).size());
+    assertNull(cache.get(third));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+
+    cache.put(third, files(4));
+    assertTrue(cache.contains(first));
+    assertFalse(cache.contains(second));
+    assertTrue(cache.contains(third));
+    assertEquals(8, cache.getWeight());
+
+    // Too big to be cached.
+    cache.put(second, files(11));
+    assertFalse(cache.contains(second));
+    assertEquals(2, cache.size());
+
+    // The cached files are not changed through the returned ones.
+    cache.get(first).get(0).setChangeType(GitChangeType.ADD);
+    assertEquals(GitChangeType.MODIFIED, cache.get(first).get(0).getChangeType());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getWeight());
+  }
+
+  /**
+   * Creates a commit id.
+   *
+   * @param n A number.
+   *
+   * @return The id.
+   */
+  private static ObjectId commitId(int n) {
+    return ObjectId.fromString(String.format("%040x", n));
+  }
+
+  /**
+   * Creates a list of changed files.
+   *
+   * @param count The number of files.
+   *
+   * @return The files.
+   */
+  private static List<FileStatus> files(int count) {
+    List<FileStatus> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      files.add(new FileStatus(GitChangeType.MODIFIED, "file" + i + ".txt"));
+    }
+    return files;
+  }
+}
@@ -0,0 +1,229 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand.FastForwardMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.RevWalkUtils;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+
+import com.oxygenxml.git.service.CommitGraph.Divergence;
+
+/**
+ * Tests for {@link CommitGraph}.
+ */
+public class CommitGraphTest extends GitTestBase {
+  /**
+   * The repository.
+   */
+  private static final String REPOSITORY = "target/test-resources/CommitGraphTest";
+
+  /**
+   * <p><b>Description:</b> the commits that differ between two branches are the same as the
+   * ones found by walking the commits, including after merges.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testDivergenceMatchesWalk() throws Exception {
+    Repository repository = createRepositoryWithoutGraph();
+    RevCommit main;
+    RevCommit feature;
+    try (Git git = new Git(repository)) {
+      git.commit().setAllowEmpty(true).setMessage("Root").call();
+      git.branchCreate().setName("feature").call();
+      for (int i = 0; i < 3; i++) {
+        git.checkout().setName("feature").call();
+        git.commit().setAllowEmpty(true).setMessage("Feature " + i).call();
+        git.checkout().setName(GitAccess.DEFAULT_BRANCH_NAME).call();
+        git.commit().setAllowEmpty(true).setMessage("Main " + i).call();
+      }
+      git.merge().include(repository.resolve("feature")).setMessage("Merge").call();
+      git.checkout().setName("feature").call();
+      git.commit().setAllowEmpty(true).setMessage("Feature after merge").call();
+      git.checkout().setName(GitAccess.DEFAULT_BRANCH_NAME).call();
+      git.commit().setAllowEmpty(true).setMessage("Main after merge").call();
+
+      try (RevWalk walk = new RevWalk(repository)) {
+        main = walk.parseCommit(repository.resolve(GitAccess.DEFAULT_BRANCH_NAME));
+        feature = walk.parseCommit(repository.resolve("feature"));
+      }
+    }
+
+    CommitGraph graph = CommitGraph.load(repository);
+    assertEquals(0, graph.size());
+    assertEquals(10, graph.update(repository));
+    assertEquals(0, graph.update(repository));
+    assertEquals(1, graph.get(repository.resolve("feature~4")).getGeneration());
+    assertEquals(main.getTree(), graph.get(main).getTree());
+
+    Divergence divergence = graph.divergence(main, feature);
+    // Commits created in the same second might be walked in any order.
+    assertEquals(walk(repository, main, feature), new HashSet<>(divergence.getOnlyFromFirst()));
+    assertEquals(walk(repository, feature, main), new HashSet<>(divergence.getOnlyFromSecond()));
+    assertEquals(5, divergence.getOnlyFromFirst().size());
+    assertEquals(1, divergence.getOnlyFromSecond().size());
+
+    Divergence same = graph.divergence(main, main);
+    assertTrue(same.getOnlyFromFirst().isEmpty());
+    assertTrue(same.getOnlyFromSecond().isEmpty());
+  }
+
+  /**
+   * <p><b>Description:</b> the graph is persisted and the new commits are appended to the file.
+   * A corrupted file is discarded.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testPersistence() throws Exception {
+    Repository repository = createRepositoryWithoutGraph();
+    try (Git git = new Git(repository)) {
+      git.commit().setAllowEmpty(true).setMessage("First").call();
+      git.commit().setAllowEmpty(true).setMessage("Second").call();
+      assertEquals(2, CommitGraph.load(repository).update(repository));
+
+      File file = new File(repository.getDirectory(), CommitGraph.FILE_NAME);
+      long initialLength = file.length();
+      CommitGraph reloaded = CommitGraph.load(repository);
+      assertEquals(2, reloaded.size());
+
+      RevCommit third = git.commit().setAllowEmpty(true).setMessage("Third").call();
+      assertEquals(1, reloaded.update(repository));
+      assertTrue(file.length() > initialLength);
+
+      CommitGraph appended = CommitGraph.load(repository);
+      assertEquals(3, appended.size());
+      assertEquals(3, appended.get(third).getGeneration());
+      assertEquals(third.getCommitTime(), appended.get(third).getCommitTime());
+
+      // Truncate the last record.
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(file.length() - 3);
+      }
+      CommitGraph discarded = CommitGraph.load(repository);
+      assertEquals(0, discarded.size());
+      assertFalse(file.exists());
+      assertEquals(3, discarded.update(repository));
+      assertEquals(3, CommitGraph.load(repository).size());
+    }
+  }
+
+  /**
+   * <p><b>Description:</b> the merge bases computed from the graph are the same as the ones found by
+   * walking the commits, including for criss-cross merges, which have two merge bases.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testMergeBases() throws Exception {
+    Repository repository = createRepositoryWithoutGraph();
+    try (Git git = new Git(repository)) {
+      git.commit().setAllowEmpty(true).setMessage("Root").call();
+      git.branchCreate().setName("feature").call();
+      RevCommit main1 = git.commit().setAllowEmpty(true).setMessage("Main 1").call();
+      git.checkout().setName("feature").call();
+      RevCommit feature1 = git.commit().setAllowEmpty(true).setMessage("Feature 1").call();
+      
+      // Criss-cross merge.
+      git.checkout().setName(GitAccess.DEFAULT_BRANCH_NAME).call();
+      git.merge().include(feature1).setFastForward(FastForwardMode.NO_FF).setMessage("Merge feature").call();
+      git.checkout().setName("feature").call();
+      git.merge().include(main1).setFastForward(FastForwardMode.NO_FF).setMessage("Merge main").call();
+      git.commit().setAllowEmpty(true).setMessage("Feature 2").call();
+      git.checkout().setName(GitAccess.DEFAULT_BRANCH_NAME).call();
+      git.commit().setAllowEmpty(true).setMessage("Main 2").call();
+    }
+
+    CommitGraph graph = CommitGraph.load(repository);
+    graph.update(repository);
+    String[][] pairs = {
+        {GitAccess.DEFAULT_BRANCH_NAME, "feature"},
+        {GitAccess.DEFAULT_BRANCH_NAME, GitAccess.DEFAULT_BRANCH_NAME + "~1"},
+        {GitAccess.DEFAULT_BRANCH_NAME + "~2", "feature"},
+        {"feature", "feature"}
+    };
+    for (String[] pair : pairs) {
+      ObjectId first = repository.resolve(pair[0]);
+      ObjectId second = repository.resolve(pair[1]);
+      assertEquals(Arrays.toString(pair), 
+          walkMergeBases(repository, first, second), new HashSet<>(graph.mergeBases(first, second)));
+    }
+    assertEquals(2, graph.mergeBases(
+        repository.resolve(GitAccess.DEFAULT_BRANCH_NAME), repository.resolve("feature")).size());
+  }
+
+  /**
+   * Creates the test repository and removes the graph persisted by {@link CommitGraphCache} when the
+   * repository was loaded.
+   *
+   * @return The repository.
+   *
+   * @throws Exception If it fails.
+   */
+  private Repository createRepositoryWithoutGraph() throws Exception {
+    Repository repository = createRepository(REPOSITORY);
+    waitForScheduler();
+    Files.deleteIfExists(new File(repository.getDirectory(), CommitGraph.FILE_NAME).toPath());
+    return repository;
+  }
+
+  /**
+   * Finds the commits reachable from a commit but not from another one by walking the commits.
+   *
+   * @param repository The repository.
+   * @param from       The commit.
+   * @param other      The other commit.
+   *
+   * @return The ids of the commits.
+   *
+   * @throws Exception If it fails.
+   */
+  private static Set<ObjectId> walk(Repository repository, RevCommit from, RevCommit other) throws Exception {
+    try (RevWalk walk = new RevWalk(repository)) {
+      RevCommit start = walk.parseCommit(from);
+      walk.setRevFilter(RevFilter.MERGE_BASE);
+      walk.markStart(start);
+      walk.markStart(walk.parseCommit(other));
+      RevCommit mergeBase = walk.next();
+      walk.reset();
+      walk.setRevFilter(RevFilter.ALL);
+
+      Set<ObjectId> ids = new HashSet<>();
+      for (RevCommit commit : RevWalkUtils.find(walk, start, mergeBase)) {
+        ids.add(commit.copy());
+      }
+      return ids;
+    }
+  }
+
+  /**
+   * Finds the merge bases of two commits by walking the commits.
+   *
+   * @param repository The repository.
+   * @param first      The first commit.
+   * @param second     The second commit.
+   *
+   * @return The ids of the merge bases.
+   *
+   * @throws Exception If it fails.
+   */
+  private static Set<ObjectId> walkMergeBases(Repository repository, ObjectId first, ObjectId second) throws Exception {
+    try (RevWalk walk = new RevWalk(repository)) {
+      walk.setRevFilter(RevFilter.MERGE_BASE);
+      walk.markStart(walk.parseCommit(first));
+      walk.markStart(walk.parseCommit(second));
+      Set<ObjectId> ids = new HashSet<>();
+      for (RevCommit mergeBase = walk.next(); mergeBase != null; mergeBase = walk.next()) {
+        ids.add(mergeBase.copy());
+      }
+      return ids;
+    }
+  }
+}
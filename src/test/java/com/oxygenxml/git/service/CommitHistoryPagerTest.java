@@ -0,0 +1,114 @@
+package com.oxygenxml.git.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import com.oxygenxml.git.view.history.CommitCharacteristics;
+import com.oxygenxml.git.view.history.HistoryStrategy;
+import com.oxygenxml.git.view.history.RenameTracker;
+
+/**
+ * Tests for {@link CommitHistoryPager}.
+ */
+public class CommitHistoryPagerTest extends GitTestBase {
+  /**
+   * The repository.
+   */
+  private static final String REPOSITORY = "target/test-resources/CommitHistoryPagerTest";
+
+  /**
+   * <p><b>Description:</b> the history loaded in pages is the same as the history loaded at once,
+   * including the lanes of the graph.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testPagesMatchFullHistory() throws Exception {
+    createHistoryWithTwoBranches();
+
+    List<CommitCharacteristics> full = GitAccess.getInstance().getCommitsCharacteristics(
+        HistoryStrategy.ALL_LOCAL_BRANCHES, null, new RenameTracker());
+
+    List<CommitCharacteristics> paged = new ArrayList<>();
+    try (CommitHistoryPager pager = GitAccess.getInstance().createHistoryPager(
+        HistoryStrategy.ALL_LOCAL_BRANCHES, null, new RenameTracker())) {
+      List<CommitCharacteristics> page = pager.nextPage(7, -1);
+      assertEquals(7, page.size());
+      assertFalse(pager.isComplete());
+      while (!page.isEmpty()) {
+        paged.addAll(page);
+        page = pager.nextPage(7, -1);
+      }
+      assertTrue(pager.isComplete());
+    }
+
+    assertEquals(dump(full), dump(paged));
+  }
+
+  /**
+   * <p><b>Description:</b> the history can be loaded up to a given commit.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testLoadUntilCommit() throws Exception {
+    List<RevCommit> mainCommits = createHistoryWithTwoBranches();
+    RevCommit target = mainCommits.get(5);
+
+    try (CommitHistoryPager pager = GitAccess.getInstance().createHistoryPager(
+        HistoryStrategy.ALL_LOCAL_BRANCHES, null, new RenameTracker())) {
+      List<CommitCharacteristics> first = pager.nextPage(2, -1);
+      assertEquals(2, first.size());
+
+      List<CommitCharacteristics> untilTarget = pager.nextPageUntil(target, 1000);
+      assertEquals(target.getName(), untilTarget.get(untilTarget.size() - 1).getCommitId());
+      assertFalse(pager.isComplete());
+
+      // The limit is respected.
+      assertEquals(3, pager.nextPageUntil(mainCommits.get(0), 3).size());
+    }
+  }
+
+  /**
+   * Creates two branches with interleaved commits.
+   *
+   * @return The commits from the main branch, from the oldest to the newest.
+   *
+   * @throws Exception If it fails.
+   */
+  private List<RevCommit> createHistoryWithTwoBranches() throws Exception {
+    Repository repository = createRepository(REPOSITORY);
+    List<RevCommit> mainCommits = new ArrayList<>();
+    try (Git git = new Git(repository)) {
+      mainCommits.add(git.commit().setAllowEmpty(true).setMessage("Root").call());
+      git.branchCreate().setName("feature").call();
+      for (int i = 0; i < 15; i++) {
+        git.checkout().setName("feature").call();
+        git.commit().setAllowEmpty(true).setMessage("Feature " + i).call();
+        git.checkout().setName(GitAccess.DEFAULT_BRANCH_NAME).call();
+        mainCommits.add(git.commit().setAllowEmpty(true).setMessage("Main " + i).call());
+      }
+    }
+    return mainCommits;
+  }
+
+  /**
+   * Dumps the commits and their lanes.
+   *
+   * @param commits The commits.
+   *
+   * @return The dump.
+   */
+  private static String dump(List<CommitCharacteristics> commits) {
+    StringBuilder b = new StringBuilder();
+    for (CommitCharacteristics commit : commits) {
+      b.append(commit.getCommitMessage())
+          .append(" lane ")
+          .append(commit.getPlotCommit().getLane().getPosition())
+          .append('\n');
+    }
+    return b.toString();
+  }
+}
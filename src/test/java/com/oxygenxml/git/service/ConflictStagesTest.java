@@ -0,0 +1,78 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Tests for {@link ConflictStages}.
+ */
+public class ConflictStagesTest extends GitTestBase {
+
+  /**
+   * <p><b>Description:</b> the base, mine and theirs versions of the conflicted files are read
+   * from the index and reused until the index changes.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testConflictStages() throws Exception {
+    Repository repository = createRepository("target/test-resources/ConflictStagesTest");
+    File file = new File(repository.getWorkTree(), "a.txt");
+    try (Git git = new Git(repository)) {
+      setFileContent(file, "base");
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("Base").call();
+      String mainBranch = repository.getBranch();
+
+      git.checkout().setCreateBranch(true).setName("other").call();
+      setFileContent(file, "theirs");
+      git.commit().setAll(true).setMessage("Theirs").call();
+
+      git.checkout().setName(mainBranch).call();
+      setFileContent(file, "mine");
+      git.commit().setAll(true).setMessage("Mine").call();
+
+      MergeResult result = git.merge().include(repository.resolve("other")).call();
+      assertEquals(MergeResult.MergeStatus.CONFLICTING, result.getMergeStatus());
+
+      // An index written a while ago can be reused safely.
+      assertTrue(repository.getIndexFile().setLastModified(System.currentTimeMillis() - 10_000));
+
+      ConflictStages stages = ConflictStages.get(repository);
+      assertTrue(stages.isConflicted("a.txt"));
+      assertFalse(stages.isConflicted("b.txt"));
+      assertEquals(Arrays.asList(blobId("base"), blobId("mine"), blobId("theirs")), stages.getStages("a.txt"));
+      assertTrue(stages.getStages("b.txt").isEmpty());
+      assertSame(stages, ConflictStages.get(repository));
+
+      assertEquals(blobId("base"), RevCommitUtil.getBaseCommit(git, "a.txt"));
+      assertEquals(blobId("mine"), RevCommitUtil.getMyCommit(git, "a.txt"));
+      assertEquals(blobId("theirs"), RevCommitUtil.getTheirCommit(git, "a.txt"));
+
+      // Resolving the conflict changes the index.
+      setFileContent(file, "resolved");
+      git.add().addFilepattern("a.txt").call();
+      ConflictStages resolved = ConflictStages.get(repository);
+      assertNotSame(stages, resolved);
+      assertFalse(resolved.isConflicted("a.txt"));
+    }
+  }
+
+  /**
+   * @param content The content of a file.
+   *
+   * @return The id of the blob with that content.
+   */
+  private static ObjectId blobId(String content) {
+    try (ObjectInserter.Formatter formatter = new ObjectInserter.Formatter()) {
+      return formatter.idFor(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import com.oxygenxml.git.service.FileHistoryIndex.PathHistory;
+import com.oxygenxml.git.view.history.CommitCharacteristics;
+import com.oxygenxml.git.view.history.HistoryStrategy;
+import com.oxygenxml.git.view.history.RenameTracker;
+
+/**
+ * Tests for {@link FileHistoryIndex}.
+ */
+public class FileHistoryIndexTest extends GitTestBase {
+  /**
+   * The repository.
+   */
+  private static final String REPOSITORY = "target/test-resources/FileHistoryIndexTest";
+  /**
+   * The content of the followed file. Long enough for the rename detection.
+   */
+  private static final String CONTENT = "The content of the file\nthat is renamed\ntwice.\n";
+
+  /**
+   * The commits created by {@link #createHistoryWithRenames(Repository)}, from the oldest to the newest.
+   */
+  private RevCommit[] commits;
+
+  /**
+   * <p><b>Description:</b> the index records the commits that changed a file and follows its renames.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testPathHistory() throws Exception {
+    Repository repository = createRepositoryWithoutIndex();
+    createHistoryWithRenames(repository);
+
+    FileHistoryIndex index = FileHistoryIndex.load(repository);
+    assertFalse(index.isUpToDate(repository));
+    assertEquals(commits.length, index.update(repository, 100));
+    assertTrue(index.isUpToDate(repository));
+
+    PathHistory history = index.getPathHistory("dir/c.txt");
+    assertEquals(
+        new LinkedHashSet<>(Arrays.asList("dir/c.txt", "b.txt", "a.txt")),
+        history.getPaths());
+    assertTrue(history.isChanged(commits[0], "a.txt"));
+    assertTrue(history.isChanged(commits[1], "b.txt"));
+    assertEquals("a.txt", history.getRenamedFrom(commits[1], "b.txt"));
+    assertTrue(history.isChanged(commits[3], "dir/c.txt"));
+    assertEquals("b.txt", history.getRenamedFrom(commits[3], "dir/c.txt"));
+    assertTrue(history.isChanged(commits[4], "dir/c.txt"));
+    assertNull(history.getRenamedFrom(commits[4], "dir/c.txt"));
+    // The unrelated change.
+    assertFalse(history.isChanged(commits[2], "other.txt"));
+
+    assertEquals("b.txt", index.getRenamedFrom(commits[3], "dir/c.txt"));
+    assertEquals("dir/c.txt", index.getRenamedTo(commits[3], "b.txt"));
+    assertNull(index.getRenamedFrom(commits[4], "dir/c.txt"));
+  }
+
+  /**
+   * <p><b>Description:</b> the index is built in chunks, persisted and brought up to date incrementally.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testIncrementalUpdate() throws Exception {
+    Repository repository = createRepositoryWithoutIndex();
+    createHistoryWithRenames(repository);
+
+    FileHistoryIndex index = FileHistoryIndex.load(repository);
+    assertEquals(2, index.update(repository, 2));
+    // The oldest commits are indexed first.
+    assertTrue(index.isIndexed(commits[0]));
+    assertTrue(index.isIndexed(commits[1]));
+    assertFalse(index.isIndexed(commits[2]));
+    // Continues from where the previous chunk stopped.
+    assertEquals(2, index.update(repository, 2));
+    assertTrue(index.isIndexed(commits[3]));
+    assertFalse(index.isIndexed(commits[4]));
+
+    FileHistoryIndex reloaded = FileHistoryIndex.load(repository);
+    assertEquals(4, reloaded.size());
+    assertEquals(commits.length - 4, reloaded.update(repository, 100));
+    assertEquals(0, reloaded.update(repository, 100));
+
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(repository.getWorkTree(), "dir/c.txt"), CONTENT + "Again.\n");
+      git.add().addFilepattern(".").call();
+      RevCommit last = git.commit().setMessage("Change again").call();
+      assertEquals(1, reloaded.update(repository, 100));
+
+      FileHistoryIndex all = FileHistoryIndex.load(repository);
+      assertEquals(commits.length + 1, all.size());
+      assertTrue(all.getPathHistory("dir/c.txt").isChanged(last, "dir/c.txt"));
+    }
+  }
+
+  /**
+   * <p><b>Description:</b> a merge commit is indexed with the changes compared with its first parent.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testMerge() throws Exception {
+    Repository repository = createRepositoryWithoutIndex();
+    createHistoryWithRenames(repository);
+
+    try (Git git = new Git(repository)) {
+      String mainBranch = repository.getBranch();
+      git.branchCreate().setName("feature").call();
+      git.checkout().setName("feature").call();
+      setFileContent(new File(repository.getWorkTree(), "dir/c.txt"), CONTENT + "On the branch.\n");
+      git.commit().setAll(true).setMessage("Change on the branch").call();
+
+      git.checkout().setName(mainBranch).call();
+      setFileContent(new File(repository.getWorkTree(), "other.txt"), "other changed");
+      git.commit().setAll(true).setMessage("Change on the main branch").call();
+      git.merge().include(repository.resolve("feature")).setMessage("Merge").call();
+      RevCommit merge = repository.parseCommit(repository.resolve(Constants.HEAD));
+      assertEquals(2, merge.getParentCount());
+
+      FileHistoryIndex index = FileHistoryIndex.load(repository);
+      index.update(repository, 100);
+      assertTrue(index.isUpToDate(repository));
+      assertTrue(index.getPathHistory("dir/c.txt").isChanged(merge, "dir/c.txt"));
+      assertFalse(index.getPathHistory("other.txt").isChanged(merge, "other.txt"));
+    }
+  }
+
+  /**
+   * <p><b>Description:</b> an old path of a file is followed only in the commits older than the rename.
+   * The commits of another file that got the old path later are not part of the history.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testReusedPath() throws Exception {
+    Repository repository = createRepositoryWithoutIndex();
+    createHistoryWithRenames(repository);
+
+    RevCommit reused;
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(repository.getWorkTree(), "a.txt"), "Another file with an old name");
+      git.add().addFilepattern(".").call();
+      reused = git.commit().setMessage("Reuse the old name").call();
+    }
+    GitAccess.getInstance().getFileHistoryIndexCache().update();
+
+    RenameTracker renameTracker = new RenameTracker();
+    List<CommitCharacteristics> history = GitAccess.getInstance().getCommitsCharacteristics(
+        HistoryStrategy.CURRENT_BRANCH, "dir/c.txt", renameTracker);
+    List<String> ids = history.stream().map(CommitCharacteristics::getCommitId).collect(Collectors.toList());
+    assertEquals(
+        Arrays.asList(commits[4].name(), commits[3].name(), commits[1].name(), commits[0].name()),
+        ids);
+    assertFalse(ids.contains(reused.name()));
+    assertEquals("a.txt", renameTracker.getPath(commits[0]));
+    assertEquals("b.txt", renameTracker.getPath(commits[1]));
+    assertEquals("dir/c.txt", renameTracker.getPath(commits[3]));
+  }
+
+  /**
+   * <p><b>Description:</b> the renames are resolved from the index.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testFindRenamesFromIndex() throws Exception {
+    Repository repository = createRepositoryWithoutIndex();
+    createHistoryWithRenames(repository);
+
+    GitAccess.getInstance().getFileHistoryIndexCache().update();
+
+    Git git = GitAccess.getInstance().getGit();
+    assertEquals("dir/c.txt", RevCommitUtil.getNewPath(git, commits[0], commits[4], "a.txt"));
+    assertEquals("a.txt", RevCommitUtil.getOldPath(git, commits[0], commits[4], "dir/c.txt"));
+    assertEquals("b.txt", RevCommitUtil.getOldPath(git, commits[1], commits[2], "b.txt"));
+  }
+
+  /**
+   * Creates the test repository and removes the index persisted by {@link FileHistoryIndexCache}
+   * when the repository was loaded.
+   *
+   * @return The repository.
+   *
+   * @throws Exception If it fails.
+   */
+  private Repository createRepositoryWithoutIndex() throws Exception {
+    Repository repository = createRepository(REPOSITORY);
+    waitForScheduler();
+    Files.deleteIfExists(new File(repository.getDirectory(), FileHistoryIndex.FILE_NAME).toPath());
+    return repository;
+  }
+
+  /**
+   * Creates a history in which a file is added, renamed, moved and changed.
+   *
+   * @param repository The repository.
+   *
+   * @throws Exception If it fails.
+   */
+  private void createHistoryWithRenames(Repository repository) throws Exception {
+    File workTree = repository.getWorkTree();
+    commits = new RevCommit[5];
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(workTree, "a.txt"), CONTENT);
+      git.add().addFilepattern(".").call();
+      commits[0] = git.commit().setMessage("Add").call();
+
+      git.rm().addFilepattern("a.txt").call();
+      setFileContent(new File(workTree, "b.txt"), CONTENT);
+      git.add().addFilepattern(".").call();
+      commits[1] = git.commit().setMessage("Rename").call();
+
+      setFileContent(new File(workTree, "other.txt"), "other");
+      git.add().addFilepattern(".").call();
+      commits[2] = git.commit().setMessage("Unrelated").call();
+
+      git.rm().addFilepattern("b.txt").call();
+      new File(workTree, "dir").mkdirs();
+      setFileContent(new File(workTree, "dir/c.txt"), CONTENT);
+      git.add().addFilepattern(".").call();
+      commits[3] = git.commit().setMessage("Move").call();
+
+      setFileContent(new File(workTree, "dir/c.txt"), CONTENT + "Changed.\n");
+      git.add().addFilepattern(".").call();
+      commits[4] = git.commit().setMessage("Change").call();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.oxygenxml.git.service;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/**
+ * Tests for reading the large objects through {@link GitAccess}.
+ */
+public class GitAccessLargeObjectTest extends GitTestBase {
+
+  /**
+   * <p><b>Description:</b> a file of at least {@link GitAccess#LARGE_OBJECT_THRESHOLD} bytes is
+   * streamed instead of being inflated in memory. Finding it in a commit doesn't read it.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testLargeObject() throws Exception {
+    Repository repository = createRepository("target/test-resources/GitAccessLargeObjectTest");
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; content.length() < GitAccess.LARGE_OBJECT_THRESHOLD; i++) {
+      content.append("<row id='").append(i).append("'/>\n");
+    }
+    setFileContent(new File(repository.getWorkTree(), "large.xml"), content.toString());
+    setFileContent(new File(repository.getWorkTree(), "small.xml"), "<small/>");
+    RevCommit commit;
+    try (Git git = new Git(repository)) {
+      git.add().addFilepattern(".").call();
+      commit = git.commit().setMessage("First").call();
+    }
+
+    GitAccess gitAccess = GitAccess.getInstance();
+    ObjectId largeId = gitAccess.getObjectIdFrom(commit, "large.xml");
+    assertEquals(repository.resolve("HEAD:large.xml"), largeId);
+    assertNull(gitAccess.getObjectIdFrom(commit, "missing.xml"));
+    assertNull(gitAccess.getLoaderFrom(commit, "missing.xml"));
+
+    ObjectLoader loader = gitAccess.getLoaderFrom(commit, "large.xml");
+    assertTrue(loader.isLarge());
+    assertFalse(gitAccess.getLoaderFrom(commit, "small.xml").isLarge());
+
+    try (InputStream inputStream = gitAccess.getInputStream(largeId)) {
+      assertTrue(inputStream instanceof BufferedInputStream);
+      assertEquals(content.toString(), IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+    }
+    try (InputStream inputStream = gitAccess.getInputStream(repository.resolve("HEAD:small.xml"))) {
+      assertEquals("<small/>", IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.oxygenxml.git.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.oxygenxml.git.service.GitOperationScheduler.Lane;
+import com.oxygenxml.git.service.GitOperationScheduler.Priority;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the lanes of {@link GitOperationScheduler}.
+ */
+public class GitOperationSchedulerTest extends TestCase {
+  /**
+   * The scheduler.
+   */
+  private final GitOperationScheduler scheduler = GitOperationScheduler.getInstance();
+
+  /**
+   * <p><b>Description:</b> a long task on one lane doesn't delay the tasks of the other lanes.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testLanesAreIndependent() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    ScheduledFuture<?> longRead = scheduler.schedule(Lane.READ, () -> await(release));
+    try {
+      ScheduledFuture<?> write = scheduler.schedule(() -> {});
+      write.get(4, TimeUnit.SECONDS);
+      scheduler.schedule(Lane.BACKGROUND, () -> {}).get(4, TimeUnit.SECONDS);
+      assertFalse(longRead.isDone());
+    } finally {
+      release.countDown();
+    }
+    longRead.get(4, TimeUnit.SECONDS);
+  }
+
+  /**
+   * <p><b>Description:</b> the waiting tasks of a lane are executed by priority, then in the
+   * scheduling order. A cancelled task is removed from the queue.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testPriorityAndCancellation() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    // Keep the single thread of the lane busy.
+    ScheduledFuture<?> blocker = scheduler.schedule(Lane.BACKGROUND, () -> await(release));
+    try {
+      scheduler.schedule(Lane.BACKGROUND, Priority.LOW, () -> executed.add("low"), 0);
+      scheduler.schedule(Lane.BACKGROUND, Priority.NORMAL, () -> executed.add("normal1"), 0);
+      ScheduledFuture<?> cancelled = scheduler.schedule(Lane.BACKGROUND, Priority.HIGH, () -> executed.add("cancelled"), 0);
+      scheduler.schedule(Lane.BACKGROUND, Priority.NORMAL, () -> executed.add("normal2"), 0);
+      scheduler.schedule(Lane.BACKGROUND, Priority.HIGH, () -> executed.add("high"), 0);
+
+      // The blocker might not have been picked up yet.
+      int depth = scheduler.getQueueDepth(Lane.BACKGROUND);
+      assertTrue("Depth: " + depth, depth == 5 || depth == 6);
+
+      assertTrue(cancelled.cancel(false));
+      assertEquals(depth - 1, scheduler.getQueueDepth(Lane.BACKGROUND));
+      assertTrue(scheduler.getMaxQueueDepth(Lane.BACKGROUND) >= depth);
+    } finally {
+      release.countDown();
+    }
+    blocker.get(4, TimeUnit.SECONDS);
+
+    ScheduledFuture<?> last = scheduler.schedule(Lane.BACKGROUND, Priority.LOW, () -> {}, 0);
+    last.get(4, TimeUnit.SECONDS);
+    assertEquals("[high, normal1, normal2, low]", executed.toString());
+  }
+
+  /**
+   * <p><b>Description:</b> a delayed task can be cancelled before its delay expires.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testCancelDelayedTask() throws Exception {
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    ScheduledFuture<?> delayed = scheduler.schedule(Lane.READ, Priority.NORMAL, () -> executed.add("delayed"), 200);
+    assertTrue(delayed.getDelay(TimeUnit.MILLISECONDS) > 0);
+    assertTrue(delayed.cancel(false));
+
+    Thread.sleep(400); // NOSONAR
+    assertTrue(executed.isEmpty());
+  }
+
+  /**
+   * Waits for a latch.
+   *
+   * @param latch The latch.
+   */
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(4, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
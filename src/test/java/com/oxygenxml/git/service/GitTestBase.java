@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -425,6 +426,11 @@ public abstract class GitTestBase extends JFCTestCase { // NOSONAR
         // Execute refresh events immediately from tests.
         return 1;
       }
+      @Override
+      protected int getRemoteSyncInterval() {
+        // Fetch on every refresh from tests.
+        return 0;
+      }
     };
     
     gitInit();
@@ -1066,10 +1072,28 @@ public abstract class GitTestBase extends JFCTestCase { // NOSONAR
       }
     }
     
+    Future<?> sync = refreshSupport.getRemoteSyncForTests();
+    if (sync != null && !sync.isDone()) {
+      try {
+        sync.get(4000, TimeUnit.MILLISECONDS);
+      } catch (ExecutionException | TimeoutException e) {
+        LOGGER.error("The current remote sync didn't finish.");
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    
     try {
     Semaphore s = new Semaphore(0);
     GitOperationScheduler.getInstance().schedule(() -> {s.release();}, 50);
       s.tryAcquire(1, 4000, TimeUnit.MILLISECONDS);
+      
+      // The read-only queries, the background work and the asynchronous listeners run on their own threads.
+      long deadline = System.currentTimeMillis() + 4000;
+      while ((!GitOperationScheduler.getInstance().isIdle() || !GitListeners.getInstance().isIdle())
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10); // NOSONAR
+      }
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       
@@ -0,0 +1,92 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.lib.Repository;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+import com.oxygenxml.git.view.event.FileGitEventInfo;
+import com.oxygenxml.git.view.event.GitEventInfo;
+
+/**
+ * Tests for {@link IndexBatchUpdate}.
+ */
+public class IndexBatchUpdateTest extends GitTestBase {
+  /**
+   * The repository.
+   */
+  private static final String REPOSITORY = "target/test-resources/IndexBatchUpdateTest";
+
+  /**
+   * <p><b>Description:</b> new, modified and missing files are staged together and unstaged together.
+   * Each batch fires a single event with all the paths.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testStageAndUnstage() throws Exception {
+    Repository repository = createRepository(REPOSITORY);
+    File workTree = repository.getWorkTree();
+    setFileContent(new File(workTree, "modified.txt"), "old");
+    setFileContent(new File(workTree, "missing.txt"), "old");
+    setFileContent(new File(workTree, "dir/unchanged.txt"), "old");
+    try (Git git = new Git(repository)) {
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("First").call();
+    }
+
+    setFileContent(new File(workTree, "modified.txt"), "new");
+    setFileContent(new File(workTree, "dir/added.txt"), "new");
+    assertTrue(new File(workTree, "missing.txt").delete());
+
+    List<GitEventInfo> events = new ArrayList<>();
+    GitEventAdapter listener = new GitEventAdapter() {
+      @Override
+      public void operationSuccessfullyEnded(GitEventInfo info) {
+        events.add(info);
+      }
+    };
+    GitListeners.getInstance().addGitListener(listener);
+    try {
+      List<FileStatus> files = Arrays.asList(
+          new FileStatus(GitChangeType.MODIFIED, "modified.txt"),
+          new FileStatus(GitChangeType.UNTRACKED, "dir/added.txt"),
+          new FileStatus(GitChangeType.MISSING, "missing.txt"));
+      GitAccess.getInstance().addAll(files);
+
+      assertEquals(1, events.size());
+      assertEquals(
+          new HashSet<>(Arrays.asList("modified.txt", "dir/added.txt", "missing.txt")),
+          new HashSet<>(((FileGitEventInfo) events.get(0)).getAffectedFilePaths()));
+      assertEquals(
+          new HashSet<>(Arrays.asList(
+              new FileStatus(GitChangeType.CHANGED, "modified.txt"),
+              new FileStatus(GitChangeType.ADD, "dir/added.txt"),
+              new FileStatus(GitChangeType.REMOVED, "missing.txt"))),
+          new HashSet<>(GitAccess.getInstance().getStagedFiles()));
+      DirCache dirCache = repository.readDirCache();
+      assertEquals(3, dirCache.getEntryCount());
+      assertNotNull(dirCache.getEntry("dir/unchanged.txt"));
+
+      events.clear();
+      GitAccess.getInstance().resetAll(files);
+
+      assertEquals(1, events.size());
+      assertTrue(GitAccess.getInstance().getStagedFiles().isEmpty());
+      assertEquals(
+          new HashSet<>(Arrays.asList(
+              new FileStatus(GitChangeType.MODIFIED, "modified.txt"),
+              new FileStatus(GitChangeType.UNTRACKED, "dir/added.txt"),
+              new FileStatus(GitChangeType.MISSING, "missing.txt"))),
+          new HashSet<>(GitAccess.getInstance().getUnstagedFiles()));
+    } finally {
+      GitListeners.getInstance().removeGitListener(listener);
+    }
+  }
+}
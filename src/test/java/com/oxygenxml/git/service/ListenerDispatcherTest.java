@@ -0,0 +1,148 @@
+package com.oxygenxml.git.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oxygenxml.git.view.event.GitEventInfo;
+import com.oxygenxml.git.view.event.GitOperation;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the delivery policies of {@link ListenerDispatcher}.
+ */
+public class ListenerDispatcherTest extends TestCase {
+  /**
+   * The asynchronous deliveries, executed only when the test runs them.
+   */
+  private final List<Runnable> tasks = new ArrayList<>();
+  /**
+   * The operations received by the listener.
+   */
+  private final List<GitOperation> received = new ArrayList<>();
+  /**
+   * Records the received operations.
+   */
+  private final GitEventListener listener = new GitEventAdapter() {
+    @Override
+    public void operationSuccessfullyEnded(GitEventInfo info) {
+      received.add(info.getGitOperation());
+    }
+  };
+
+  /**
+   * <p><b>Description:</b> an asynchronous ordered listener receives all the events, in order,
+   * from a single delivery task.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testAsyncOrdered() throws Exception {
+    ListenerDispatcher dispatcher = new ListenerDispatcher(listener, EventDeliveryPolicy.ASYNC_ORDERED, tasks::add);
+    fire(dispatcher, GitOperation.STAGE);
+    fire(dispatcher, GitOperation.COMMIT);
+    fire(dispatcher, GitOperation.PUSH);
+
+    assertTrue(received.isEmpty());
+    assertEquals(1, tasks.size());
+    assertFalse(dispatcher.isIdle());
+
+    runTasks();
+    assertEquals("[STAGE, COMMIT, PUSH]", received.toString());
+    assertTrue(dispatcher.isIdle());
+    assertEquals(3, dispatcher.getStatistics().getDeliveries());
+  }
+
+  /**
+   * <p><b>Description:</b> a coalesced listener receives only the latest of the events fired
+   * before the delivery.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testCoalesced() throws Exception {
+    ListenerDispatcher dispatcher = new ListenerDispatcher(listener, EventDeliveryPolicy.COALESCED, tasks::add);
+    fire(dispatcher, GitOperation.STAGE);
+    fire(dispatcher, GitOperation.COMMIT);
+    fire(dispatcher, GitOperation.PUSH);
+
+    runTasks();
+    assertEquals("[PUSH]", received.toString());
+    ListenerStatistics statistics = dispatcher.getStatistics();
+    assertEquals(1, statistics.getDeliveries());
+    assertEquals(2, statistics.getCoalesced());
+  }
+
+  /**
+   * <p><b>Description:</b> when the queue of an asynchronous ordered listener is full, the
+   * waiting events and the new one are delivered on the firing thread, in order.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testQueueOverflow() throws Exception {
+    ListenerDispatcher dispatcher = new ListenerDispatcher(listener, EventDeliveryPolicy.ASYNC_ORDERED, tasks::add);
+    for (int i = 0; i < ListenerDispatcher.QUEUE_CAPACITY; i++) {
+      fire(dispatcher, GitOperation.STAGE);
+    }
+    assertTrue(received.isEmpty());
+
+    fire(dispatcher, GitOperation.COMMIT);
+    assertEquals(ListenerDispatcher.QUEUE_CAPACITY + 1, received.size());
+    assertEquals(GitOperation.COMMIT, received.get(ListenerDispatcher.QUEUE_CAPACITY));
+    assertEquals(1, dispatcher.getStatistics().getOverflows());
+
+    // The scheduled task finds nothing left.
+    runTasks();
+    assertEquals(ListenerDispatcher.QUEUE_CAPACITY + 1, received.size());
+    assertTrue(dispatcher.isIdle());
+  }
+
+  /**
+   * <p><b>Description:</b> a synchronous listener is notified on the firing thread and its
+   * exceptions reach the caller. An asynchronous listener's exceptions are only logged.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testExceptions() throws Exception {
+    GitEventListener failing = new GitEventAdapter() {
+      @Override
+      public void operationSuccessfullyEnded(GitEventInfo info) {
+        throw new IllegalStateException("Listener failure");
+      }
+    };
+
+    ListenerDispatcher synchronous = new ListenerDispatcher(failing, EventDeliveryPolicy.SYNCHRONOUS, tasks::add);
+    try {
+      fire(synchronous, GitOperation.COMMIT);
+      fail("The exception should reach the caller");
+    } catch (IllegalStateException e) {
+      assertEquals("Listener failure", e.getMessage());
+    }
+    assertTrue(tasks.isEmpty());
+
+    ListenerDispatcher asynchronous = new ListenerDispatcher(failing, EventDeliveryPolicy.ASYNC_ORDERED, tasks::add);
+    fire(asynchronous, GitOperation.COMMIT);
+    fire(asynchronous, GitOperation.PUSH);
+    runTasks();
+    assertEquals(2, asynchronous.getStatistics().getDeliveries());
+    assertTrue(asynchronous.isIdle());
+  }
+
+  /**
+   * Fires an operation successfully ended event.
+   *
+   * @param dispatcher The dispatcher.
+   * @param operation  The operation.
+   */
+  private static void fire(ListenerDispatcher dispatcher, GitOperation operation) {
+    GitEventInfo info = new GitEventInfo(operation);
+    dispatcher.dispatch(l -> l.operationSuccessfullyEnded(info));
+  }
+
+  /**
+   * Runs the scheduled delivery tasks.
+   */
+  private void runTasks() {
+    while (!tasks.isEmpty()) {
+      tasks.remove(0).run();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.oxygenxml.git.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/**
+ * Tests for {@link RefDecorations}.
+ */
+public class RefDecorationsTest extends GitTestBase {
+  /**
+   * The repository.
+   */
+  private static final String REPOSITORY = "target/test-resources/RefDecorationsTest";
+
+  /**
+   * <p><b>Description:</b> the annotated and lightweight tags and the branches are mapped to the
+   * commits they point to. The decorations are reused until a reference changes.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testDecorations() throws Exception {
+    Repository repository = createRepository(REPOSITORY);
+    try (Git git = new Git(repository)) {
+      RevCommit first = git.commit().setAllowEmpty(true).setMessage("First").call();
+      git.tag().setName("v1").setAnnotated(true).setMessage("Release").call();
+      git.tag().setName("release/light").setAnnotated(false).call();
+      git.branchCreate().setName("feature").call();
+      RevCommit second = git.commit().setAllowEmpty(true).setMessage("Second").call();
+
+      RefDecorations decorations = RefDecorations.compute(repository, RefDecorations.EMPTY);
+      assertEquals(Arrays.asList("light", "v1"), decorations.getTags(first));
+      assertEquals(Collections.singletonList("feature"), decorations.getLocalBranches(first));
+      assertEquals(Collections.singletonList(GitAccess.DEFAULT_BRANCH_NAME), decorations.getLocalBranches(second));
+      assertTrue(decorations.getTags(second).isEmpty());
+      assertTrue(decorations.getRemoteBranches(first).isEmpty());
+
+      assertSame(decorations, RefDecorations.compute(repository, decorations));
+
+      git.tag().setName("v2").setAnnotated(true).setMessage("Release 2").call();
+      RefDecorations changed = RefDecorations.compute(repository, decorations);
+      assertNotSame(decorations, changed);
+      assertEquals(Collections.singletonList("v2"), changed.getTags(second));
+      assertEquals(Arrays.asList("light", "v1"), changed.getTags(first));
+    }
+  }
+}
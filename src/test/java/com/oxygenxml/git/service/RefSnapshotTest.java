@@ -0,0 +1,99 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/**
+ * Tests for {@link RefSnapshot}.
+ */
+public class RefSnapshotTest extends GitTestBase {
+  /**
+   * A modification time old enough for the snapshot to be reused.
+   */
+  private static final long OLD = 1_600_000_000_000L;
+
+  /**
+   * <p><b>Description:</b> the references are indexed by name, prefix and target. The snapshot is
+   * reused while the reference files don't change and its version changes only when a reference
+   * changes.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testSnapshot() throws Exception {
+    Repository repository = createRepository("target/test-resources/RefSnapshotTest");
+    RevCommit commit;
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(repository.getWorkTree(), "a.txt"), "a");
+      git.add().addFilepattern(".").call();
+      commit = git.commit().setMessage("First").call();
+      git.branchCreate().setName("feature").call();
+      git.tag().setName("v1").setAnnotated(false).call();
+
+      RefSnapshot snapshot = RefSnapshot.get(repository);
+      assertNotNull(snapshot.getRef("refs/heads/feature"));
+      assertNull(snapshot.getRef("refs/heads/missing"));
+      assertEquals(2, snapshot.getRefsByPrefix(Constants.R_HEADS).size());
+      assertEquals("[refs/tags/v1]", names(snapshot.getRefsByPrefix(Constants.R_TAGS)));
+      assertTrue(names(snapshot.getRefsByTarget(commit)).contains("refs/heads/feature"));
+      assertTrue(names(snapshot.getRefsByTarget(commit)).contains("refs/tags/v1"));
+
+      // Recently modified files are checked again, but the version doesn't change.
+      assertEquals(snapshot.getVersion(), RefSnapshot.get(repository).getVersion());
+
+      makeOld(repository.getDirectory());
+      RefSnapshot reused = RefSnapshot.get(repository);
+      assertSame(reused, RefSnapshot.get(repository));
+      assertEquals(snapshot.getVersion(), reused.getVersion());
+
+      git.branchCreate().setName("other").call();
+      RefSnapshot changed = RefSnapshot.get(repository);
+      assertEquals(snapshot.getVersion() + 1, changed.getVersion());
+      assertNotNull(changed.getRef("refs/heads/other"));
+    }
+  }
+
+  /**
+   * @param refs References.
+   *
+   * @return The names of the references.
+   */
+  private static String names(List<Ref> refs) {
+    return refs.stream().map(Ref::getName).collect(Collectors.toList()).toString();
+  }
+
+  /**
+   * Sets an old modification time to the files describing the references.
+   *
+   * @param gitDir The Git directory.
+   */
+  private static void makeOld(File gitDir) {
+    assertTrue(new File(gitDir, Constants.HEAD).setLastModified(OLD));
+    File packedRefs = new File(gitDir, Constants.PACKED_REFS);
+    if (packedRefs.exists()) {
+      assertTrue(packedRefs.setLastModified(OLD));
+    }
+    makeDirectoriesOld(new File(gitDir, Constants.R_REFS));
+  }
+
+  /**
+   * Sets an old modification time to a directory and its subdirectories.
+   *
+   * @param directory The directory.
+   */
+  private static void makeDirectoriesOld(File directory) {
+    assertTrue(directory.setLastModified(OLD));
+    File[] children = directory.listFiles(File::isDirectory);
+    if (children != null) {
+      for (File child : children) {
+        makeDirectoriesOld(child);
+      }
+    }
+  }
+}
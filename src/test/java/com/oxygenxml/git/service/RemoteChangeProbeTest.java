@@ -0,0 +1,44 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Tests for {@link RemoteChangeProbe}.
+ */
+public class RemoteChangeProbeTest extends GitTestBase {
+
+  /**
+   * <p><b>Description:</b> the upstream branch is compared with the remote-tracking branch
+   * without fetching and the advertised branches are reused for a while.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testProbe() throws Exception {
+    Repository remoteRepository = createRepository("target/test-resources/RemoteChangeProbeTest/remote");
+    Repository localRepository = createRepository("target/test-resources/RemoteChangeProbeTest/local");
+    bindLocalToRemote(localRepository, remoteRepository);
+
+    try (Git remote = new Git(remoteRepository); Git local = new Git(localRepository)) {
+      setFileContent(new File(remoteRepository.getWorkTree(), "a.txt"), "first");
+      remote.add().addFilepattern(".").call();
+      remote.commit().setMessage("First").call();
+
+      RemoteChangeProbe probe = new RemoteChangeProbe(RemoteChangeProbe.DEFAULT_TTL);
+      // Nothing fetched yet.
+      assertTrue(probe.isUpstreamChanged(localRepository));
+
+      local.fetch().setRemote("origin").call();
+      assertFalse(probe.isUpstreamChanged(localRepository));
+
+      setFileContent(new File(remoteRepository.getWorkTree(), "a.txt"), "second");
+      remote.commit().setAll(true).setMessage("Second").call();
+      // The advertised branches are reused.
+      assertFalse(probe.isUpstreamChanged(localRepository));
+      // Listed again.
+      assertTrue(new RemoteChangeProbe(0).isUpstreamChanged(localRepository));
+    }
+  }
+}
@@ -15,6 +15,9 @@ import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.junit.Test;
 
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+
 /**
  * Utility methods Test case.
  */
@@ -78,4 +81,78 @@ public class RevCommitUtilTest extends GitTestBase {
     sort = RevCommitUtil.sort(new2old, "C", true);
     assertEquals("[C, B, A]", sort.toString());
   }
+  
+  /**
+   * <p><b>Description:</b> for a commit with many added files, the modified files are reported
+   * before the whole list is computed.</p>
+   * 
+   * @throws Exception If it fails.
+   */
+  @Test
+  public void testPartialChangedFiles() throws Exception {
+    Repository repository = createRepository("target/test-resources/RevCommitUtilTest_testPartialChangedFiles");
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(repository.getWorkTree(), "a.txt"), "first");
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("First").call();
+      
+      setFileContent(new File(repository.getWorkTree(), "a.txt"), "second");
+      assertTrue(new File(repository.getWorkTree(), "added").mkdirs());
+      for (int i = 0; i < 1000; i++) {
+        setFileContent(new File(repository.getWorkTree(), "added/" + i + ".txt"), "content " + i);
+      }
+      git.add().addFilepattern(".").call();
+      RevCommit commit = git.commit().setMessage("Second").call();
+      
+      List<List<FileStatus>> partialResults = new ArrayList<>();
+      List<FileStatus> files = RevCommitUtil.getChangedFiles(commit.getName(), partialResults::add);
+      
+      assertEquals(1, partialResults.size());
+      assertEquals("[(changeType=CHANGED, fileLocation=a.txt)]", partialResults.get(0).toString());
+      assertEquals(1001, files.size());
+      assertEquals(1000, files.stream().filter(file -> file.getChangeType() == GitChangeType.ADD).count());
+      
+      // From the cache, at once.
+      partialResults.clear();
+      assertEquals(1001, RevCommitUtil.getChangedFiles(commit.getName(), partialResults::add).size());
+      assertTrue(partialResults.isEmpty());
+    }
+  }
+  
+  /**
+   * <p><b>Description:</b> for a commit with many modified files, the modified files are reported 
+   * in batches while the trees are compared.</p>
+   * 
+   * @throws Exception If it fails.
+   */
+  @Test
+  public void testPartialChangedFilesInBatches() throws Exception {
+    Repository repository = createRepository("target/test-resources/RevCommitUtilTest_testPartialChangedFilesInBatches");
+    try (Git git = new Git(repository)) {
+      int batchSize = 500;
+      int count = batchSize * 2 + 1;
+      assertTrue(new File(repository.getWorkTree(), "modified").mkdirs());
+      for (int i = 0; i < count; i++) {
+        setFileContent(new File(repository.getWorkTree(), "modified/" + i + ".txt"), "first " + i);
+      }
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("First").call();
+      
+      for (int i = 0; i < count; i++) {
+        setFileContent(new File(repository.getWorkTree(), "modified/" + i + ".txt"), "second " + i);
+      }
+      git.add().addFilepattern(".").call();
+      RevCommit commit = git.commit().setMessage("Second").call();
+      
+      List<List<FileStatus>> partialResults = new ArrayList<>();
+      List<FileStatus> files = RevCommitUtil.getChangedFiles(commit.getName(), partialResults::add);
+      
+      assertEquals(2, partialResults.size());
+      assertEquals(batchSize, partialResults.get(0).size());
+      assertEquals(batchSize * 2, partialResults.get(1).size());
+      assertTrue(files.containsAll(partialResults.get(1)));
+      assertEquals(count, files.size());
+      assertEquals(count, files.stream().filter(file -> file.getChangeType() == GitChangeType.CHANGED).count());
+    }
+  }
 }
@@ -1,5 +1,6 @@
 package com.oxygenxml.git.service;
 
+import java.io.File;
 import java.net.URL;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -8,11 +9,18 @@ import java.util.List;
 
 import javax.swing.JFrame;
 
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import com.oxygenxml.git.OxygenGitPluginExtension;
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
 import com.oxygenxml.git.view.event.GitEventInfo;
 import com.oxygenxml.git.view.event.GitOperation;
 
@@ -179,6 +187,164 @@ public class StatusCacheTest extends GitTestBase {
     assertFalse("The saved file is from the repo. The status is recomputed.", status == newstatus);
   }
 
+  /**
+   * <p><b>Description:</b> a changed resource is recomputed and patched into the cached status,
+   * without dropping the status of the other resources.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testIncrementalUpdate() throws Exception {
+    commitOneFile(REPOSITORY_PATH, "a.txt", "a");
+    commitOneFile(REPOSITORY_PATH, "b.txt", "b");
+    
+    StatusCache statusCache = GitAccess.getInstance().getStatusCache();
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "a.txt"), "a changed", "UTF-8");
+    statusCache.resetCache();
+    GitStatus status = statusCache.getStatus();
+    assertEquals("[(changeType=MODIFIED, fileLocation=a.txt)]", status.getUnstagedFiles().toString());
+    assertTrue(status.hasUncommittedChanges());
+    
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "b.txt"), "b changed", "UTF-8");
+    new File(REPOSITORY_PATH, "dir").mkdir();
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "dir/c.txt"), "c", "UTF-8");
+    statusCache.markDirty("b.txt");
+    statusCache.markDirty("dir");
+    
+    GitStatus newStatus = statusCache.getStatus();
+    assertNotSame(status, newStatus);
+    assertEquals(3, newStatus.getUnstagedFiles().size());
+    assertTrue(newStatus.getUnstagedFiles().contains(new FileStatus(GitChangeType.MODIFIED, "a.txt")));
+    assertTrue(newStatus.getUnstagedFiles().contains(new FileStatus(GitChangeType.MODIFIED, "b.txt")));
+    assertTrue(newStatus.getUnstagedFiles().contains(new FileStatus(GitChangeType.UNTRACKED, "dir/c.txt")));
+    
+    // Revert the changes.
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "a.txt"), "a" + System.lineSeparator(), "UTF-8");
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "b.txt"), "b" + System.lineSeparator(), "UTF-8");
+    FileUtils.deleteDirectory(new File(REPOSITORY_PATH, "dir"));
+    statusCache.markDirty("a.txt");
+    statusCache.markDirty("b.txt");
+    statusCache.markDirty("dir");
+    
+    newStatus = statusCache.getStatus();
+    assertTrue(newStatus.getUnstagedFiles().isEmpty());
+    assertFalse(newStatus.hasUncommittedChanges());
+  }
+  
+  /**
+   * <p><b>Description:</b> a changed submodule is presented once after a file is saved and patched
+   * into the cached status. The submodules are not checked again for a path that doesn't cover them.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testIncrementalUpdateWithChangedSubmodule() throws Exception {
+    Repository subRepository = createRepository("target/test-resources/StatusCacheTest-sub");
+    RevCommit first;
+    try (Git sub = new Git(subRepository)) {
+      setFileContent(new File(subRepository.getWorkTree(), "s.txt"), "first");
+      sub.add().addFilepattern(".").call();
+      first = sub.commit().setMessage("First").call();
+      setFileContent(new File(subRepository.getWorkTree(), "s.txt"), "second");
+      sub.add().addFilepattern(".").call();
+      sub.commit().setMessage("Second").call();
+    }
+    
+    Repository repository = createRepository(REPOSITORY_PATH);
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(repository.getWorkTree(), "a.txt"), "a");
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("Main").call();
+      git.submoduleAdd()
+          .setURI(subRepository.getDirectory().toURI().toString())
+          .setPath("sub")
+          .call()
+          .close();
+      git.commit().setMessage("Add submodule").call();
+    }
+    // Check out another commit in the submodule.
+    try (Repository submodule = SubmoduleWalk.getSubmoduleRepository(repository, "sub");
+        Git sub = new Git(submodule)) {
+      sub.checkout().setName(first.getName()).call();
+    }
+    
+    StatusCache statusCache = GitAccess.getInstance().getStatusCache();
+    statusCache.resetCache();
+    FileStatus submoduleStatus = new FileStatus(GitChangeType.SUBMODULE, "sub");
+    assertEquals(Arrays.asList(submoduleStatus), statusCache.getStatus().getUnstagedFiles());
+    
+    // A file is saved.
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "a.txt"), "a changed", "UTF-8");
+    statusCache.markDirty("a.txt");
+    assertEquals(
+        Arrays.asList(submoduleStatus, new FileStatus(GitChangeType.MODIFIED, "a.txt")), 
+        statusCache.getStatus().getUnstagedFiles());
+    
+    // The submodule itself is recomputed.
+    statusCache.markDirty("sub");
+    assertEquals(
+        Arrays.asList(new FileStatus(GitChangeType.MODIFIED, "a.txt"), submoduleStatus), 
+        statusCache.getStatus().getUnstagedFiles());
+  }
+  
+  /**
+   * <p><b>Description:</b> the file system watcher detects changes made outside the application.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testWatcherDetectsExternalChanges() throws Exception {
+    commitOneFile(REPOSITORY_PATH, "a.txt", "a");
+    
+    StatusCache statusCache = GitAccess.getInstance().getStatusCache();
+    assertTrue(statusCache.getStatus().getUnstagedFiles().isEmpty());
+    
+    File file = new File(REPOSITORY_PATH, "external.txt");
+    FileStatus expected = new FileStatus(GitChangeType.UNTRACKED, "external.txt");
+    boolean detected = false;
+    for (int i = 0; i < 50 && !detected; i++) {
+      // The watcher registers the directories asynchronously. Touch the file until an event is received.
+      FileUtils.writeStringToFile(file, "content " + i, "UTF-8");
+      sleep(100);
+      detected = statusCache.getStatus().getUnstagedFiles().contains(expected);
+    }
+    
+    assertTrue("The new file should have been detected", detected);
+  }
+  
+  /**
+   * <p><b>Description:</b> a change in <code>.git/info/exclude</code> is detected by the file system
+   * watcher and the directories that are no longer ignored start being watched.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testWatcherDetectsExcludeChanges() throws Exception {
+    commitOneFile(REPOSITORY_PATH, "a.txt", "a");
+    File exclude = new File(REPOSITORY_PATH, ".git/info/exclude");
+    FileUtils.writeStringToFile(exclude, "out/\n", "UTF-8");
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "out/first.txt"), "first", "UTF-8");
+    
+    StatusCache statusCache = GitAccess.getInstance().getStatusCache();
+    assertTrue(statusCache.getStatus().getUnstagedFiles().isEmpty());
+    
+    FileStatus first = new FileStatus(GitChangeType.UNTRACKED, "out/first.txt");
+    boolean detected = false;
+    for (int i = 0; i < 50 && !detected; i++) {
+      // The watcher registers the directories asynchronously. Touch the file until an event is received.
+      FileUtils.writeStringToFile(exclude, "# " + i + "\n", "UTF-8");
+      sleep(100);
+      detected = statusCache.getStatus().getUnstagedFiles().contains(first);
+    }
+    assertTrue("The exclude change should have been detected", detected);
+    
+    // The directory is no longer ignored so it is watched.
+    FileUtils.writeStringToFile(new File(REPOSITORY_PATH, "out/second.txt"), "second", "UTF-8");
+    FileStatus second = new FileStatus(GitChangeType.UNTRACKED, "out/second.txt");
+    detected = false;
+    for (int i = 0; i < 50 && !detected; i++) {
+      sleep(100);
+      detected = statusCache.getStatus().getUnstagedFiles().contains(second);
+    }
+    assertTrue("The new file from the directory should have been detected", detected);
+  }
+
   /**
    * Installs a editor mock for the URL and intercepts added editor listeners.
    * 
@@ -0,0 +1,69 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+
+/**
+ * Tests for {@link SubmoduleStatusCache}.
+ */
+public class SubmoduleStatusCacheTest extends GitTestBase {
+
+  /**
+   * <p><b>Description:</b> a submodule with another commit checked out than the recorded one is
+   * presented as unstaged. The check is reused while the submodule doesn't change.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testChangedSubmodule() throws Exception {
+    Repository subRepository = createRepository("target/test-resources/SubmoduleStatusCacheTest-sub");
+    RevCommit first;
+    try (Git sub = new Git(subRepository)) {
+      setFileContent(new File(subRepository.getWorkTree(), "a.txt"), "first");
+      sub.add().addFilepattern(".").call();
+      first = sub.commit().setMessage("First").call();
+      setFileContent(new File(subRepository.getWorkTree(), "a.txt"), "second");
+      sub.add().addFilepattern(".").call();
+      sub.commit().setMessage("Second").call();
+    }
+
+    Repository repository = createRepository("target/test-resources/SubmoduleStatusCacheTest");
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(repository.getWorkTree(), "main.txt"), "main");
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("Main").call();
+      git.submoduleAdd()
+          .setURI(subRepository.getDirectory().toURI().toString())
+          .setPath("modules/sub")
+          .call()
+          .close();
+      git.commit().setMessage("Add submodule").call();
+    }
+
+    GitAccess gitAccess = GitAccess.getInstance();
+    assertTrue(gitAccess.getSubmoduleAccess().getSubmodules().contains("modules/sub"));
+    assertTrue(gitAccess.getUnstagedFiles().isEmpty());
+
+    // Check out another commit in the submodule.
+    try (Repository submodule = SubmoduleWalk.getSubmoduleRepository(repository, "modules/sub");
+        Git sub = new Git(submodule)) {
+      sub.checkout().setName(first.getName()).call();
+    }
+
+    List<FileStatus> unstaged = gitAccess.getUnstagedFiles();
+    assertEquals(1, unstaged.size());
+    FileStatus submoduleStatus = unstaged.get(0);
+    assertEquals(new FileStatus(GitChangeType.SUBMODULE, "modules/sub"), submoduleStatus);
+    assertNotNull(submoduleStatus.getDescription());
+
+    // Nothing changed, so the previous check is reused.
+    assertSame(submoduleStatus, gitAccess.getUnstagedFiles().get(0));
+  }
+}
@@ -0,0 +1,97 @@
+package com.oxygenxml.git.service;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+
+/**
+ * Tests for {@link UntrackedDirectoryCache}.
+ */
+public class UntrackedDirectoryCacheTest extends GitTestBase {
+  /**
+   * A modification time old enough for the directories to be cached.
+   */
+  private static final long OLD = 1_600_000_000_000L;
+
+  /**
+   * <p><b>Description:</b> an unchanged untracked directory is not walked again. A new file in it,
+   * a changed <code>.gitignore</code> or a staged file from it bring it up to date.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testUntrackedDirectories() throws Exception {
+    Repository repository = createRepository("target/test-resources/UntrackedDirectoryCacheTest");
+    File workTree = repository.getWorkTree();
+    setFileContent(new File(workTree, ".gitignore"), "*.log\n");
+    try (Git git = new Git(repository)) {
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("First").call();
+    }
+    setFileContent(new File(workTree, "temp/a.txt"), "a");
+    setFileContent(new File(workTree, "temp/sub/b.txt"), "b");
+    setFileContent(new File(workTree, "temp/sub/c.log"), "c");
+    makeOld(workTree, "temp", "temp/sub", ".gitignore");
+
+    GitStatusCommand statusCommand = new GitStatusCommand(() -> GitAccess.getInstance().getGit());
+    assertUntracked(statusCommand, "temp/a.txt", "temp/sub/b.txt");
+    assertTrue(new File(repository.getDirectory(), UntrackedDirectoryCache.FILE_NAME).isFile());
+
+    // The directory is not walked, so a file added without changing its modification time is not seen.
+    setFileContent(new File(workTree, "temp/hidden.txt"), "h");
+    makeOld(workTree, "temp");
+    assertUntracked(statusCommand, "temp/a.txt", "temp/sub/b.txt");
+
+    // A new file changes the modification time of the directory.
+    setFileContent(new File(workTree, "temp/sub/d.txt"), "d");
+    assertUntracked(statusCommand, "temp/a.txt", "temp/sub/b.txt", "temp/sub/d.txt", "temp/hidden.txt");
+
+    // Other ignore rules.
+    makeOld(workTree, "temp/sub");
+    statusCommand.getStatus();
+    setFileContent(new File(workTree, ".gitignore"), "*.log\n*.txt\n");
+    assertUntracked(statusCommand);
+
+    // A staged file.
+    setFileContent(new File(workTree, ".gitignore"), "*.log\n");
+    makeOld(workTree, ".gitignore");
+    statusCommand.getStatus();
+    GitAccess.getInstance().add(new FileStatus(GitChangeType.UNTRACKED, "temp/a.txt"));
+    assertUntracked(statusCommand, "temp/sub/b.txt", "temp/sub/d.txt", "temp/hidden.txt");
+  }
+
+  /**
+   * Sets an old modification time.
+   *
+   * @param workTree The work tree.
+   * @param paths    The files, relative to the work tree.
+   */
+  private static void makeOld(File workTree, String... paths) {
+    for (String path : paths) {
+      assertTrue(new File(workTree, path).setLastModified(OLD));
+    }
+  }
+
+  /**
+   * Checks the untracked files.
+   *
+   * @param statusCommand The status command.
+   * @param expected      The expected untracked files.
+   */
+  private static void assertUntracked(GitStatusCommand statusCommand, String... expected) {
+    List<FileStatus> unstaged = statusCommand.getStatus().getUnstagedFiles();
+    HashSet<String> untracked = new HashSet<>();
+    for (FileStatus fileStatus : unstaged) {
+      if (fileStatus.getChangeType() == GitChangeType.UNTRACKED) {
+        untracked.add(fileStatus.getFileLocation());
+      }
+    }
+    assertEquals(new HashSet<>(Arrays.asList(expected)), untracked);
+  }
+}
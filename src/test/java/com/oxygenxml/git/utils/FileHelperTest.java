@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -89,6 +91,50 @@ public class FileHelperTest extends TestCase {
 		assertFalse(FileUtil.containsConflictMarkers(files, workingCopy));
 	}
 
+	/**
+	 * <p><b>Description:</b> the conflict markers are found only at the start of a line and
+	 * only as Git writes them, also when split between two reads, in UTF-16 files and in files
+	 * from subdirectories. The underlines of the headings are not markers.</p>
+	 *
+	 * @throws IOException If it fails.
+	 */
+	public void testConflictMarkersScanner() throws IOException {
+	  File workingCopy = new File(LOCAL_TEST_REPOSITPRY);
+	  File file = new File(workingCopy, "dir/file.txt");
+	  FileStatus fileStatus = new FileStatus(GitChangeType.CONFLICT, "dir/file.txt");
+	  
+	  FileUtils.write(file, "a\n>>>>>>> theirs\n", StandardCharsets.UTF_8);
+	  assertTrue(FileUtil.containsConflictMarkers(Collections.singletonList(fileStatus), workingCopy));
+	  
+	  FileUtils.write(file, "a <<<<<<< b\n======\n>>>>>>\n", StandardCharsets.UTF_8);
+	  assertFalse(ConflictMarkerScanner.containsConflictMarkers(file));
+	  
+	  // Markdown and reStructuredText headings.
+	  FileUtils.write(file, "Title\n========\n\nSection\n=======x\n>>>>>>>>\n", StandardCharsets.UTF_8);
+	  assertFalse(ConflictMarkerScanner.containsConflictMarkers(file));
+	  FileUtils.write(file, "Title\n======= \n", StandardCharsets.UTF_8);
+	  assertFalse(ConflictMarkerScanner.containsConflictMarkers(file));
+	  
+	  FileUtils.write(file, "a\n<<<<<<<\n", StandardCharsets.UTF_8);
+	  assertTrue(ConflictMarkerScanner.containsConflictMarkers(file));
+	  // At the end of the file.
+	  FileUtils.write(file, "a\n=======", StandardCharsets.UTF_8);
+	  assertTrue(ConflictMarkerScanner.containsConflictMarkers(file));
+	  FileUtils.write(file, "a\n>>>>>>> theirs", StandardCharsets.UTF_8);
+	  assertTrue(ConflictMarkerScanner.containsConflictMarkers(file));
+	  
+	  StringBuilder content = new StringBuilder();
+	  while (content.length() < ConflictMarkerScanner.BUFFER_SIZE - 4) {
+	    content.append('x');
+	  }
+	  content.append("\r\n=======\r\n");
+	  FileUtils.write(file, content, StandardCharsets.UTF_8);
+	  assertTrue(ConflictMarkerScanner.containsConflictMarkers(file));
+	  
+	  FileUtils.write(file, "a\r\n<<<<<<< HEAD\r\n", StandardCharsets.UTF_16);
+	  assertTrue(ConflictMarkerScanner.containsConflictMarkers(file));
+	}
+
 	public void testIsNotGitRepositoery() throws IOException{
 		File file = new File(LOCAL_TEST_REPOSITPRY);
 		
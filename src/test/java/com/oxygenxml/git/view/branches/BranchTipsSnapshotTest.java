@@ -0,0 +1,58 @@
+package com.oxygenxml.git.view.branches;
+
+import java.io.File;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+
+import com.oxygenxml.git.service.GitTestBase;
+import com.oxygenxml.git.view.branches.BranchTipsSnapshot.BranchTip;
+
+/**
+ * Tests for {@link BranchTipsSnapshot}.
+ */
+public class BranchTipsSnapshotTest extends GitTestBase {
+
+  /**
+   * <p><b>Description:</b> the tips are read again only for the branches that changed and the
+   * version changes only when a branch changes.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testIncrementalLoad() throws Exception {
+    Repository repository = createRepository("target/test-resources/BranchTipsSnapshotTest");
+    try (Git git = new Git(repository)) {
+      setFileContent(new File(repository.getWorkTree(), "a.txt"), "first");
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("First").setAuthor("First Author", "first@example.com").call();
+      git.branchCreate().setName("feature").call();
+
+      BranchTipsSnapshot snapshot = BranchTipsSnapshot.load(repository, BranchTipsSnapshot.EMPTY);
+      assertEquals(1, snapshot.getVersion());
+      BranchTip featureTip = snapshot.getTip("refs/heads/feature");
+      assertEquals("First Author", featureTip.getAuthor().getName());
+      assertNull(featureTip.getUpstreamBranch());
+      assertNull(snapshot.getTip("refs/heads/missing"));
+
+      // Nothing changed.
+      assertSame(snapshot, BranchTipsSnapshot.load(repository, snapshot));
+
+      // A new commit on the current branch.
+      setFileContent(new File(repository.getWorkTree(), "a.txt"), "second");
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("Second").setAuthor("Second Author", "second@example.com").call();
+      String currentBranch = repository.getFullBranch();
+
+      BranchTipsSnapshot next = BranchTipsSnapshot.load(repository, snapshot);
+      assertEquals(2, next.getVersion());
+      assertEquals("Second Author", next.getTip(currentBranch).getAuthor().getName());
+      assertSame(featureTip, next.getTip("refs/heads/feature"));
+
+      // A removed branch.
+      git.branchDelete().setBranchNames("feature").call();
+      BranchTipsSnapshot afterDelete = BranchTipsSnapshot.load(repository, next);
+      assertEquals(3, afterDelete.getVersion());
+      assertNull(afterDelete.getTip("refs/heads/feature"));
+    }
+  }
+}
@@ -152,7 +152,8 @@ public class HistoryPanelQuickSearchTest extends HistoryPanelTestBase {
       HistoryCommitTableModel model = (HistoryCommitTableModel) historyTable.getModel();
       model.filterChanged("alex rename");
       historyTable.setRowSelectionInterval(0, 0);
-      sleep(300);
+      waitForScheduler();
+      flushAWT();
       
       JTable affectedFiles = historyPanel.getAffectedFilesTable();
       CommitCharacteristics commitDetails = ((HistoryCommitTableModel)historyTable.getModel()).getAllCommits().get(0);
@@ -110,6 +110,8 @@ public abstract class HistoryPanelTestBase extends GitTestBase { // NOSONAR squi
     } finally {
       affectedTable.getModel().removeTableModelListener(l);
     }
+    // The changed files are computed on the scheduler and presented on AWT.
+    waitForScheduler();
     flushAWT();
     CommitCharacteristics selectedObject = (CommitCharacteristics) model.getValueAt(historyTable.getSelectedRow(), 1);
     assertEquals(replaceDate(expected), toString(selectedObject));
@@ -0,0 +1,120 @@
+package com.oxygenxml.git.view.refresh;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oxygenxml.git.service.GitListeners;
+import com.oxygenxml.git.utils.RepositoryStatusInfo;
+import com.oxygenxml.git.utils.RepositoryStatusInfo.RepositoryStatus;
+import com.oxygenxml.git.view.event.GitOperation;
+import com.oxygenxml.git.view.event.WorkingCopyGitEventInfo;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link RemoteSyncScheduler}.
+ */
+public class RemoteSyncSchedulerTest extends TestCase {
+
+  /**
+   * <p><b>Description:</b> a sync request received while a fetch is in progress doesn't start
+   * another fetch.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testInFlightRequestsAreDeduplicated() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    RemoteSyncScheduler scheduler = new RemoteSyncScheduler(
+        () -> {
+          fetches.incrementAndGet();
+          try {
+            release.await(4, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return new RepositoryStatusInfo(RepositoryStatus.AVAILABLE);
+        },
+        (status, changed) -> {},
+        0);
+    try {
+      Future<?> first = scheduler.requestSync();
+      Future<?> second = scheduler.requestSync();
+      assertSame(first, second);
+
+      release.countDown();
+      first.get(4, TimeUnit.SECONDS);
+      assertEquals(1, fetches.get());
+
+      // Nothing in progress and no interval. A new fetch is started.
+      scheduler.requestSync().get(4, TimeUnit.SECONDS);
+      assertEquals(2, fetches.get());
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  /**
+   * <p><b>Description:</b> after a failed fetch, no other fetch is attempted until the
+   * back-off interval elapses.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testBackOffWhenUnavailable() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    RemoteSyncScheduler scheduler = new RemoteSyncScheduler(
+        () -> {
+          fetches.incrementAndGet();
+          return new RepositoryStatusInfo(RepositoryStatus.UNAVAILABLE, "Cannot connect");
+        },
+        (status, changed) -> {},
+        60 * 1000);
+    try {
+      scheduler.requestSync().get(4, TimeUnit.SECONDS);
+      assertEquals(RepositoryStatus.UNAVAILABLE, scheduler.getLastStatusInfo().getRepoStatus());
+
+      scheduler.requestSync();
+      scheduler.requestSync();
+      assertEquals(1, fetches.get());
+
+      // For example, a different repository was opened.
+      scheduler.reset();
+      assertEquals(RepositoryStatus.AVAILABLE, scheduler.getLastStatusInfo().getRepoStatus());
+      scheduler.requestSync().get(4, TimeUnit.SECONDS);
+      assertEquals(2, fetches.get());
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  /**
+   * <p><b>Description:</b> the scheduler stops listening for repository changes and
+   * ignores the sync requests after shutdown.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testShutdown() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    RemoteSyncScheduler scheduler = new RemoteSyncScheduler(
+        () -> {
+          fetches.incrementAndGet();
+          return new RepositoryStatusInfo(RepositoryStatus.UNAVAILABLE, "Cannot connect");
+        },
+        (status, changed) -> {},
+        60 * 1000);
+    scheduler.requestSync().get(4, TimeUnit.SECONDS);
+    assertEquals(RepositoryStatus.UNAVAILABLE, scheduler.getLastStatusInfo().getRepoStatus());
+
+    scheduler.shutdown();
+    // A different repository is opened. The state is no longer reset.
+    GitListeners.getInstance().fireOperationSuccessfullyEnded(
+        new WorkingCopyGitEventInfo(GitOperation.OPEN_WORKING_COPY, new File(".")));
+    assertEquals(RepositoryStatus.UNAVAILABLE, scheduler.getLastStatusInfo().getRepoStatus());
+
+    scheduler.requestSync();
+    assertEquals(1, fetches.get());
+  }
+}
@@ -0,0 +1,42 @@
+package com.oxygenxml.git.view.staging;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link FileStatusDelta}.
+ */
+public class FileStatusDeltaTest extends TestCase {
+
+  /**
+   * <p><b>Description:</b> the files are matched by path. New paths are added, missing paths are
+   * removed and the paths with another change type are changed.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testCompute() throws Exception {
+    FileStatusDelta delta = FileStatusDelta.compute(
+        Arrays.asList(
+            new FileStatus(GitChangeType.MODIFIED, "same.txt"),
+            new FileStatus(GitChangeType.UNTRACKED, "changed.txt"),
+            new FileStatus(GitChangeType.MISSING, "removed.txt")),
+        Arrays.asList(
+            new FileStatus(GitChangeType.UNTRACKED, "added.txt"),
+            new FileStatus(GitChangeType.MODIFIED, "changed.txt"),
+            new FileStatus(GitChangeType.MODIFIED, "same.txt")));
+
+    assertEquals("[(changeType=UNTRACKED, fileLocation=added.txt)]", delta.getAdded().toString());
+    assertEquals("[(changeType=MISSING, fileLocation=removed.txt)]", delta.getRemoved().toString());
+    assertEquals("[(changeType=MODIFIED, fileLocation=changed.txt)]", delta.getChanged().toString());
+    assertFalse(delta.isEmpty());
+
+    assertTrue(FileStatusDelta.compute(
+        Collections.singletonList(new FileStatus(GitChangeType.MODIFIED, "same.txt")),
+        Collections.singletonList(new FileStatus(GitChangeType.MODIFIED, "same.txt"))).isEmpty());
+  }
+}
@@ -0,0 +1,85 @@
+package com.oxygenxml.git.view.staging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+
+import com.oxygenxml.git.service.entities.FileStatus;
+import com.oxygenxml.git.service.entities.GitChangeType;
+import com.oxygenxml.git.view.GitTreeNode;
+import com.oxygenxml.git.view.event.FileGitEventInfo;
+import com.oxygenxml.git.view.event.GitOperation;
+import com.oxygenxml.git.view.util.TreeUtil;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link StagingResourcesTreeModel}.
+ */
+public class StagingResourcesTreeModelTest extends TestCase {
+
+  /**
+   * <p><b>Description:</b> the files are found by path, the nodes are sorted and removing files
+   * fires one event for each parent, removing the folders left empty.</p>
+   *
+   * @throws Exception If it fails.
+   */
+  public void testLookupsAndBatchedRemoval() throws Exception {
+    StagingResourcesTreeModel model = new StagingResourcesTreeModel(null, "root", false, Arrays.asList(
+        new FileStatus(GitChangeType.MODIFIED, "b.txt"),
+        new FileStatus(GitChangeType.MODIFIED, "dir/sub/x.txt"),
+        new FileStatus(GitChangeType.MODIFIED, "dir/sub/y.txt"),
+        new FileStatus(GitChangeType.UNTRACKED, "dir/a.txt"),
+        new FileStatus(GitChangeType.MISSING, "a.txt")));
+
+    assertEquals(GitChangeType.MISSING, model.getFileByPath("a.txt").getChangeType());
+    assertNull(model.getFileByPath("dir"));
+    assertEquals(3, model.getFilesByPaths(Arrays.asList("dir")).size());
+    assertEquals(3, model.getFilesByPaths(Arrays.asList("dir/sub", "a.txt")).size());
+    assertTrue(model.getFileLeavesByPaths(Arrays.asList("dir")).isEmpty());
+
+    // Folders first, then files.
+    GitTreeNode root = (GitTreeNode) model.getRoot();
+    assertEquals("dir", ((GitTreeNode) root.getChildAt(0)).getUserObject());
+    assertEquals("a.txt", ((GitTreeNode) root.getChildAt(1)).getUserObject());
+    assertEquals("b.txt", ((GitTreeNode) root.getChildAt(2)).getUserObject());
+    GitTreeNode dir = TreeUtil.getTreeNodeFromString(model, "dir");
+    assertEquals("sub", ((GitTreeNode) dir.getChildAt(0)).getUserObject());
+
+    List<TreeModelEvent> removals = new ArrayList<>();
+    model.addTreeModelListener(new TreeModelListener() {
+      @Override
+      public void treeStructureChanged(TreeModelEvent e) {
+        fail("The structure must not be rebuilt");
+      }
+      @Override
+      public void treeNodesRemoved(TreeModelEvent e) {
+        removals.add(e);
+      }
+      @Override
+      public void treeNodesInserted(TreeModelEvent e) {
+        fail("Nothing is inserted");
+      }
+      @Override
+      public void treeNodesChanged(TreeModelEvent e) {
+        fail("Nothing is changed");
+      }
+    });
+
+    model.fileStatesChanged(new FileGitEventInfo(
+        GitOperation.DISCARD,
+        Arrays.asList("dir/sub/x.txt", "dir/sub/y.txt", "a.txt", "b.txt")));
+
+    // The "sub" folder is left empty so it is removed together with its files.
+    assertEquals(2, removals.size());
+    assertEquals(
+        "[(changeType=UNTRACKED, fileLocation=dir/a.txt)]",
+        model.getFilesStatuses().toString());
+    assertEquals(1, root.getChildCount());
+    assertEquals(1, dir.getChildCount());
+    assertNull(TreeUtil.getTreeNodeFromString(model, "dir/sub"));
+  }
+}